@@ -0,0 +1,40 @@
+-- =====================================================
+-- PASO 10: IDs por secuencia con asignación por bloques
+-- =====================================================
+-- Descripción: Las entidades dejan de usar IDENTITY y piden
+--              IDs a la secuencia en bloques de 50 (optimizador
+--              pooled de Hibernate). Sin IDENTITY, Hibernate puede
+--              agrupar los INSERT en lotes JDBC (batch_size=20).
+-- Requisito:   Ejecutar ANTES de desplegar la versión con
+--              @SequenceGenerator(allocationSize = 50).
+-- Fecha: 2025-10-20
+-- =====================================================
+
+BEGIN;
+
+-- Las secuencias son las que crearon BIGSERIAL/SERIAL; solo cambia el incremento.
+-- El DEFAULT nextval(...) de las columnas se mantiene, así los INSERT manuales
+-- siguen funcionando y nunca colisionan con los bloques que reserva Hibernate.
+ALTER SEQUENCE telegram_messages_id_seq INCREMENT BY 50;
+ALTER SEQUENCE bot_commands_id_seq INCREMENT BY 50;
+ALTER SEQUENCE businesses_id_seq INCREMENT BY 50;
+ALTER SEQUENCE connection_test_id_seq INCREMENT BY 50;
+
+-- Con el optimizador pooled el valor de la secuencia es el límite superior del bloque:
+-- el siguiente nextval devuelve MAX(id) + 50 y Hibernate usa MAX(id) + 1 .. MAX(id) + 50.
+SELECT setval('telegram_messages_id_seq', COALESCE((SELECT MAX(id) FROM telegram_messages), 0) + 50, false);
+SELECT setval('bot_commands_id_seq', COALESCE((SELECT MAX(id) FROM bot_commands), 0) + 50, false);
+SELECT setval('businesses_id_seq', COALESCE((SELECT MAX(id) FROM businesses), 0) + 50, false);
+SELECT setval('connection_test_id_seq', COALESCE((SELECT MAX(id) FROM connection_test), 0) + 50, false);
+
+COMMIT;
+
+-- Verificar el incremento de cada secuencia
+SELECT sequencename, increment_by, last_value
+FROM pg_sequences
+WHERE sequencename IN ('telegram_messages_id_seq', 'bot_commands_id_seq',
+                       'businesses_id_seq', 'connection_test_id_seq');
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
@@ -0,0 +1,35 @@
+-- =====================================================
+-- PASO 11: Memoria de conversación persistente
+-- =====================================================
+-- Descripción: Estado de la memoria de conversación de cada
+--              chat (resumen y mensajes recientes) para no
+--              perder el contexto en cada reinicio o despliegue.
+--              La aplicación lo carga al primer mensaje del chat
+--              y lo escribe en segundo plano, por lotes.
+-- Fecha: 2025-10-22
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS conversation_memory (
+    chat_id BIGINT PRIMARY KEY,
+    summary TEXT,
+    recent_messages TEXT,
+    folded_tokens BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Para la limpieza periódica de conversaciones inactivas
+CREATE INDEX IF NOT EXISTS idx_conversation_memory_updated_at ON conversation_memory(updated_at);
+
+COMMENT ON TABLE conversation_memory IS 'Memoria de conversación de Grok AI por chat (nivel persistente)';
+COMMENT ON COLUMN conversation_memory.summary IS 'Resumen acumulado de los turnos plegados, una línea por mensaje';
+COMMENT ON COLUMN conversation_memory.recent_messages IS 'Mensajes recientes como array JSON de {role, content}';
+
+-- Verificar que la tabla fue creada
+SELECT table_name, column_name, data_type
+FROM information_schema.columns
+WHERE table_name = 'conversation_memory'
+ORDER BY ordinal_position;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
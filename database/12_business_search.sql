@@ -0,0 +1,69 @@
+-- =====================================================
+-- PASO 12: Búsqueda de negocios por texto completo y similitud
+-- =====================================================
+-- Descripción: Reemplaza las búsquedas LOWER(col) LIKE '%x%',
+--              que ningún índice btree puede resolver, por:
+--              - tsvector con stemming en español y sin tildes
+--                ("panaderia" encuentra "Panadería", "panaderías")
+--              - trigramas (pg_trgm) para errores de tipeo y
+--                coincidencias parciales ("panad", "farmasia")
+--              Ambos con índices GIN parciales (solo activos).
+-- Requisito:   Extensiones pg_trgm y unaccent (disponibles en
+--              Supabase y en PostgreSQL estándar).
+-- Fecha: 2025-10-23
+-- =====================================================
+
+BEGIN;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() es STABLE; para usarla en índices se envuelve en una función IMMUTABLE
+-- con el diccionario explícito (así no depende del search_path)
+CREATE OR REPLACE FUNCTION public.immutable_unaccent(text)
+    RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+
+-- Configuración de búsqueda: español con stemming, quitando tildes antes del stemmer
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'es_unaccent') THEN
+        CREATE TEXT SEARCH CONFIGURATION public.es_unaccent (COPY = pg_catalog.spanish);
+        ALTER TEXT SEARCH CONFIGURATION public.es_unaccent
+            ALTER MAPPING FOR hword, hword_part, word WITH public.unaccent, spanish_stem;
+    END IF;
+END
+$$;
+
+-- Documento de búsqueda: el nombre pesa más (A) que la categoría (B) y la dirección (C)
+ALTER TABLE businesses ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('public.es_unaccent'::regconfig, coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('public.es_unaccent'::regconfig, coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('public.es_unaccent'::regconfig, coalesce(address, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_businesses_search_vector
+    ON businesses USING GIN (search_vector) WHERE is_active;
+
+-- Trigramas sobre el texto normalizado (minúsculas y sin tildes), el mismo que usa la consulta
+CREATE INDEX IF NOT EXISTS idx_businesses_name_trgm
+    ON businesses USING GIN (public.immutable_unaccent(lower(name)) gin_trgm_ops) WHERE is_active;
+CREATE INDEX IF NOT EXISTS idx_businesses_category_trgm
+    ON businesses USING GIN (public.immutable_unaccent(lower(category)) gin_trgm_ops) WHERE is_active;
+
+COMMIT;
+
+ANALYZE businesses;
+
+-- Verificar: debe encontrar "Panadería El Sol" aunque la consulta no lleve tilde
+SELECT name, category,
+       ts_rank_cd(search_vector, websearch_to_tsquery('public.es_unaccent', 'panaderia')) AS rank
+FROM businesses
+WHERE is_active AND search_vector @@ websearch_to_tsquery('public.es_unaccent', 'panaderia')
+ORDER BY rank DESC;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
@@ -0,0 +1,27 @@
+-- =====================================================
+-- PASO 13: Índice para la paginación por clave de negocios
+-- =====================================================
+-- Descripción: La búsqueda en Telegram se pagina por clave
+--              (name, id): cada página pide las filas con
+--              (name, id) > (último nombre, último id) en ese
+--              orden, LIMIT page-size + 1. Con este índice la
+--              página se lee directamente, sin OFFSET ni ordenar
+--              todos los resultados.
+-- Fecha: 2025-10-24
+-- =====================================================
+
+CREATE INDEX IF NOT EXISTS idx_businesses_active_name_id
+    ON businesses(name, id) WHERE is_active;
+
+ANALYZE businesses;
+
+-- Verificar: el plan debe usar idx_businesses_active_name_id sin nodo Sort
+EXPLAIN
+SELECT * FROM businesses
+WHERE is_active AND (name, id) > ('Panadería El Sol', 1)
+ORDER BY name, id
+LIMIT 6;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
@@ -0,0 +1,55 @@
+-- =====================================================
+-- PASO 14: Ubicación de negocios y búsqueda por cercanía
+-- =====================================================
+-- Descripción: Agrega latitud y longitud a businesses y un
+--              índice GiST sobre ll_to_earth(latitud, longitud)
+--              (extensiones cube y earthdistance). El operador
+--              <-> recorre el índice en orden de distancia
+--              (k-NN): los N negocios más cercanos se leen sin
+--              calcular la distancia a toda la tabla. El segundo
+--              índice (btree_gist) incluye la categoría para que
+--              "panadería cerca de mí" no descarte filas de
+--              otras categorías mientras recorre el índice.
+-- Fecha: 2025-10-25
+-- =====================================================
+
+CREATE EXTENSION IF NOT EXISTS cube;
+CREATE EXTENSION IF NOT EXISTS earthdistance;
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE businesses ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE businesses ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+
+ALTER TABLE businesses DROP CONSTRAINT IF EXISTS chk_businesses_location;
+ALTER TABLE businesses ADD CONSTRAINT chk_businesses_location CHECK (
+    (latitude IS NULL AND longitude IS NULL)
+    OR (latitude BETWEEN -90 AND 90 AND longitude BETWEEN -180 AND 180)
+);
+
+-- k-NN sin filtro de categoría
+CREATE INDEX IF NOT EXISTS idx_businesses_location
+    ON businesses USING GIST (ll_to_earth(latitude, longitude))
+    WHERE is_active AND latitude IS NOT NULL AND longitude IS NOT NULL;
+
+-- k-NN dentro de una categoría
+CREATE INDEX IF NOT EXISTS idx_businesses_category_location
+    ON businesses USING GIST (lower(category), ll_to_earth(latitude, longitude))
+    WHERE is_active AND latitude IS NOT NULL AND longitude IS NOT NULL;
+
+COMMENT ON COLUMN businesses.latitude IS 'Latitud del negocio en grados (WGS84)';
+COMMENT ON COLUMN businesses.longitude IS 'Longitud del negocio en grados (WGS84)';
+
+ANALYZE businesses;
+
+-- Verificar: el plan debe usar idx_businesses_category_location sin nodo Sort
+EXPLAIN
+SELECT * FROM businesses b
+WHERE b.is_active AND b.latitude IS NOT NULL AND b.longitude IS NOT NULL
+  AND lower(b.category) = lower('panadería')
+  AND earth_box(ll_to_earth(4.6097, -74.0817), 10000) @> ll_to_earth(b.latitude, b.longitude)
+ORDER BY ll_to_earth(b.latitude, b.longitude) <-> ll_to_earth(4.6097, -74.0817)
+LIMIT 5;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
@@ -0,0 +1,48 @@
+-- =====================================================
+-- PASO 15: Importación masiva de negocios
+-- =====================================================
+-- Descripción: Clave de importación para deduplicar y hacer
+--              upsert (INSERT ... ON CONFLICT) de negocios que
+--              llegan en archivos CSV/JSONL, y tabla de trabajos
+--              de importación con el punto de control de cada
+--              archivo: si la importación se interrumpe, al
+--              repetirla continúa desde el último lote confirmado.
+-- Fecha: 2025-10-26
+-- =====================================================
+
+ALTER TABLE businesses ADD COLUMN IF NOT EXISTS import_key VARCHAR(100);
+
+-- Un negocio por clave; los negocios creados a mano (import_key NULL) no chocan entre sí
+CREATE UNIQUE INDEX IF NOT EXISTS uq_businesses_import_key ON businesses(import_key);
+
+COMMENT ON COLUMN businesses.import_key IS 'Clave del negocio en la importación: external_id del archivo o hash de nombre y dirección';
+
+CREATE TABLE IF NOT EXISTS business_import_jobs (
+    source_key VARCHAR(300) PRIMARY KEY,
+    source_name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    rows_read BIGINT NOT NULL DEFAULT 0,
+    inserted BIGINT NOT NULL DEFAULT 0,
+    updated BIGINT NOT NULL DEFAULT 0,
+    unchanged BIGINT NOT NULL DEFAULT 0,
+    duplicates BIGINT NOT NULL DEFAULT 0,
+    rejected BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    last_error TEXT
+);
+
+COMMENT ON TABLE business_import_jobs IS 'Progreso y punto de control de las importaciones masivas de negocios';
+COMMENT ON COLUMN business_import_jobs.source_key IS 'Nombre y tamaño del archivo: identifica la importación a reanudar';
+COMMENT ON COLUMN business_import_jobs.rows_read IS 'Registros del archivo procesados hasta el último lote confirmado';
+
+-- Verificar que la tabla fue creada
+SELECT table_name, column_name, data_type
+FROM information_schema.columns
+WHERE table_name = 'business_import_jobs'
+ORDER BY ordinal_position;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
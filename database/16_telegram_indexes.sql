@@ -0,0 +1,75 @@
+-- =====================================================
+-- PASO 16: Índices compuestos para mensajes y comandos
+-- =====================================================
+-- Descripción: Índices para las consultas que ya usan los
+--              repositorios de Telegram:
+--              - historial de un chat: WHERE chat_id = ?
+--                ORDER BY created_at DESC -> (chat_id, created_at DESC)
+--                (también resuelve countByChatId; sustituye al
+--                índice de solo chat_id, que queda redundante)
+--              - logs por fecha: WHERE created_at BETWEEN ... y la
+--                grilla de logs (created_at DESC, id DESC), que lee
+--                la página ya ordenada sin nodo Sort
+--              - filtro por @usuario de la grilla:
+--                LOWER(user_name) LIKE 'prefijo%'
+--              - countByCommand y estadísticas por comando:
+--                (command), recorrido index-only
+-- Nota:        CREATE INDEX CONCURRENTLY no bloquea las escrituras
+--              del bot, pero no puede ir dentro de una transacción:
+--              ejecutar el script tal cual, sin BEGIN/COMMIT.
+-- Fecha: 2025-10-27
+-- =====================================================
+
+-- telegram_messages
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_telegram_messages_chat_id_created_at
+    ON telegram_messages(chat_id, created_at DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_telegram_messages_created_at_id
+    ON telegram_messages(created_at DESC, id DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_telegram_messages_user_name_lower
+    ON telegram_messages(LOWER(user_name) text_pattern_ops);
+
+-- (created_at DESC, id DESC) cubre todo lo que resolvía el índice de solo fecha
+DROP INDEX CONCURRENTLY IF EXISTS idx_telegram_messages_chat_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_telegram_messages_created_at;
+
+-- bot_commands
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bot_commands_chat_id_created_at
+    ON bot_commands(chat_id, created_at DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bot_commands_command
+    ON bot_commands(command);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_bot_commands_chat_id;
+
+-- VACUUM marca las páginas como visibles, así COUNT por comando o por chat
+-- puede resolverse con un recorrido index-only sin leer la tabla
+VACUUM (ANALYZE) telegram_messages;
+VACUUM (ANALYZE) bot_commands;
+
+-- Verificar: Index Scan sobre idx_telegram_messages_chat_id_created_at sin nodo Sort
+EXPLAIN
+SELECT * FROM telegram_messages
+WHERE chat_id = 12345
+ORDER BY created_at DESC;
+
+-- Verificar: Index Scan sobre idx_telegram_messages_created_at_id sin nodo Sort
+EXPLAIN
+SELECT id, chat_id, created_at FROM telegram_messages
+WHERE created_at >= NOW() - INTERVAL '1 day' AND created_at < NOW()
+ORDER BY created_at DESC, id DESC
+LIMIT 51;
+
+-- Verificar: Index Only Scan sobre idx_bot_commands_command
+EXPLAIN
+SELECT command, COUNT(*) FROM bot_commands GROUP BY command ORDER BY COUNT(*) DESC;
+
+-- Los índices de la tabla deben quedar así (sin los de solo chat_id)
+SELECT indexname, indexdef FROM pg_indexes
+WHERE tablename IN ('telegram_messages', 'bot_commands')
+ORDER BY tablename, indexname;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
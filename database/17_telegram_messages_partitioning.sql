@@ -0,0 +1,118 @@
+-- =====================================================
+-- PASO 17: Particionado mensual de telegram_messages
+-- =====================================================
+-- Descripción: telegram_messages pasa a ser una tabla
+--              particionada por rango de created_at, una
+--              partición por mes (telegram_messages_pAAAAMM).
+--              - Las consultas con filtro de fecha solo leen las
+--                particiones del rango (partition pruning).
+--              - La retención (TelegramRetentionService) archiva
+--                cada mes vencido en un .jsonl.gz y elimina la
+--                partición entera con DETACH + DROP, sin DELETE
+--                fila a fila ni VACUUM posterior.
+--              - telegram_messages_ensure_partitions(n) crea las
+--                particiones del mes actual y de los n siguientes;
+--                la aplicación la llama a diario. La partición
+--                DEFAULT recoge lo que llegue sin partición propia.
+-- Nota:        La clave primaria pasa a ser (id, created_at):
+--              PostgreSQL exige la clave de partición en las
+--              restricciones UNIQUE. El id sigue saliendo de
+--              telegram_messages_id_seq, así que no se repite.
+-- Requisito:   PostgreSQL 12+. Copia toda la tabla con bloqueo
+--              exclusivo: ejecutar en una ventana de
+--              mantenimiento, con el bot detenido.
+-- Fecha: 2025-10-28
+-- =====================================================
+
+BEGIN;
+
+LOCK TABLE telegram_messages IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE telegram_messages RENAME TO telegram_messages_unpartitioned;
+
+CREATE TABLE telegram_messages (
+    id BIGINT NOT NULL DEFAULT nextval('telegram_messages_id_seq'),
+    chat_id BIGINT NOT NULL,
+    user_name VARCHAR(255),
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    message_text TEXT,
+    bot_response TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE telegram_messages_default PARTITION OF telegram_messages DEFAULT;
+
+-- Crea (si no existe) la partición del mes que contiene month_start
+CREATE OR REPLACE FUNCTION telegram_messages_create_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month_start)::DATE;
+    partition_name TEXT := 'telegram_messages_p' || to_char(start_date, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF telegram_messages FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, start_date, (start_date + INTERVAL '1 month')::DATE);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Crea las particiones del mes actual y de los months_ahead siguientes; devuelve cuántas revisó
+CREATE OR REPLACE FUNCTION telegram_messages_ensure_partitions(months_ahead INT) RETURNS INT AS $$
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        PERFORM telegram_messages_create_partition((date_trunc('month', NOW()) + i * INTERVAL '1 month')::DATE);
+    END LOOP;
+    RETURN months_ahead + 1;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particiones para todo el histórico existente y los próximos meses
+DO $$
+DECLARE
+    first_month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(created_at), NOW()))::DATE INTO first_month
+    FROM telegram_messages_unpartitioned;
+    WHILE first_month < date_trunc('month', NOW()) LOOP
+        PERFORM telegram_messages_create_partition(first_month);
+        first_month := (first_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+    PERFORM telegram_messages_ensure_partitions(2);
+END $$;
+
+INSERT INTO telegram_messages (id, chat_id, user_name, first_name, last_name, message_text, bot_response, created_at)
+SELECT id, chat_id, user_name, first_name, last_name, message_text, bot_response, COALESCE(created_at, NOW())
+FROM telegram_messages_unpartitioned;
+
+-- La secuencia pertenecía a la columna de la tabla vieja: pasarla a la nueva antes de borrarla
+ALTER SEQUENCE telegram_messages_id_seq OWNED BY telegram_messages.id;
+DROP TABLE telegram_messages_unpartitioned;
+
+-- Índices en la tabla padre: PostgreSQL los crea en cada partición, también en las futuras
+ALTER TABLE telegram_messages ADD CONSTRAINT telegram_messages_pkey PRIMARY KEY (id, created_at);
+CREATE INDEX idx_telegram_messages_chat_id_created_at ON telegram_messages(chat_id, created_at DESC);
+CREATE INDEX idx_telegram_messages_created_at_id ON telegram_messages(created_at DESC, id DESC);
+CREATE INDEX idx_telegram_messages_user_name_lower ON telegram_messages(LOWER(user_name) text_pattern_ops);
+
+COMMENT ON TABLE telegram_messages IS 'Mensajes del bot de Telegram, particionados por mes de created_at';
+
+COMMIT;
+
+ANALYZE telegram_messages;
+
+-- Verificar: solo debe aparecer la partición del mes consultado
+EXPLAIN
+SELECT * FROM telegram_messages
+WHERE created_at >= date_trunc('month', NOW()) AND created_at < date_trunc('month', NOW()) + INTERVAL '1 day'
+ORDER BY created_at DESC;
+
+-- Particiones creadas y filas por partición
+SELECT c.relname AS partition, pg_get_expr(c.relpartbound, c.oid) AS bounds, s.n_live_tup AS rows
+FROM pg_inherits i
+JOIN pg_class c ON c.oid = i.inhrelid
+LEFT JOIN pg_stat_user_tables s ON s.relid = c.oid
+WHERE i.inhparent = 'telegram_messages'::regclass
+ORDER BY c.relname;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
@@ -0,0 +1,91 @@
+-- =====================================================
+-- PASO 18: Resúmenes por hora y por día de la actividad del bot
+-- =====================================================
+-- Descripción: telegram_stats_hourly y telegram_stats_daily
+--              guardan, por intervalo, mensajes, mensajes con
+--              respuesta, comandos, chats distintos, clics en
+--              botones y la latencia de respuesta (número, suma y
+--              máximo en ms). TelegramStatsService recalcula desde
+--              las tablas de origen las últimas horas cada pocos
+--              minutos, así el dashboard y /status leen totales
+--              de una tabla de un registro por día en lugar de
+--              COUNT(*) sobre telegram_messages.
+--              Los clics no quedan en ninguna otra tabla: se suman
+--              aquí y el recálculo los conserva.
+--              Los resúmenes sobreviven a la retención (paso 17):
+--              los totales incluyen los meses ya archivados.
+-- Fecha: 2025-10-29
+-- =====================================================
+
+BEGIN;
+
+-- Latencia de cada respuesta, medida por el bot (NULL en mensajes anteriores)
+ALTER TABLE telegram_messages ADD COLUMN IF NOT EXISTS response_time_ms INTEGER;
+
+CREATE TABLE IF NOT EXISTS telegram_stats_hourly (
+    bucket_start TIMESTAMP PRIMARY KEY,
+    messages BIGINT NOT NULL DEFAULT 0,
+    answered BIGINT NOT NULL DEFAULT 0,
+    commands BIGINT NOT NULL DEFAULT 0,
+    unique_chats BIGINT NOT NULL DEFAULT 0,
+    clicks BIGINT NOT NULL DEFAULT 0,
+    latency_count BIGINT NOT NULL DEFAULT 0,
+    latency_sum_ms BIGINT NOT NULL DEFAULT 0,
+    latency_max_ms BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS telegram_stats_daily (
+    bucket_start DATE PRIMARY KEY,
+    messages BIGINT NOT NULL DEFAULT 0,
+    answered BIGINT NOT NULL DEFAULT 0,
+    commands BIGINT NOT NULL DEFAULT 0,
+    unique_chats BIGINT NOT NULL DEFAULT 0,
+    clicks BIGINT NOT NULL DEFAULT 0,
+    latency_count BIGINT NOT NULL DEFAULT 0,
+    latency_sum_ms BIGINT NOT NULL DEFAULT 0,
+    latency_max_ms BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE telegram_stats_hourly IS 'Actividad del bot de Telegram por hora (recalculada por TelegramStatsService)';
+COMMENT ON TABLE telegram_stats_daily IS 'Actividad del bot de Telegram por día; unique_chats son chats distintos del día';
+
+-- Carga inicial con todo el histórico (una sola vez; después la mantiene la aplicación)
+INSERT INTO telegram_stats_hourly (bucket_start, messages, answered, unique_chats,
+                                   latency_count, latency_sum_ms, latency_max_ms, commands)
+SELECT COALESCE(m.bucket_start, c.bucket_start), COALESCE(m.messages, 0), COALESCE(m.answered, 0),
+       COALESCE(m.unique_chats, 0), COALESCE(m.latency_count, 0), COALESCE(m.latency_sum_ms, 0),
+       COALESCE(m.latency_max_ms, 0), COALESCE(c.commands, 0)
+FROM (SELECT date_trunc('hour', created_at) AS bucket_start, COUNT(*) AS messages, COUNT(bot_response) AS answered,
+             COUNT(DISTINCT chat_id) AS unique_chats, COUNT(response_time_ms) AS latency_count,
+             COALESCE(SUM(response_time_ms), 0) AS latency_sum_ms, COALESCE(MAX(response_time_ms), 0) AS latency_max_ms
+      FROM telegram_messages GROUP BY 1) m
+FULL JOIN (SELECT date_trunc('hour', created_at) AS bucket_start, COUNT(*) AS commands
+           FROM bot_commands GROUP BY 1) c ON c.bucket_start = m.bucket_start
+ON CONFLICT (bucket_start) DO NOTHING;
+
+INSERT INTO telegram_stats_daily (bucket_start, messages, answered, unique_chats,
+                                  latency_count, latency_sum_ms, latency_max_ms, commands)
+SELECT COALESCE(m.bucket_start, c.bucket_start), COALESCE(m.messages, 0), COALESCE(m.answered, 0),
+       COALESCE(m.unique_chats, 0), COALESCE(m.latency_count, 0), COALESCE(m.latency_sum_ms, 0),
+       COALESCE(m.latency_max_ms, 0), COALESCE(c.commands, 0)
+FROM (SELECT CAST(created_at AS DATE) AS bucket_start, COUNT(*) AS messages, COUNT(bot_response) AS answered,
+             COUNT(DISTINCT chat_id) AS unique_chats, COUNT(response_time_ms) AS latency_count,
+             COALESCE(SUM(response_time_ms), 0) AS latency_sum_ms, COALESCE(MAX(response_time_ms), 0) AS latency_max_ms
+      FROM telegram_messages GROUP BY 1) m
+FULL JOIN (SELECT CAST(created_at AS DATE) AS bucket_start, COUNT(*) AS commands
+           FROM bot_commands GROUP BY 1) c ON c.bucket_start = m.bucket_start
+ON CONFLICT (bucket_start) DO NOTHING;
+
+COMMIT;
+
+-- Verificar: los totales de los resúmenes coinciden con las tablas de origen
+SELECT (SELECT SUM(messages) FROM telegram_stats_daily) AS rollup_messages,
+       (SELECT COUNT(*) FROM telegram_messages) AS messages,
+       (SELECT SUM(commands) FROM telegram_stats_daily) AS rollup_commands,
+       (SELECT COUNT(*) FROM bot_commands) AS commands;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
@@ -0,0 +1,78 @@
+-- =====================================================
+-- PASO 19: Particiones para los mensajes de la partición DEFAULT
+-- =====================================================
+-- Descripción: Si llegan mensajes de un mes sin partición
+--              propia, caen en telegram_messages_default y
+--              CREATE TABLE ... PARTITION OF para ese mes falla
+--              (la DEFAULT tendría filas del rango nuevo), así que
+--              telegram_messages_ensure_partitions fallaba en cada
+--              ejecución diaria.
+--              - telegram_messages_create_partition crea la tabla
+--                del mes aparte, mueve a ella las filas del mes que
+--                estén en DEFAULT y la adjunta con ATTACH
+--                PARTITION, todo en la misma transacción.
+--              - telegram_messages_ensure_partitions crea además
+--                la partición de cada mes con filas en DEFAULT, así
+--                la retención archiva esos mensajes con su mes.
+-- Requisito:   database/17_telegram_messages_partitioning.sql
+-- Fecha: 2025-10-30
+-- =====================================================
+
+BEGIN;
+
+-- Crea (si no existe) la partición del mes que contiene month_start, con las filas del mes que hubiera en DEFAULT
+CREATE OR REPLACE FUNCTION telegram_messages_create_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month_start)::DATE;
+    end_date DATE := (start_date + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'telegram_messages_p' || to_char(start_date, 'YYYYMM');
+    moved_rows BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    -- Hasta el COMMIT no entran filas en DEFAULT: entre moverlas y adjuntar la partición no llega ninguna del mes
+    LOCK TABLE telegram_messages_default IN ACCESS EXCLUSIVE MODE;
+    EXECUTE format('CREATE TABLE %I (LIKE telegram_messages INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM telegram_messages_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM moved', start_date, end_date, partition_name);
+    GET DIAGNOSTICS moved_rows = ROW_COUNT;
+    EXECUTE format('ALTER TABLE telegram_messages ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, start_date, end_date);
+    IF moved_rows > 0 THEN
+        RAISE NOTICE 'Movidas % filas de telegram_messages_default a %', moved_rows, partition_name;
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Crea las particiones de los meses con filas en DEFAULT, del mes actual y de los months_ahead siguientes;
+-- devuelve cuántas revisó
+CREATE OR REPLACE FUNCTION telegram_messages_ensure_partitions(months_ahead INT) RETURNS INT AS $$
+DECLARE
+    stray_month DATE;
+    checked INT := months_ahead + 1;
+BEGIN
+    FOR stray_month IN SELECT DISTINCT date_trunc('month', created_at)::DATE FROM telegram_messages_default LOOP
+        PERFORM telegram_messages_create_partition(stray_month);
+        checked := checked + 1;
+    END LOOP;
+    FOR i IN 0..months_ahead LOOP
+        PERFORM telegram_messages_create_partition((date_trunc('month', NOW()) + i * INTERVAL '1 month')::DATE);
+    END LOOP;
+    RETURN checked;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Vaciar ya la DEFAULT si tenía filas de meses sin partición
+SELECT telegram_messages_ensure_partitions(2);
+
+COMMIT;
+
+-- Verificar: la partición DEFAULT debe quedar vacía
+SELECT COUNT(*) AS default_rows FROM telegram_messages_default;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
@@ -0,0 +1,35 @@
+-- =====================================================
+-- PASO 20: Paginación de negocios con COLLATE "C"
+-- =====================================================
+-- Descripción: La búsqueda paginada compara (name, id) en la
+--              base de datos y en el índice en memoria
+--              (BusinessSearchIndex). Con la collation de la base
+--              (p. ej. es_ES.UTF-8) "Óptica" va antes de "Pan" y
+--              en Java después, así que al pasar de un camino al
+--              otro entre páginas se saltaban o repetían negocios.
+--              Ahora ambos comparan por código Unicode:
+--              COLLATE "C" en la consulta y el mismo orden en
+--              Java. Este índice reemplaza al del paso 13 para
+--              que la página se siga leyendo sin nodo Sort.
+-- Requisito:   Base de datos en UTF-8 (con "C", orden por bytes
+--              UTF-8 = orden por código Unicode).
+-- Fecha: 2025-10-30
+-- =====================================================
+
+CREATE INDEX IF NOT EXISTS idx_businesses_active_name_c_id
+    ON businesses((name COLLATE "C"), id) WHERE is_active;
+
+DROP INDEX IF EXISTS idx_businesses_active_name_id;
+
+ANALYZE businesses;
+
+-- Verificar: el plan debe usar idx_businesses_active_name_c_id sin nodo Sort
+EXPLAIN
+SELECT * FROM businesses
+WHERE is_active AND (name COLLATE "C", id) > ('Panadería El Sol', 1)
+ORDER BY name COLLATE "C", id
+LIMIT 6;
+
+-- =====================================================
+-- FIN DEL SCRIPT
+-- =====================================================
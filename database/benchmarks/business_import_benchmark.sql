@@ -0,0 +1,105 @@
+-- =====================================================
+-- BENCHMARK: Importación de 200k negocios
+-- =====================================================
+-- Descripción: Compara un INSERT por negocio (lo que hace
+--              saveBusiness) con el upsert de varias filas por
+--              sentencia de BusinessUpsertRepository (lotes de
+--              1.000), y mide repetir la misma importación, donde
+--              todas las filas quedan sin cambios.
+--              Los tiempos son del servidor: la versión de un
+--              INSERT por negocio paga además un round trip de red
+--              por fila desde la aplicación.
+-- Uso:         psql "$DATABASE_URL" -f database/benchmarks/business_import_benchmark.sql
+--              Trabaja en el esquema bench_import y lo borra al
+--              final; no toca la tabla businesses real.
+-- =====================================================
+
+\timing on
+
+DROP SCHEMA IF EXISTS bench_import CASCADE;
+CREATE SCHEMA bench_import;
+
+CREATE SEQUENCE bench_import.businesses_id_seq INCREMENT BY 50;
+CREATE TABLE bench_import.businesses (
+    id BIGINT PRIMARY KEY,
+    import_key VARCHAR(100),
+    name VARCHAR(255) NOT NULL,
+    category VARCHAR(100),
+    address VARCHAR(500),
+    phone VARCHAR(50),
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    is_active BOOLEAN NOT NULL DEFAULT true,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+CREATE UNIQUE INDEX ON bench_import.businesses(import_key);
+CREATE INDEX ON bench_import.businesses(category);
+CREATE INDEX ON bench_import.businesses(name);
+
+-- Archivo de origen ya leído: 200k negocios
+CREATE TABLE bench_import.source AS
+SELECT 'ext:b-' || i AS import_key,
+       'Negocio ' || i AS name,
+       'categoría ' || (i % 40) AS category,
+       'Calle ' || (i % 500) || ' #' || (i % 97) AS address,
+       '555-' || (i % 10000) AS phone,
+       4.5 + (i % 1000) / 5000.0 AS latitude,
+       -74.2 + (i % 997) / 5000.0 AS longitude,
+       i AS n
+FROM generate_series(1, 200000) AS i;
+
+-- -----------------------------------------------------
+-- ANTES: un INSERT por negocio
+-- -----------------------------------------------------
+DO $$
+DECLARE
+    r RECORD;
+BEGIN
+    FOR r IN SELECT * FROM bench_import.source ORDER BY n LOOP
+        INSERT INTO bench_import.businesses
+            (id, import_key, name, category, address, phone, latitude, longitude, is_active, created_at, updated_at)
+        VALUES (nextval('bench_import.businesses_id_seq'), r.import_key, r.name, r.category, r.address, r.phone,
+                r.latitude, r.longitude, true, now(), now());
+    END LOOP;
+END $$;
+
+TRUNCATE bench_import.businesses;
+
+-- -----------------------------------------------------
+-- DESPUÉS: upsert de 1.000 filas por sentencia, un commit por lote
+-- -----------------------------------------------------
+CREATE PROCEDURE bench_import.upsert_batches() LANGUAGE plpgsql AS $$
+BEGIN
+    FOR batch IN 0..199 LOOP
+        INSERT INTO bench_import.businesses
+            (id, import_key, name, category, address, phone, latitude, longitude, is_active, created_at, updated_at)
+        SELECT nextval('bench_import.businesses_id_seq'), s.import_key, s.name, s.category, s.address, s.phone,
+               s.latitude, s.longitude, true, now(), now()
+        FROM bench_import.source s
+        WHERE s.n > batch * 1000 AND s.n <= (batch + 1) * 1000
+        ON CONFLICT (import_key) DO UPDATE SET
+            name = EXCLUDED.name, category = EXCLUDED.category, address = EXCLUDED.address,
+            phone = EXCLUDED.phone, latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude,
+            is_active = EXCLUDED.is_active, updated_at = now()
+        WHERE (businesses.name, businesses.category, businesses.address, businesses.phone,
+               businesses.latitude, businesses.longitude, businesses.is_active) IS DISTINCT FROM
+              (EXCLUDED.name, EXCLUDED.category, EXCLUDED.address, EXCLUDED.phone,
+               EXCLUDED.latitude, EXCLUDED.longitude, EXCLUDED.is_active);
+        COMMIT;
+    END LOOP;
+END $$;
+
+-- Primera importación: todo son altas
+CALL bench_import.upsert_batches();
+-- Importación repetida (o reanudada): sin cambios, no se reescribe ninguna fila
+CALL bench_import.upsert_batches();
+
+SELECT count(*) AS businesses, pg_size_pretty(pg_table_size('bench_import.businesses')) AS table_size
+FROM bench_import.businesses;
+
+DROP SCHEMA bench_import CASCADE;
+
+-- =====================================================
+-- FIN DEL BENCHMARK
+-- =====================================================
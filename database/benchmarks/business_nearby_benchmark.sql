@@ -0,0 +1,124 @@
+-- =====================================================
+-- BENCHMARK: Negocios más cercanos (k-NN) sobre 1M de filas
+-- =====================================================
+-- Descripción: Compara ordenar por earth_distance toda la tabla
+--              (recorrido secuencial + Sort) con el recorrido
+--              k-NN del índice GiST de 14_business_location.sql,
+--              con y sin filtro de categoría, en una ciudad densa
+--              y en una zona rural con pocos negocios.
+-- Datos:       1M de negocios repartidos por el rectángulo de
+--              Colombia: 70% concentrados en cinco ciudades y el
+--              resto uniforme, como un catálogo de tamaño país.
+-- Uso:         psql "$DATABASE_URL" -f database/benchmarks/business_nearby_benchmark.sql
+--              Trabaja en el esquema bench_nearby y lo borra al
+--              final; no toca la tabla businesses real.
+-- Requisito:   Extensiones cube, earthdistance y btree_gist
+--              (paso 14).
+-- =====================================================
+
+\timing on
+
+DROP SCHEMA IF EXISTS bench_nearby CASCADE;
+CREATE SCHEMA bench_nearby;
+
+CREATE TABLE bench_nearby.businesses (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    category VARCHAR(100),
+    is_active BOOLEAN DEFAULT true,
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION
+);
+
+INSERT INTO bench_nearby.businesses (name, category, is_active, latitude, longitude)
+SELECT
+    'Negocio ' || i,
+    (ARRAY['panadería', 'restaurante', 'cafetería', 'farmacia', 'ferretería', 'librería', 'peluquería',
+           'carnicería', 'frutería', 'óptica'])[1 + i % 10],
+    i % 20 <> 0,
+    CASE WHEN i % 10 < 7
+         THEN (ARRAY[4.6097, 6.2442, 3.4516, 10.9685, 7.1193])[1 + i % 5] + (random() - 0.5) * 0.3
+         ELSE -4.2 + random() * 16.7 END,
+    CASE WHEN i % 10 < 7
+         THEN (ARRAY[-74.0817, -75.5812, -76.5320, -74.7813, -73.1227])[1 + i % 5] + (random() - 0.5) * 0.3
+         ELSE -79.0 + random() * 12.2 END
+FROM generate_series(1, 1000000) AS i;
+
+CREATE INDEX ON bench_nearby.businesses USING GIST (ll_to_earth(latitude, longitude))
+    WHERE is_active AND latitude IS NOT NULL AND longitude IS NOT NULL;
+CREATE INDEX ON bench_nearby.businesses USING GIST (lower(category), ll_to_earth(latitude, longitude))
+    WHERE is_active AND latitude IS NOT NULL AND longitude IS NOT NULL;
+
+VACUUM ANALYZE bench_nearby.businesses;
+
+-- -----------------------------------------------------
+-- ANTES: distancia a cada fila y Sort (sin índice espacial)
+-- -----------------------------------------------------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_nearby.businesses b
+WHERE b.is_active AND lower(b.category) = 'panadería'
+ORDER BY earth_distance(ll_to_earth(4.6097, -74.0817), ll_to_earth(b.latitude, b.longitude))
+LIMIT 5;
+
+-- -----------------------------------------------------
+-- DESPUÉS: BusinessRepository.findNearest / findNearestInCategory (radio 25 km, LIMIT 5)
+-- -----------------------------------------------------
+PREPARE nearest(double precision, double precision, double precision, int) AS
+SELECT b.* FROM bench_nearby.businesses b
+WHERE b.is_active AND b.latitude IS NOT NULL AND b.longitude IS NOT NULL
+  AND earth_box(ll_to_earth($1, $2), $3) @> ll_to_earth(b.latitude, b.longitude)
+  AND earth_distance(ll_to_earth($1, $2), ll_to_earth(b.latitude, b.longitude)) <= $3
+ORDER BY ll_to_earth(b.latitude, b.longitude) <-> ll_to_earth($1, $2)
+LIMIT $4;
+
+PREPARE nearest_in_category(text, double precision, double precision, double precision, int) AS
+SELECT b.* FROM bench_nearby.businesses b
+WHERE b.is_active AND b.latitude IS NOT NULL AND b.longitude IS NOT NULL
+  AND lower(b.category) = lower($1)
+  AND earth_box(ll_to_earth($2, $3), $4) @> ll_to_earth(b.latitude, b.longitude)
+  AND earth_distance(ll_to_earth($2, $3), ll_to_earth(b.latitude, b.longitude)) <= $4
+ORDER BY ll_to_earth(b.latitude, b.longitude) <-> ll_to_earth($2, $3)
+LIMIT $5;
+
+-- Ciudad densa (Bogotá)
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE nearest(4.6097, -74.0817, 25000, 5);
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE nearest_in_category('panadería', 4.6097, -74.0817, 25000, 5);
+-- Zona rural (Amazonas): pocos negocios en el radio
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE nearest(-1.0, -71.5, 25000, 5);
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE nearest_in_category('óptica', -1.0, -71.5, 25000, 5);
+
+-- Latencia: 1.000 consultas en puntos aleatorios, resultado en ms por consulta
+DO $$
+DECLARE
+    started TIMESTAMPTZ := clock_timestamp();
+    lat DOUBLE PRECISION;
+    lon DOUBLE PRECISION;
+BEGIN
+    FOR i IN 1..1000 LOOP
+        lat := -4.2 + random() * 16.7;
+        lon := -79.0 + random() * 12.2;
+        PERFORM b.id FROM bench_nearby.businesses b
+        WHERE b.is_active AND b.latitude IS NOT NULL AND b.longitude IS NOT NULL
+          AND lower(b.category) = 'farmacia'
+          AND earth_box(ll_to_earth(lat, lon), 25000) @> ll_to_earth(b.latitude, b.longitude)
+          AND earth_distance(ll_to_earth(lat, lon), ll_to_earth(b.latitude, b.longitude)) <= 25000
+        ORDER BY ll_to_earth(b.latitude, b.longitude) <-> ll_to_earth(lat, lon)
+        LIMIT 5;
+    END LOOP;
+    RAISE NOTICE 'k-NN por categoría: % ms por consulta',
+        round((extract(epoch FROM clock_timestamp() - started) * 1000 / 1000)::numeric, 3);
+END $$;
+
+DEALLOCATE nearest;
+DEALLOCATE nearest_in_category;
+
+SELECT indexrelname, pg_size_pretty(pg_relation_size(indexrelid)) AS size
+FROM pg_stat_user_indexes
+WHERE schemaname = 'bench_nearby'
+ORDER BY pg_relation_size(indexrelid) DESC;
+
+DROP SCHEMA bench_nearby CASCADE;
+
+-- =====================================================
+-- FIN DEL BENCHMARK
+-- =====================================================
@@ -0,0 +1,115 @@
+-- =====================================================
+-- BENCHMARK: Búsqueda de negocios sobre 1M de filas
+-- =====================================================
+-- Descripción: Compara la búsqueda original (LOWER(col) LIKE '%x%',
+--              recorrido secuencial) con la de texto completo y
+--              trigramas de 12_business_search.sql.
+-- Uso:         psql "$DATABASE_URL" -f database/benchmarks/business_search_benchmark.sql
+--              Trabaja en el esquema bench_search y lo borra al final;
+--              no toca la tabla businesses real.
+-- Requisito:   Extensiones pg_trgm y unaccent, función
+--              public.immutable_unaccent y configuración
+--              public.es_unaccent (paso 12).
+-- =====================================================
+
+\timing on
+
+DROP SCHEMA IF EXISTS bench_search CASCADE;
+CREATE SCHEMA bench_search;
+
+CREATE TABLE bench_search.businesses (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    category VARCHAR(100),
+    address VARCHAR(500),
+    phone VARCHAR(50),
+    is_active BOOLEAN DEFAULT true
+);
+
+-- 1M de negocios con nombres y categorías realistas (con tildes) y un 5% inactivos
+INSERT INTO bench_search.businesses (name, category, address, phone, is_active)
+SELECT
+    (ARRAY['Panadería', 'Restaurante', 'Café', 'Farmacia', 'Ferretería', 'Librería', 'Peluquería',
+           'Carnicería', 'Frutería', 'Óptica'])[1 + i % 10]
+        || ' ' || (ARRAY['El Sol', 'La Esquina', 'San José', 'Del Centro', 'Mar y Tierra', 'Express',
+                         'Artesanal', 'Don Ramón', 'La Económica', 'Los Ángeles'])[1 + (i / 10) % 10]
+        || ' ' || i,
+    (ARRAY['panadería', 'restaurante', 'cafetería', 'farmacia', 'ferretería', 'librería', 'peluquería',
+           'carnicería', 'frutería', 'óptica'])[1 + i % 10],
+    'Calle ' || (i % 500) || ' #' || (i % 97),
+    '555-' || lpad((i % 10000)::text, 4, '0'),
+    i % 20 <> 0
+FROM generate_series(1, 1000000) AS i;
+
+-- Índices originales (paso 9)
+CREATE INDEX ON bench_search.businesses(category);
+CREATE INDEX ON bench_search.businesses(is_active);
+CREATE INDEX ON bench_search.businesses(name);
+
+-- Índices nuevos (paso 12)
+ALTER TABLE bench_search.businesses ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('public.es_unaccent'::regconfig, coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('public.es_unaccent'::regconfig, coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('public.es_unaccent'::regconfig, coalesce(address, '')), 'C')
+    ) STORED;
+CREATE INDEX ON bench_search.businesses USING GIN (search_vector) WHERE is_active;
+CREATE INDEX ON bench_search.businesses USING GIN (public.immutable_unaccent(lower(name)) gin_trgm_ops) WHERE is_active;
+CREATE INDEX ON bench_search.businesses USING GIN (public.immutable_unaccent(lower(category)) gin_trgm_ops) WHERE is_active;
+
+VACUUM ANALYZE bench_search.businesses;
+
+-- -----------------------------------------------------
+-- ANTES: consultas de BusinessRepository hasta el paso 11
+-- -----------------------------------------------------
+-- findByCategoryContainingIgnoreCase('panaderia'): sin tilde no encuentra nada y recorre toda la tabla
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_search.businesses b
+WHERE lower(b.category) LIKE lower('%' || 'panaderia' || '%') AND b.is_active = true
+ORDER BY b.name;
+
+-- findByNameContainingIgnoreCase('don ramon')
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_search.businesses b
+WHERE lower(b.name) LIKE lower('%' || 'don ramon' || '%') AND b.is_active = true
+ORDER BY b.name;
+
+-- -----------------------------------------------------
+-- DESPUÉS: BusinessRepository.searchRanked (LIMIT 10)
+-- -----------------------------------------------------
+PREPARE search_ranked(text, int) AS
+SELECT b.* FROM bench_search.businesses b
+WHERE b.is_active
+  AND (b.search_vector @@ websearch_to_tsquery('public.es_unaccent', $1)
+       OR public.immutable_unaccent(lower($1)) <% public.immutable_unaccent(lower(b.name))
+       OR public.immutable_unaccent(lower($1)) <% public.immutable_unaccent(lower(b.category)))
+ORDER BY ts_rank_cd(b.search_vector, websearch_to_tsquery('public.es_unaccent', $1))
+         + greatest(word_similarity(public.immutable_unaccent(lower($1)), public.immutable_unaccent(lower(b.name))),
+                    word_similarity(public.immutable_unaccent(lower($1)), public.immutable_unaccent(lower(b.category)))) DESC,
+         b.name
+LIMIT $2;
+
+-- Sin tilde y en plural: encuentra "Panadería ..."
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE search_ranked('panaderias', 10);
+-- Nombre sin tildes
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE search_ranked('don ramon', 10);
+-- Consulta selectiva (un negocio concreto)
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE search_ranked('optica los angeles 123457', 10);
+-- Error de tipeo: solo los trigramas lo resuelven
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE search_ranked('farmasia', 10);
+
+DEALLOCATE search_ranked;
+
+-- Tamaño de los índices nuevos frente a la tabla
+SELECT indexrelname, pg_size_pretty(pg_relation_size(indexrelid)) AS size
+FROM pg_stat_user_indexes
+WHERE schemaname = 'bench_search'
+ORDER BY pg_relation_size(indexrelid) DESC;
+
+SELECT pg_size_pretty(pg_table_size('bench_search.businesses')) AS table_size;
+
+DROP SCHEMA bench_search CASCADE;
+
+-- =====================================================
+-- FIN DEL BENCHMARK
+-- =====================================================
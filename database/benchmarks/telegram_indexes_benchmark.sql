@@ -0,0 +1,149 @@
+-- =====================================================
+-- BENCHMARK: Índices de telegram_messages y bot_commands
+-- =====================================================
+-- Descripción: Compara los planes de las consultas de los
+--              repositorios de Telegram con los índices de una
+--              sola columna de los pasos 3 y 5 (antes) y con los
+--              compuestos de 16_telegram_indexes.sql (después).
+-- Datos:       2M de mensajes y 500k comandos de 20k chats a lo
+--              largo de un año.
+-- Uso:         psql "$DATABASE_URL" -f database/benchmarks/telegram_indexes_benchmark.sql
+--              Trabaja en el esquema bench_telegram y lo borra al
+--              final; no toca las tablas reales.
+-- =====================================================
+
+\timing on
+
+DROP SCHEMA IF EXISTS bench_telegram CASCADE;
+CREATE SCHEMA bench_telegram;
+
+CREATE TABLE bench_telegram.telegram_messages (
+    id BIGSERIAL PRIMARY KEY,
+    chat_id BIGINT NOT NULL,
+    user_name VARCHAR(255),
+    message_text TEXT,
+    bot_response TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE bench_telegram.bot_commands (
+    id BIGSERIAL PRIMARY KEY,
+    chat_id BIGINT NOT NULL,
+    command VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO bench_telegram.telegram_messages (chat_id, user_name, message_text, bot_response, created_at)
+SELECT i % 20000, 'usuario' || (i % 20000), repeat('mensaje ', 10), repeat('respuesta ', 30),
+       TIMESTAMP '2025-01-01' + (i * INTERVAL '15 seconds')
+FROM generate_series(1, 2000000) AS i;
+
+INSERT INTO bench_telegram.bot_commands (chat_id, command, created_at)
+SELECT i % 20000, (ARRAY['/start', '/help', '/buscar', '/cerca', '/categorias'])[1 + i % 5],
+       TIMESTAMP '2025-01-01' + (i * INTERVAL '60 seconds')
+FROM generate_series(1, 500000) AS i;
+
+-- -----------------------------------------------------
+-- ANTES: índices de los pasos 3 y 5
+-- -----------------------------------------------------
+CREATE INDEX bench_messages_chat_id ON bench_telegram.telegram_messages(chat_id);
+CREATE INDEX bench_messages_created_at ON bench_telegram.telegram_messages(created_at DESC);
+CREATE INDEX bench_commands_chat_id ON bench_telegram.bot_commands(chat_id);
+CREATE INDEX bench_commands_command ON bench_telegram.bot_commands(command);
+VACUUM ANALYZE bench_telegram.telegram_messages;
+VACUUM ANALYZE bench_telegram.bot_commands;
+
+-- findByChatIdOrderByCreatedAtDesc: Bitmap Heap Scan + Sort
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_telegram.telegram_messages WHERE chat_id = 4242 ORDER BY created_at DESC;
+
+-- Grilla de logs, un día, orden (created_at DESC, id DESC): Sort de todo el día
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, chat_id, user_name, created_at FROM bench_telegram.telegram_messages
+WHERE created_at >= TIMESTAMP '2025-06-01' AND created_at < TIMESTAMP '2025-06-02'
+ORDER BY created_at DESC, id DESC LIMIT 51;
+
+-- Filtro por @usuario: recorrido secuencial
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id FROM bench_telegram.telegram_messages
+WHERE LOWER(user_name) LIKE 'usuario424%' ORDER BY created_at DESC LIMIT 51;
+
+-- -----------------------------------------------------
+-- DESPUÉS: índices de 16_telegram_indexes.sql
+-- -----------------------------------------------------
+DROP INDEX bench_telegram.bench_messages_chat_id;
+DROP INDEX bench_telegram.bench_messages_created_at;
+DROP INDEX bench_telegram.bench_commands_chat_id;
+CREATE INDEX ON bench_telegram.telegram_messages(chat_id, created_at DESC);
+CREATE INDEX ON bench_telegram.telegram_messages(created_at DESC, id DESC);
+CREATE INDEX ON bench_telegram.telegram_messages(LOWER(user_name) text_pattern_ops);
+CREATE INDEX ON bench_telegram.bot_commands(chat_id, created_at DESC);
+VACUUM ANALYZE bench_telegram.telegram_messages;
+VACUUM ANALYZE bench_telegram.bot_commands;
+
+-- Index Scan sin Sort
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_telegram.telegram_messages WHERE chat_id = 4242 ORDER BY created_at DESC;
+
+-- Index Scan que se detiene en la fila 51
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, chat_id, user_name, created_at FROM bench_telegram.telegram_messages
+WHERE created_at >= TIMESTAMP '2025-06-01' AND created_at < TIMESTAMP '2025-06-02'
+ORDER BY created_at DESC, id DESC LIMIT 51;
+
+-- Bitmap Index Scan sobre LOWER(user_name) text_pattern_ops
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id FROM bench_telegram.telegram_messages
+WHERE LOWER(user_name) LIKE 'usuario424%' ORDER BY created_at DESC LIMIT 51;
+
+-- countByChatId / countByCommand / findCommandStatistics: Index Only Scan
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*) FROM bench_telegram.telegram_messages WHERE chat_id = 4242;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*) FROM bench_telegram.bot_commands WHERE command = '/cerca';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT command, COUNT(id) FROM bench_telegram.bot_commands GROUP BY command ORDER BY 2 DESC;
+
+-- findSummaries tal como lo genera Hibernate: cada filtro opcional es (? IS NULL OR ...).
+-- El driver JDBC pasa a sentencias preparadas en el servidor a partir de la 5.ª ejecución y
+-- PostgreSQL puede cambiar entonces a un plan genérico, que no sabe qué parámetros son NULL.
+-- Comparar ambos planes: con el personalizado el rango de fechas debe aparecer como Index Cond;
+-- si el genérico lo deja en Filter, el Index Scan recorre desde el mensaje más nuevo hasta el día pedido.
+PREPARE find_summaries(timestamp, timestamp, bigint, text, bigint, bigint, bigint) AS
+SELECT id, chat_id, user_name, substring(message_text, 1, 300), substring(bot_response, 1, 300), created_at
+FROM bench_telegram.telegram_messages
+WHERE ($1 IS NULL OR created_at >= $1)
+  AND ($2 IS NULL OR created_at < $2)
+  AND ($3 IS NULL OR chat_id = $3)
+  AND ($4 IS NULL OR LOWER(user_name) LIKE ($4 || '%'))
+  AND ($5 IS NULL OR id <= $5)
+ORDER BY created_at DESC, id DESC
+OFFSET $6 ROWS FETCH FIRST $7 ROWS ONLY;
+
+SET plan_cache_mode = force_custom_plan;
+EXPLAIN (ANALYZE, BUFFERS)
+EXECUTE find_summaries('2025-06-01', '2025-06-02', NULL, NULL, NULL, 0, 51);
+EXPLAIN (ANALYZE, BUFFERS)
+EXECUTE find_summaries(NULL, NULL, NULL, 'usuario424', NULL, 0, 51);
+
+SET plan_cache_mode = force_generic_plan;
+EXPLAIN (ANALYZE, BUFFERS)
+EXECUTE find_summaries('2025-06-01', '2025-06-02', NULL, NULL, NULL, 0, 51);
+EXPLAIN (ANALYZE, BUFFERS)
+EXECUTE find_summaries(NULL, NULL, NULL, 'usuario424', NULL, 0, 51);
+EXPLAIN (ANALYZE, BUFFERS)
+EXECUTE find_summaries(NULL, NULL, NULL, NULL, NULL, 0, 51);
+
+RESET plan_cache_mode;
+DEALLOCATE find_summaries;
+
+SELECT indexrelname, pg_size_pretty(pg_relation_size(indexrelid)) AS size
+FROM pg_stat_user_indexes
+WHERE schemaname = 'bench_telegram'
+ORDER BY relname, indexrelname;
+
+DROP SCHEMA bench_telegram CASCADE;
+
+-- =====================================================
+-- FIN DEL BENCHMARK
+-- =====================================================
@@ -0,0 +1,131 @@
+-- =====================================================
+-- BENCHMARK: telegram_messages particionada por mes, 50M filas
+-- =====================================================
+-- Descripción: Compara la tabla sin particionar (antes) con la
+--              particionada por mes de 17_telegram_messages_partitioning.sql
+--              (después), con los mismos índices, en:
+--              - consultas por rango de fechas (partition pruning)
+--              - historial de un chat
+--              - retención de un mes: DELETE + VACUUM frente a
+--                DETACH + DROP de la partición
+-- Datos:       50M de mensajes de 100k chats repartidos en 25
+--              meses (~2M por mes), textos cortos.
+-- Uso:         psql "$DATABASE_URL" -f database/benchmarks/telegram_partitioning_benchmark.sql
+--              Necesita ~20 GB libres y tarda del orden de una
+--              hora. Trabaja en el esquema bench_partition y lo
+--              borra al final; no toca las tablas reales.
+-- =====================================================
+
+\timing on
+
+DROP SCHEMA IF EXISTS bench_partition CASCADE;
+CREATE SCHEMA bench_partition;
+
+-- -----------------------------------------------------
+-- Datos: tabla sin particionar
+-- -----------------------------------------------------
+CREATE TABLE bench_partition.messages_flat (
+    id BIGINT NOT NULL,
+    chat_id BIGINT NOT NULL,
+    user_name VARCHAR(255),
+    message_text TEXT,
+    bot_response TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- 25 meses desde 2023-10-01: una fila cada 1.3 s
+INSERT INTO bench_partition.messages_flat
+SELECT i, i % 100000, 'usuario' || (i % 100000), 'mensaje ' || i, 'respuesta ' || i,
+       TIMESTAMP '2023-10-01' + i * INTERVAL '1.3 seconds'
+FROM generate_series(1, 50000000) AS i;
+
+ALTER TABLE bench_partition.messages_flat ADD PRIMARY KEY (id);
+CREATE INDEX ON bench_partition.messages_flat(chat_id, created_at DESC);
+CREATE INDEX ON bench_partition.messages_flat(created_at DESC, id DESC);
+VACUUM ANALYZE bench_partition.messages_flat;
+
+-- -----------------------------------------------------
+-- Datos: misma tabla particionada por mes
+-- -----------------------------------------------------
+CREATE TABLE bench_partition.messages (LIKE bench_partition.messages_flat) PARTITION BY RANGE (created_at);
+
+DO $$
+DECLARE
+    month_start DATE := DATE '2023-10-01';
+BEGIN
+    WHILE month_start < DATE '2025-12-01' LOOP
+        EXECUTE format('CREATE TABLE bench_partition.%I PARTITION OF bench_partition.messages FOR VALUES FROM (%L) TO (%L)',
+                       'messages_p' || to_char(month_start, 'YYYYMM'), month_start,
+                       (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+INSERT INTO bench_partition.messages SELECT * FROM bench_partition.messages_flat;
+
+ALTER TABLE bench_partition.messages ADD PRIMARY KEY (id, created_at);
+CREATE INDEX ON bench_partition.messages(chat_id, created_at DESC);
+CREATE INDEX ON bench_partition.messages(created_at DESC, id DESC);
+VACUUM ANALYZE bench_partition.messages;
+
+-- -----------------------------------------------------
+-- Un día: findByCreatedAtBetweenOrderByCreatedAtDesc / grilla de logs
+-- -----------------------------------------------------
+-- ANTES
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_partition.messages_flat
+WHERE created_at BETWEEN TIMESTAMP '2025-03-10' AND TIMESTAMP '2025-03-11'
+ORDER BY created_at DESC;
+-- DESPUÉS: solo aparece messages_p202503
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_partition.messages
+WHERE created_at BETWEEN TIMESTAMP '2025-03-10' AND TIMESTAMP '2025-03-11'
+ORDER BY created_at DESC;
+
+-- Un mes completo agregado (informes): recorrido secuencial de una sola partición
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*), COUNT(DISTINCT chat_id) FROM bench_partition.messages_flat
+WHERE created_at >= TIMESTAMP '2025-03-01' AND created_at < TIMESTAMP '2025-04-01';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*), COUNT(DISTINCT chat_id) FROM bench_partition.messages
+WHERE created_at >= TIMESTAMP '2025-03-01' AND created_at < TIMESTAMP '2025-04-01';
+
+-- Parámetros: con sentencia preparada la poda ocurre al ejecutar (Subplans Removed)
+PREPARE day_range(TIMESTAMP, TIMESTAMP) AS
+SELECT id FROM bench_partition.messages WHERE created_at >= $1 AND created_at < $2
+ORDER BY created_at DESC, id DESC LIMIT 51;
+SET plan_cache_mode = force_generic_plan;
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE day_range(TIMESTAMP '2025-03-10', TIMESTAMP '2025-03-11');
+RESET plan_cache_mode;
+DEALLOCATE day_range;
+
+-- -----------------------------------------------------
+-- Historial de un chat sin filtro de fecha: recorre el índice de cada partición
+-- (Merge Append); es el caso que el particionado no mejora
+-- -----------------------------------------------------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_partition.messages_flat WHERE chat_id = 4242 ORDER BY created_at DESC LIMIT 50;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_partition.messages WHERE chat_id = 4242 ORDER BY created_at DESC LIMIT 50;
+
+-- -----------------------------------------------------
+-- Retención del mes más antiguo (~2M filas)
+-- -----------------------------------------------------
+-- ANTES: DELETE genera WAL por fila, mantiene los índices y deja espacio muerto hasta el VACUUM
+DELETE FROM bench_partition.messages_flat WHERE created_at < TIMESTAMP '2023-11-01';
+VACUUM bench_partition.messages_flat;
+
+-- DESPUÉS: operaciones de catálogo, sin tocar las filas
+ALTER TABLE bench_partition.messages DETACH PARTITION bench_partition.messages_p202310;
+DROP TABLE bench_partition.messages_p202310;
+
+SELECT relname, pg_size_pretty(pg_total_relation_size(relid)) AS total_size
+FROM pg_stat_user_tables
+WHERE schemaname = 'bench_partition' AND relname IN ('messages_flat', 'messages_p202503')
+ORDER BY relname;
+
+DROP SCHEMA bench_partition CASCADE;
+
+-- =====================================================
+-- FIN DEL BENCHMARK
+-- =====================================================
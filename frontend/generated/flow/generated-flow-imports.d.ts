@@ -0,0 +1 @@
+export {}
\ No newline at end of file
@@ -0,0 +1,75 @@
+import '@vaadin/polymer-legacy-adapter/style-modules.js';
+import '@vaadin/app-layout/src/vaadin-app-layout.js';
+import '@vaadin/tooltip/src/vaadin-tooltip.js';
+import '@vaadin/tabs/src/vaadin-tab.js';
+import '@vaadin/button/src/vaadin-button.js';
+import 'Frontend/generated/jar-resources/buttonFunctions.js';
+import '@vaadin/vertical-layout/src/vaadin-vertical-layout.js';
+import '@vaadin/horizontal-layout/src/vaadin-horizontal-layout.js';
+import '@vaadin/icon/src/vaadin-icon.js';
+import '@vaadin/icons/vaadin-iconset.js';
+import '@vaadin/app-layout/src/vaadin-drawer-toggle.js';
+import '@vaadin/tabs/src/vaadin-tabs.js';
+import '@vaadin/notification/src/vaadin-notification.js';
+import 'Frontend/generated/jar-resources/flow-component-renderer.js';
+import '@vaadin/common-frontend/ConnectionIndicator.js';
+import '@vaadin/vaadin-lumo-styles/color-global.js';
+import '@vaadin/vaadin-lumo-styles/typography-global.js';
+import '@vaadin/vaadin-lumo-styles/sizing.js';
+import '@vaadin/vaadin-lumo-styles/spacing.js';
+import '@vaadin/vaadin-lumo-styles/style.js';
+import '@vaadin/vaadin-lumo-styles/vaadin-iconset.js';
+
+const loadOnDemand = (key) => {
+  const pending = [];
+  if (key === 'ae83792229a5797604b348d8225015e7d161fa12528c1017b2b5c6630aa3c5cf') {
+    pending.push(import('./chunks/chunk-20c90e5beb5ed0f730b3fcbdb46d71d0b92c76a2f79629d136a0941d48479dde.js'));
+  }
+  if (key === '38ccedd55e9a18802e5e40ec9a156bc915b964c6100ffff92f7957e7830ff3f8') {
+    pending.push(import('./chunks/chunk-9826d5f5ec2e9c983ac7e24d75375264870644ed9df5d5bb0f9c26dc97b8ef53.js'));
+  }
+  if (key === '9fb6fbc047f7ef2a3d2cd94a8f332952f5b8ffb29c041b78762acc1e134b6eee') {
+    pending.push(import('./chunks/chunk-dc927b535c6b7252577e3b36dfedde45fe9c8e63d1b6c9415736142ac6359d1c.js'));
+  }
+  if (key === '8c1abb9620d0ea20aaf90c2b4456e32f8884df7728a4c5eed65f08870f964cbc') {
+    pending.push(import('./chunks/chunk-20c90e5beb5ed0f730b3fcbdb46d71d0b92c76a2f79629d136a0941d48479dde.js'));
+  }
+  if (key === 'ae7f8590023c2f99b0e005074641480cdea6b76ec37b645fcb03bc137882620d') {
+    pending.push(import('./chunks/chunk-a9b27b4bf22e93a53d063c2e5aef26ed5ad7dd2c799dc9c12c5e9d733e37d699.js'));
+  }
+  if (key === 'a7cdf9b635012aec7e78c65e6ef642d025c0aa2ab7f0a98bf37ba2875196d64b') {
+    pending.push(import('./chunks/chunk-20c90e5beb5ed0f730b3fcbdb46d71d0b92c76a2f79629d136a0941d48479dde.js'));
+  }
+  if (key === 'c6d7ce3375aa12cf843cb4ecc20862011066b00e8167a85715deee9b634fcb42') {
+    pending.push(import('./chunks/chunk-20c90e5beb5ed0f730b3fcbdb46d71d0b92c76a2f79629d136a0941d48479dde.js'));
+  }
+  if (key === 'e6954813cb3ca73d9f2008013f1059bba7e80d7a5266e24dd5bef8e7cdeb852d') {
+    pending.push(import('./chunks/chunk-90bbfce32b58a3a24c8eb6676eef338699d118840f00a78739ae5da813bd1540.js'));
+  }
+  if (key === '9175964e0a80122f23b63c43c1d4c8735fd03ccc7f73df2441957bcc11d26c15') {
+    pending.push(import('./chunks/chunk-a9b27b4bf22e93a53d063c2e5aef26ed5ad7dd2c799dc9c12c5e9d733e37d699.js'));
+  }
+  if (key === 'fd5d3c248a8f0b8a37a2a5882949a8d8788ec323fd7c6524bbafcf217431c163') {
+    pending.push(import('./chunks/chunk-90bbfce32b58a3a24c8eb6676eef338699d118840f00a78739ae5da813bd1540.js'));
+  }
+  if (key === 'c593b935b148ecb9d6f2b031fca446cf4a8ac7cc3dc42a1c396ed3e96c9d8455') {
+    pending.push(import('./chunks/chunk-9826d5f5ec2e9c983ac7e24d75375264870644ed9df5d5bb0f9c26dc97b8ef53.js'));
+  }
+  if (key === '1d706733674bec9e579e31bb57cb95e38b1e0fb4bc87cd012e4ff7e4878fb123') {
+    pending.push(import('./chunks/chunk-90bbfce32b58a3a24c8eb6676eef338699d118840f00a78739ae5da813bd1540.js'));
+  }
+  if (key === '6c9b1e13a556004637a817d89c24fea4e36324b637f333e89fa4b16b9b827e10') {
+    pending.push(import('./chunks/chunk-9826d5f5ec2e9c983ac7e24d75375264870644ed9df5d5bb0f9c26dc97b8ef53.js'));
+  }
+  if (key === '7c0545621dc4cbe272cd86bb9c9f6e802b1f30d3ea26cd6668587003f0576aee') {
+    pending.push(import('./chunks/chunk-90bbfce32b58a3a24c8eb6676eef338699d118840f00a78739ae5da813bd1540.js'));
+  }
+  if (key === '4551f10da32d710c941bbb73bb2e81c0938b1349121e0d5875aeb44f72c9f15d') {
+    pending.push(import('./chunks/chunk-20c90e5beb5ed0f730b3fcbdb46d71d0b92c76a2f79629d136a0941d48479dde.js'));
+  }
+  return Promise.all(pending);
+}
+
+window.Vaadin = window.Vaadin || {};
+window.Vaadin.Flow = window.Vaadin.Flow || {};
+window.Vaadin.Flow.loadOnDemand = loadOnDemand;
\ No newline at end of file
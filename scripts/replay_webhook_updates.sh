@@ -0,0 +1,49 @@
+#!/bin/bash
+
+# Reproduce actualizaciones de Telegram grabadas contra el endpoint de webhook local.
+# Sustituye a Telegram para probar el modo webhook de extremo a extremo sin exponer el servicio.
+#
+# Uso: ./scripts/replay_webhook_updates.sh [archivo.jsonl] [url]
+#   archivo.jsonl  Una actualización (JSON de la Bot API) por línea
+#                  (por defecto: src/test/resources/telegram/recorded-updates.jsonl)
+#   url            Endpoint de webhook (por defecto: http://localhost:8080/telegram/webhook)
+#
+# Requiere TELEGRAM_WEBHOOK_SECRET con el mismo valor que usa la aplicación y
+# el bot iniciado en modo webhook desde el dashboard.
+
+UPDATES_FILE=${1:-src/test/resources/telegram/recorded-updates.jsonl}
+WEBHOOK_URL=${2:-http://localhost:8080/telegram/webhook}
+
+if [ -z "$TELEGRAM_WEBHOOK_SECRET" ] && [ -f .env ]; then
+    TELEGRAM_WEBHOOK_SECRET=$(grep -E '^TELEGRAM_WEBHOOK_SECRET=' .env | cut -d '=' -f2-)
+fi
+
+if [ -z "$TELEGRAM_WEBHOOK_SECRET" ]; then
+    echo "❌ TELEGRAM_WEBHOOK_SECRET no está definido"
+    exit 1
+fi
+
+if [ ! -f "$UPDATES_FILE" ]; then
+    echo "❌ No se encontró el archivo de actualizaciones: $UPDATES_FILE"
+    exit 1
+fi
+
+echo "📨 Enviando actualizaciones de $UPDATES_FILE a $WEBHOOK_URL"
+
+SENT=0
+FAILED=0
+while IFS= read -r update || [ -n "$update" ]; do
+    [ -z "$update" ] && continue
+    STATUS=$(curl -s -o /dev/null -w "%{http_code}" -X POST "$WEBHOOK_URL" \
+        -H "Content-Type: application/json" \
+        -H "X-Telegram-Bot-Api-Secret-Token: $TELEGRAM_WEBHOOK_SECRET" \
+        --data-binary "$update")
+    if [ "$STATUS" = "200" ]; then
+        SENT=$((SENT + 1))
+    else
+        FAILED=$((FAILED + 1))
+        echo "⚠️  Respuesta HTTP $STATUS para: ${update:0:80}..."
+    fi
+done < "$UPDATES_FILE"
+
+echo "✓ Enviadas: $SENT - Fallidas: $FAILED"
@@ -0,0 +1,148 @@
+package com.alexia;
+
+import com.alexia.entity.Business;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entorno de los benchmarks JMH: la aplicación completa sobre H2 en memoria, sin Vaadin ni servidor web,
+ * y un servidor HTTP local que responde como la API de Groq y la de Telegram.
+ * Así se mide el código del bot sin depender de la red ni de PostgreSQL.
+ */
+public final class BenchmarkEnvironment implements AutoCloseable {
+
+    /**
+     * Respuesta fija de la API de Groq (chat completion sin streaming)
+     */
+    public static final String GROK_RESPONSE_JSON = "{\"id\":\"chatcmpl-benchmark\",\"object\":\"chat.completion\","
+            + "\"created\":1730000000,\"model\":\"benchmark\",\"choices\":[{\"index\":0,\"message\":{\"role\":"
+            + "\"assistant\",\"content\":\"¡Hola! Soy Alexia. Puedo ayudarte a buscar negocios cerca de ti: "
+            + "escribe 'buscar' seguido de lo que necesitas, por ejemplo 'buscar panadería'.\"},"
+            + "\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":86,\"completion_tokens\":38,"
+            + "\"total_tokens\":124}}";
+
+    /**
+     * Respuesta fija de la API de Telegram a sendMessage
+     */
+    private static final String TELEGRAM_RESPONSE_JSON = "{\"ok\":true,\"result\":{\"message_id\":1,"
+            + "\"date\":1730000000,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"ok\"}}";
+
+    public static final String TELEGRAM_TOKEN = "123456:benchmark-token";
+
+    private final HttpServer server;
+    private final ExecutorService serverExecutor;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(String... properties) throws IOException {
+        // Sin TCP_NODELAY el servidor del JDK envía cabeceras y cuerpo por separado y cada llamada espera
+        // el ACK retardado (~40 ms), que taparía el costo real del turno
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> respond(exchange, GROK_RESPONSE_JSON));
+        server.createContext("/bot", exchange -> respond(exchange, TELEGRAM_RESPONSE_JSON));
+        serverExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "benchmark-stub-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        // Argumentos de línea de comandos: tienen prioridad sobre application.properties
+        List<String> args = new ArrayList<>(List.of("--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        // Vaadin necesita un contexto web; los benchmarks no levantan servidor
+                        "--spring.autoconfigure.exclude=com.vaadin.flow.spring.SpringBootAutoConfiguration,"
+                                + "com.vaadin.flow.spring.SpringSecurityAutoConfiguration",
+                        "--grok.api.url=" + getStubUrl() + "/v1/chat/completions",
+                        "--grok.api.key=benchmark",
+                        "--grok.model=benchmark",
+                        "--grok.streaming.enabled=false",
+                        "--grok.cache.enabled=false",
+                        "--telegram.bot.token=" + TELEGRAM_TOKEN,
+                        "--telegram.bot.username=AlexiaBenchmarkBot"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        context = new SpringApplicationBuilder(AlexiaApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Levanta el servidor HTTP simulado y el contexto de Spring.
+     */
+    public static BenchmarkEnvironment start() throws IOException {
+        return new BenchmarkEnvironment();
+    }
+
+    /**
+     * Levanta el entorno con propiedades adicionales, por ejemplo "telegram.tracing.enabled=false".
+     *
+     * @param properties Propiedades clave=valor; tienen prioridad sobre las del entorno
+     */
+    public static BenchmarkEnvironment start(String... properties) throws IOException {
+        return new BenchmarkEnvironment(properties);
+    }
+
+    /**
+     * Negocio de ejemplo con todos los campos que muestra el bot.
+     *
+     * @param number Número del negocio (nombre, dirección y teléfono distintos)
+     */
+    public static Business sampleBusiness(int number) {
+        Business business = new Business();
+        business.setName("Panadería La Espiga " + number);
+        business.setCategory("panadería");
+        business.setAddress("Calle " + number + " # 10-20, Bogotá");
+        business.setPhone(String.format("+57 300 123 %04d", number));
+        business.setLatitude(4.6097 + number * 0.001);
+        business.setLongitude(-74.0817);
+        business.setIsActive(true);
+        return business;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * URL base del servidor simulado (http://127.0.0.1:puerto)
+     */
+    public String getStubUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.alexia.service;
+
+import com.alexia.BenchmarkEnvironment;
+import com.alexia.entity.Business;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formateo de resultados de búsqueda para Telegram, según la cantidad de negocios.
+ * Con lista vacía incluye la consulta de categorías disponibles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BusinessFormattingBenchmark {
+
+    @Param({"0", "5", "10"})
+    private int size;
+
+    private BenchmarkEnvironment environment;
+    private BusinessService businessService;
+    private List<Business> businesses;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        environment = BenchmarkEnvironment.start();
+        businessService = environment.getBean(BusinessService.class);
+        businessService.saveBusiness(BenchmarkEnvironment.sampleBusiness(0));
+        businesses = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            businesses.add(BenchmarkEnvironment.sampleBusiness(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public String formatBusinessList() {
+        return businessService.formatBusinessListForTelegram(businesses, "panadería");
+    }
+}
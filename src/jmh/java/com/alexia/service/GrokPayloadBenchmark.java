@@ -0,0 +1,95 @@
+package com.alexia.service;
+
+import com.alexia.BenchmarkEnvironment;
+import com.alexia.dto.GrokMessage;
+import com.alexia.dto.GrokRequest;
+import com.alexia.dto.GrokResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Armado del request a Groq y serialización JSON de GrokRequest/GrokResponse, con una conversación
+ * de varios turnos como contexto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GrokPayloadBenchmark {
+
+    private static final long CHAT_ID = 222L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BenchmarkEnvironment environment;
+    private GrokService grokService;
+    private ConversationMemory.Context context;
+    private GrokRequest request;
+    private String responseJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        environment = BenchmarkEnvironment.start();
+        grokService = environment.getBean(GrokService.class);
+        ConversationMemory memory = environment.getBean(ConversationMemory.class);
+        for (int turn = 1; turn <= 3; turn++) {
+            memory.append(CHAT_ID, GrokMessage.builder()
+                    .role("user")
+                    .content("¿Qué panaderías hay cerca del parque " + turn + "?")
+                    .build());
+            memory.append(CHAT_ID, GrokMessage.builder()
+                    .role("assistant")
+                    .content("Cerca del parque " + turn + " están La Espiga y El Trigal. "
+                            + "Escribe 'buscar panadería' para ver direcciones y teléfonos.")
+                    .build());
+        }
+        context = memory.append(CHAT_ID, GrokMessage.builder()
+                .role("user")
+                .content("¿Y cuál abre más temprano?")
+                .build());
+        request = grokService.buildGrokRequest(context, false);
+        responseJson = BenchmarkEnvironment.GROK_RESPONSE_JSON;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public GrokRequest buildGrokRequest() {
+        return grokService.buildGrokRequest(context, false);
+    }
+
+    @Benchmark
+    public Request buildHttpRequest() throws IOException {
+        return grokService.buildHttpRequest(grokService.buildGrokRequest(context, false));
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public GrokResponse deserializeResponse() throws IOException {
+        return objectMapper.readValue(responseJson, GrokResponse.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.alexia.service;
+
+import com.alexia.BenchmarkEnvironment;
+import com.alexia.dto.TelegramMessageDTO;
+import com.alexia.entity.TelegramMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de mensajes guardados a DTO: la conversión sola y la lectura de un chat desde H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TelegramMessageConversionBenchmark {
+
+    private static final long CHAT_ID = 333L;
+    private static final int CHAT_MESSAGES = 50;
+
+    private BenchmarkEnvironment environment;
+    private TelegramService telegramService;
+    private TelegramMessage message;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        environment = BenchmarkEnvironment.start();
+        telegramService = environment.getBean(TelegramService.class);
+        for (int i = 1; i <= CHAT_MESSAGES; i++) {
+            telegramService.saveMessage(TelegramMessageDTO.builder()
+                    .chatId(CHAT_ID)
+                    .userName("ana")
+                    .firstName("Ana")
+                    .lastName("Pérez")
+                    .messageText("buscar panadería " + i)
+                    .botResponse("🔍 Encontré 5 negocio(s) para 'panadería'")
+                    .responseTimeMs(120 + i)
+                    .build());
+        }
+        message = TelegramMessage.builder()
+                .id(1L)
+                .chatId(CHAT_ID)
+                .userName("ana")
+                .firstName("Ana")
+                .lastName("Pérez")
+                .messageText("hola, ¿qué puedes hacer?")
+                .botResponse("¡Hola! Soy Alexia. Puedo ayudarte a buscar negocios cerca de ti.")
+                .responseTimeMs(850)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public TelegramMessageDTO convertToDTO() {
+        return telegramService.convertToDTO(message);
+    }
+
+    @Benchmark
+    public List<TelegramMessageDTO> messagesByChatId() {
+        return telegramService.getMessagesByChatId(CHAT_ID);
+    }
+}
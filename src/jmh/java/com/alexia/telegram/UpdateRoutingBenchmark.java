@@ -0,0 +1,87 @@
+package com.alexia.telegram;
+
+import com.alexia.BenchmarkEnvironment;
+import com.alexia.service.BusinessService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turno completo del bot por ruta: ruteo, comando/búsqueda/Groq, encolado del mensaje y envío a Telegram.
+ * Groq y Telegram responden desde el servidor HTTP simulado; los negocios y mensajes van a H2 en memoria.
+ * Cada ruta se mide con y sin trazado de turnos (telegram.tracing.enabled): la diferencia es el costo del trazado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UpdateRoutingBenchmark {
+
+    private static final long CHAT_ID = 111L;
+
+    @Param({"/start", "/status", "buscar panadería", "hola, ¿qué puedes hacer?"})
+    private String text;
+
+    @Param({"true", "false"})
+    private boolean tracing;
+
+    private BenchmarkEnvironment environment;
+    private AlexiaTelegramBot bot;
+    private Update update;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        environment = BenchmarkEnvironment.start("telegram.tracing.enabled=" + tracing);
+        BusinessService businessService = environment.getBean(BusinessService.class);
+        for (int i = 1; i <= 20; i++) {
+            businessService.saveBusiness(BenchmarkEnvironment.sampleBusiness(i));
+        }
+
+        bot = environment.getBean(AlexiaTelegramBot.class);
+        bot.getOptions().setBaseUrl(environment.getStubUrl() + "/bot");
+        update = textUpdate(text);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public void handleUpdate() {
+        bot.handleUpdate(update).join();
+    }
+
+    private static Update textUpdate(String text) {
+        Message message = new Message();
+        message.setMessageId(1);
+        message.setChat(new Chat(CHAT_ID, "private"));
+        User user = new User(CHAT_ID, "Ana", false);
+        user.setUserName("ana");
+        message.setFrom(user);
+        message.setText(text);
+        Update update = new Update();
+        update.setUpdateId(1);
+        update.setMessage(message);
+        return update;
+    }
+}
@@ -0,0 +1,53 @@
+package com.alexia.config;
+
+import com.alexia.dto.BusinessImportResult;
+import com.alexia.service.BusinessImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Importa al arrancar los archivos de business.import.file (separados por coma), por ejemplo:
+ * {@code java -jar alexia.jar --business.import.file=/datos/bogota.csv}.
+ * Corre antes de que se construya el índice de búsqueda, que ya incluye lo importado.
+ * Si la importación se interrumpe, basta con arrancar de nuevo con el mismo archivo para reanudarla.
+ */
+@Component
+@Slf4j
+public class BusinessImportRunner implements ApplicationRunner {
+
+    private final BusinessImportService businessImportService;
+    private final String files;
+
+    public BusinessImportRunner(BusinessImportService businessImportService,
+                                @Value("${business.import.file:}") String files) {
+        this.businessImportService = businessImportService;
+        this.files = files;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (files == null || files.isBlank()) {
+            return;
+        }
+        for (String file : files.split(",")) {
+            if (file.isBlank()) {
+                continue;
+            }
+            try {
+                BusinessImportResult result = businessImportService.importFile(Path.of(file.trim()), progress -> { });
+                if (!result.getErrors().isEmpty()) {
+                    log.warn("Registros rechazados en la importación - source={}, rejected={}, firstErrors={}",
+                            result.getSourceName(), result.getRejected(), result.getErrors());
+                }
+            } catch (Exception e) {
+                log.error("No se pudo importar el archivo de negocios - file={}, exception={}, message={}",
+                        file.trim(), e.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.alexia.config;
 
-import com.alexia.repository.BotCommandRepository;
-import com.alexia.repository.TelegramMessageRepository;
 import com.alexia.service.BusinessService;
 import com.alexia.service.GrokService;
 import com.alexia.service.TelegramService;
+import com.alexia.service.TelegramStatsService;
+import com.alexia.service.TelegramWriteBehindService;
+import com.alexia.service.UpdateTracer;
 import com.alexia.telegram.AlexiaTelegramBot;
+import com.alexia.telegram.UpdateDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,11 +31,17 @@ public class TelegramBotConfig {
     @Value("${telegram.bot.username}")
     private String botUsername;
 
+    @Value("${telegram.streaming.edit-interval-ms:1000}")
+    private long streamingEditIntervalMs;
+
     private final TelegramService telegramService;
-    private final BotCommandRepository botCommandRepository;
-    private final TelegramMessageRepository telegramMessageRepository;
+    private final TelegramStatsService telegramStatsService;
     private final GrokService grokService;
     private final BusinessService businessService;
+    private final UpdateDispatcher updateDispatcher;
+    private final TelegramWriteBehindService telegramWriteBehindService;
+    private final UpdateTracer updateTracer;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Crea la instancia del bot de Telegram.
@@ -45,7 +54,10 @@ public class TelegramBotConfig {
         log.info("Creando instancia del bot de Telegram - username=@{}", botUsername);
         log.info("ℹ️  El bot NO se iniciará automáticamente. Usa el dashboard para iniciarlo.");
         
-        return new AlexiaTelegramBot(botToken, botUsername, telegramService, 
-                botCommandRepository, telegramMessageRepository, grokService, businessService);
+        AlexiaTelegramBot bot = new AlexiaTelegramBot(botToken, botUsername, telegramService, 
+                telegramStatsService, grokService, businessService, updateDispatcher,
+                telegramWriteBehindService, updateTracer, meterRegistry);
+        bot.setStreamingEditIntervalMs(streamingEditIntervalMs);
+        return bot;
     }
 }
@@ -0,0 +1,13 @@
+package com.alexia.config;
+
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
+
+/**
+ * Configuración global de la aplicación Vaadin.
+ * Activa server push (WebSocket) para que las vistas reciban cambios del servidor sin polling,
+ * por ejemplo los mensajes nuevos en la vista de logs de Telegram.
+ */
+@Push
+public class VaadinAppShell implements AppShellConfigurator {
+}
@@ -9,6 +9,7 @@ public final class BotCommands {
     public static final String START = "/start";
     public static final String HELP = "/help";
     public static final String STATUS = "/status";
+    public static final String NEARBY = "/cerca";
     
     // Mensajes de respuesta
     public static final String START_MESSAGE = 
@@ -20,7 +21,8 @@ public final class BotCommands {
             "📋 Comandos disponibles:\n\n" +
             "/start - Mensaje de bienvenida\n" +
             "/help - Muestra esta ayuda\n" +
-            "/status - Estado del bot\n\n" +
+            "/status - Estado del bot\n" +
+            "/cerca [categoría] - Negocios cerca de tu ubicación\n\n" +
             "También puedes enviarme cualquier mensaje y te responderé con eco.";
     
     public static final String STATUS_MESSAGE_TEMPLATE = 
@@ -28,8 +30,14 @@ public final class BotCommands {
             "📊 Estadísticas:\n" +
             "• Mensajes procesados: %d\n" +
             "• Comandos ejecutados: %d\n" +
+            "• Tiempo medio de respuesta: %d ms\n" +
             "• Última actualización: %s";
     
+    public static final String NEARBY_LOCATION_PROMPT =
+            "📍 Compárteme tu ubicación con el botón de abajo y te muestro %s más cercanos.";
+
+    public static final String NEARBY_LOCATION_BUTTON = "📍 Enviar mi ubicación";
+
     public static final String UNKNOWN_COMMAND_MESSAGE = 
             "Comando no reconocido. Usa /help para ver los comandos disponibles.";
     
@@ -0,0 +1,64 @@
+package com.alexia.dto;
+
+import com.alexia.entity.BusinessImportJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el progreso o el resultado final de una importación masiva de negocios.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessImportResult {
+
+    private String sourceName;
+
+    private BusinessImportJob.Status status;
+
+    /**
+     * Registros del archivo procesados (confirmados), incluidos los de ejecuciones anteriores
+     */
+    private long rowsRead;
+
+    /**
+     * Registro desde el que se reanudó esta ejecución (0 si empezó desde el principio)
+     */
+    private long resumedFrom;
+
+    private long inserted;
+
+    private long updated;
+
+    /**
+     * Negocios que ya estaban guardados con los mismos datos
+     */
+    private long unchanged;
+
+    /**
+     * Registros repetidos dentro del archivo (misma clave de importación); cuenta el primero
+     */
+    private long duplicates;
+
+    /**
+     * Registros inválidos o mal formados, que no se importaron
+     */
+    private long rejected;
+
+    private long elapsedMs;
+
+    /**
+     * Registros procesados por segundo en esta ejecución
+     */
+    private double rowsPerSecond;
+
+    /**
+     * Primeros errores de validación, "Registro N: motivo"
+     */
+    private List<String> errors;
+}
@@ -0,0 +1,38 @@
+package com.alexia.dto;
+
+import com.alexia.entity.Business;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con una página de resultados de búsqueda de negocios, ordenados por (nombre, id).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessPage {
+
+    /**
+     * Negocios de la página
+     */
+    private List<Business> items;
+
+    /**
+     * ID del último negocio de la página, cursor de la siguiente; null si no hay más páginas
+     */
+    private Long nextAfterId;
+
+    /**
+     * Indica si hay una página siguiente.
+     *
+     * @return true si hay más resultados
+     */
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+}
@@ -0,0 +1,117 @@
+package com.alexia.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para cada fragmento (evento SSE "data:") de una respuesta en streaming de Grok AI.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GrokStreamChunk {
+
+    /**
+     * ID de la respuesta (el mismo en todos los fragmentos)
+     */
+    @JsonProperty("id")
+    private String id;
+
+    /**
+     * Lista de opciones; cada una trae solo el texto nuevo
+     */
+    @JsonProperty("choices")
+    private List<Choice> choices;
+
+    /**
+     * Uso de tokens (formato OpenAI, en el último fragmento si se pide)
+     */
+    @JsonProperty("usage")
+    private GrokResponse.Usage usage;
+
+    /**
+     * Extensión de Groq: trae el uso de tokens en el último fragmento
+     */
+    @JsonProperty("x_groq")
+    private GroqExtension xGroq;
+
+    /**
+     * Obtiene el uso de tokens del fragmento, si lo trae.
+     *
+     * @return Uso de tokens o null
+     */
+    public GrokResponse.Usage findUsage() {
+        if (usage != null) {
+            return usage;
+        }
+        return xGroq != null ? xGroq.getUsage() : null;
+    }
+
+    /**
+     * Obtiene el texto nuevo de la primera opción.
+     *
+     * @return Texto del fragmento o null si no trae contenido
+     */
+    public String firstDeltaContent() {
+        if (choices == null || choices.isEmpty() || choices.get(0).getDelta() == null) {
+            return null;
+        }
+        return choices.get(0).getDelta().getContent();
+    }
+
+    /**
+     * Clase interna para las opciones del fragmento
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Choice {
+
+        @JsonProperty("index")
+        private Integer index;
+
+        @JsonProperty("delta")
+        private Delta delta;
+
+        @JsonProperty("finish_reason")
+        private String finishReason;
+    }
+
+    /**
+     * Clase interna para el contenido incremental
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Delta {
+
+        @JsonProperty("role")
+        private String role;
+
+        @JsonProperty("content")
+        private String content;
+    }
+
+    /**
+     * Clase interna para la extensión x_groq
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class GroqExtension {
+
+        @JsonProperty("usage")
+        private GrokResponse.Usage usage;
+    }
+}
@@ -0,0 +1,27 @@
+package com.alexia.dto;
+
+import com.alexia.entity.Business;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con un negocio encontrado por cercanía y su distancia al usuario.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyBusiness {
+
+    /**
+     * Negocio encontrado
+     */
+    private Business business;
+
+    /**
+     * Distancia en línea recta desde la ubicación del usuario, en metros
+     */
+    private double distanceMeters;
+}
@@ -22,6 +22,7 @@ public class TelegramMessageDTO {
     private String lastName;
     private String messageText;
     private String botResponse;
+    private Integer responseTimeMs;
     private LocalDateTime timestamp;
     
     /**
@@ -0,0 +1,46 @@
+package com.alexia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con una fila del log de mensajes de Telegram para la grilla: el mensaje y la respuesta
+ * vienen recortados, así una página de la grilla no carga columnas TEXT completas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TelegramMessageSummary {
+
+    /**
+     * Caracteres de mensaje y respuesta que se cargan para la grilla
+     */
+    public static final int PREVIEW_LENGTH = 300;
+
+    private Long id;
+
+    private Long chatId;
+
+    private String userName;
+
+    private String firstName;
+
+    private String lastName;
+
+    /**
+     * Primeros PREVIEW_LENGTH caracteres del mensaje
+     */
+    private String messageText;
+
+    /**
+     * Primeros PREVIEW_LENGTH caracteres de la respuesta del bot
+     */
+    private String botResponse;
+
+    private LocalDateTime createdAt;
+}
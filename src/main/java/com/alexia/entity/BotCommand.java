@@ -12,9 +12,14 @@ import java.time.LocalDateTime;
 
 /**
  * Entidad que representa un comando ejecutado en el bot de Telegram.
+ * Índices según database/16_telegram_indexes.sql.
  */
 @Entity
-@Table(name = "bot_commands")
+@Table(name = "bot_commands", indexes = {
+    @Index(name = "idx_bot_commands_chat_id_created_at", columnList = "chat_id, created_at DESC"),
+    @Index(name = "idx_bot_commands_command", columnList = "command"),
+    @Index(name = "idx_bot_commands_created_at", columnList = "created_at DESC")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,7 +27,8 @@ import java.time.LocalDateTime;
 public class BotCommand {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bot_commands_id_gen")
+    @SequenceGenerator(name = "bot_commands_id_gen", sequenceName = "bot_commands_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "El chat ID no puede ser nulo")
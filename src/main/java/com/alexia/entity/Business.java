@@ -1,6 +1,8 @@
 package com.alexia.entity;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -11,13 +13,14 @@ import java.time.LocalDateTime;
 
 /**
  * Entidad que representa un negocio registrado en la plataforma.
- * Permite búsqueda básica por categoría.
+ * Permite búsqueda básica por categoría y, si tiene coordenadas, por cercanía.
  */
 @Entity
 @Table(name = "businesses", indexes = {
     @Index(name = "idx_businesses_category", columnList = "category"),
     @Index(name = "idx_businesses_is_active", columnList = "is_active"),
-    @Index(name = "idx_businesses_name", columnList = "name")
+    @Index(name = "idx_businesses_name", columnList = "name"),
+    @Index(name = "uq_businesses_import_key", columnList = "import_key", unique = true)
 })
 @Data
 @NoArgsConstructor
@@ -25,7 +28,8 @@ import java.time.LocalDateTime;
 public class Business {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "businesses_id_gen")
+    @SequenceGenerator(name = "businesses_id_gen", sequenceName = "businesses_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre del negocio es obligatorio")
@@ -45,6 +49,23 @@ public class Business {
     @Column(length = 50)
     private String phone;
 
+    @DecimalMin(value = "-90.0", message = "La latitud debe estar entre -90 y 90")
+    @DecimalMax(value = "90.0", message = "La latitud debe estar entre -90 y 90")
+    @Column
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "La longitud debe estar entre -180 y 180")
+    @DecimalMax(value = "180.0", message = "La longitud debe estar entre -180 y 180")
+    @Column
+    private Double longitude;
+
+    /**
+     * Clave del negocio en la importación masiva (null si se creó a mano)
+     */
+    @Size(max = 100, message = "La clave de importación no puede exceder 100 caracteres")
+    @Column(name = "import_key", length = 100)
+    private String importKey;
+
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
@@ -93,6 +114,13 @@ public class Business {
         return sb.toString();
     }
 
+    /**
+     * Verifica si el negocio tiene coordenadas para la búsqueda por cercanía.
+     */
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+
     /**
      * Verifica si el negocio está activo.
      */
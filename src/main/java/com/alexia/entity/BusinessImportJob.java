@@ -0,0 +1,79 @@
+package com.alexia.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad con el progreso de una importación masiva de negocios.
+ * rowsRead es el punto de control: los registros del archivo hasta ahí ya están confirmados,
+ * así una importación interrumpida se reanuda desde el siguiente.
+ */
+@Entity
+@Table(name = "business_import_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessImportJob {
+
+    /**
+     * Estado de la importación.
+     */
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * Nombre y tamaño del archivo, "nombre:bytes"
+     */
+    @Id
+    @Column(name = "source_key", length = 300)
+    private String sourceKey;
+
+    @NotNull(message = "El nombre del archivo no puede ser nulo")
+    @Column(name = "source_name", nullable = false, length = 255)
+    private String sourceName;
+
+    @NotNull(message = "El estado no puede ser nulo")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "rows_read", nullable = false)
+    private long rowsRead;
+
+    @Column(name = "inserted", nullable = false)
+    private long inserted;
+
+    @Column(name = "updated", nullable = false)
+    private long updated;
+
+    @Column(name = "unchanged", nullable = false)
+    private long unchanged;
+
+    @Column(name = "duplicates", nullable = false)
+    private long duplicates;
+
+    @Column(name = "rejected", nullable = false)
+    private long rejected;
+
+    @NotNull(message = "La fecha de inicio no puede ser nula")
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @NotNull(message = "La fecha de actualización no puede ser nula")
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+}
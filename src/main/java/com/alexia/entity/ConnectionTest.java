@@ -21,7 +21,8 @@ import java.time.LocalDateTime;
 public class ConnectionTest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "connection_test_id_gen")
+    @SequenceGenerator(name = "connection_test_id_gen", sequenceName = "connection_test_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El mensaje no puede estar vacío")
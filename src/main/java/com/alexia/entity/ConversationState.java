@@ -0,0 +1,46 @@
+package com.alexia.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad con el estado persistido de la memoria de conversación de un chat:
+ * el resumen acumulado y los mensajes recientes, para recuperar el contexto tras un reinicio.
+ */
+@Entity
+@Table(name = "conversation_memory")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationState {
+
+    @Id
+    @Column(name = "chat_id")
+    private Long chatId;
+
+    /**
+     * Líneas del resumen separadas por salto de línea
+     */
+    @Column(name = "summary", columnDefinition = "TEXT")
+    private String summary;
+
+    /**
+     * Mensajes recientes como array JSON de {role, content}
+     */
+    @Column(name = "recent_messages", columnDefinition = "TEXT")
+    private String recentMessages;
+
+    @Column(name = "folded_tokens", nullable = false)
+    private long foldedTokens;
+
+    @NotNull(message = "La fecha de actualización no puede ser nula")
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
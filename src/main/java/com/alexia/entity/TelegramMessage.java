@@ -13,17 +13,27 @@ import java.time.LocalDateTime;
 
 /**
  * Entidad que representa un mensaje de Telegram almacenado en la base de datos.
+ * Índices según database/16_telegram_indexes.sql; el de LOWER(user_name) para el filtro por @usuario
+ * es de expresión y solo existe en el script.
  */
 @Entity
-@Table(name = "telegram_messages")
+@Table(name = "telegram_messages", indexes = {
+    @Index(name = "idx_telegram_messages_chat_id_created_at", columnList = "chat_id, created_at DESC"),
+    @Index(name = "idx_telegram_messages_created_at_id", columnList = "created_at DESC, id DESC")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class TelegramMessage {
 
+    /**
+     * ID asignado desde la secuencia telegram_messages_id_seq con optimizador pooled: Hibernate reserva
+     * bloques de 50 IDs, así los INSERT pueden agruparse en lotes JDBC (con IDENTITY no es posible).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "telegram_messages_id_gen")
+    @SequenceGenerator(name = "telegram_messages_id_gen", sequenceName = "telegram_messages_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "El chat ID no puede ser nulo")
@@ -48,6 +58,12 @@ public class TelegramMessage {
     @Column(name = "bot_response", columnDefinition = "TEXT")
     private String botResponse;
 
+    /**
+     * Milisegundos desde que llegó el mensaje hasta tener la respuesta (null si no se midió)
+     */
+    @Column(name = "response_time_ms")
+    private Integer responseTimeMs;
+
     @NotNull(message = "La fecha de creación no puede ser nula")
     @PastOrPresent(message = "La fecha no puede ser futura")
     @Column(name = "created_at", nullable = false)
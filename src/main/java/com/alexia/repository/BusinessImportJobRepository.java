@@ -0,0 +1,12 @@
+package com.alexia.repository;
+
+import com.alexia.entity.BusinessImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para el progreso de las importaciones masivas de negocios.
+ */
+@Repository
+public interface BusinessImportJobRepository extends JpaRepository<BusinessImportJob, String> {
+}
@@ -1,6 +1,7 @@
 package com.alexia.repository;
 
 import com.alexia.entity.Business;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,6 +25,7 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
     /**
      * Encuentra negocios cuya categoría contenga el texto especificado (case-insensitive).
      * Solo retorna negocios activos.
+     * LIKE '%x%' no usa índices (recorre la tabla): solo para bases sin la migración 12.
      */
     @Query("SELECT b FROM Business b WHERE LOWER(b.category) LIKE LOWER(CONCAT('%', :category, '%')) AND b.isActive = true ORDER BY b.name")
     List<Business> findByCategoryContainingIgnoreCase(@Param("category") String category);
@@ -35,10 +37,104 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
 
     /**
      * Encuentra negocios por nombre (case-insensitive).
+     * LIKE '%x%' no usa índices (recorre la tabla): solo para bases sin la migración 12.
      */
     @Query("SELECT b FROM Business b WHERE LOWER(b.name) LIKE LOWER(CONCAT('%', :name, '%')) AND b.isActive = true ORDER BY b.name")
     List<Business> findByNameContainingIgnoreCase(@Param("name") String name);
 
+    /**
+     * Búsqueda por texto completo (español, sin tildes) y por similitud de trigramas, ordenada por relevancia.
+     * Requiere database/12_business_search.sql (columna search_vector e índices GIN).
+     * El texto completo cubre plurales y variantes ("panaderias" encuentra "Panadería"); los trigramas,
+     * palabras incompletas o con errores ("farmasia").
+     */
+    @Query(value = "SELECT b.* FROM businesses b "
+            + "WHERE b.is_active "
+            + "AND (b.search_vector @@ websearch_to_tsquery('public.es_unaccent', :query) "
+            + "OR public.immutable_unaccent(lower(:query)) <% public.immutable_unaccent(lower(b.name)) "
+            + "OR public.immutable_unaccent(lower(:query)) <% public.immutable_unaccent(lower(b.category))) "
+            + "ORDER BY ts_rank_cd(b.search_vector, websearch_to_tsquery('public.es_unaccent', :query)) "
+            + "+ greatest(word_similarity(public.immutable_unaccent(lower(:query)), public.immutable_unaccent(lower(b.name))), "
+            + "word_similarity(public.immutable_unaccent(lower(:query)), public.immutable_unaccent(lower(b.category)))) DESC, "
+            + "b.name "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Business> searchRanked(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Página de la búsqueda por texto completo y trigramas, ordenada por (nombre, id) a partir del cursor.
+     * Paginación por clave (keyset): cada página lee como máximo limit filas, sin OFFSET.
+     * Para la primera página, afterName = "" y afterId = 0.
+     * El nombre se compara con COLLATE "C" (por código Unicode), el mismo orden que BusinessSearchIndex;
+     * requiere database/20_business_keyset_collation.sql para leer la página desde el índice.
+     */
+    @Query(value = "SELECT b.* FROM businesses b "
+            + "WHERE b.is_active "
+            + "AND (b.search_vector @@ websearch_to_tsquery('public.es_unaccent', :query) "
+            + "OR public.immutable_unaccent(lower(:query)) <% public.immutable_unaccent(lower(b.name)) "
+            + "OR public.immutable_unaccent(lower(:query)) <% public.immutable_unaccent(lower(b.category))) "
+            + "AND (b.name COLLATE \"C\", b.id) > (:afterName, :afterId) "
+            + "ORDER BY b.name COLLATE \"C\", b.id "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Business> searchPage(@Param("query") String query, @Param("afterName") String afterName,
+                              @Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Página de negocios cuya categoría contenga el texto, ordenada por (nombre, id) a partir del cursor.
+     * Alternativa a searchPage para bases sin la migración 12. Compara el nombre con la collation ucs_basic
+     * de PostgreSQL (por código Unicode, igual que COLLATE "C" en searchPage); H2 no admite COLLATE en consultas.
+     */
+    @Query("SELECT b FROM Business b WHERE LOWER(b.category) LIKE LOWER(CONCAT('%', :category, '%')) AND b.isActive = true "
+            + "AND (collate(b.name as ucs_basic) > :afterName OR (b.name = :afterName AND b.id > :afterId)) "
+            + "ORDER BY collate(b.name as ucs_basic), b.id")
+    List<Business> findByCategoryContainingAfter(@Param("category") String category,
+                                                 @Param("afterName") String afterName,
+                                                 @Param("afterId") long afterId,
+                                                 Pageable pageable);
+
+    /**
+     * Los negocios activos más cercanos a un punto, dentro de un radio, ordenados por distancia.
+     * Requiere database/14_business_location.sql: ORDER BY ... <-> recorre el índice GiST en orden
+     * de distancia (k-NN), así solo se leen las filas que se devuelven aunque la tabla sea grande.
+     * earth_box acota la búsqueda con el índice; earth_distance descarta las esquinas de la caja.
+     */
+    @Query(value = "SELECT b.* FROM businesses b "
+            + "WHERE b.is_active AND b.latitude IS NOT NULL AND b.longitude IS NOT NULL "
+            + "AND earth_box(ll_to_earth(:latitude, :longitude), :radiusMeters) @> ll_to_earth(b.latitude, b.longitude) "
+            + "AND earth_distance(ll_to_earth(:latitude, :longitude), ll_to_earth(b.latitude, b.longitude)) <= :radiusMeters "
+            + "ORDER BY ll_to_earth(b.latitude, b.longitude) <-> ll_to_earth(:latitude, :longitude) "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Business> findNearest(@Param("latitude") double latitude, @Param("longitude") double longitude,
+                               @Param("radiusMeters") double radiusMeters, @Param("limit") int limit);
+
+    /**
+     * Como findNearest, solo dentro de una categoría (case-insensitive).
+     * Usa el índice GiST (lower(category), ubicación), que recorre por distancia solo esa categoría.
+     */
+    @Query(value = "SELECT b.* FROM businesses b "
+            + "WHERE b.is_active AND b.latitude IS NOT NULL AND b.longitude IS NOT NULL "
+            + "AND lower(b.category) = lower(:category) "
+            + "AND earth_box(ll_to_earth(:latitude, :longitude), :radiusMeters) @> ll_to_earth(b.latitude, b.longitude) "
+            + "AND earth_distance(ll_to_earth(:latitude, :longitude), ll_to_earth(b.latitude, b.longitude)) <= :radiusMeters "
+            + "ORDER BY ll_to_earth(b.latitude, b.longitude) <-> ll_to_earth(:latitude, :longitude) "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Business> findNearestInCategory(@Param("category") String category,
+                                         @Param("latitude") double latitude, @Param("longitude") double longitude,
+                                         @Param("radiusMeters") double radiusMeters, @Param("limit") int limit);
+
+    /**
+     * Negocios activos dentro de un rectángulo de coordenadas, con categoría opcional (null = todas).
+     * Alternativa a findNearest para bases sin la migración 14: el orden por distancia se calcula en memoria.
+     */
+    @Query("SELECT b FROM Business b WHERE b.isActive = true "
+            + "AND b.latitude BETWEEN :minLatitude AND :maxLatitude "
+            + "AND b.longitude BETWEEN :minLongitude AND :maxLongitude "
+            + "AND (:category IS NULL OR LOWER(b.category) = LOWER(:category))")
+    List<Business> findActiveWithinBox(@Param("category") String category,
+                                       @Param("minLatitude") double minLatitude,
+                                       @Param("maxLatitude") double maxLatitude,
+                                       @Param("minLongitude") double minLongitude,
+                                       @Param("maxLongitude") double maxLongitude);
+
     /**
      * Cuenta negocios activos por categoría.
      */
@@ -50,6 +146,13 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
      */
     long countByIsActiveTrue();
 
+    /**
+     * Cuenta negocios activos agrupados por categoría (la categoría puede ser null).
+     * Cada fila es [categoría, conteo].
+     */
+    @Query("SELECT b.category, COUNT(b) FROM Business b WHERE b.isActive = true GROUP BY b.category")
+    List<Object[]> countActiveGroupByCategory();
+
     /**
      * Obtiene todas las categorías únicas de negocios activos.
      */
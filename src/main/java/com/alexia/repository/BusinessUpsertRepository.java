@@ -0,0 +1,130 @@
+package com.alexia.repository;
+
+import com.alexia.entity.Business;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escritura masiva de negocios con JDBC: un solo INSERT ... ON CONFLICT de varias filas por lote,
+ * en lugar de un INSERT o UPDATE por negocio como haría JPA.
+ * Requiere database/15_business_import.sql (índice único sobre import_key).
+ */
+@Repository
+public class BusinessUpsertRepository {
+
+    /**
+     * Igual que el allocationSize de Business: los IDs se reservan en bloques de la misma secuencia
+     * que usa Hibernate, así nunca coinciden con los suyos.
+     */
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * PostgreSQL admite como máximo 65535 parámetros por sentencia.
+     */
+    public static final int MAX_BATCH_SIZE = 65_535 / 9;
+
+    private static final String INSERT = "INSERT INTO businesses "
+            + "(id, import_key, name, category, address, phone, latitude, longitude, is_active, created_at, updated_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())";
+    // Las filas idénticas no se reescriben ni se devuelven: repetir una importación no genera escrituras
+    private static final String ON_CONFLICT = " ON CONFLICT (import_key) DO UPDATE SET "
+            + "name = EXCLUDED.name, category = EXCLUDED.category, address = EXCLUDED.address, "
+            + "phone = EXCLUDED.phone, latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude, "
+            + "is_active = EXCLUDED.is_active, updated_at = now() "
+            + "WHERE (businesses.name, businesses.category, businesses.address, businesses.phone, "
+            + "businesses.latitude, businesses.longitude, businesses.is_active) IS DISTINCT FROM "
+            + "(EXCLUDED.name, EXCLUDED.category, EXCLUDED.address, EXCLUDED.phone, "
+            + "EXCLUDED.latitude, EXCLUDED.longitude, EXCLUDED.is_active) "
+            + "RETURNING (xmax = 0) AS inserted";
+
+    /**
+     * Resultado de un lote: las filas que no son altas ni cambios quedaron sin modificar.
+     *
+     * @param inserted Negocios nuevos
+     * @param updated Negocios existentes con algún dato distinto
+     */
+    public record UpsertCounts(int inserted, int updated) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BusinessUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta o actualiza un lote de negocios por import_key, en una sola sentencia.
+     * Las claves del lote deben ser únicas (ON CONFLICT no puede tocar la misma fila dos veces).
+     *
+     * @param businesses Negocios con importKey, como máximo MAX_BATCH_SIZE
+     * @return Altas y cambios del lote
+     */
+    public UpsertCounts upsert(List<Business> businesses) {
+        if (businesses.isEmpty()) {
+            return new UpsertCounts(0, 0);
+        }
+        if (businesses.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Lote demasiado grande: " + businesses.size() + " > " + MAX_BATCH_SIZE);
+        }
+
+        List<Long> ids = allocateIds(businesses.size());
+        StringBuilder sql = new StringBuilder(INSERT.length() + businesses.size() * (ROW.length() + 2) + ON_CONFLICT.length());
+        sql.append(INSERT);
+        for (int i = 0; i < businesses.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW);
+        }
+        sql.append(ON_CONFLICT);
+
+        List<Boolean> returned = jdbcTemplate.query(sql.toString(),
+                statement -> bind(statement, businesses, ids),
+                (resultSet, rowNumber) -> resultSet.getBoolean(1));
+        int inserted = (int) returned.stream().filter(Boolean::booleanValue).count();
+        return new UpsertCounts(inserted, returned.size() - inserted);
+    }
+
+    /**
+     * Reserva IDs como el optimizador pooled de Hibernate: cada nextval es el límite superior de un bloque.
+     * Los IDs de las filas que acaban actualizadas se pierden, igual que los bloques sin agotar de Hibernate.
+     */
+    private List<Long> allocateIds(int count) {
+        int blocks = (count + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+        List<Long> ids = new ArrayList<>(blocks * ID_ALLOCATION_SIZE);
+        // Hasta agotar la secuencia nueva, el primer bloque puede incluir IDs < 1: se descartan y se pide otro
+        while (ids.size() < count) {
+            List<Long> upperBounds = jdbcTemplate.queryForList(
+                    "SELECT nextval('businesses_id_seq') FROM generate_series(1, ?)", Long.class, blocks);
+            for (long upperBound : upperBounds) {
+                for (long id = upperBound - ID_ALLOCATION_SIZE + 1; id <= upperBound; id++) {
+                    if (id >= 1) {
+                        ids.add(id);
+                    }
+                }
+            }
+            blocks = 1;
+        }
+        return ids;
+    }
+
+    private static void bind(PreparedStatement statement, List<Business> businesses, List<Long> ids)
+            throws SQLException {
+        int index = 1;
+        for (int i = 0; i < businesses.size(); i++) {
+            Business business = businesses.get(i);
+            statement.setLong(index++, ids.get(i));
+            statement.setString(index++, business.getImportKey());
+            statement.setString(index++, business.getName());
+            statement.setString(index++, business.getCategory());
+            statement.setString(index++, business.getAddress());
+            statement.setString(index++, business.getPhone());
+            statement.setObject(index++, business.getLatitude(), Types.DOUBLE);
+            statement.setObject(index++, business.getLongitude(), Types.DOUBLE);
+            statement.setBoolean(index++, business.isActive());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.alexia.repository;
+
+import com.alexia.entity.ConversationState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio para el estado persistido de la memoria de conversación.
+ */
+@Repository
+public interface ConversationStateRepository extends JpaRepository<ConversationState, Long> {
+
+    /**
+     * Elimina las conversaciones sin actividad desde la fecha indicada.
+     *
+     * @return Número de conversaciones eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM ConversationState c WHERE c.updatedAt < :cutoff")
+    int deleteByUpdatedAtBefore(LocalDateTime cutoff);
+}
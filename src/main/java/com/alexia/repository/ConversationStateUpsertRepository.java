@@ -0,0 +1,73 @@
+package com.alexia.repository;
+
+import com.alexia.entity.ConversationState;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Escritura por lotes del estado de la memoria de conversación con un solo INSERT ... ON CONFLICT
+ * de varias filas. Con saveAll de JPA cada estado (de ID asignado, el chat) pasaría por merge:
+ * un SELECT y luego un INSERT o UPDATE por conversación.
+ * Requiere database/11_conversation_memory.sql (clave primaria chat_id).
+ */
+@Repository
+public class ConversationStateUpsertRepository {
+
+    /**
+     * PostgreSQL admite como máximo 65535 parámetros por sentencia.
+     */
+    public static final int MAX_BATCH_SIZE = 65_535 / 5;
+
+    private static final String INSERT = "INSERT INTO conversation_memory "
+            + "(chat_id, summary, recent_messages, folded_tokens, updated_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?)";
+    private static final String ON_CONFLICT = " ON CONFLICT (chat_id) DO UPDATE SET "
+            + "summary = EXCLUDED.summary, recent_messages = EXCLUDED.recent_messages, "
+            + "folded_tokens = EXCLUDED.folded_tokens, updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ConversationStateUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta o actualiza un lote de conversaciones por chat_id, en una sola sentencia.
+     * Los chats del lote deben ser únicos (ON CONFLICT no puede tocar la misma fila dos veces).
+     *
+     * @param states Estados a guardar, como máximo MAX_BATCH_SIZE
+     * @return Filas insertadas o actualizadas
+     */
+    public int upsert(List<ConversationState> states) {
+        if (states.isEmpty()) {
+            return 0;
+        }
+        if (states.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Lote demasiado grande: " + states.size() + " > " + MAX_BATCH_SIZE);
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT.length() + states.size() * (ROW.length() + 2) + ON_CONFLICT.length());
+        sql.append(INSERT);
+        for (int i = 0; i < states.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW);
+        }
+        sql.append(ON_CONFLICT);
+        return jdbcTemplate.update(sql.toString(), statement -> bind(statement, states));
+    }
+
+    private static void bind(PreparedStatement statement, List<ConversationState> states) throws SQLException {
+        int index = 1;
+        for (ConversationState state : states) {
+            statement.setLong(index++, state.getChatId());
+            statement.setString(index++, state.getSummary());
+            statement.setString(index++, state.getRecentMessages());
+            statement.setLong(index++, state.getFoldedTokens());
+            statement.setTimestamp(index++, Timestamp.valueOf(state.getUpdatedAt()));
+        }
+    }
+}
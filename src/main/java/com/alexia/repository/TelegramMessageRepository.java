@@ -1,7 +1,12 @@
 package com.alexia.repository;
 
+import com.alexia.dto.TelegramMessageSummary;
 import com.alexia.entity.TelegramMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -32,4 +37,55 @@ public interface TelegramMessageRepository extends JpaRepository<TelegramMessage
      * Encuentra todos los mensajes ordenados por fecha descendente.
      */
     List<TelegramMessage> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Cuenta los mensajes que recibieron respuesta del bot.
+     */
+    long countByBotResponseIsNotNull();
+
+    /**
+     * Página de mensajes para la grilla de logs, con filtros opcionales (null = sin filtro).
+     * Devuelve un Slice: lee como máximo tamaño de página + 1 filas y no ejecuta COUNT(*), así el costo
+     * no depende del tamaño de la tabla. El mensaje y la respuesta vienen recortados a
+     * {@link TelegramMessageSummary#PREVIEW_LENGTH} caracteres.
+     *
+     * @param from Fecha mínima (incluida)
+     * @param to Fecha máxima (excluida)
+     * @param chatId Chat exacto
+     * @param userNamePrefix Prefijo del username, en minúsculas
+     * @param maxId ID máximo incluido; fija el conjunto de filas mientras la vista recibe los nuevos por push
+     * @param pageable Página y orden (propiedades de TelegramMessage, por ejemplo createdAt)
+     */
+    @Query("SELECT new com.alexia.dto.TelegramMessageSummary(m.id, m.chatId, m.userName, m.firstName, m.lastName, "
+            + "SUBSTRING(m.messageText, 1, " + TelegramMessageSummary.PREVIEW_LENGTH + "), "
+            + "SUBSTRING(m.botResponse, 1, " + TelegramMessageSummary.PREVIEW_LENGTH + "), m.createdAt) "
+            + "FROM TelegramMessage m "
+            + "WHERE (:from IS NULL OR m.createdAt >= :from) "
+            + "AND (:to IS NULL OR m.createdAt < :to) "
+            + "AND (:chatId IS NULL OR m.chatId = :chatId) "
+            + "AND (:userNamePrefix IS NULL OR LOWER(m.userName) LIKE CONCAT(:userNamePrefix, '%')) "
+            + "AND (:maxId IS NULL OR m.id <= :maxId)")
+    Slice<TelegramMessageSummary> findSummaries(@Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("chatId") Long chatId,
+                                                @Param("userNamePrefix") String userNamePrefix,
+                                                @Param("maxId") Long maxId,
+                                                Pageable pageable);
+
+    /**
+     * ID del último mensaje guardado (0 si no hay mensajes). Resuelto con el índice de la clave primaria.
+     */
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM TelegramMessage m")
+    long findMaxId();
+
+    /**
+     * Número aproximado de mensajes según las estadísticas de PostgreSQL (sin recorrer la tabla).
+     * Suma las particiones mensuales (database/17_telegram_messages_partitioning.sql), o la tabla si no está
+     * particionada; las que aún no fueron analizadas cuentan 0.
+     */
+    @Query(value = "SELECT CAST(COALESCE(SUM(GREATEST(c.reltuples, 0)), 0) AS BIGINT) FROM pg_class c "
+            + "WHERE c.relkind = 'r' AND (c.oid = CAST('telegram_messages' AS regclass) OR c.oid IN "
+            + "(SELECT i.inhrelid FROM pg_inherits i WHERE i.inhparent = CAST('telegram_messages' AS regclass)))",
+            nativeQuery = true)
+    long estimateCount();
 }
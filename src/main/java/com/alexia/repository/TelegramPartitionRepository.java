@@ -0,0 +1,122 @@
+package com.alexia.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantenimiento de las particiones mensuales de telegram_messages con JDBC.
+ * Requiere database/17_telegram_messages_partitioning.sql (tabla particionada y funciones de particiones).
+ */
+@Repository
+public class TelegramPartitionRepository {
+
+    /**
+     * Filas que el driver trae por viaje al recorrer una partición (requiere transacción abierta)
+     */
+    static final int FETCH_SIZE = 10_000;
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("telegram_messages_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String LIST_PARTITIONS = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = CAST('telegram_messages' AS regclass) ORDER BY c.relname";
+
+    /**
+     * Partición mensual de telegram_messages.
+     *
+     * @param name Nombre de la tabla (telegram_messages_pAAAAMM)
+     * @param month Mes que contiene
+     */
+    public record MonthlyPartition(String name, YearMonth month) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TelegramPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Indica si telegram_messages está particionada (migración 17 aplicada).
+     */
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = CAST('telegram_messages' AS regclass))",
+                Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    /**
+     * Crea, si faltan, las particiones del mes actual, de los meses siguientes y de los meses con filas
+     * en la partición DEFAULT, moviendo esas filas a su partición (database/19_telegram_default_partition.sql).
+     *
+     * @param monthsAhead Meses por delante del actual
+     */
+    public void ensurePartitions(int monthsAhead) {
+        jdbcTemplate.queryForObject("SELECT telegram_messages_ensure_partitions(?)", Integer.class, monthsAhead);
+    }
+
+    /**
+     * Lista las particiones mensuales, de la más antigua a la más nueva. No incluye la partición DEFAULT.
+     */
+    public List<MonthlyPartition> findMonthlyPartitions() {
+        List<MonthlyPartition> partitions = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                partitions.add(new MonthlyPartition(name, YearMonth.parse(matcher.group(1), PARTITION_MONTH)));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Indica si la partición DEFAULT tiene filas: mensajes de meses sin partición propia.
+     */
+    public boolean hasRowsInDefaultPartition() {
+        Boolean rows = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM telegram_messages_default)",
+                Boolean.class);
+        return Boolean.TRUE.equals(rows);
+    }
+
+    /**
+     * Recorre todas las filas de una partición en orden de id, en bloques de FETCH_SIZE.
+     * Debe llamarse dentro de una transacción para que el driver use un cursor en vez de cargar todo.
+     *
+     * @param partition Partición a leer
+     * @param handler Recibe cada fila con todas las columnas de telegram_messages (SELECT *), así el archivo
+     *                conserva también las columnas que se agreguen en migraciones posteriores
+     */
+    public void streamPartition(MonthlyPartition partition, RowCallbackHandler handler) {
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(FETCH_SIZE);
+        cursor.query("SELECT * FROM " + quote(partition) + " ORDER BY id", handler);
+    }
+
+    /**
+     * Separa la partición de telegram_messages y la borra: libera el espacio del mes sin DELETE ni VACUUM.
+     *
+     * @param partition Partición a eliminar
+     */
+    public void dropPartition(MonthlyPartition partition) {
+        jdbcTemplate.execute("ALTER TABLE telegram_messages DETACH PARTITION " + quote(partition));
+        jdbcTemplate.execute("DROP TABLE " + quote(partition));
+    }
+
+    private static String quote(MonthlyPartition partition) {
+        // El nombre sale de pg_class y cumple PARTITION_NAME; se valida igual antes de concatenarlo
+        if (!PARTITION_NAME.matcher(partition.name()).matches()) {
+            throw new IllegalArgumentException("Nombre de partición inválido: " + partition.name());
+        }
+        return '"' + partition.name() + '"';
+    }
+}
@@ -0,0 +1,108 @@
+package com.alexia.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Resúmenes por hora y por día de la actividad del bot (telegram_stats_hourly y telegram_stats_daily) con JDBC.
+ * Requiere database/18_telegram_stats_rollups.sql. Las consultas usan ON CONFLICT y date_trunc de PostgreSQL.
+ */
+@Repository
+public class TelegramStatsRepository {
+
+    /**
+     * Totales acumulados de todos los días.
+     *
+     * @param messages Mensajes recibidos
+     * @param answered Mensajes con respuesta del bot
+     * @param commands Comandos ejecutados
+     * @param clicks Pulsaciones de botones
+     * @param latencyCount Respuestas con latencia medida
+     * @param latencySumMs Suma de esas latencias
+     */
+    public record StatsTotals(long messages, long answered, long commands, long clicks,
+                              long latencyCount, long latencySumMs) {
+    }
+
+    private static final String METRIC_COLUMNS = "bucket_start, messages, answered, unique_chats, "
+            + "latency_count, latency_sum_ms, latency_max_ms, commands";
+
+    /**
+     * Recalcula desde telegram_messages y bot_commands los intervalos desde el indicado; clicks no se toca
+     * porque solo existe en los resúmenes. %1$s = tabla, %2$s = expresión del intervalo sobre created_at.
+     */
+    private static final String RECOMPUTE = "INSERT INTO %1$s (" + METRIC_COLUMNS + ") "
+            + "SELECT COALESCE(m.bucket_start, c.bucket_start), COALESCE(m.messages, 0), COALESCE(m.answered, 0), "
+            + "COALESCE(m.unique_chats, 0), COALESCE(m.latency_count, 0), COALESCE(m.latency_sum_ms, 0), "
+            + "COALESCE(m.latency_max_ms, 0), COALESCE(c.commands, 0) "
+            + "FROM (SELECT %2$s AS bucket_start, COUNT(*) AS messages, COUNT(bot_response) AS answered, "
+            + "COUNT(DISTINCT chat_id) AS unique_chats, COUNT(response_time_ms) AS latency_count, "
+            + "COALESCE(SUM(response_time_ms), 0) AS latency_sum_ms, COALESCE(MAX(response_time_ms), 0) AS latency_max_ms "
+            + "FROM telegram_messages WHERE created_at >= ? GROUP BY 1) m "
+            + "FULL JOIN (SELECT %2$s AS bucket_start, COUNT(*) AS commands "
+            + "FROM bot_commands WHERE created_at >= ? GROUP BY 1) c ON c.bucket_start = m.bucket_start "
+            + "ON CONFLICT (bucket_start) DO UPDATE SET messages = EXCLUDED.messages, answered = EXCLUDED.answered, "
+            + "unique_chats = EXCLUDED.unique_chats, latency_count = EXCLUDED.latency_count, "
+            + "latency_sum_ms = EXCLUDED.latency_sum_ms, latency_max_ms = EXCLUDED.latency_max_ms, "
+            + "commands = EXCLUDED.commands, updated_at = NOW()";
+
+    private static final String ADD_CLICKS = "INSERT INTO %s (bucket_start, clicks) VALUES (?, ?) "
+            + "ON CONFLICT (bucket_start) DO UPDATE SET clicks = %<s.clicks + EXCLUDED.clicks, updated_at = NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TelegramStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recalcula las horas desde la indicada (inclusive) con los valores exactos de las tablas de origen.
+     *
+     * @param since Inicio de la primera hora a recalcular
+     * @return Horas escritas
+     */
+    public int recomputeHourly(LocalDateTime since) {
+        Timestamp from = Timestamp.valueOf(since);
+        return jdbcTemplate.update(String.format(RECOMPUTE, "telegram_stats_hourly", "date_trunc('hour', created_at)"),
+                from, from);
+    }
+
+    /**
+     * Recalcula los días desde el indicado (inclusive) con los valores exactos de las tablas de origen.
+     *
+     * @param since Primer día a recalcular
+     * @return Días escritos
+     */
+    public int recomputeDaily(LocalDate since) {
+        Timestamp from = Timestamp.valueOf(since.atStartOfDay());
+        return jdbcTemplate.update(String.format(RECOMPUTE, "telegram_stats_daily", "CAST(created_at AS DATE)"),
+                from, from);
+    }
+
+    /**
+     * Suma pulsaciones de botones a la hora indicada y a su día.
+     *
+     * @param hour Inicio de la hora
+     * @param clicks Pulsaciones a sumar
+     */
+    public void addClicks(LocalDateTime hour, long clicks) {
+        jdbcTemplate.update(String.format(ADD_CLICKS, "telegram_stats_hourly"), Timestamp.valueOf(hour), clicks);
+        jdbcTemplate.update(String.format(ADD_CLICKS, "telegram_stats_daily"), Date.valueOf(hour.toLocalDate()), clicks);
+    }
+
+    /**
+     * Totales de todos los días: lee un registro por día en lugar de contar los mensajes.
+     */
+    public StatsTotals findTotals() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(messages), 0), COALESCE(SUM(answered), 0), "
+                        + "COALESCE(SUM(commands), 0), COALESCE(SUM(clicks), 0), COALESCE(SUM(latency_count), 0), "
+                        + "COALESCE(SUM(latency_sum_ms), 0) FROM telegram_stats_daily",
+                (rs, rowNum) -> new StatsTotals(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                        rs.getLong(5), rs.getLong(6)));
+    }
+}
@@ -0,0 +1,13 @@
+package com.alexia.service;
+
+import com.alexia.entity.BotCommand;
+
+import java.util.List;
+
+/**
+ * Evento publicado cuando un lote de comandos del bot queda guardado en la base de datos.
+ *
+ * @param commands Comandos guardados
+ */
+public record BotCommandsPersistedEvent(List<BotCommand> commands) {
+}
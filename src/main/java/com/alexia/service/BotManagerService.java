@@ -1,34 +1,51 @@
 package com.alexia.service;
 
 import com.alexia.telegram.AlexiaTelegramBot;
+import com.alexia.telegram.BotMode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.BotSession;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
 /**
  * Servicio para gestionar el ciclo de vida del bot de Telegram.
- * Permite iniciar, detener y consultar el estado del bot de forma controlada.
+ * Permite iniciar, detener y consultar el estado del bot de forma controlada,
+ * recibiendo actualizaciones por long polling o por webhook.
  */
 @Service
 @Slf4j
 public class BotManagerService {
 
     private final AlexiaTelegramBot alexiaTelegramBot;
-    private TelegramBotsApi botsApi;
-    private boolean isBotRegistered = false;
+    private final String webhookBaseUrl;
+    private final String webhookPath;
+    private final String webhookSecret;
 
-    public BotManagerService(AlexiaTelegramBot alexiaTelegramBot) {
+    private volatile BotMode mode;
+    private BotSession botSession;
+    private volatile boolean isBotRegistered = false;
+
+    public BotManagerService(AlexiaTelegramBot alexiaTelegramBot,
+                             @Value("${telegram.bot.mode:polling}") String mode,
+                             @Value("${telegram.webhook.base-url:}") String webhookBaseUrl,
+                             @Value("${telegram.webhook.path:/telegram/webhook}") String webhookPath,
+                             @Value("${telegram.webhook.secret:}") String webhookSecret) {
         this.alexiaTelegramBot = alexiaTelegramBot;
-        log.info("BotManagerService inicializado - El bot está listo para ser iniciado manualmente");
+        this.mode = BotMode.valueOf(mode.trim().toUpperCase());
+        this.webhookBaseUrl = webhookBaseUrl;
+        this.webhookPath = webhookPath;
+        this.webhookSecret = webhookSecret;
+        log.info("BotManagerService inicializado - mode={} - El bot está listo para ser iniciado manualmente", this.mode);
     }
 
     /**
      * Inicia el bot de Telegram.
-     * Registra el bot en la API de Telegram y lo activa para procesar mensajes.
-     * 
-     * @throws IllegalStateException si el bot ya está en ejecución
+     * Registra el bot en la API de Telegram según el modo configurado y lo activa para procesar mensajes.
+     *
+     * @throws IllegalStateException si el bot ya está en ejecución o falta configuración del webhook
      */
     public synchronized void startBot() {
         if (isBotRunning()) {
@@ -37,29 +54,21 @@ public class BotManagerService {
         }
 
         try {
-            log.info("🚀 Iniciando el bot de Telegram...");
-            
-            // Registrar el bot si no está registrado
-            if (!isBotRegistered) {
-                botsApi = new TelegramBotsApi(DefaultBotSession.class);
-                botsApi.registerBot(alexiaTelegramBot);
-                isBotRegistered = true;
-                log.info("✅ Bot registrado en la API de Telegram");
-            }
-            
-            // Eliminar webhook si existe (necesario para usar long polling)
-            log.info("🔧 Verificando y eliminando webhook si existe...");
-            boolean webhookDeleted = alexiaTelegramBot.deleteWebhook();
-            if (!webhookDeleted) {
-                log.warn("⚠️ No se pudo eliminar el webhook, pero continuando con el inicio");
+            log.info("🚀 Iniciando el bot de Telegram - mode={}...", mode);
+
+            if (mode == BotMode.WEBHOOK) {
+                startWebhook();
+            } else {
+                startPolling();
             }
-            
+            isBotRegistered = true;
+
             // Activar el bot para que procese mensajes
             alexiaTelegramBot.setActive(true);
-            
-            log.info("✅ Bot de Telegram iniciado correctamente - username=@{}", 
-                    alexiaTelegramBot.getBotUsername());
-            
+
+            log.info("✅ Bot de Telegram iniciado correctamente - username=@{}, mode={}",
+                    alexiaTelegramBot.getBotUsername(), mode);
+
         } catch (TelegramApiException e) {
             log.error("❌ Error al iniciar el bot de Telegram: {}", e.getMessage(), e);
             isBotRegistered = false;
@@ -70,8 +79,8 @@ public class BotManagerService {
 
     /**
      * Detiene el bot de Telegram.
-     * El bot deja de procesar mensajes pero mantiene su registro en la API.
-     * 
+     * El bot deja de procesar mensajes y se libera el canal de recepción (sesión de polling o webhook).
+     *
      * @throws IllegalStateException si el bot no está en ejecución
      */
     public synchronized void stopBot() {
@@ -81,17 +90,23 @@ public class BotManagerService {
         }
 
         log.info("🛑 Deteniendo el bot de Telegram...");
-        
+
         // Desactivar el bot para que no procese más mensajes
         alexiaTelegramBot.setActive(false);
-        
+
+        if (mode == BotMode.WEBHOOK) {
+            alexiaTelegramBot.deleteWebhook();
+        } else {
+            stopPollingSession();
+        }
+        isBotRegistered = false;
+
         log.info("✅ Bot de Telegram detenido - No procesará nuevos mensajes");
-        log.info("ℹ️  El bot permanece registrado y puede ser reiniciado en cualquier momento");
     }
 
     /**
      * Verifica si el bot está en ejecución.
-     * 
+     *
      * @return true si el bot está registrado y activo, false en caso contrario
      */
     public boolean isBotRunning() {
@@ -100,16 +115,13 @@ public class BotManagerService {
 
     /**
      * Obtiene el estado detallado del bot.
-     * 
+     *
      * @return String con información del estado del bot
      */
     public String getBotStatus() {
         if (isBotRunning()) {
-            return String.format("✅ Bot ACTIVO - @%s procesando mensajes", 
-                    alexiaTelegramBot.getBotUsername());
-        } else if (isBotRegistered) {
-            return String.format("⏸️ Bot PAUSADO - @%s registrado pero inactivo", 
-                    alexiaTelegramBot.getBotUsername());
+            return String.format("✅ Bot ACTIVO - @%s procesando mensajes (%s)",
+                    alexiaTelegramBot.getBotUsername(), mode.getDisplayName());
         } else {
             return "⏹️ Bot DETENIDO - No registrado en la API de Telegram";
         }
@@ -120,13 +132,97 @@ public class BotManagerService {
      */
     public synchronized void restartBot() {
         log.info("🔄 Reiniciando el bot de Telegram...");
-        
+
         if (isBotRunning()) {
             stopBot();
         }
-        
+
         startBot();
-        
+
         log.info("✅ Bot reiniciado correctamente");
     }
+
+    /**
+     * Cambia el modo de recepción. Si el bot estaba en ejecución, se detiene con el modo
+     * anterior y se vuelve a iniciar con el nuevo, de modo que nunca quedan ambos canales activos.
+     *
+     * @param newMode Nuevo modo de recepción
+     */
+    public synchronized void switchMode(BotMode newMode) {
+        if (newMode == mode) {
+            return;
+        }
+        boolean wasRunning = isBotRunning();
+        log.info("🔀 Cambiando modo del bot - from={}, to={}, running={}", mode, newMode, wasRunning);
+
+        if (wasRunning) {
+            stopBot();
+        }
+        mode = newMode;
+        if (wasRunning) {
+            startBot();
+        }
+    }
+
+    /**
+     * Obtiene el modo de recepción actual.
+     *
+     * @return Modo actual
+     */
+    public BotMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Indica si el endpoint de webhook debe aceptar actualizaciones.
+     *
+     * @return true si el bot está en ejecución en modo webhook
+     */
+    public boolean isWebhookActive() {
+        return mode == BotMode.WEBHOOK && isBotRunning();
+    }
+
+    /**
+     * Registra la sesión de long polling. Primero elimina el webhook, ya que Telegram
+     * no entrega actualizaciones por getUpdates mientras haya un webhook configurado.
+     */
+    private void startPolling() throws TelegramApiException {
+        log.info("🔧 Verificando y eliminando webhook si existe...");
+        boolean webhookDeleted = alexiaTelegramBot.deleteWebhook();
+        if (!webhookDeleted) {
+            log.warn("⚠️ No se pudo eliminar el webhook, pero continuando con el inicio");
+        }
+
+        if (botSession == null || !botSession.isRunning()) {
+            TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
+            botSession = botsApi.registerBot(alexiaTelegramBot);
+            log.info("✅ Bot registrado en la API de Telegram (long polling)");
+        }
+    }
+
+    /**
+     * Registra el webhook. Cualquier sesión de polling previa se detiene antes.
+     */
+    private void startWebhook() {
+        if (webhookBaseUrl == null || webhookBaseUrl.isBlank()
+                || webhookSecret == null || webhookSecret.isBlank()) {
+            throw new IllegalStateException(
+                    "El modo webhook requiere telegram.webhook.base-url y telegram.webhook.secret");
+        }
+        stopPollingSession();
+
+        String url = webhookBaseUrl.replaceAll("/+$", "") + webhookPath;
+        if (!alexiaTelegramBot.setWebhook(url, webhookSecret)) {
+            throw new IllegalStateException("No se pudo registrar el webhook en Telegram");
+        }
+        log.info("✅ Webhook registrado en la API de Telegram - path={}", webhookPath);
+    }
+
+    private void stopPollingSession() {
+        if (botSession != null && botSession.isRunning()) {
+            log.info("Deteniendo sesión de long polling...");
+            botSession.stop();
+        }
+        botSession = null;
+    }
 }
@@ -0,0 +1,183 @@
+package com.alexia.service;
+
+import com.alexia.repository.BusinessRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Catálogo en caché de las categorías de negocios activos y sus conteos.
+ * Se carga con una sola consulta agrupada y se publica como una instantánea inmutable, así
+ * leer categorías o conteos no toca la base de datos. Cada {@link BusinessChangedEvent} o
+ * {@link BusinessesImportedEvent} programa una recarga en segundo plano (varias seguidas se
+ * fusionan en una) y, además, se recarga cada refresh-minutes por si hubo cambios fuera de la
+ * aplicación.
+ */
+@Component
+@Slf4j
+public class BusinessCatalog {
+
+    /**
+     * Instantánea de solo lectura del catálogo.
+     *
+     * @param categories Categorías con negocios activos, en orden alfabético
+     * @param countsByCategory Negocios activos por categoría (clave en minúsculas)
+     * @param activeCount Total de negocios activos, incluidos los que no tienen categoría
+     * @param refreshedAt Momento de la carga
+     */
+    public record Snapshot(List<String> categories, Map<String, Long> countsByCategory, long activeCount,
+                           LocalDateTime refreshedAt) {
+
+        /**
+         * Cuenta los negocios activos de una categoría, sin distinguir mayúsculas.
+         *
+         * @param category Categoría
+         * @return Número de negocios activos (0 si la categoría no existe)
+         */
+        public long countByCategory(String category) {
+            return category == null ? 0 : countsByCategory.getOrDefault(category.trim().toLowerCase(Locale.ROOT), 0L);
+        }
+
+        /**
+         * Busca la categoría escrita por el usuario sin distinguir mayúsculas, tildes ni el plural simple,
+         * con la misma normalización que la búsqueda ("panaderias" → "panadería").
+         *
+         * @param typed Texto escrito por el usuario
+         * @return Categoría tal como está guardada, o vacío si no hay ninguna equivalente
+         */
+        public Optional<String> resolveCategory(String typed) {
+            List<String> key = BusinessSearchIndex.tokenize(typed);
+            if (key.isEmpty()) {
+                return Optional.empty();
+            }
+            return categories.stream()
+                    .filter(category -> BusinessSearchIndex.tokenize(category).equals(key))
+                    .findFirst();
+        }
+    }
+
+    private final BusinessRepository businessRepository;
+    private final ScheduledExecutorService refresher;
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    public BusinessCatalog(BusinessRepository businessRepository,
+                           @Value("${business.catalog.refresh-minutes:10}") long refreshMinutes) {
+        this.businessRepository = businessRepository;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "business-catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (refreshMinutes > 0) {
+            refresher.scheduleWithFixedDelay(this::refreshSafely, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+        }
+        log.info("BusinessCatalog inicializado - refreshMinutes={}", refreshMinutes);
+    }
+
+    /**
+     * Obtiene la instantánea actual. Solo la primera llamada consulta la base de datos.
+     *
+     * @return Catálogo de categorías y conteos
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = refresh();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Recarga el catálogo de forma síncrona.
+     *
+     * @return Instantánea nueva
+     */
+    public Snapshot refresh() {
+        Map<String, Long> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        long activeCount = 0;
+        for (Object[] row : businessRepository.countActiveGroupByCategory()) {
+            String category = (String) row[0];
+            long count = ((Number) row[1]).longValue();
+            activeCount += count;
+            if (category != null) {
+                counts.merge(category, count, Long::sum);
+            }
+        }
+
+        Map<String, Long> countsByCategory = new LinkedHashMap<>();
+        counts.forEach((category, count) -> countsByCategory.put(category.toLowerCase(Locale.ROOT), count));
+        Snapshot refreshed = new Snapshot(Collections.unmodifiableList(new ArrayList<>(counts.keySet())),
+                Collections.unmodifiableMap(countsByCategory), activeCount, LocalDateTime.now());
+        snapshot = refreshed;
+        log.debug("Catálogo de negocios recargado - categories={}, active={}", counts.size(), activeCount);
+        return refreshed;
+    }
+
+    /**
+     * Programa una recarga tras un cambio confirmado; mientras tanto se sigue sirviendo la instantánea anterior.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusinessChanged(BusinessChangedEvent event) {
+        scheduleRefresh();
+    }
+
+    /**
+     * Programa una recarga tras una importación masiva.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusinessesImported(BusinessesImportedEvent event) {
+        scheduleRefresh();
+    }
+
+    /**
+     * Varias peticiones seguidas se fusionan en una sola recarga.
+     */
+    private void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            try {
+                refresher.execute(() -> {
+                    refreshScheduled.set(false);
+                    refreshSafely();
+                });
+            } catch (RuntimeException e) {
+                refreshScheduled.set(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Error al recargar el catálogo de negocios - exception={}, message={}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.alexia.service;
+
+import com.alexia.entity.Business;
+
+/**
+ * Evento publicado por {@link BusinessService} cuando un negocio se crea, modifica o da de baja.
+ * Los cachés de negocios (índice de búsqueda, catálogo de categorías) lo escuchan tras el commit.
+ *
+ * @param business Negocio tal como quedó guardado
+ */
+public record BusinessChangedEvent(Business business) {
+}
@@ -0,0 +1,233 @@
+package com.alexia.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lector en streaming de los registros de un archivo de importación: lee de a un registro,
+ * sin cargar el archivo en memoria. Las claves de cada registro van en minúsculas.
+ * Un registro mal formado se devuelve con su error para que la importación lo rechace y siga.
+ */
+abstract class BusinessImportReader implements Closeable {
+
+    /**
+     * Registro leído.
+     *
+     * @param number Número de registro en el archivo, desde 1
+     * @param fields Campos del registro (vacío si hubo error)
+     * @param error Motivo por el que no se pudo leer, o null
+     */
+    record ImportRecord(long number, Map<String, String> fields, String error) {
+    }
+
+    protected final BufferedReader reader;
+    protected long recordNumber;
+
+    protected BusinessImportReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 64 * 1024);
+    }
+
+    /**
+     * Abre un lector para el formato indicado.
+     */
+    static BusinessImportReader open(BusinessImportService.Format format, Reader reader) throws IOException {
+        return format == BusinessImportService.Format.CSV ? new Csv(reader) : new JsonLines(reader);
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return Registro, o null al final del archivo
+     */
+    abstract ImportRecord next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * CSV (RFC 4180) con cabecera: campos entre comillas con comas, comillas dobladas y saltos de línea.
+     * El separador es coma, o punto y coma si la cabecera lo usa (CSV exportado por Excel en español).
+     * Un registro con comillas sin cerrar se rechaza al superar MAX_RECORD_LINES líneas o MAX_RECORD_CHARS
+     * caracteres (o al llegar al final del archivo), y la lectura sigue en la línea siguiente a su primera línea.
+     */
+    static final class Csv extends BusinessImportReader {
+
+        static final int MAX_RECORD_LINES = 100;
+        static final int MAX_RECORD_CHARS = 64 * 1024;
+
+        private final List<String> header;
+        private final char separator;
+        // Líneas leídas como continuación de un registro rechazado, que se vuelven a leer como registros
+        private final Deque<String> pending = new ArrayDeque<>();
+
+        Csv(Reader reader) throws IOException {
+            super(reader);
+            String firstLine = this.reader.readLine();
+            if (firstLine == null) {
+                header = List.of();
+                separator = ',';
+                return;
+            }
+            if (!firstLine.isEmpty() && firstLine.charAt(0) == '\uFEFF') {
+                firstLine = firstLine.substring(1);
+            }
+            separator = firstLine.indexOf(';') >= 0 && firstLine.indexOf(',') < 0 ? ';' : ',';
+            List<String> columns = new ArrayList<>();
+            for (String column : parseLine(firstLine)) {
+                columns.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+            header = columns;
+        }
+
+        @Override
+        ImportRecord next() throws IOException {
+            String line = readLine();
+            while (line != null && line.isBlank()) {
+                line = readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+            long number = ++recordNumber;
+
+            StringBuilder record = new StringBuilder(line);
+            List<String> continuations = new ArrayList<>();
+            // Un salto de línea dentro de comillas continúa el registro en la línea siguiente
+            while (hasOpenQuote(record)) {
+                if (continuations.size() >= MAX_RECORD_LINES || record.length() > MAX_RECORD_CHARS) {
+                    requeue(continuations);
+                    return new ImportRecord(number, Map.of(), "Comillas sin cerrar: el registro pasa de "
+                            + MAX_RECORD_LINES + " líneas o " + MAX_RECORD_CHARS + " caracteres");
+                }
+                String continuation = readLine();
+                if (continuation == null) {
+                    requeue(continuations);
+                    return new ImportRecord(number, Map.of(), "Comillas sin cerrar hasta el final del archivo");
+                }
+                continuations.add(continuation);
+                record.append('\n').append(continuation);
+            }
+
+            List<String> values = parseLine(record.toString());
+            if (values.size() > header.size()) {
+                return new ImportRecord(number, Map.of(),
+                        "Tiene " + values.size() + " columnas y la cabecera " + header.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return new ImportRecord(number, fields, null);
+        }
+
+        private String readLine() throws IOException {
+            return pending.isEmpty() ? reader.readLine() : pending.poll();
+        }
+
+        /**
+         * Devuelve las líneas a la cabeza de la cola, antes de las que quedaban pendientes, en orden del archivo.
+         */
+        private void requeue(List<String> lines) {
+            for (int i = lines.size() - 1; i >= 0; i--) {
+                pending.addFirst(lines.get(i));
+            }
+        }
+
+        private static boolean hasOpenQuote(CharSequence record) {
+            boolean open = false;
+            for (int i = 0; i < record.length(); i++) {
+                if (record.charAt(i) == '"') {
+                    open = !open;
+                }
+            }
+            return open;
+        }
+
+        private List<String> parseLine(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == separator) {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+
+    /**
+     * JSON Lines: un objeto JSON por línea. Los valores que no son texto se convierten a texto.
+     */
+    static final class JsonLines extends BusinessImportReader {
+
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+        JsonLines(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        ImportRecord next() throws IOException {
+            String line = reader.readLine();
+            while (line != null && line.isBlank()) {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+            long number = ++recordNumber;
+
+            JsonNode node;
+            try {
+                node = OBJECT_MAPPER.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new ImportRecord(number, Map.of(), "JSON inválido: " + e.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                return new ImportRecord(number, Map.of(), "La línea no es un objeto JSON");
+            }
+            Map<String, String> fields = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> entries = node.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                if (!entry.getValue().isNull()) {
+                    fields.put(entry.getKey().toLowerCase(Locale.ROOT), entry.getValue().asText());
+                }
+            }
+            return new ImportRecord(number, fields, null);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.alexia.service;
+
+import com.alexia.dto.BusinessImportResult;
+import com.alexia.entity.Business;
+import com.alexia.entity.BusinessImportJob;
+import com.alexia.repository.BusinessImportJobRepository;
+import com.alexia.repository.BusinessUpsertRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de negocios desde archivos CSV o JSONL.
+ * Lee el archivo en streaming, valida cada registro con las restricciones de {@link Business},
+ * descarta los repetidos y escribe por lotes con un upsert por import_key. Cada lote se confirma
+ * junto con el punto de control del trabajo, así una importación interrumpida se reanuda al
+ * repetirla con el mismo archivo: los registros ya confirmados solo se vuelven a leer.
+ *
+ * <p>Columnas reconocidas: external_id, name, category, address, phone, latitude (o lat),
+ * longitude (o lon, lng) e is_active (o active). Sin external_id, la clave es un hash del
+ * nombre y la dirección normalizados.
+ */
+@Service
+@Slf4j
+public class BusinessImportService {
+
+    /**
+     * Formato del archivo de importación.
+     */
+    public enum Format {
+        CSV, JSONL;
+
+        /**
+         * Deduce el formato por la extensión (.csv, .jsonl o .ndjson).
+         *
+         * @param fileName Nombre del archivo
+         * @return Formato
+         * @throws IllegalArgumentException si la extensión no es conocida
+         */
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson")) {
+                return JSONL;
+            }
+            throw new IllegalArgumentException("Formato de importación no soportado: " + fileName);
+        }
+    }
+
+    private static final int MAX_ERROR_SAMPLES = 20;
+
+    private final BusinessUpsertRepository upsertRepository;
+    private final BusinessImportJobRepository jobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final long progressInterval;
+
+    public BusinessImportService(BusinessUpsertRepository upsertRepository,
+                                 BusinessImportJobRepository jobRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 Validator validator,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${business.import.batch-size:1000}") int batchSize,
+                                 @Value("${business.import.progress-interval:10000}") long progressInterval) {
+        this.upsertRepository = upsertRepository;
+        this.jobRepository = jobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(1, Math.min(batchSize, BusinessUpsertRepository.MAX_BATCH_SIZE));
+        this.progressInterval = Math.max(1, progressInterval);
+        log.info("BusinessImportService inicializado - batchSize={}, progressInterval={}",
+                this.batchSize, this.progressInterval);
+    }
+
+    /**
+     * Importa un archivo; el formato se deduce de la extensión. Si una importación anterior del mismo
+     * archivo (mismo nombre y tamaño) quedó a medias, continúa desde su punto de control.
+     *
+     * @param file Archivo CSV o JSONL
+     * @param progressListener Recibe el progreso tras cada lote confirmado
+     * @return Resultado final
+     * @throws IOException si no se puede leer el archivo
+     */
+    public BusinessImportResult importFile(Path file, Consumer<BusinessImportResult> progressListener)
+            throws IOException {
+        String sourceName = file.getFileName().toString();
+        Format format = Format.fromFileName(sourceName);
+        String sourceKey = sourceName + ":" + Files.size(file);
+        try (InputStream input = Files.newInputStream(file)) {
+            return importStream(sourceKey, sourceName, format, input, progressListener);
+        }
+    }
+
+    /**
+     * Importa negocios desde un flujo, en lotes de business.import.batch-size.
+     *
+     * @param sourceKey Identifica la importación para reanudarla (por ejemplo, nombre y tamaño del archivo)
+     * @param sourceName Nombre para mostrar
+     * @param format Formato del contenido
+     * @param input Contenido en UTF-8; no se cierra
+     * @param progressListener Recibe el progreso tras cada lote confirmado
+     * @return Resultado final
+     * @throws IOException si falla la lectura
+     */
+    public BusinessImportResult importStream(String sourceKey, String sourceName, Format format, InputStream input,
+                                             Consumer<BusinessImportResult> progressListener) throws IOException {
+        long start = System.nanoTime();
+        BusinessImportJob job = startJob(sourceKey, sourceName);
+        long resumeFrom = job.getRowsRead();
+        if (resumeFrom > 0) {
+            log.info("Reanudando importación de negocios - source={}, resumeFrom={}", sourceName, resumeFrom);
+        } else {
+            log.info("Iniciando importación de negocios - source={}, format={}", sourceName, format);
+        }
+
+        // Claves ya vistas, también las de los registros confirmados antes de reanudar
+        Set<String> seenKeys = new HashSet<>();
+        List<Business> batch = new ArrayList<>(batchSize);
+        List<String> errors = new ArrayList<>();
+        long rowsRead = 0;
+        long nextProgressLog = resumeFrom + progressInterval;
+
+        try {
+            BusinessImportReader reader = BusinessImportReader.open(format,
+                    new InputStreamReader(input, StandardCharsets.UTF_8));
+            BusinessImportReader.ImportRecord record;
+            while ((record = reader.next()) != null) {
+                rowsRead = record.number();
+                boolean replay = rowsRead <= resumeFrom;
+
+                String error = record.error();
+                Business business = null;
+                if (error == null) {
+                    business = toBusiness(record.fields());
+                    error = validate(business);
+                }
+                if (error != null) {
+                    if (!replay) {
+                        job.setRejected(job.getRejected() + 1);
+                        if (errors.size() < MAX_ERROR_SAMPLES) {
+                            errors.add("Registro " + rowsRead + ": " + error);
+                        }
+                    }
+                    continue;
+                }
+                if (!seenKeys.add(business.getImportKey())) {
+                    if (!replay) {
+                        job.setDuplicates(job.getDuplicates() + 1);
+                    }
+                    continue;
+                }
+                if (replay) {
+                    continue;
+                }
+
+                batch.add(business);
+                if (batch.size() >= batchSize) {
+                    commitBatch(job, batch, rowsRead);
+                    batch = new ArrayList<>(batchSize);
+                    progressListener.accept(toResult(job, resumeFrom, start, errors));
+                    if (rowsRead >= nextProgressLog) {
+                        logProgress(job, resumeFrom, start);
+                        nextProgressLog = rowsRead + progressInterval;
+                    }
+                }
+            }
+            commitBatch(job, batch, rowsRead);
+            completeJob(job);
+        } catch (IOException | RuntimeException e) {
+            markFailed(sourceKey, e);
+            throw e;
+        }
+
+        BusinessImportResult result = toResult(job, resumeFrom, start, errors);
+        progressListener.accept(result);
+        log.info("Importación de negocios completada - source={}, rows={}, inserted={}, updated={}, unchanged={}, "
+                        + "duplicates={}, rejected={}, elapsedMs={}, rowsPerSecond={}",
+                sourceName, result.getRowsRead(), result.getInserted(), result.getUpdated(), result.getUnchanged(),
+                result.getDuplicates(), result.getRejected(), result.getElapsedMs(),
+                Math.round(result.getRowsPerSecond()));
+
+        long changed = job.getInserted() + job.getUpdated();
+        if (changed > 0) {
+            eventPublisher.publishEvent(new BusinessesImportedEvent(sourceName, changed));
+        }
+        return result;
+    }
+
+    /**
+     * Convierte un registro en negocio. Los valores vacíos quedan en null y la categoría en minúsculas,
+     * como las del resto del catálogo.
+     */
+    private static Business toBusiness(Map<String, String> fields) {
+        Business business = new Business();
+        business.setName(text(fields, "name"));
+        String category = text(fields, "category");
+        business.setCategory(category == null ? null : category.toLowerCase(Locale.ROOT));
+        business.setAddress(text(fields, "address"));
+        business.setPhone(text(fields, "phone"));
+        business.setLatitude(decimal(text(fields, "latitude", "lat")));
+        business.setLongitude(decimal(text(fields, "longitude", "lon", "lng")));
+        business.setIsActive(bool(text(fields, "is_active", "active")));
+
+        String externalId = text(fields, "external_id");
+        business.setImportKey(externalId != null
+                ? "ext:" + externalId
+                : "hash:" + sha256(TextNormalizer.normalize(business.getName()) + "|"
+                        + TextNormalizer.normalize(business.getAddress())));
+        return business;
+    }
+
+    /**
+     * Valida con las restricciones de la entidad (las mismas que al guardar con JPA).
+     *
+     * @return Motivos separados por "; ", o null si es válido
+     */
+    private String validate(Business business) {
+        if (Double.isNaN(nullToZero(business.getLatitude())) || Double.isNaN(nullToZero(business.getLongitude()))) {
+            return "Latitud o longitud no numérica";
+        }
+        if ((business.getLatitude() == null) != (business.getLongitude() == null)) {
+            return "La latitud y la longitud deben indicarse juntas";
+        }
+        Set<ConstraintViolation<Business>> violations = validator.validate(business);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private BusinessImportJob startJob(String sourceKey, String sourceName) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Una importación terminada se repite desde el principio; una interrumpida se reanuda
+            BusinessImportJob job = jobRepository.findById(sourceKey)
+                    .filter(existing -> existing.getStatus() != BusinessImportJob.Status.COMPLETED)
+                    .orElseGet(() -> BusinessImportJob.builder()
+                            .sourceKey(sourceKey)
+                            .sourceName(sourceName)
+                            .startedAt(now)
+                            .build());
+            job.setStatus(BusinessImportJob.Status.RUNNING);
+            job.setUpdatedAt(now);
+            job.setFinishedAt(null);
+            job.setLastError(null);
+            jobRepository.save(job);
+            return job;
+        });
+    }
+
+    /**
+     * Escribe el lote y avanza el punto de control en la misma transacción.
+     */
+    private void commitBatch(BusinessImportJob job, List<Business> batch, long rowsRead) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BusinessUpsertRepository.UpsertCounts counts = upsertRepository.upsert(batch);
+            job.setInserted(job.getInserted() + counts.inserted());
+            job.setUpdated(job.getUpdated() + counts.updated());
+            job.setUnchanged(job.getUnchanged() + batch.size() - counts.inserted() - counts.updated());
+            job.setRowsRead(rowsRead);
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        });
+        log.debug("Lote de importación confirmado - source={}, size={}, rowsRead={}",
+                job.getSourceName(), batch.size(), rowsRead);
+    }
+
+    private void completeJob(BusinessImportJob job) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            job.setStatus(BusinessImportJob.Status.COMPLETED);
+            job.setUpdatedAt(now);
+            job.setFinishedAt(now);
+            jobRepository.save(job);
+        });
+    }
+
+    /**
+     * Marca el trabajo como fallido sobre la copia guardada, cuyo punto de control es el del último lote
+     * confirmado (los contadores en memoria pueden incluir el lote que falló).
+     */
+    private void markFailed(String sourceKey, Exception cause) {
+        log.error("Error en la importación de negocios - source={}, exception={}, message={}",
+                sourceKey, cause.getClass().getSimpleName(), cause.getMessage(), cause);
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.findById(sourceKey).ifPresent(job -> {
+                job.setStatus(BusinessImportJob.Status.FAILED);
+                job.setUpdatedAt(LocalDateTime.now());
+                job.setLastError(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+                jobRepository.save(job);
+            }));
+        } catch (RuntimeException e) {
+            log.error("No se pudo marcar la importación como fallida - source={}, message={}",
+                    sourceKey, e.getMessage());
+        }
+    }
+
+    private void logProgress(BusinessImportJob job, long resumeFrom, long start) {
+        BusinessImportResult progress = toResult(job, resumeFrom, start, List.of());
+        log.info("Importando negocios - source={}, rows={}, inserted={}, updated={}, rejected={}, rowsPerSecond={}",
+                job.getSourceName(), progress.getRowsRead(), progress.getInserted(), progress.getUpdated(),
+                progress.getRejected(), Math.round(progress.getRowsPerSecond()));
+    }
+
+    private static BusinessImportResult toResult(BusinessImportJob job, long resumeFrom, long start,
+                                                 List<String> errors) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        return BusinessImportResult.builder()
+                .sourceName(job.getSourceName())
+                .status(job.getStatus())
+                .rowsRead(job.getRowsRead())
+                .resumedFrom(resumeFrom)
+                .inserted(job.getInserted())
+                .updated(job.getUpdated())
+                .unchanged(job.getUnchanged())
+                .duplicates(job.getDuplicates())
+                .rejected(job.getRejected())
+                .elapsedMs(elapsedNanos / 1_000_000)
+                .rowsPerSecond((job.getRowsRead() - resumeFrom) * 1_000_000_000.0 / elapsedNanos)
+                .errors(List.copyOf(errors))
+                .build();
+    }
+
+    private static String text(Map<String, String> fields, String... names) {
+        for (String name : names) {
+            String value = fields.get(name);
+            if (value != null && !value.trim().isEmpty()) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Número con punto o coma decimal; NaN si no es un número.
+     */
+    private static Double decimal(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double nullToZero(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    private static Boolean bool(String value) {
+        if (value == null) {
+            return true;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "false", "0", "no", "n", "inactivo" -> false;
+            default -> true;
+        };
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
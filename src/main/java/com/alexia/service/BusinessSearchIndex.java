@@ -0,0 +1,561 @@
+package com.alexia.service;
+
+import com.alexia.entity.Business;
+import com.alexia.repository.BusinessRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria de los negocios activos (nombre, categoría y dirección).
+ * Los textos se tokenizan sin tildes ni signos y con el plural simple quitado, así "panaderias"
+ * encuentra "Panadería". Cada palabra de la consulta puede coincidir exacta, como prefijo ("panad")
+ * o con un error de tipeo (distancia de edición 1, "farmasia"); todas deben coincidir en el negocio.
+ * El orden es por relevancia: pesa más el nombre que la categoría, y ésta más que la dirección.
+ * Se construye al arrancar y se actualiza con cada {@link BusinessChangedEvent} confirmado,
+ * sin volver a leer la base de datos; tras una importación masiva se reconstruye entero.
+ */
+@Component
+@Slf4j
+public class BusinessSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    static final int CATEGORY_WEIGHT = 2;
+    static final int ADDRESS_WEIGHT = 1;
+
+    static final double EXACT_MATCH = 1.0;
+    static final double PREFIX_MATCH = 0.7;
+    static final double TYPO_MATCH = 0.5;
+
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 200;
+    // Mismo orden que la paginación en base de datos: ORDER BY name COLLATE "C", id (por código Unicode,
+    // sin depender de la collation de la base), así una búsqueda puede pasar del índice a la base entre páginas
+    private static final Comparator<Business> KEYSET_ORDER = Comparator.comparing(Business::getName,
+                    BusinessSearchIndex::compareCodePoints)
+            .thenComparing(Business::getId);
+    private static final Set<String> STOPWORDS = Set.of("de", "del", "el", "la", "los", "las", "y", "en", "a");
+
+    private final BusinessRepository businessRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Protegidos por lock
+    private Postings postings = new Postings();
+    private boolean ready;
+    private List<Runnable> changesDuringBuild;
+
+    public BusinessSearchIndex(BusinessRepository businessRepository,
+                               @Value("${business.search.index.enabled:true}") boolean enabled) {
+        this.businessRepository = businessRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Construye el índice al arrancar, en un hilo aparte para no retrasar el arranque.
+     * Hasta que termina, las búsquedas van a la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("Índice de búsqueda de negocios desactivado");
+            return;
+        }
+        rebuildInBackground();
+    }
+
+    /**
+     * Tras una importación masiva, reconstruye el índice una vez en lugar de aplicar cada negocio.
+     * Si todavía no estaba construido, ya leerá los negocios importados al construirse.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusinessesImported(BusinessesImportedEvent event) {
+        if (enabled && isReady()) {
+            rebuildInBackground();
+        }
+    }
+
+    private void rebuildInBackground() {
+        Thread builder = new Thread(this::rebuildSafely, "business-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos. Los cambios que lleguen mientras tanto
+     * se aplican al terminar, así no se pierden.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Postings built = new Postings();
+        try {
+            for (Business business : businessRepository.findByIsActiveTrueOrderByName()) {
+                built.add(business);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = built;
+            // Los cambios se repiten sobre el índice nuevo; quitar y volver a agregar es idempotente
+            changesDuringBuild.forEach(Runnable::run);
+            changesDuringBuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de búsqueda de negocios construido - businesses={}, tokens={}, elapsedMs={}",
+                built.documentCount(), built.tokenCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indica si el índice está construido y puede responder búsquedas.
+     *
+     * @return true si el índice está listo
+     */
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega o actualiza un negocio. Si está inactivo, lo quita.
+     *
+     * @param business Negocio guardado (con ID)
+     */
+    public void put(Business business) {
+        if (business == null || business.getId() == null) {
+            return;
+        }
+        apply(() -> {
+            postings.remove(business.getId());
+            if (business.isActive()) {
+                postings.add(business);
+            }
+        });
+    }
+
+    /**
+     * Aplica un alta, cambio o baja una vez confirmada la transacción.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusinessChanged(BusinessChangedEvent event) {
+        put(event.business());
+    }
+
+    /**
+     * Quita un negocio del índice.
+     *
+     * @param id ID del negocio
+     */
+    public void remove(Long id) {
+        apply(() -> postings.remove(id));
+    }
+
+    /**
+     * Busca negocios cuyos textos contengan todas las palabras de la consulta.
+     *
+     * @param query Texto a buscar
+     * @param limit Máximo de resultados
+     * @return Negocios ordenados por relevancia y nombre
+     */
+    public List<Business> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return topResults(matches(query), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Página de resultados ordenada por (nombre, id) a partir del cursor, con las mismas coincidencias
+     * que {@link #search}.
+     *
+     * @param query Texto a buscar
+     * @param afterName Nombre del último negocio de la página anterior ("" para la primera)
+     * @param afterId ID del último negocio de la página anterior (0 para la primera)
+     * @param limit Máximo de resultados
+     * @return Negocios posteriores al cursor, ordenados por nombre e id
+     */
+    public List<Business> searchPage(String query, String afterName, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Business cursor = new Business();
+            cursor.setName(afterName);
+            cursor.setId(afterId);
+            // Heap de máximos acotado: se queda con los limit primeros posteriores al cursor
+            PriorityQueue<Business> first = new PriorityQueue<>(limit + 1, KEYSET_ORDER.reversed());
+            for (Long id : matches(query).keySet()) {
+                Business business = postings.business(id);
+                if (KEYSET_ORDER.compare(business, cursor) > 0) {
+                    first.offer(business);
+                    if (first.size() > limit) {
+                        first.poll();
+                    }
+                }
+            }
+            List<Business> result = new ArrayList<>(first);
+            result.sort(KEYSET_ORDER);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compara por código Unicode, como COLLATE "C" en PostgreSQL con UTF-8. String.compareTo compara
+     * unidades UTF-16 y ordena distinto los caracteres fuera del plano básico (emojis) frente a U+E000-U+FFFF.
+     */
+    static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int codePointA = a.codePointAt(i);
+            int codePointB = b.codePointAt(j);
+            if (codePointA != codePointB) {
+                return Integer.compare(codePointA, codePointB);
+            }
+            i += Character.charCount(codePointA);
+            j += Character.charCount(codePointB);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+
+    /**
+     * Obtiene el nombre de un negocio indexado, para reconstruir el cursor de paginación.
+     *
+     * @param id ID del negocio
+     * @return Nombre, o null si no está en el índice
+     */
+    public String findName(Long id) {
+        lock.readLock().lock();
+        try {
+            return postings.contains(id) ? postings.business(id).getName() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número de negocios indexados.
+     *
+     * @return Negocios en el índice
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.documentCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Puntúa los negocios que contienen todas las palabras de la consulta. Requiere el lock de lectura.
+     */
+    private Map<Long, Double> matches(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Double> scores = null;
+        for (String term : terms) {
+            Map<Long, Double> termScores = postings.match(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Long, Double> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<Long, Double> entry : termScores.entrySet()) {
+                    Double score = previous.get(entry.getKey());
+                    if (score != null) {
+                        scores.put(entry.getKey(), score + entry.getValue());
+                    }
+                }
+            }
+            if (scores.isEmpty()) {
+                return Map.of();
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Selecciona los mejores resultados con un heap acotado, sin ordenar todas las coincidencias.
+     */
+    private List<Business> topResults(Map<Long, Double> scores, int limit) {
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(entry -> postings.business(entry.getKey()).getName(),
+                        Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER).reversed());
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(limit + 1, ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            best.offer(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Business> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(postings.business(best.poll().getKey()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Divide un texto en palabras indexables: normalizadas, sin palabras vacías y sin el plural simple.
+     */
+    static List<String> tokenize(String text) {
+        String normalized = TextNormalizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split(" ")) {
+            if (!STOPWORDS.contains(token)) {
+                tokens.add(stem(token));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Quita la "s" final de los plurales ("farmacias" → "farmacia"). Se aplica igual al indexar y al
+     * buscar, así basta con que ambos lados queden iguales aunque la raíz no sea una palabra real.
+     */
+    static String stem(String token) {
+        if (token.length() > 4 && token.endsWith("s") && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Error al construir el índice de búsqueda de negocios - exception={}, message={}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Estructuras del índice: documentos, listas de apariciones por palabra y, para tolerar errores
+     * de tipeo, las variantes de cada palabra con una letra borrada (esquema SymSpell).
+     */
+    private static final class Postings {
+
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final NavigableMap<String, Map<Long, Integer>> tokens = new TreeMap<>();
+        private final Map<String, Set<String>> deletions = new HashMap<>();
+
+        private record Document(Business business, Set<String> tokens) {
+        }
+
+        void add(Business business) {
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            addField(weights, business.getName(), NAME_WEIGHT);
+            addField(weights, business.getCategory(), CATEGORY_WEIGHT);
+            addField(weights, business.getAddress(), ADDRESS_WEIGHT);
+
+            documents.put(business.getId(), new Document(business, weights.keySet()));
+            weights.forEach((token, weight) -> {
+                Map<Long, Integer> postingList = tokens.get(token);
+                if (postingList == null) {
+                    postingList = new HashMap<>();
+                    tokens.put(token, postingList);
+                    for (String deletion : deletions(token)) {
+                        deletions.computeIfAbsent(deletion, key -> new HashSet<>()).add(token);
+                    }
+                }
+                postingList.put(business.getId(), weight);
+            });
+        }
+
+        void remove(Long id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String token : document.tokens()) {
+                Map<Long, Integer> postingList = tokens.get(token);
+                if (postingList == null) {
+                    continue;
+                }
+                postingList.remove(id);
+                if (postingList.isEmpty()) {
+                    tokens.remove(token);
+                    for (String deletion : deletions(token)) {
+                        Set<String> variants = deletions.get(deletion);
+                        if (variants != null && variants.remove(token) && variants.isEmpty()) {
+                            deletions.remove(deletion);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Puntúa los documentos que contienen la palabra: exacta, como prefijo o con un error de tipeo.
+         * Por documento se queda la mejor coincidencia.
+         */
+        Map<Long, Double> match(String term) {
+            Map<Long, Double> scores = new HashMap<>();
+            collect(scores, tokens.get(term), EXACT_MATCH);
+
+            int expansions = 0;
+            for (Map.Entry<String, Map<Long, Integer>> entry
+                    : tokens.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+                if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                collect(scores, entry.getValue(), PREFIX_MATCH);
+            }
+
+            if (term.length() >= MIN_TYPO_LENGTH) {
+                Set<String> candidates = new HashSet<>(deletions.getOrDefault(term, Set.of()));
+                for (String deletion : deletions(term)) {
+                    if (tokens.containsKey(deletion)) {
+                        candidates.add(deletion);
+                    }
+                    candidates.addAll(deletions.getOrDefault(deletion, Set.of()));
+                }
+                for (String candidate : candidates) {
+                    if (!candidate.equals(term) && isOneEditAway(term, candidate)) {
+                        collect(scores, tokens.get(candidate), TYPO_MATCH);
+                    }
+                }
+            }
+            return scores;
+        }
+
+        Business business(Long id) {
+            return documents.get(id).business();
+        }
+
+        boolean contains(Long id) {
+            return documents.containsKey(id);
+        }
+
+        int documentCount() {
+            return documents.size();
+        }
+
+        int tokenCount() {
+            return tokens.size();
+        }
+
+        private static void addField(Map<String, Integer> weights, String text, int weight) {
+            for (String token : tokenize(text)) {
+                weights.merge(token, weight, Math::max);
+            }
+        }
+
+        private static void collect(Map<Long, Double> scores, Map<Long, Integer> postingList, double quality) {
+            if (postingList == null) {
+                return;
+            }
+            postingList.forEach((id, weight) -> scores.merge(id, weight * quality, Math::max));
+        }
+
+        /**
+         * Variantes con una letra borrada; solo para palabras alfabéticas de longitud suficiente.
+         */
+        private static List<String> deletions(String token) {
+            if (token.length() < MIN_TYPO_LENGTH || !token.chars().allMatch(Character::isLetter)) {
+                return List.of();
+            }
+            List<String> result = new ArrayList<>(token.length());
+            for (int i = 0; i < token.length(); i++) {
+                result.add(token.substring(0, i) + token.substring(i + 1));
+            }
+            return result;
+        }
+
+        /**
+         * Distancia de edición (con trasposición) igual a 1.
+         */
+        private static boolean isOneEditAway(String a, String b) {
+            int lengthDiff = a.length() - b.length();
+            if (Math.abs(lengthDiff) > 1) {
+                return false;
+            }
+            if (lengthDiff == 0) {
+                int first = -1;
+                int differences = 0;
+                for (int i = 0; i < a.length(); i++) {
+                    if (a.charAt(i) != b.charAt(i)) {
+                        if (++differences == 1) {
+                            first = i;
+                        } else if (differences > 2) {
+                            return false;
+                        }
+                    }
+                }
+                if (differences == 1) {
+                    return true;
+                }
+                // Trasposición de dos letras contiguas
+                return differences == 2 && first + 1 < a.length()
+                        && a.charAt(first) == b.charAt(first + 1) && a.charAt(first + 1) == b.charAt(first);
+            }
+            String longer = lengthDiff > 0 ? a : b;
+            String shorter = lengthDiff > 0 ? b : a;
+            int i = 0;
+            while (i < shorter.length() && longer.charAt(i) == shorter.charAt(i)) {
+                i++;
+            }
+            return longer.substring(i + 1).equals(shorter.substring(i));
+        }
+    }
+}
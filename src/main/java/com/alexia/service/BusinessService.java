@@ -1,18 +1,25 @@
 package com.alexia.service;
 
+import com.alexia.dto.BusinessPage;
+import com.alexia.dto.NearbyBusiness;
 import com.alexia.entity.Business;
 import com.alexia.repository.BusinessRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
  * Servicio para gestión de negocios.
- * Proporciona búsqueda por categoría y operaciones CRUD básicas.
+ * Proporciona búsqueda por texto, por categoría y por cercanía, y operaciones CRUD básicas.
  */
 @Service
 @Transactional
@@ -20,10 +27,166 @@ public class BusinessService {
 
     private static final Logger logger = LoggerFactory.getLogger(BusinessService.class);
 
+    /**
+     * Radio de la Tierra que usa earthdistance (función earth()), para que la distancia mostrada
+     * coincida con la del filtro en la base de datos.
+     */
+    private static final double EARTH_RADIUS_METERS = 6_378_168;
+
+    private static final Locale SPANISH = Locale.forLanguageTag("es");
+
     private final BusinessRepository businessRepository;
+    private final BusinessSearchIndex searchIndex;
+    private final BusinessCatalog catalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean fullTextSearch;
+    private final int maxResults;
+    private final int pageSize;
+    private final boolean earthDistance;
+    private final int nearbyMaxResults;
+    private final double nearbyRadiusMeters;
 
-    public BusinessService(BusinessRepository businessRepository) {
+    public BusinessService(BusinessRepository businessRepository,
+                           BusinessSearchIndex searchIndex,
+                           BusinessCatalog catalog,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${business.search.full-text:true}") boolean fullTextSearch,
+                           @Value("${business.search.max-results:10}") int maxResults,
+                           @Value("${business.search.page-size:5}") int pageSize,
+                           @Value("${business.nearby.earthdistance:true}") boolean earthDistance,
+                           @Value("${business.nearby.max-results:5}") int nearbyMaxResults,
+                           @Value("${business.nearby.radius-km:25}") double nearbyRadiusKm) {
         this.businessRepository = businessRepository;
+        this.searchIndex = searchIndex;
+        this.catalog = catalog;
+        this.eventPublisher = eventPublisher;
+        this.fullTextSearch = fullTextSearch;
+        this.maxResults = maxResults;
+        this.pageSize = pageSize;
+        this.earthDistance = earthDistance;
+        this.nearbyMaxResults = nearbyMaxResults;
+        this.nearbyRadiusMeters = nearbyRadiusKm * 1000;
+    }
+
+    /**
+     * Busca una página de negocios por nombre, categoría o dirección, ordenada por (nombre, id).
+     * Paginación por clave: el cursor es el ID del último negocio de la página anterior, así cada
+     * página lee como máximo page-size + 1 filas (la extra solo indica si hay más).
+     *
+     * @param query Texto a buscar
+     * @param afterId ID del último negocio de la página anterior, o null para la primera
+     * @return Página de resultados con el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public BusinessPage searchPage(String query, Long afterId) {
+        if (query == null || query.trim().isEmpty()) {
+            return BusinessPage.builder().items(List.of()).build();
+        }
+        String cleanQuery = query.trim();
+        String afterName = "";
+        long afterIdValue = 0;
+        if (afterId != null) {
+            afterName = resolveCursorName(afterId);
+            afterIdValue = afterId;
+        }
+
+        List<Business> rows;
+        if (searchIndex.isReady()) {
+            rows = searchIndex.searchPage(cleanQuery, afterName, afterIdValue, pageSize + 1);
+        } else if (fullTextSearch) {
+            rows = businessRepository.searchPage(cleanQuery, afterName, afterIdValue, pageSize + 1);
+        } else {
+            rows = businessRepository.findByCategoryContainingAfter(cleanQuery, afterName, afterIdValue,
+                    PageRequest.of(0, pageSize + 1));
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<Business> items = hasNext ? List.copyOf(rows.subList(0, pageSize)) : rows;
+        logger.info("Página de negocios para '{}' - afterId={}, items={}, hasNext={}",
+                cleanQuery, afterId, items.size(), hasNext);
+        return BusinessPage.builder()
+                .items(items)
+                .nextAfterId(hasNext ? items.get(items.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * Obtiene el tamaño de página de la búsqueda paginada.
+     *
+     * @return Negocios por página
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Busca negocios por nombre, categoría o dirección, ordenados por relevancia.
+     * Responde desde el índice en memoria; mientras se construye, desde la base de datos:
+     * con business.search.full-text usa los índices de texto completo y trigramas
+     * (tolera tildes, plurales y errores de tipeo); si no, la búsqueda por categoría.
+     *
+     * @param query Texto a buscar
+     * @return Negocios encontrados, como máximo business.search.max-results
+     */
+    @Transactional(readOnly = true)
+    public List<Business> search(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            logger.warn("Búsqueda vacía o nula");
+            return List.of();
+        }
+        if (searchIndex.isReady()) {
+            return searchIndex.search(query, maxResults);
+        }
+        if (!fullTextSearch) {
+            List<Business> businesses = searchByCategory(query);
+            return businesses.size() > maxResults ? businesses.subList(0, maxResults) : businesses;
+        }
+
+        String cleanQuery = query.trim();
+        List<Business> businesses = businessRepository.searchRanked(cleanQuery, maxResults);
+        logger.info("Se encontraron {} negocios para '{}'", businesses.size(), cleanQuery);
+        return businesses;
+    }
+
+    /**
+     * Busca los negocios activos más cercanos a una ubicación, como máximo a business.nearby.radius-km.
+     * Con business.nearby.earthdistance usa el índice GiST de la base de datos (k-NN: lee solo los
+     * business.nearby.max-results más cercanos); si no, filtra por un rectángulo de coordenadas y
+     * ordena en memoria.
+     *
+     * @param latitude Latitud del usuario
+     * @param longitude Longitud del usuario
+     * @param category Categoría a la que limitar la búsqueda, o null/vacía para todas; se resuelve contra
+     *                 el catálogo sin distinguir mayúsculas, tildes ni plural ("panaderias" → "panadería")
+     * @return Negocios con su distancia, del más cercano al más lejano
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyBusiness> findNearby(double latitude, double longitude, String category) {
+        String cleanCategory = category == null || category.trim().isEmpty() ? null : category.trim();
+        if (cleanCategory != null) {
+            // Las consultas comparan lower(category) exacto: se usa el nombre guardado de la categoría
+            cleanCategory = catalog.snapshot().resolveCategory(cleanCategory).orElse(cleanCategory);
+        }
+        List<Business> businesses;
+        if (!earthDistance) {
+            businesses = findNearbyWithinBox(latitude, longitude, cleanCategory);
+        } else if (cleanCategory == null) {
+            businesses = businessRepository.findNearest(latitude, longitude, nearbyRadiusMeters, nearbyMaxResults);
+        } else {
+            businesses = businessRepository.findNearestInCategory(cleanCategory, latitude, longitude,
+                    nearbyRadiusMeters, nearbyMaxResults);
+        }
+
+        List<NearbyBusiness> nearby = businesses.stream()
+                .map(business -> NearbyBusiness.builder()
+                        .business(business)
+                        .distanceMeters(distanceMeters(latitude, longitude,
+                                business.getLatitude(), business.getLongitude()))
+                        .build())
+                .toList();
+        logger.info("Se encontraron {} negocios cercanos - category={}, radiusKm={}",
+                nearby.size(), cleanCategory, nearbyRadiusMeters / 1000);
+        return nearby;
     }
 
     /**
@@ -103,7 +266,9 @@ public class BusinessService {
      */
     public Business saveBusiness(Business business) {
         logger.info("Guardando negocio: {}", business.getName());
-        return businessRepository.save(business);
+        Business saved = businessRepository.save(business);
+        eventPublisher.publishEvent(new BusinessChangedEvent(saved));
+        return saved;
     }
 
     /**
@@ -120,6 +285,7 @@ public class BusinessService {
             Business b = business.get();
             b.setIsActive(false);
             businessRepository.save(b);
+            eventPublisher.publishEvent(new BusinessChangedEvent(b));
             logger.info("Negocio {} marcado como inactivo", b.getName());
             return true;
         }
@@ -129,7 +295,60 @@ public class BusinessService {
     }
 
     /**
-     * Cuenta negocios activos por categoría.
+     * Cercanía sin earthdistance: rectángulo que contiene el radio, luego distancia exacta y orden en memoria.
+     */
+    private List<Business> findNearbyWithinBox(double latitude, double longitude, String category) {
+        double latitudeDelta = Math.toDegrees(nearbyRadiusMeters / EARTH_RADIUS_METERS);
+        double minLatitude = Math.max(-90, latitude - latitudeDelta);
+        double maxLatitude = Math.min(90, latitude + latitudeDelta);
+        double minLongitude = -180;
+        double maxLongitude = 180;
+        // Cerca de los polos o del antimeridiano el rectángulo abarca todas las longitudes
+        double cosLatitude = Math.cos(Math.toRadians(Math.max(Math.abs(minLatitude), Math.abs(maxLatitude))));
+        if (cosLatitude > 1e-6) {
+            double longitudeDelta = latitudeDelta / cosLatitude;
+            if (longitude - longitudeDelta >= -180 && longitude + longitudeDelta <= 180) {
+                minLongitude = longitude - longitudeDelta;
+                maxLongitude = longitude + longitudeDelta;
+            }
+        }
+
+        return businessRepository.findActiveWithinBox(category, minLatitude, maxLatitude, minLongitude, maxLongitude)
+                .stream()
+                .filter(business -> distanceMeters(latitude, longitude,
+                        business.getLatitude(), business.getLongitude()) <= nearbyRadiusMeters)
+                .sorted(Comparator.comparingDouble(business -> distanceMeters(latitude, longitude,
+                        business.getLatitude(), business.getLongitude())))
+                .limit(nearbyMaxResults)
+                .toList();
+    }
+
+    /**
+     * Distancia del círculo máximo (haversine) entre dos puntos, en metros.
+     */
+    static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        double deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Nombre del negocio del cursor: del índice si está, si no de la base de datos (también si está inactivo,
+     * porque pudo darse de baja entre una página y otra).
+     */
+    private String resolveCursorName(Long afterId) {
+        String name = searchIndex.isReady() ? searchIndex.findName(afterId) : null;
+        if (name == null) {
+            name = businessRepository.findById(afterId).map(Business::getName).orElse("");
+        }
+        return name;
+    }
+
+    /**
+     * Cuenta negocios activos por categoría, desde el catálogo en caché.
      *
      * @param category Categoría a contar
      * @return Número de negocios en la categoría
@@ -138,61 +357,133 @@ public class BusinessService {
         if (category == null || category.trim().isEmpty()) {
             return 0;
         }
-        return businessRepository.countByCategoryIgnoreCase(category.trim());
+        return catalog.snapshot().countByCategory(category);
     }
 
     /**
-     * Cuenta todos los negocios activos.
+     * Cuenta todos los negocios activos, desde el catálogo en caché.
      *
      * @return Número total de negocios activos
      */
     public long countActiveBusinesses() {
-        return businessRepository.countByIsActiveTrue();
+        return catalog.snapshot().activeCount();
     }
 
     /**
-     * Obtiene todas las categorías disponibles.
+     * Obtiene todas las categorías disponibles, desde el catálogo en caché.
      *
-     * @return Lista de categorías únicas
+     * @return Lista de categorías únicas (de solo lectura)
      */
     public List<String> getAllCategories() {
-        logger.info("Obteniendo todas las categorías");
-        return businessRepository.findDistinctCategories();
+        return catalog.snapshot().categories();
+    }
+
+    /**
+     * Formatea una página de resultados para mostrar en Telegram.
+     *
+     * @param page Página de negocios
+     * @param query Texto buscado
+     * @param pageNumber Número de página, desde 1
+     * @return Mensaje formateado
+     */
+    public String formatBusinessPageForTelegram(BusinessPage page, String query, int pageNumber) {
+        if (page.getItems().isEmpty()) {
+            return pageNumber == 1
+                    ? formatBusinessListForTelegram(List.of(), query)
+                    : "No hay más negocios para '" + query + "'.";
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append("🔍 Negocios para '").append(query).append("'");
+        if (pageNumber > 1 || page.hasNext()) {
+            message.append(" (página ").append(pageNumber).append(")");
+        }
+        message.append(":\n\n");
+
+        int number = (pageNumber - 1) * pageSize + 1;
+        for (Business business : page.getItems()) {
+            appendBusiness(message, number++, business);
+        }
+        return message.toString();
     }
 
     /**
      * Formatea la lista de negocios para mostrar en Telegram.
      *
      * @param businesses Lista de negocios
-     * @param category Categoría buscada
+     * @param query Texto buscado
      * @return Mensaje formateado
      */
-    public String formatBusinessListForTelegram(List<Business> businesses, String category) {
+    public String formatBusinessListForTelegram(List<Business> businesses, String query) {
         if (businesses.isEmpty()) {
-            return "❌ No encontré negocios en la categoría '" + category + "'.\n\n" +
+            return "❌ No encontré negocios para '" + query + "'.\n\n" +
                    "Categorías disponibles: " + String.join(", ", getAllCategories());
         }
 
         StringBuilder message = new StringBuilder();
         message.append("🔍 Encontré ").append(businesses.size())
-               .append(" negocio(s) en la categoría '").append(category).append("':\n\n");
+               .append(" negocio(s) para '").append(query).append("':\n\n");
 
         for (int i = 0; i < businesses.size(); i++) {
-            Business business = businesses.get(i);
-            message.append(i + 1).append(". ")
-                   .append("📍 ").append(business.getName()).append("\n");
-
-            if (business.getAddress() != null && !business.getAddress().isEmpty()) {
-                message.append("   📌 ").append(business.getAddress()).append("\n");
-            }
+            appendBusiness(message, i + 1, businesses.get(i));
+        }
 
-            if (business.getPhone() != null && !business.getPhone().isEmpty()) {
-                message.append("   📞 ").append(business.getPhone()).append("\n");
-            }
+        return message.toString();
+    }
 
-            message.append("\n");
+    /**
+     * Formatea los negocios cercanos para mostrar en Telegram, con la distancia de cada uno.
+     *
+     * @param businesses Negocios cercanos, del más cercano al más lejano
+     * @param category Categoría buscada, o null si se buscaron todas
+     * @return Mensaje formateado
+     */
+    public String formatNearbyBusinessesForTelegram(List<NearbyBusiness> businesses, String category) {
+        String subject = category == null || category.trim().isEmpty()
+                ? "negocios"
+                : "negocios de '" + category.trim() + "'";
+        if (businesses.isEmpty()) {
+            return "❌ No encontré " + subject + " a menos de " + formatDistance(nearbyRadiusMeters)
+                    + " de tu ubicación.";
         }
 
+        StringBuilder message = new StringBuilder();
+        message.append("🧭 ").append(Character.toUpperCase(subject.charAt(0))).append(subject.substring(1))
+               .append(" cerca de ti:\n\n");
+        for (int i = 0; i < businesses.size(); i++) {
+            NearbyBusiness nearby = businesses.get(i);
+            appendBusiness(message, i + 1, nearby.getBusiness(), nearby.getDistanceMeters());
+        }
         return message.toString();
     }
+
+    private static String formatDistance(double meters) {
+        if (meters < 1000) {
+            return Math.round(meters / 10) * 10 + " m";
+        }
+        return String.format(SPANISH, "%.1f km", meters / 1000);
+    }
+
+    private void appendBusiness(StringBuilder message, int number, Business business) {
+        appendBusiness(message, number, business, null);
+    }
+
+    private void appendBusiness(StringBuilder message, int number, Business business, Double distanceMeters) {
+        message.append(number).append(". ")
+               .append("📍 ").append(business.getName()).append("\n");
+
+        if (distanceMeters != null) {
+            message.append("   🚶 ").append(formatDistance(distanceMeters)).append("\n");
+        }
+
+        if (business.getAddress() != null && !business.getAddress().isEmpty()) {
+            message.append("   📌 ").append(business.getAddress()).append("\n");
+        }
+
+        if (business.getPhone() != null && !business.getPhone().isEmpty()) {
+            message.append("   📞 ").append(business.getPhone()).append("\n");
+        }
+
+        message.append("\n");
+    }
 }
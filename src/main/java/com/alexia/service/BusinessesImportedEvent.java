@@ -0,0 +1,11 @@
+package com.alexia.service;
+
+/**
+ * Evento publicado por {@link BusinessImportService} al terminar una importación masiva con cambios.
+ * En lugar de un {@link BusinessChangedEvent} por negocio, los cachés se recargan una sola vez.
+ *
+ * @param sourceName Archivo importado
+ * @param changed Negocios dados de alta o modificados
+ */
+public record BusinessesImportedEvent(String sourceName, long changed) {
+}
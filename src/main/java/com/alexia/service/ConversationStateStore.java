@@ -0,0 +1,237 @@
+package com.alexia.service;
+
+import com.alexia.entity.ConversationState;
+import com.alexia.repository.ConversationStateRepository;
+import com.alexia.repository.ConversationStateUpsertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nivel persistente de la memoria de conversación.
+ * Las escrituras son diferidas y se fusionan por chat: solo se guarda el último estado pendiente
+ * de cada uno, por lotes, cada flush-interval-ms. Una lectura consulta primero lo pendiente,
+ * así un chat desalojado del nivel en memoria y vuelto a usar antes del flush no pierde turnos.
+ * Los estados de cada lote se escriben con un solo INSERT ... ON CONFLICT ({@link ConversationStateUpsertRepository}).
+ */
+@Service
+@Slf4j
+public class ConversationStateStore {
+
+    private final ConversationStateRepository repository;
+    private final ConversationStateUpsertRepository upsertRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int retentionDays;
+
+    // Último estado pendiente por chat; Optional.empty() marca un borrado pendiente
+    private final Map<Long, Optional<ConversationState>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private final Counter loadCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    public ConversationStateStore(ConversationStateRepository repository,
+                                  ConversationStateUpsertRepository upsertRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${grok.memory.persistence.enabled:true}") boolean enabled,
+                                  @Value("${grok.memory.persistence.batch-size:100}") int batchSize,
+                                  @Value("${grok.memory.persistence.flush-interval-ms:2000}") long flushIntervalMs,
+                                  @Value("${grok.memory.persistence.retention-days:30}") int retentionDays) {
+        this.repository = repository;
+        this.upsertRepository = upsertRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.min(batchSize, ConversationStateUpsertRepository.MAX_BATCH_SIZE);
+        this.retentionDays = retentionDays;
+
+        this.loadCounter = Counter.builder("grok.memory.persistence.loads")
+                .description("Conversaciones leídas de la base de datos")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("grok.memory.persistence.written")
+                .description("Conversaciones escritas o borradas en la base de datos")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("grok.memory.persistence.failed")
+                .description("Conversaciones con error al escribir el lote (se reintentan)")
+                .register(meterRegistry);
+        Gauge.builder("grok.memory.persistence.pending", pending, Map::size)
+                .description("Conversaciones pendientes de escribir")
+                .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "conversation-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+            if (retentionDays > 0) {
+                flusher.scheduleWithFixedDelay(this::purgeSafely, 1, 24 * 60, TimeUnit.MINUTES);
+            }
+        }
+
+        log.info("ConversationStateStore inicializado - enabled={}, batchSize={}, flushIntervalMs={}, retentionDays={}",
+                enabled, batchSize, flushIntervalMs, retentionDays);
+    }
+
+    /**
+     * Indica si el nivel persistente está activo.
+     *
+     * @return true si se leen y escriben conversaciones en la base de datos
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Lee el estado de un chat: el pendiente de escribir si lo hay, si no el de la base de datos.
+     * Un error de lectura se registra y se trata como conversación nueva.
+     *
+     * @param chatId ID del chat
+     * @return Estado guardado, o vacío si el chat no tiene conversación
+     */
+    public Optional<ConversationState> load(Long chatId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<ConversationState> unsaved = pending.get(chatId);
+        if (unsaved != null) {
+            return unsaved;
+        }
+        try {
+            loadCounter.increment();
+            return repository.findById(chatId);
+        } catch (Exception e) {
+            log.error("Error al leer la conversación - chatId={}, exception={}, message={}",
+                    chatId, e.getClass().getSimpleName(), e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Programa la escritura del estado de un chat, reemplazando al pendiente si lo había.
+     *
+     * @param state Estado a guardar
+     */
+    public void save(ConversationState state) {
+        if (enabled) {
+            pending.put(state.getChatId(), Optional.of(state));
+        }
+    }
+
+    /**
+     * Programa el borrado de la conversación de un chat.
+     *
+     * @param chatId ID del chat
+     */
+    public void delete(Long chatId) {
+        if (enabled) {
+            pending.put(chatId, Optional.empty());
+        }
+    }
+
+    /**
+     * Obtiene el número de conversaciones pendientes de escribir.
+     *
+     * @return Conversaciones pendientes
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Escribe todo lo pendiente de forma síncrona.
+     */
+    public synchronized void flush() {
+        List<Long> chatIds = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < chatIds.size(); from += batchSize) {
+            writeBatch(chatIds.subList(from, Math.min(from + batchSize, chatIds.size())));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Deteniendo ConversationStateStore - pendientes={}", pending.size());
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Guardar lo que quede para conservar el contexto tras el reinicio
+        flushSafely();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error inesperado al guardar conversaciones - exception={}, message={}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+
+    private void purgeSafely() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                    repository.deleteByUpdatedAtBefore(LocalDateTime.now().minusDays(retentionDays)));
+            log.info("Conversaciones inactivas eliminadas - deleted={}, retentionDays={}", deleted, retentionDays);
+        } catch (Exception e) {
+            log.error("Error al eliminar conversaciones inactivas - exception={}, message={}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+
+    private void writeBatch(List<Long> chatIds) {
+        Map<Long, Optional<ConversationState>> batch = new HashMap<>();
+        for (Long chatId : chatIds) {
+            Optional<ConversationState> state = pending.get(chatId);
+            if (state != null) {
+                batch.put(chatId, state);
+            }
+        }
+        List<ConversationState> saves = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        batch.forEach((chatId, state) -> state.ifPresentOrElse(saves::add, () -> deletes.add(chatId)));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!saves.isEmpty()) {
+                    upsertRepository.upsert(saves);
+                }
+                if (!deletes.isEmpty()) {
+                    repository.deleteAllByIdInBatch(deletes);
+                }
+            });
+            // Quitar solo lo escrito: si llegó un estado más nuevo durante el flush, queda para el siguiente
+            batch.forEach(pending::remove);
+            writtenCounter.increment(batch.size());
+            log.debug("Conversaciones persistidas - saved={}, deleted={}", saves.size(), deletes.size());
+        } catch (Exception e) {
+            // Se quedan pendientes y se reintentan en el próximo flush
+            failedCounter.increment(batch.size());
+            log.error("Error al guardar conversaciones - saved={}, deleted={}, exception={}, message={}",
+                    saves.size(), deletes.size(), e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.alexia.service;
+
+import com.alexia.dto.GrokMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Caché de respuestas de Grok AI para preguntas repetidas ("hola", "¿qué puedes hacer?", ...).
+ * La clave es el mensaje normalizado (minúsculas, sin tildes ni signos) más, cuando el tipo de
+ * mensaje depende del contexto, la ventana reciente del historial. Cada tipo de mensaje tiene su
+ * propio TTL; un TTL de 0 desactiva la caché para ese tipo. Las entradas se desalojan por TTL y,
+ * al superar max-entries, por LRU.
+ */
+@Component
+@Slf4j
+public class GrokResponseCache {
+
+    /**
+     * Tipo de mensaje, usado para decidir si la respuesta se puede cachear y durante cuánto tiempo.
+     */
+    public enum MessageType {
+        /** Saludo sin contenido ("hola", "buenas tardes"): no depende del contexto */
+        GREETING,
+        /**
+         * Pregunta general sobre el asistente ("¿qué puedes hacer?"): no depende del contexto.
+         * Preguntas como "¿a qué hora abren?" no entran aquí porque se refieren al negocio del que se habla.
+         */
+        FAQ,
+        /**
+         * Primer mensaje de la conversación: el contexto está vacío, pero la respuesta puede depender de quién
+         * pregunta y de cuándo, y se compartiría entre usuarios. Por eso su TTL por defecto es 0 (no se cachea).
+         */
+        FIRST_TURN,
+        /** Mensaje dentro de una conversación: la respuesta depende del historial */
+        FOLLOW_UP
+    }
+
+    /**
+     * Clave de caché ya calculada para un turno.
+     *
+     * @param type Tipo de mensaje
+     * @param value Mensaje normalizado más la ventana de historial relevante
+     */
+    public record CacheKey(MessageType type, String value) {
+    }
+
+    private static final Pattern GREETING = Pattern.compile(
+            "^(hola|holi|hey|hi|hello|saludos|buenas|buen dia|buenos dias|buenas tardes|buenas noches"
+                    + "|que tal|como estas|como va)( alexia)?$");
+    private static final Pattern FAQ = Pattern.compile(
+            "^(que puedes hacer|que sabes hacer|que haces|quien eres|que eres|como funcionas?|para que sirves"
+                    + "|ayuda|ayudame)( alexia)?$");
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int historyWindow;
+    private final Map<MessageType, Long> ttlNanos = new EnumMap<>(MessageType.class);
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    @Autowired
+    public GrokResponseCache(@Value("${grok.cache.enabled:true}") boolean enabled,
+                             @Value("${grok.cache.max-entries:1000}") int maxEntries,
+                             @Value("${grok.cache.history-window:4}") int historyWindow,
+                             @Value("${grok.cache.ttl-minutes.greeting:1440}") long greetingTtlMinutes,
+                             @Value("${grok.cache.ttl-minutes.faq:360}") long faqTtlMinutes,
+                             @Value("${grok.cache.ttl-minutes.first-turn:0}") long firstTurnTtlMinutes,
+                             @Value("${grok.cache.ttl-minutes.follow-up:0}") long followUpTtlMinutes,
+                             MeterRegistry meterRegistry) {
+        this(enabled, maxEntries, historyWindow, Map.of(
+                MessageType.GREETING, greetingTtlMinutes,
+                MessageType.FAQ, faqTtlMinutes,
+                MessageType.FIRST_TURN, firstTurnTtlMinutes,
+                MessageType.FOLLOW_UP, followUpTtlMinutes), meterRegistry, System::nanoTime);
+    }
+
+    GrokResponseCache(boolean enabled, int maxEntries, int historyWindow, Map<MessageType, Long> ttlMinutes,
+                      MeterRegistry meterRegistry, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.historyWindow = historyWindow;
+        this.clock = clock;
+        ttlMinutes.forEach((type, minutes) -> ttlNanos.put(type, TimeUnit.MINUTES.toNanos(minutes)));
+
+        this.hitCounter = Counter.builder("grok.cache.requests")
+                .tag("result", "hit")
+                .description("Consultas a la caché de respuestas de Grok")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("grok.cache.requests")
+                .tag("result", "miss")
+                .description("Consultas a la caché de respuestas de Grok")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("grok.cache.evictions")
+                .description("Entradas desalojadas por tamaño o TTL")
+                .register(meterRegistry);
+        Gauge.builder("grok.cache.size", this, GrokResponseCache::size)
+                .description("Respuestas en caché")
+                .register(meterRegistry);
+
+        log.info("GrokResponseCache inicializada - enabled={}, maxEntries={}, historyWindow={}, ttlMinutes={}",
+                enabled, maxEntries, historyWindow, ttlMinutes);
+    }
+
+    /**
+     * Calcula la clave de caché de un turno, o null si según la política no se debe cachear.
+     *
+     * @param userMessage Mensaje del usuario
+     * @param previousMessages Historial anterior al mensaje (sin incluirlo)
+     * @return Clave de caché, o null si el turno no es cacheable
+     */
+    public CacheKey keyFor(String userMessage, List<GrokMessage> previousMessages) {
+        if (!enabled || userMessage == null) {
+            return null;
+        }
+        String normalized = normalize(userMessage);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        MessageType type = classify(normalized, !previousMessages.isEmpty());
+        if (ttlNanos.getOrDefault(type, 0L) <= 0) {
+            return null;
+        }
+
+        if (type == MessageType.GREETING || type == MessageType.FAQ) {
+            return new CacheKey(type, normalized);
+        }
+        // La respuesta depende del contexto: la ventana reciente del historial forma parte de la clave
+        StringBuilder key = new StringBuilder(normalized);
+        for (GrokMessage message : previousMessages.subList(
+                Math.max(0, previousMessages.size() - historyWindow), previousMessages.size())) {
+            key.append('\n').append(message.getRole()).append(':').append(normalize(message.getContent()));
+        }
+        return new CacheKey(type, key.toString());
+    }
+
+    /**
+     * Busca una respuesta vigente.
+     *
+     * @param key Clave calculada con {@link #keyFor}; null cuenta como no cacheable
+     * @return Respuesta cacheada, o null si no hay
+     */
+    public String get(CacheKey key) {
+        if (key == null) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key.value());
+            if (entry != null && entry.expiresAt - clock.getAsLong() <= 0) {
+                entries.remove(key.value());
+                evictionCounter.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        log.debug("Respuesta de Grok servida desde caché - type={}", key.type());
+        return entry.response;
+    }
+
+    /**
+     * Guarda la respuesta de un turno cacheable.
+     *
+     * @param key Clave calculada con {@link #keyFor}; si es null no se guarda nada
+     * @param response Respuesta de Grok AI
+     */
+    public void put(CacheKey key, String response) {
+        if (key == null || response == null || response.isEmpty()) {
+            return;
+        }
+        long expiresAt = clock.getAsLong() + ttlNanos.get(key.type());
+        synchronized (entries) {
+            entries.put(key.value(), new Entry(response, expiresAt));
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Obtiene el número de respuestas en caché.
+     *
+     * @return Tamaño actual de la caché
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Vacía la caché.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        log.info("Caché de respuestas de Grok vaciada");
+    }
+
+    static String normalize(String text) {
+        return TextNormalizer.normalize(text);
+    }
+
+    static MessageType classify(String normalized, boolean hasHistory) {
+        if (GREETING.matcher(normalized).matches()) {
+            return MessageType.GREETING;
+        }
+        if (FAQ.matcher(normalized).matches()) {
+            return MessageType.FAQ;
+        }
+        return hasHistory ? MessageType.FOLLOW_UP : MessageType.FIRST_TURN;
+    }
+
+    /**
+     * Primero descarta las entradas vencidas y, si aún sobra, las menos usadas (orden de acceso).
+     */
+    private void evictOverflow() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = clock.getAsLong();
+        Iterator<Entry> expired = entries.values().iterator();
+        while (expired.hasNext()) {
+            if (expired.next().expiresAt - now <= 0) {
+                expired.remove();
+                evictionCounter.increment();
+            }
+        }
+        Iterator<String> eldest = entries.keySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictionCounter.increment();
+        }
+    }
+
+    private record Entry(String response, long expiresAt) {
+    }
+}
@@ -3,32 +3,49 @@ package com.alexia.service;
 import com.alexia.dto.GrokMessage;
 import com.alexia.dto.GrokRequest;
 import com.alexia.dto.GrokResponse;
+import com.alexia.dto.GrokStreamChunk;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okio.BufferedSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Servicio para comunicación con Grok AI (Groq API).
+ * Las llamadas se encolan en el Dispatcher de OkHttp y devuelven un CompletableFuture,
+ * así el hilo que procesa el turno no espera el round trip al LLM.
+ * Registra la latencia de cada llamada (grok.api.latency, por stream y resultado), el tiempo hasta el primer
+ * fragmento en streaming (grok.api.first.token) y los tokens de respuesta según el usage (grok.completion.tokens).
  */
 @Service
 @Slf4j
 public class GrokService {
     
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
-    private static final int MAX_HISTORY_SIZE = 20;
     private static final String SYSTEM_PROMPT = 
             "Eres un asistente útil, amigable y conversacional. " +
             "Respondes en español de manera clara y concisa. " +
             "Eres servicial y proporcionas información precisa.";
+    private static final GrokMessage SYSTEM_MESSAGE = GrokMessage.builder()
+            .role("system")
+            .content(SYSTEM_PROMPT)
+            .build();
+    private static final int SYSTEM_MESSAGE_TOKENS = ConversationMemory.estimateTokens(SYSTEM_MESSAGE);
     
     @Value("${grok.api.key}")
     private String apiKey;
@@ -39,88 +56,195 @@ public class GrokService {
     @Value("${grok.model}")
     private String model;
     
+    @Value("${grok.streaming.enabled:true}")
+    private boolean streamingEnabled;
+    
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final GrokResponseCache responseCache;
+    
+    // Historial de conversaciones por chat ID, acotado por presupuesto de tokens
+    private final ConversationMemory conversationMemory;
     
-    // Historial de conversaciones por chat ID
-    private final Map<Long, List<GrokMessage>> conversationHistory;
+    private final Timer firstTokenTimer;
+    // grok.api.latency por resultado, registrados una vez: streaming y llamadas completas
+    private final Map<String, Timer> streamLatencyTimers;
+    private final Map<String, Timer> blockingLatencyTimers;
+    private final Counter completionTokensCounter;
     
-    public GrokService() {
+    public GrokService(GrokResponseCache responseCache,
+                       ConversationMemory conversationMemory,
+                       MeterRegistry meterRegistry,
+                       @Value("${grok.http.max-idle-connections:8}") int maxIdleConnections,
+                       @Value("${grok.http.keep-alive-ms:300000}") long keepAliveMs,
+                       @Value("${grok.http.max-requests:256}") int maxRequests,
+                       @Value("${grok.http.call-timeout-ms:60000}") long callTimeoutMs) {
+        // Todas las llamadas van al mismo host: el límite por host (5 por defecto en OkHttp)
+        // era el que serializaba las peticiones concurrentes
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequests);
+        
         this.httpClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMs, TimeUnit.MILLISECONDS))
+                // HTTP/2 (negociado por ALPN) multiplexa todas las peticiones sobre una conexión TLS
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(60, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
+                // Plazo máximo por petición, incluida la lectura completa del streaming
+                .callTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
                 .build();
         this.objectMapper = new ObjectMapper();
-        this.conversationHistory = new ConcurrentHashMap<>();
+        this.responseCache = responseCache;
+        this.conversationMemory = conversationMemory;
+        
+        this.firstTokenTimer = Timer.builder("grok.api.first.token")
+                .description("Tiempo hasta recibir el primer fragmento de una respuesta en streaming")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.streamLatencyTimers = registerLatencyTimers(meterRegistry, true);
+        this.blockingLatencyTimers = registerLatencyTimers(meterRegistry, false);
+        this.completionTokensCounter = Counter.builder("grok.completion.tokens")
+                .description("Tokens de respuesta generados según el usage de la API")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        
+        log.info("GrokService inicializado - maxRequests={}, maxIdleConnections={}, callTimeoutMs={}", 
+                maxRequests, maxIdleConnections, callTimeoutMs);
     }
     
     /**
      * Obtiene una respuesta de Grok AI para un mensaje de usuario.
+     * Bloquea hasta recibir la respuesta; en el pipeline del bot se usa {@link #getResponseAsync}.
      *
      * @param chatId ID del chat
      * @param userMessage Mensaje del usuario
      * @return Respuesta de Grok AI
      */
     public String getResponse(Long chatId, String userMessage) {
-        try {
-            log.info("Obteniendo respuesta de Grok AI - chatId={}, messageLength={}", 
-                    chatId, userMessage.length());
-            
-            // Obtener o crear historial de conversación
-            List<GrokMessage> history = conversationHistory.computeIfAbsent(
-                    chatId, k -> new ArrayList<>());
-            
-            // Agregar mensaje del usuario al historial
-            history.add(GrokMessage.builder()
-                    .role("user")
-                    .content(userMessage)
-                    .build());
-            
-            // Mantener solo los últimos MAX_HISTORY_SIZE mensajes
-            if (history.size() > MAX_HISTORY_SIZE) {
-                history = new ArrayList<>(history.subList(history.size() - MAX_HISTORY_SIZE, history.size()));
-                conversationHistory.put(chatId, history);
+        return getResponseAsync(chatId, userMessage).join();
+    }
+    
+    /**
+     * Obtiene una respuesta de Grok AI de forma asíncrona.
+     * Nunca se completa con excepción: si la llamada falla, el resultado es null.
+     *
+     * @param chatId ID del chat
+     * @param userMessage Mensaje del usuario
+     * @return Future con la respuesta de Grok AI, o null si falla
+     */
+    public CompletableFuture<String> getResponseAsync(Long chatId, String userMessage) {
+        log.info("Obteniendo respuesta de Grok AI - chatId={}, messageLength={}", 
+                chatId, userMessage.length());
+        
+        return respond(chatId, userMessage, false, this::readResponse);
+    }
+    
+    /**
+     * Obtiene una respuesta de Grok AI en streaming (SSE).
+     * Bloquea hasta recibir la respuesta completa; en el pipeline del bot se usa
+     * {@link #getStreamingResponseAsync}.
+     *
+     * @param chatId ID del chat
+     * @param userMessage Mensaje del usuario
+     * @param onPartialResponse Recibe el texto acumulado tras cada fragmento
+     * @return Respuesta completa de Grok AI, o null si falla antes de recibir texto
+     */
+    public String getStreamingResponse(Long chatId, String userMessage, Consumer<String> onPartialResponse) {
+        return getStreamingResponseAsync(chatId, userMessage, onPartialResponse).join();
+    }
+    
+    /**
+     * Obtiene una respuesta de Grok AI en streaming (SSE) de forma asíncrona.
+     * Cada vez que llega texto nuevo se invoca onPartialResponse con el texto acumulado,
+     * de modo que el llamador puede mostrar los primeros tokens sin esperar la respuesta completa.
+     * El callback se ejecuta en el hilo de OkHttp que lee la respuesta, siempre de uno en uno.
+     *
+     * @param chatId ID del chat
+     * @param userMessage Mensaje del usuario
+     * @param onPartialResponse Recibe el texto acumulado tras cada fragmento
+     * @return Future con la respuesta completa, o null si falla antes de recibir texto
+     */
+    public CompletableFuture<String> getStreamingResponseAsync(Long chatId, String userMessage, 
+                                                               Consumer<String> onPartialResponse) {
+        log.info("Obteniendo respuesta de Grok AI en streaming - chatId={}, messageLength={}", 
+                chatId, userMessage.length());
+        
+        long start = System.nanoTime();
+        AtomicBoolean firstChunk = new AtomicBoolean(true);
+        Consumer<String> timedPartialResponse = partial -> {
+            if (firstChunk.compareAndSet(true, false)) {
+                firstTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
-            
-            // Preparar mensajes para la API
-            List<GrokMessage> messages = new ArrayList<>();
-            messages.add(GrokMessage.builder()
-                    .role("system")
-                    .content(SYSTEM_PROMPT)
+            onPartialResponse.accept(partial);
+        };
+        return respond(chatId, userMessage, true, 
+                (response, context) -> readStreamingResponse(response, context, timedPartialResponse));
+    }
+    
+    /**
+     * Indica si las respuestas deben pedirse en streaming.
+     *
+     * @return true si el streaming está habilitado
+     */
+    public boolean isStreamingEnabled() {
+        return streamingEnabled;
+    }
+    
+    /**
+     * Registra el turno y lo responde desde la caché o, si no está, llamando a la API.
+     * Un acierto de caché no toca la API: se agrega al historial y se devuelve de inmediato.
+     */
+    private CompletableFuture<String> respond(Long chatId, String userMessage, boolean stream, ResponseReader reader) {
+        // Agregar mensaje del usuario al historial (atómico por chat)
+        ConversationMemory.Context context = conversationMemory.append(chatId, GrokMessage.builder()
+                .role("user")
+                .content(userMessage)
+                .build());
+        
+        GrokResponseCache.CacheKey cacheKey = responseCache.keyFor(userMessage, context.previousMessages());
+        String cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            finishTurn(chatId, cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        return callGrokApi(chatId, context, buildGrokRequest(context, stream), reader, cacheKey);
+    }
+    
+    /**
+     * Construye el request con el prompt de sistema, el resumen y los mensajes recientes del chat.
+     */
+    GrokRequest buildGrokRequest(ConversationMemory.Context context, boolean stream) {
+        // Preparar mensajes para la API
+        List<GrokMessage> messages = new ArrayList<>();
+        messages.add(SYSTEM_MESSAGE);
+        messages.addAll(context.messages());
+        
+        return GrokRequest.builder()
+                .model(model)
+                .messages(messages)
+                .temperature(0.7)
+                .maxTokens(1024)
+                .topP(1.0)
+                .stream(stream)
+                .build();
+    }
+    
+    /**
+     * Agrega la respuesta del asistente al historial, si la hubo.
+     */
+    private void finishTurn(Long chatId, String response) {
+        if (response != null) {
+            conversationMemory.append(chatId, GrokMessage.builder()
+                    .role("assistant")
+                    .content(response)
                     .build());
-            messages.addAll(history);
-            
-            // Crear request
-            GrokRequest grokRequest = GrokRequest.builder()
-                    .model(model)
-                    .messages(messages)
-                    .temperature(0.7)
-                    .maxTokens(1024)
-                    .topP(1.0)
-                    .stream(false)
-                    .build();
             
-            // Llamar a la API
-            String response = callGrokApi(grokRequest);
-            
-            // Agregar respuesta al historial
-            if (response != null) {
-                history.add(GrokMessage.builder()
-                        .role("assistant")
-                        .content(response)
-                        .build());
-                
-                log.info("Respuesta de Grok AI recibida - chatId={}, responseLength={}", 
-                        chatId, response.length());
-            }
-            
-            return response;
-            
-        } catch (Exception e) {
-            log.error("Error al obtener respuesta de Grok AI - chatId={}, error={}", 
-                    chatId, e.getMessage(), e);
-            return null;
+            log.info("Respuesta de Grok AI recibida - chatId={}, responseLength={}", 
+                    chatId, response.length());
         }
     }
     
@@ -130,7 +254,7 @@ public class GrokService {
      * @param chatId ID del chat
      */
     public void clearHistory(Long chatId) {
-        conversationHistory.remove(chatId);
+        conversationMemory.clear(chatId);
         log.info("Historial de conversación limpiado - chatId={}", chatId);
     }
     
@@ -138,67 +262,281 @@ public class GrokService {
      * Obtiene el tamaño del historial de un chat.
      *
      * @param chatId ID del chat
-     * @return Número de mensajes en el historial
+     * @return Número de mensajes recientes en el historial (sin contar los plegados en el resumen)
      */
     public int getHistorySize(Long chatId) {
-        List<GrokMessage> history = conversationHistory.get(chatId);
-        return history != null ? history.size() : 0;
+        return conversationMemory.getRecentMessageCount(chatId);
     }
     
     /**
-     * Obtiene el número total de conversaciones activas.
+     * Obtiene el número de conversaciones activas (las que siguen en memoria, sin las desalojadas).
      *
      * @return Número de conversaciones
      */
     public int getActiveConversationsCount() {
-        return conversationHistory.size();
+        return conversationMemory.getConversationCount();
     }
     
     /**
-     * Realiza la llamada HTTP a la API de Grok.
+     * Obtiene el número de conversaciones desalojadas de memoria por tamaño o inactividad.
      *
+     * @return Conversaciones desalojadas desde el arranque
+     */
+    public long getEvictedConversationsCount() {
+        return conversationMemory.getEvictionCount();
+    }
+    
+    /**
+     * Obtiene la estimación del heap ocupado por los historiales.
+     *
+     * @return Bytes estimados
+     */
+    public long getConversationMemoryBytes() {
+        return conversationMemory.getEstimatedMemoryBytes();
+    }
+    
+    /**
+     * Encola la llamada HTTP a la API de Grok y registra la respuesta en el historial al terminar.
+     *
+     * @param chatId ID del chat
+     * @param context Contexto del turno, para registrar el usage
      * @param grokRequest Request a enviar
+     * @param reader Lee la respuesta HTTP (completa o en streaming)
+     * @param cacheKey Clave donde guardar la respuesta, o null si el turno no es cacheable
+     * @return Future con el texto de la respuesta, o null si falla
+     */
+    private CompletableFuture<String> callGrokApi(Long chatId, ConversationMemory.Context context,
+                                                  GrokRequest grokRequest, ResponseReader reader,
+                                                  GrokResponseCache.CacheKey cacheKey) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Call call;
+        try {
+            call = httpClient.newCall(buildHttpRequest(grokRequest));
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return handleResult(chatId, result, cacheKey);
+        }
+        
+        long start = System.nanoTime();
+        // La traza del turno está activa en el hilo que llama; el span se cierra en el hilo de OkHttp
+        UpdateTrace.Span span = UpdateTrace.startCurrentSpan("grok.http");
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                recordApiLatency(grokRequest, "error", start);
+                span.end(true);
+                result.completeExceptionally(e);
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    String content = reader.read(response, context);
+                    recordApiLatency(grokRequest, content != null ? "success" : "error", start);
+                    span.end(content == null);
+                    result.complete(content);
+                } catch (Exception e) {
+                    recordApiLatency(grokRequest, e instanceof PartialResponseException ? "partial" : "error", start);
+                    span.end(true);
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        
+        // Si el llamador cancela el future, se cancela también la petición HTTP
+        CompletableFuture<String> handled = handleResult(chatId, result, cacheKey);
+        handled.whenComplete((content, error) -> {
+            if (handled.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return handled;
+    }
+    
+    private CompletableFuture<String> handleResult(Long chatId, CompletableFuture<String> result,
+                                                   GrokResponseCache.CacheKey cacheKey) {
+        return result
+                .thenApply(response -> {
+                    // Agregar respuesta al historial
+                    finishTurn(chatId, response);
+                    responseCache.put(cacheKey, response);
+                    return response;
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof PartialResponseException partial) {
+                        // El usuario ya vio parte de la respuesta: se conserva, pero no se cachea
+                        log.warn("Streaming de Grok API interrumpido, usando respuesta parcial - chatId={}, receivedLength={}, error={}", 
+                                chatId, partial.getContent().length(), partial.getCause().getMessage());
+                        finishTurn(chatId, partial.getContent());
+                        return partial.getContent();
+                    }
+                    log.error("Error al obtener respuesta de Grok AI - chatId={}, exception={}, error={}", 
+                            chatId, cause.getClass().getSimpleName(), cause.getMessage(), cause);
+                    return null;
+                });
+    }
+    
+    /**
+     * Lee una respuesta completa (stream=false) de la API de Grok.
+     *
+     * @param response Respuesta HTTP
+     * @param context Contexto enviado, para registrar el usage
      * @return Respuesta de texto de Grok AI
      * @throws IOException Si hay error en la comunicación
      */
-    private String callGrokApi(GrokRequest grokRequest) throws IOException {
+    private String readResponse(Response response, ConversationMemory.Context context) throws IOException {
+        if (!response.isSuccessful()) {
+            log.error("Error en respuesta de Grok API - code={}, message={}", 
+                    response.code(), response.message());
+            return null;
+        }
+        
+        String responseBody = response.body().string();
+        GrokResponse grokResponse = objectMapper.readValue(responseBody, GrokResponse.class);
+        
+        if (grokResponse.getChoices() != null && !grokResponse.getChoices().isEmpty()) {
+            String content = grokResponse.getChoices().get(0).getMessage().getContent();
+            
+            // Log de uso de tokens
+            if (grokResponse.getUsage() != null) {
+                log.debug("Uso de tokens - prompt={}, completion={}, total={}", 
+                        grokResponse.getUsage().getPromptTokens(),
+                        grokResponse.getUsage().getCompletionTokens(),
+                        grokResponse.getUsage().getTotalTokens());
+                conversationMemory.recordUsage(context, grokResponse.getUsage().getPromptTokens(), 
+                        SYSTEM_MESSAGE_TOKENS);
+                recordCompletionTokens(grokResponse.getUsage());
+            }
+            
+            return content;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Lee los eventos SSE de una respuesta en streaming línea a línea.
+     * El formato es el de OpenAI: líneas "data: {json}" y un "data: [DONE]" final.
+     *
+     * @param response Respuesta HTTP (de un request con stream=true)
+     * @param context Contexto enviado, para registrar el usage del último fragmento
+     * @param onPartialResponse Recibe el texto acumulado tras cada fragmento
+     * @return Texto completo, o null si no llegó contenido
+     * @throws IOException Si hay error en la comunicación
+     */
+    private String readStreamingResponse(Response response, ConversationMemory.Context context,
+                                         Consumer<String> onPartialResponse) throws IOException {
+        if (!response.isSuccessful()) {
+            log.error("Error en respuesta de Grok API (streaming) - code={}, message={}", 
+                    response.code(), response.message());
+            return null;
+        }
+        
+        StringBuilder content = new StringBuilder();
+        BufferedSource source = response.body().source();
+        String line;
+        try {
+            while ((line = source.readUtf8Line()) != null) {
+                // Ignorar líneas vacías (separadores de evento) y comentarios SSE
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+                
+                GrokStreamChunk chunk = objectMapper.readValue(data, GrokStreamChunk.class);
+                if (chunk.findUsage() != null) {
+                    conversationMemory.recordUsage(context, chunk.findUsage().getPromptTokens(), 
+                            SYSTEM_MESSAGE_TOKENS);
+                    recordCompletionTokens(chunk.findUsage());
+                }
+                String delta = chunk.firstDeltaContent();
+                if (delta != null && !delta.isEmpty()) {
+                    content.append(delta);
+                    onPartialResponse.accept(content.toString());
+                }
+            }
+        } catch (IOException e) {
+            // Si el usuario ya vio parte de la respuesta, se conserva lo recibido
+            if (content.length() == 0) {
+                throw e;
+            }
+            throw new PartialResponseException(content.toString(), e);
+        }
+        
+        return content.length() > 0 ? content.toString() : null;
+    }
+    
+    /**
+     * Registra la duración de la llamada HTTP, de encolarla a terminar de leer la respuesta.
+     *
+     * @param outcome success (con texto), partial (streaming cortado tras recibir texto) o error
+     */
+    private void recordApiLatency(GrokRequest grokRequest, String outcome, long startNanos) {
+        Map<String, Timer> timers = Boolean.TRUE.equals(grokRequest.getStream())
+                ? streamLatencyTimers : blockingLatencyTimers;
+        timers.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Map<String, Timer> registerLatencyTimers(MeterRegistry meterRegistry, boolean stream) {
+        Map<String, Timer> timers = new HashMap<>();
+        for (String outcome : List.of("success", "partial", "error")) {
+            timers.put(outcome, Timer.builder("grok.api.latency")
+                    .description("Duración de las llamadas a la API de Grok")
+                    .tag("stream", String.valueOf(stream))
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        return Map.copyOf(timers);
+    }
+    
+    private void recordCompletionTokens(GrokResponse.Usage usage) {
+        if (usage.getCompletionTokens() != null && usage.getCompletionTokens() > 0) {
+            completionTokensCounter.increment(usage.getCompletionTokens());
+        }
+    }
+    
+    Request buildHttpRequest(GrokRequest grokRequest) throws IOException {
         String requestBody = objectMapper.writeValueAsString(grokRequest);
         
-        log.debug("Llamando a Grok API - url={}, model={}, messages={}", 
-                apiUrl, model, grokRequest.getMessages().size());
+        log.debug("Llamando a Grok API - url={}, model={}, messages={}, stream={}", 
+                apiUrl, model, grokRequest.getMessages().size(), grokRequest.getStream());
         
-        Request request = new Request.Builder()
+        return new Request.Builder()
                 .url(apiUrl)
                 .addHeader("Authorization", "Bearer " + apiKey)
                 .addHeader("Content-Type", "application/json")
                 .post(RequestBody.create(requestBody, JSON))
                 .build();
+    }
+    
+    /**
+     * Lectura de la respuesta HTTP, ejecutada en el hilo de OkHttp que recibe la respuesta.
+     */
+    @FunctionalInterface
+    private interface ResponseReader {
+        String read(Response response, ConversationMemory.Context context) throws IOException;
+    }
+    
+    /**
+     * Corte del streaming después de recibir texto; conserva lo recibido hasta ese momento.
+     */
+    private static final class PartialResponseException extends IOException {
         
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Error en respuesta de Grok API - code={}, message={}", 
-                        response.code(), response.message());
-                return null;
-            }
-            
-            String responseBody = response.body().string();
-            GrokResponse grokResponse = objectMapper.readValue(responseBody, GrokResponse.class);
-            
-            if (grokResponse.getChoices() != null && !grokResponse.getChoices().isEmpty()) {
-                String content = grokResponse.getChoices().get(0).getMessage().getContent();
-                
-                // Log de uso de tokens
-                if (grokResponse.getUsage() != null) {
-                    log.debug("Uso de tokens - prompt={}, completion={}, total={}", 
-                            grokResponse.getUsage().getPromptTokens(),
-                            grokResponse.getUsage().getCompletionTokens(),
-                            grokResponse.getUsage().getTotalTokens());
-                }
-                
-                return content;
-            }
-            
-            return null;
+        private final String content;
+        
+        private PartialResponseException(String content, IOException cause) {
+            super("Streaming interrumpido tras " + content.length() + " caracteres", cause);
+            this.content = content;
+        }
+        
+        private String getContent() {
+            return content;
         }
     }
 }
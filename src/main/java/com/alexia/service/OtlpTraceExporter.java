@@ -0,0 +1,194 @@
+package com.alexia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporta las trazas lentas a un collector de OpenTelemetry por OTLP/HTTP con codificación JSON
+ * (por defecto http://localhost:4318/v1/traces). Las trazas se encolan sin bloquear el turno y un hilo propio
+ * las envía por lotes cada export-interval-ms; con la cola llena o el collector caído se descartan.
+ */
+@Service
+@Slf4j
+public class OtlpTraceExporter {
+
+    /**
+     * Trazas pendientes de enviar como máximo
+     */
+    static final int MAX_PENDING = 1_000;
+
+    /**
+     * Trazas por petición al collector
+     */
+    static final int MAX_BATCH = 100;
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    // Valores de SpanKind y StatusCode del protocolo OTLP
+    private static final int KIND_INTERNAL = 1;
+    private static final int KIND_SERVER = 2;
+    private static final int KIND_CLIENT = 3;
+    private static final int STATUS_ERROR = 2;
+
+    private final boolean enabled;
+    private final String endpoint;
+    private final String serviceName;
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<UpdateTrace> pending = new ArrayBlockingQueue<>(MAX_PENDING);
+    private final ScheduledExecutorService scheduler;
+
+    public OtlpTraceExporter(@Value("${telegram.tracing.otlp.enabled:false}") boolean enabled,
+                             @Value("${telegram.tracing.otlp.endpoint:http://localhost:4318/v1/traces}") String endpoint,
+                             @Value("${app.name:alexia}") String serviceName,
+                             @Value("${telegram.tracing.otlp.export-interval-ms:5000}") long exportIntervalMs) {
+        this.enabled = enabled;
+        this.endpoint = endpoint;
+        this.serviceName = serviceName;
+        this.httpClient = new OkHttpClient.Builder()
+                .connectTimeout(2, TimeUnit.SECONDS)
+                .callTimeout(10, TimeUnit.SECONDS)
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "otlp-trace-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::flushSafely, exportIntervalMs, exportIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        log.info("OtlpTraceExporter inicializado - enabled={}, endpoint={}", enabled, endpoint);
+    }
+
+    /**
+     * Encola una traza terminada para el próximo envío. No hace nada si la exportación está deshabilitada.
+     *
+     * @param trace Traza terminada
+     */
+    public void export(UpdateTrace trace) {
+        if (enabled && !pending.offer(trace)) {
+            log.debug("Cola de exportación OTLP llena, se descarta la traza - traceId={}", trace.getTraceId());
+        }
+    }
+
+    /**
+     * Envía las trazas pendientes al collector, en lotes de MAX_BATCH.
+     *
+     * @return Trazas enviadas
+     * @throws IOException si el collector no respondió o rechazó un lote (ese lote se descarta)
+     */
+    public int flush() throws IOException {
+        int sent = 0;
+        List<UpdateTrace> batch = new ArrayList<>(MAX_BATCH);
+        while (pending.drainTo(batch, MAX_BATCH) > 0) {
+            Request request = new Request.Builder()
+                    .url(endpoint)
+                    .post(RequestBody.create(objectMapper.writeValueAsBytes(toOtlpJson(batch, serviceName)), JSON))
+                    .build();
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw new IOException("El collector OTLP respondió " + response.code());
+                }
+            }
+            sent += batch.size();
+            batch.clear();
+        }
+        return sent;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (enabled) {
+            flushSafely();
+        }
+    }
+
+    /**
+     * Convierte trazas en un ExportTraceServiceRequest de OTLP en JSON: un span raíz telegram.update por
+     * actualización y un span hijo por etapa.
+     */
+    static Map<String, Object> toOtlpJson(List<UpdateTrace> traces, String serviceName) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (UpdateTrace trace : traces) {
+            long start = trace.getStartEpochNanos();
+            List<Map<String, Object>> attributes = new ArrayList<>();
+            attributes.add(attribute("telegram.route", Map.of("stringValue", trace.getRoute())));
+            if (trace.getChatId() != null) {
+                attributes.add(attribute("telegram.chat_id", Map.of("intValue", String.valueOf(trace.getChatId()))));
+            }
+            spans.add(span(trace, trace.getRootSpanId(), null, "telegram.update", KIND_SERVER,
+                    start, start + trace.getDurationNanos(), trace.isError(), attributes));
+            for (UpdateTrace.Span span : trace.getSpans()) {
+                long spanStart = start + span.getOffsetNanos();
+                spans.add(span(trace, span.getSpanId(), trace.getRootSpanId(), span.getName(), kindOf(span),
+                        spanStart, spanStart + span.getDurationNanos(), span.isError(), List.of()));
+            }
+        }
+
+        Map<String, Object> resource = Map.of("attributes",
+                List.of(attribute("service.name", Map.of("stringValue", serviceName))));
+        Map<String, Object> scopeSpans = Map.of("scope", Map.of("name", "com.alexia"), "spans", spans);
+        return Map.of("resourceSpans", List.of(Map.of("resource", resource, "scopeSpans", List.of(scopeSpans))));
+    }
+
+    private static Map<String, Object> span(UpdateTrace trace, String spanId, String parentSpanId, String name,
+                                            int kind, long startNanos, long endNanos, boolean error,
+                                            List<Map<String, Object>> attributes) {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("traceId", trace.getTraceId());
+        span.put("spanId", spanId);
+        if (parentSpanId != null) {
+            span.put("parentSpanId", parentSpanId);
+        }
+        span.put("name", name);
+        span.put("kind", kind);
+        span.put("startTimeUnixNano", String.valueOf(startNanos));
+        span.put("endTimeUnixNano", String.valueOf(endNanos));
+        span.put("attributes", attributes);
+        if (error) {
+            span.put("status", Map.of("code", STATUS_ERROR));
+        }
+        return span;
+    }
+
+    private static Map<String, Object> attribute(String key, Map<String, Object> value) {
+        return Map.of("key", key, "value", value);
+    }
+
+    private static int kindOf(UpdateTrace.Span span) {
+        // Las llamadas salientes (Groq, API de Telegram) son spans de cliente
+        return span.getName().startsWith("grok.") || span.getName().equals("telegram.send")
+                ? KIND_CLIENT : KIND_INTERNAL;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("No se pudieron exportar trazas por OTLP - endpoint={}, exception={}, message={}",
+                    endpoint, e.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.alexia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Lectura de las métricas del pipeline del bot desde el MeterRegistry, para la vista de métricas.
+ * Las mismas métricas se publican en /actuator/prometheus.
+ */
+@Service
+public class PipelineMetricsService {
+
+    /**
+     * Timers del pipeline en el orden en que los recorre una actualización, con su nombre para la vista
+     */
+    static final Map<String, String> STAGES = new LinkedHashMap<>();
+
+    static {
+        STAGES.put("telegram.dispatcher.wait", "Espera en cola");
+        STAGES.put("telegram.update.handle", "Turno completo");
+        STAGES.put("grok.api.first.token", "Groq: primer fragmento");
+        STAGES.put("grok.api.latency", "Groq: llamada completa");
+        STAGES.put("telegram.send", "Envío a Telegram");
+        STAGES.put("telegram.persistence.flush", "Escritura en BD (lote)");
+    }
+
+    /**
+     * Tag común de todas las métricas (management.metrics.tags.application); no se muestra
+     */
+    private static final String APPLICATION_TAG = "application";
+
+    /**
+     * Resumen de un timer de una etapa. Los percentiles son NaN si el timer no los publica.
+     *
+     * @param stage Nombre de la etapa
+     * @param tags Tags del timer (ruta, resultado...), "" si no tiene
+     * @param count Eventos registrados
+     * @param meanMs Duración media
+     * @param p50Ms Mediana
+     * @param p95Ms Percentil 95
+     * @param p99Ms Percentil 99
+     * @param maxMs Máximo reciente
+     */
+    public record StageTimer(String stage, String tags, long count, double meanMs,
+                             double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public PipelineMetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Timers de todas las etapas del pipeline, en orden de etapa y luego de tags.
+     */
+    public List<StageTimer> stageTimers() {
+        List<StageTimer> timers = new ArrayList<>();
+        STAGES.forEach((name, stage) -> meterRegistry.find(name).timers().stream()
+                .map(timer -> toStageTimer(stage, timer))
+                .sorted(Comparator.comparing(StageTimer::tags))
+                .forEach(timers::add));
+        return timers;
+    }
+
+    /**
+     * Valor actual de un gauge, o NaN si no está registrado.
+     *
+     * @param name Nombre del gauge
+     */
+    public double gauge(String name) {
+        Gauge gauge = meterRegistry.find(name).gauge();
+        return gauge != null ? gauge.value() : Double.NaN;
+    }
+
+    /**
+     * Suma de los contadores con ese nombre y tags (0 si no hay ninguno).
+     *
+     * @param name Nombre del contador
+     * @param tags Pares clave, valor que deben tener
+     */
+    public double counter(String name, String... tags) {
+        return meterRegistry.find(name).tags(tags).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static StageTimer toStageTimer(String stage, Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        String tags = timer.getId().getTags().stream()
+                .filter(tag -> !APPLICATION_TAG.equals(tag.getKey()))
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", "));
+        return new StageTimer(stage, tags, snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS),
+                percentile(snapshot, 0.5), percentile(snapshot, 0.95), percentile(snapshot, 0.99),
+                snapshot.max(TimeUnit.MILLISECONDS));
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+}
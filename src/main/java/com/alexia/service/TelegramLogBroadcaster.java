@@ -0,0 +1,101 @@
+package com.alexia.service;
+
+import com.alexia.dto.TelegramMessageSummary;
+import com.alexia.entity.TelegramMessage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Reparte los mensajes de Telegram recién guardados entre las vistas de logs abiertas.
+ * Cada lote se convierte una sola vez en {@link TelegramMessageSummary} y se entrega a todos los suscriptores
+ * desde un hilo propio, así las vistas reciben solo lo nuevo sin consultar la base de datos y el hilo que
+ * escribió el lote no espera a la UI.
+ */
+@Service
+@Slf4j
+public class TelegramLogBroadcaster {
+
+    private final List<Consumer<List<TelegramMessageSummary>>> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "telegram-log-broadcaster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Suscribe un receptor de mensajes nuevos.
+     *
+     * @param listener Recibe cada lote guardado (en el orden en que se escribió)
+     * @return Acción que cancela la suscripción
+     */
+    public Runnable register(Consumer<List<TelegramMessageSummary>> listener) {
+        listeners.add(listener);
+        log.debug("Vista de logs suscrita - suscriptores={}", listeners.size());
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Obtiene el número de suscriptores activos.
+     *
+     * @return Suscriptores registrados
+     */
+    public int getListenerCount() {
+        return listeners.size();
+    }
+
+    /**
+     * Reenvía un lote guardado. Si se publicó dentro de una transacción, espera a que confirme.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesPersisted(TelegramMessagesPersistedEvent event) {
+        if (listeners.isEmpty() || event.messages().isEmpty()) {
+            return;
+        }
+        List<TelegramMessageSummary> summaries = event.messages().stream()
+                .map(TelegramLogBroadcaster::toSummary)
+                .toList();
+        dispatcher.execute(() -> {
+            for (Consumer<List<TelegramMessageSummary>> listener : listeners) {
+                try {
+                    listener.accept(summaries);
+                } catch (RuntimeException e) {
+                    log.warn("Error al notificar mensajes nuevos a una vista - exception={}, message={}",
+                            e.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private static TelegramMessageSummary toSummary(TelegramMessage message) {
+        return TelegramMessageSummary.builder()
+                .id(message.getId())
+                .chatId(message.getChatId())
+                .userName(message.getUserName())
+                .firstName(message.getFirstName())
+                .lastName(message.getLastName())
+                .messageText(preview(message.getMessageText()))
+                .botResponse(preview(message.getBotResponse()))
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+
+    private static String preview(String text) {
+        if (text == null || text.length() <= TelegramMessageSummary.PREVIEW_LENGTH) {
+            return text;
+        }
+        return text.substring(0, TelegramMessageSummary.PREVIEW_LENGTH);
+    }
+}
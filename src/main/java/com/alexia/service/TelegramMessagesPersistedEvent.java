@@ -0,0 +1,14 @@
+package com.alexia.service;
+
+import com.alexia.entity.TelegramMessage;
+
+import java.util.List;
+
+/**
+ * Evento publicado cuando un lote de mensajes de Telegram queda guardado en la base de datos.
+ * {@link TelegramLogBroadcaster} lo reenvía a las vistas de logs abiertas.
+ *
+ * @param messages Mensajes guardados, ya con su ID
+ */
+public record TelegramMessagesPersistedEvent(List<TelegramMessage> messages) {
+}
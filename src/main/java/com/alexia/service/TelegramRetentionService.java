@@ -0,0 +1,221 @@
+package com.alexia.service;
+
+import com.alexia.repository.TelegramPartitionRepository;
+import com.alexia.repository.TelegramPartitionRepository.MonthlyPartition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retención de mensajes de Telegram por particiones mensuales (database/17_telegram_messages_partitioning.sql).
+ * Una vez al día crea las particiones de los próximos meses (y las de los meses con mensajes en la partición DEFAULT,
+ * database/19_telegram_default_partition.sql) y, para cada mes más antiguo que retention-months,
+ * escribe sus filas (todas las columnas) en un archivo .jsonl.gz en archive-dir y después elimina la partición entera
+ * (DETACH + DROP) en lugar de borrar los mensajes con DELETE. Si el archivo no se pudo escribir, la partición
+ * se conserva y se reintenta en la siguiente ejecución.
+ */
+@Service
+@Slf4j
+public class TelegramRetentionService {
+
+    private static final int ARCHIVE_BUFFER_BYTES = 64 * 1024;
+
+    private final TelegramPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int retentionMonths;
+    private final int partitionsAhead;
+    private final Path archiveDir;
+    private final ScheduledExecutorService scheduler;
+
+    private final Counter archivedRowsCounter;
+    private final Counter droppedPartitionsCounter;
+
+    public TelegramRetentionService(TelegramPartitionRepository partitionRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${telegram.retention.enabled:false}") boolean enabled,
+                                    @Value("${telegram.retention.months:12}") int retentionMonths,
+                                    @Value("${telegram.retention.partitions-ahead:2}") int partitionsAhead,
+                                    @Value("${telegram.retention.archive-dir:archive/telegram-messages}") String archiveDir,
+                                    @Value("${telegram.retention.interval-hours:24}") long intervalHours) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.retentionMonths = retentionMonths;
+        this.partitionsAhead = partitionsAhead;
+        this.archiveDir = Paths.get(archiveDir);
+
+        this.archivedRowsCounter = Counter.builder("telegram.retention.archived.rows")
+                .description("Mensajes escritos en archivos de archivo")
+                .register(meterRegistry);
+        this.droppedPartitionsCounter = Counter.builder("telegram.retention.partitions.dropped")
+                .description("Particiones mensuales eliminadas por retención")
+                .register(meterRegistry);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "telegram-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::applyRetentionSafely, 1, intervalHours * 60, TimeUnit.MINUTES);
+        }
+
+        log.info("TelegramRetentionService inicializado - enabled={}, retentionMonths={}, partitionsAhead={}, archiveDir={}",
+                enabled, retentionMonths, partitionsAhead, this.archiveDir.toAbsolutePath());
+    }
+
+    /**
+     * Crea las particiones que faltan y archiva y elimina las vencidas.
+     * Si no se pueden crear las particiones se registra el error y se archivan igual las vencidas.
+     *
+     * @return Particiones eliminadas
+     * @throws UncheckedIOException si no se pudo escribir un archivo (las particiones restantes no se tocan)
+     */
+    public synchronized int applyRetention() {
+        if (!partitionRepository.isPartitioned()) {
+            log.warn("telegram_messages no está particionada, se omite la retención (aplicar database/17_telegram_messages_partitioning.sql)");
+            return 0;
+        }
+        if (partitionRepository.hasRowsInDefaultPartition()) {
+            log.warn("Hay mensajes en telegram_messages_default: faltaban particiones para su mes, se moverán a una propia");
+        }
+        try {
+            partitionRepository.ensurePartitions(partitionsAhead);
+        } catch (DataAccessException e) {
+            // Sin particiones nuevas los mensajes siguen entrando en DEFAULT; archivar los meses vencidos no depende de ellas
+            log.error("No se pudieron crear las particiones, se sigue con la retención - exception={}, message={}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+
+        int dropped = 0;
+        for (MonthlyPartition partition : expiredPartitions(partitionRepository.findMonthlyPartitions(),
+                YearMonth.now(), retentionMonths)) {
+            long start = System.currentTimeMillis();
+            long rows = archive(partition);
+            transactionTemplate.executeWithoutResult(status -> partitionRepository.dropPartition(partition));
+            droppedPartitionsCounter.increment();
+            dropped++;
+            log.info("Partición archivada y eliminada - partition={}, rows={}, elapsedMs={}",
+                    partition.name(), rows, System.currentTimeMillis() - start);
+        }
+        return dropped;
+    }
+
+    /**
+     * Particiones vencidas: las de meses anteriores a los últimos retentionMonths meses completos.
+     * Con retentionMonths &lt;= 0 no vence ninguna.
+     *
+     * @param partitions Particiones existentes
+     * @param currentMonth Mes actual
+     * @param retentionMonths Meses completos que se conservan además del actual
+     * @return Particiones a archivar y eliminar, de la más antigua a la más nueva
+     */
+    static List<MonthlyPartition> expiredPartitions(List<MonthlyPartition> partitions, YearMonth currentMonth,
+                                                    int retentionMonths) {
+        if (retentionMonths <= 0) {
+            return List.of();
+        }
+        YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+        return partitions.stream()
+                .filter(partition -> partition.month().isBefore(oldestKept))
+                .sorted(Comparator.comparing(MonthlyPartition::month))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Escribe la partición en archive-dir/&lt;partición&gt;.jsonl.gz, un mensaje JSON por línea.
+     * Se escribe en un .tmp y se renombra al terminar, así un archivo con el nombre final siempre está completo.
+     */
+    private long archive(MonthlyPartition partition) {
+        Path target = archiveDir.resolve(partition.name() + ".jsonl.gz");
+        Path temp = archiveDir.resolve(partition.name() + ".jsonl.gz.tmp");
+        long[] rows = {0};
+        try {
+            Files.createDirectories(archiveDir);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp), ARCHIVE_BUFFER_BYTES), StandardCharsets.UTF_8))) {
+                readOnlyTransactionTemplate.executeWithoutResult(status ->
+                        partitionRepository.streamPartition(partition, rs -> {
+                            // Todas las columnas por nombre: las que agreguen migraciones futuras también se archivan
+                            ResultSetMetaData metaData = rs.getMetaData();
+                            Map<String, Object> row = new LinkedHashMap<>();
+                            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                                row.put(metaData.getColumnLabel(column), jsonValue(rs.getObject(column)));
+                            }
+                            try {
+                                writer.write(objectMapper.writeValueAsString(row));
+                                writer.write('\n');
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            rows[0]++;
+                        }));
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo archivar " + partition.name() + " en " + target, e);
+        }
+        archivedRowsCounter.increment(rows[0]);
+        return rows[0];
+    }
+
+    /**
+     * Fechas como texto ISO local (2025-10-28T10:30), igual que created_at en los archivos ya escritos.
+     */
+    private static Object jsonValue(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof java.util.Date date) {
+            return date.toString();
+        }
+        return value;
+    }
+
+    private void applyRetentionSafely() {
+        try {
+            applyRetention();
+        } catch (Exception e) {
+            log.error("Error al aplicar la retención de mensajes - exception={}, message={}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.alexia.exception.TelegramException;
 import com.alexia.repository.TelegramMessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +25,8 @@ import java.util.stream.Collectors;
 public class TelegramService {
 
     private final TelegramMessageRepository telegramMessageRepository;
+    private final TelegramWriteBehindService telegramWriteBehindService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Guarda un mensaje de Telegram en la base de datos.
@@ -37,19 +40,11 @@ public class TelegramService {
         log.debug("Guardando mensaje de Telegram - chatId={}, userName={}", 
                 dto.getChatId(), dto.getUserName());
         
-        try {
-            // Crear entidad directamente desde el DTO
-            TelegramMessage message = TelegramMessage.builder()
-                    .chatId(dto.getChatId())
-                    .userName(dto.getUserName())
-                    .firstName(dto.getFirstName())
-                    .lastName(dto.getLastName())
-                    .messageText(dto.getMessageText())
-                    .botResponse(dto.getBotResponse())
-                    .createdAt(LocalDateTime.now())
-                    .build();
+        try (UpdateTrace.Span span = UpdateTrace.startCurrentSpan("telegram.save")) {
+            TelegramMessage message = toEntity(dto);
             
             TelegramMessage saved = telegramMessageRepository.save(message);
+            eventPublisher.publishEvent(new TelegramMessagesPersistedEvent(List.of(saved)));
             
             log.info("Mensaje de Telegram guardado - messageId={}, chatId={}, userName={}, fullName={}", 
                     saved.getId(), saved.getChatId(), dto.getUserName(), dto.getFullName());
@@ -67,6 +62,21 @@ public class TelegramService {
         }
     }
 
+    /**
+     * Encola un mensaje de Telegram para guardarlo en segundo plano.
+     * No espera a la base de datos: el mensaje se escribe en el siguiente lote del write-behind.
+     *
+     * @param dto DTO con la información del mensaje
+     * @return true si se encoló, false si se descartó por cola llena
+     */
+    public boolean enqueueMessage(TelegramMessageDTO dto) {
+        log.debug("Encolando mensaje de Telegram - chatId={}, userName={}", 
+                dto.getChatId(), dto.getUserName());
+        try (UpdateTrace.Span span = UpdateTrace.startCurrentSpan("telegram.save")) {
+            return telegramWriteBehindService.enqueue(toEntity(dto));
+        }
+    }
+
     /**
      * Obtiene todos los mensajes de un chat específico.
      *
@@ -101,13 +111,32 @@ public class TelegramService {
         return telegramMessageRepository.count();
     }
     
+    /**
+     * Crea la entidad TelegramMessage a partir del DTO.
+     *
+     * @param dto DTO con los datos del mensaje
+     * @return Entidad lista para persistir
+     */
+    private TelegramMessage toEntity(TelegramMessageDTO dto) {
+        return TelegramMessage.builder()
+                .chatId(dto.getChatId())
+                .userName(dto.getUserName())
+                .firstName(dto.getFirstName())
+                .lastName(dto.getLastName())
+                .messageText(dto.getMessageText())
+                .botResponse(dto.getBotResponse())
+                .responseTimeMs(dto.getResponseTimeMs())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+    
     /**
      * Convierte una entidad TelegramMessage a DTO.
      *
      * @param message Entidad a convertir
      * @return DTO con los datos del mensaje
      */
-    private TelegramMessageDTO convertToDTO(TelegramMessage message) {
+    TelegramMessageDTO convertToDTO(TelegramMessage message) {
         return TelegramMessageDTO.builder()
                 .chatId(message.getChatId())
                 .userName(message.getUserName())
@@ -115,6 +144,7 @@ public class TelegramService {
                 .lastName(message.getLastName())
                 .messageText(message.getMessageText())
                 .botResponse(message.getBotResponse())
+                .responseTimeMs(message.getResponseTimeMs())
                 .build();
     }
 }
@@ -0,0 +1,254 @@
+package com.alexia.service;
+
+import com.alexia.entity.TelegramMessage;
+import com.alexia.repository.BotCommandRepository;
+import com.alexia.repository.TelegramMessageRepository;
+import com.alexia.repository.TelegramStatsRepository;
+import com.alexia.repository.TelegramStatsRepository.StatsTotals;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totales de actividad del bot para el dashboard, TelegramView y /status sin COUNT(*) por consulta.
+ * Los totales se cargan de los resúmenes por día (database/18_telegram_stats_rollups.sql) y se actualizan en
+ * memoria con cada lote guardado ({@link TelegramMessagesPersistedEvent}, {@link BotCommandsPersistedEvent})
+ * y cada pulsación de botón. Cada reconcile-minutes se guardan las pulsaciones pendientes, se recalculan desde
+ * las tablas de origen las horas y el día recientes y se vuelven a leer los totales, lo que corrige cualquier
+ * desvío de los contadores en memoria.
+ * Con stats.rollups.enabled=false (o sin la migración 18) los totales salen de count() en cada reconciliación
+ * y las pulsaciones y latencias se cuentan solo en memoria.
+ */
+@Service
+@Slf4j
+public class TelegramStatsService {
+
+    /**
+     * Horas hacia atrás que se recalculan en cada reconciliación (cubre lotes escritos con retraso)
+     */
+    static final Duration RECOMPUTE_WINDOW = Duration.ofHours(2);
+
+    /**
+     * Totales en un momento dado.
+     *
+     * @param messages Mensajes recibidos
+     * @param answered Mensajes con respuesta del bot
+     * @param commands Comandos ejecutados
+     * @param clicks Pulsaciones de botones
+     * @param latencyCount Respuestas con latencia medida
+     * @param latencySumMs Suma de esas latencias
+     */
+    public record Snapshot(long messages, long answered, long commands, long clicks,
+                           long latencyCount, long latencySumMs) {
+
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+
+        /**
+         * Porcentaje de mensajes que recibieron respuesta (0 si no hay mensajes).
+         */
+        public double responseRate() {
+            return messages == 0 ? 0 : answered * 100.0 / messages;
+        }
+
+        /**
+         * Latencia media de respuesta en milisegundos (0 si no hay mediciones).
+         */
+        public long averageLatencyMs() {
+            return latencyCount == 0 ? 0 : latencySumMs / latencyCount;
+        }
+
+        private Snapshot plus(Snapshot other) {
+            return new Snapshot(messages + other.messages, answered + other.answered, commands + other.commands,
+                    clicks + other.clicks, latencyCount + other.latencyCount, latencySumMs + other.latencySumMs);
+        }
+    }
+
+    private final TelegramStatsRepository statsRepository;
+    private final TelegramMessageRepository messageRepository;
+    private final BotCommandRepository commandRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rollupsEnabled;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Totales leídos en la última reconciliación (null hasta la primera)
+     */
+    private volatile Snapshot base;
+
+    // Incrementos desde la última reconciliación
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder answered = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder clicks = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+    private final LongAdder latencySumMs = new LongAdder();
+
+    /**
+     * Pulsaciones aún no guardadas en los resúmenes, por hora
+     */
+    private final Map<LocalDateTime, Long> pendingClicks = new ConcurrentHashMap<>();
+
+    public TelegramStatsService(TelegramStatsRepository statsRepository,
+                                TelegramMessageRepository messageRepository,
+                                BotCommandRepository commandRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${telegram.stats.rollups.enabled:true}") boolean rollupsEnabled,
+                                @Value("${telegram.stats.reconcile-minutes:5}") long reconcileMinutes) {
+        this.statsRepository = statsRepository;
+        this.messageRepository = messageRepository;
+        this.commandRepository = commandRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rollupsEnabled = rollupsEnabled;
+
+        // La primera carga ocurre en la primera lectura; el hilo solo mantiene los totales al día
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "telegram-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcileSafely, reconcileMinutes, reconcileMinutes, TimeUnit.MINUTES);
+
+        log.info("TelegramStatsService inicializado - rollupsEnabled={}, reconcileMinutes={}",
+                rollupsEnabled, reconcileMinutes);
+    }
+
+    /**
+     * Totales actuales: los de la última reconciliación más lo registrado desde entonces.
+     * La primera llamada carga los totales de la base de datos.
+     */
+    public Snapshot snapshot() {
+        if (base == null) {
+            reconcileSafely();
+        }
+        Snapshot current = base;
+        Snapshot deltas = new Snapshot(messages.sum(), answered.sum(), commands.sum(), clicks.sum(),
+                latencyCount.sum(), latencySumMs.sum());
+        return (current != null ? current : Snapshot.EMPTY).plus(deltas);
+    }
+
+    /**
+     * Cuenta un lote de mensajes guardado. Si se publicó dentro de una transacción, espera a que confirme.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesPersisted(TelegramMessagesPersistedEvent event) {
+        for (TelegramMessage message : event.messages()) {
+            messages.increment();
+            if (message.getBotResponse() != null) {
+                answered.increment();
+            }
+            if (message.getResponseTimeMs() != null) {
+                latencyCount.increment();
+                latencySumMs.add(message.getResponseTimeMs());
+            }
+        }
+    }
+
+    /**
+     * Cuenta un lote de comandos guardado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandsPersisted(BotCommandsPersistedEvent event) {
+        commands.add(event.commands().size());
+    }
+
+    /**
+     * Registra la pulsación de un botón del bot. Se guarda en los resúmenes en la siguiente reconciliación.
+     */
+    public void recordClick() {
+        clicks.increment();
+        if (rollupsEnabled) {
+            pendingClicks.merge(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Guarda las pulsaciones pendientes, recalcula los resúmenes recientes y vuelve a leer los totales.
+     * Lo registrado mientras corre puede quedar contado dos veces hasta la siguiente reconciliación.
+     */
+    public synchronized void reconcile() {
+        Snapshot deltas = new Snapshot(messages.sumThenReset(), answered.sumThenReset(), commands.sumThenReset(),
+                clicks.sumThenReset(), latencyCount.sumThenReset(), latencySumMs.sumThenReset());
+        try {
+            base = rollupsEnabled ? loadFromRollups(deltas) : loadFromCounts(deltas);
+        } catch (RuntimeException e) {
+            // Devolver los incrementos para no perderlos hasta el próximo intento
+            messages.add(deltas.messages());
+            answered.add(deltas.answered());
+            commands.add(deltas.commands());
+            clicks.add(deltas.clicks());
+            latencyCount.add(deltas.latencyCount());
+            latencySumMs.add(deltas.latencySumMs());
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private Snapshot loadFromRollups(Snapshot deltas) {
+        try {
+            flushClicks();
+            LocalDateTime since = LocalDateTime.now().minus(RECOMPUTE_WINDOW).truncatedTo(ChronoUnit.HOURS);
+            StatsTotals totals = transactionTemplate.execute(status -> {
+                statsRepository.recomputeHourly(since);
+                statsRepository.recomputeDaily(since.toLocalDate());
+                return statsRepository.findTotals();
+            });
+            return new Snapshot(totals.messages(), totals.answered(), totals.commands(), totals.clicks(),
+                    totals.latencyCount(), totals.latencySumMs());
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron usar los resúmenes de estadísticas, se cuenta sobre las tablas "
+                    + "(¿falta database/18_telegram_stats_rollups.sql?) - message={}", e.getMessage());
+            return loadFromCounts(deltas);
+        }
+    }
+
+    private Snapshot loadFromCounts(Snapshot deltas) {
+        // Pulsaciones y latencias no están en las tablas: se acumulan sobre lo que había en memoria
+        Snapshot previous = base != null ? base : Snapshot.EMPTY;
+        return new Snapshot(messageRepository.count(), messageRepository.countByBotResponseIsNotNull(),
+                commandRepository.count(), previous.clicks() + deltas.clicks(),
+                previous.latencyCount() + deltas.latencyCount(), previous.latencySumMs() + deltas.latencySumMs());
+    }
+
+    private void flushClicks() {
+        for (LocalDateTime hour : pendingClicks.keySet()) {
+            Long pending = pendingClicks.remove(hour);
+            if (pending == null) {
+                continue;
+            }
+            try {
+                statsRepository.addClicks(hour, pending);
+            } catch (DataAccessException e) {
+                pendingClicks.merge(hour, pending, Long::sum);
+                throw e;
+            }
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Error al reconciliar las estadísticas de Telegram - exception={}, message={}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.alexia.service;
+
+import com.alexia.entity.BotCommand;
+import com.alexia.entity.TelegramMessage;
+import com.alexia.repository.BotCommandRepository;
+import com.alexia.repository.TelegramMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Persistencia diferida (write-behind) de mensajes y comandos de Telegram.
+ * Las entidades se encolan sin tocar la base de datos y un hilo dedicado las escribe
+ * por lotes cuando la cola alcanza batch-size o cada flush-interval-ms, lo que ocurra antes.
+ * Así la latencia de respuesta al usuario no incluye el round trip a la base de datos.
+ * Si un lote falla por un error transitorio se reintenta en los siguientes flush (hasta MAX_ATTEMPTS);
+ * si falla por una restricción se guarda fila a fila para descartar solo las filas inválidas.
+ * Tras cada lote confirmado publica un {@link TelegramMessagesPersistedEvent} y un {@link BotCommandsPersistedEvent}
+ * con lo escrito.
+ */
+@Service
+@Slf4j
+public class TelegramWriteBehindService {
+
+    /** Intentos por lote antes de darlo por perdido ante errores transitorios */
+    static final int MAX_ATTEMPTS = 5;
+
+    private final TelegramMessageRepository telegramMessageRepository;
+    private final BotCommandRepository botCommandRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    /** Entidades de un lote fallido; se escriben antes que la cola en el próximo flush */
+    private final Queue<Object> retryQueue = new ConcurrentLinkedQueue<>();
+    private int failedAttempts;
+
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+
+    public TelegramWriteBehindService(TelegramMessageRepository telegramMessageRepository,
+                                      BotCommandRepository botCommandRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${telegram.persistence.queue-capacity:10000}") int queueCapacity,
+                                      @Value("${telegram.persistence.batch-size:100}") int batchSize,
+                                      @Value("${telegram.persistence.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.telegramMessageRepository = telegramMessageRepository;
+        this.botCommandRepository = botCommandRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+
+        this.droppedCounter = Counter.builder("telegram.persistence.dropped")
+                .description("Escrituras descartadas por cola llena")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("telegram.persistence.written")
+                .description("Entidades escritas en base de datos")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("telegram.persistence.failed")
+                .description("Entidades perdidas tras agotar los reintentos o por violar una restricción")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("telegram.persistence.flush")
+                .description("Duración de cada escritura por lotes")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("telegram.persistence.queue.depth", this, TelegramWriteBehindService::getPendingCount)
+                .description("Entidades pendientes de escribir")
+                .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "telegram-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        log.info("TelegramWriteBehindService inicializado - queueCapacity={}, batchSize={}, flushIntervalMs={}",
+                queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Encola un mensaje para persistirlo en el próximo lote.
+     *
+     * @param message Mensaje a guardar
+     * @return true si se encoló, false si se descartó por cola llena
+     */
+    public boolean enqueue(TelegramMessage message) {
+        return offer(message);
+    }
+
+    /**
+     * Encola un comando para persistirlo en el próximo lote.
+     *
+     * @param command Comando a guardar
+     * @return true si se encoló, false si se descartó por cola llena
+     */
+    public boolean enqueue(BotCommand command) {
+        return offer(command);
+    }
+
+    /**
+     * Obtiene el número de entidades pendientes de escribir.
+     *
+     * @return Tamaño actual de la cola más las entidades pendientes de reintento
+     */
+    public int getPendingCount() {
+        return queue.size() + retryQueue.size();
+    }
+
+    /**
+     * Obtiene el número de escrituras descartadas por cola llena desde el arranque.
+     *
+     * @return Total de escrituras descartadas
+     */
+    public long getDroppedCount() {
+        return (long) droppedCounter.count();
+    }
+
+    /**
+     * Escribe todo lo pendiente de forma síncrona, empezando por los lotes pendientes de reintento.
+     * Si un lote falla por un error transitorio se detiene y lo deja para el próximo flush.
+     */
+    public synchronized void flush() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (drainTo(batch) > 0) {
+            if (!writeBatch(batch)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Deteniendo TelegramWriteBehindService - pendientes={}", getPendingCount());
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Vaciar lo que quede para no perder mensajes al detener la aplicación
+        flushSafely();
+    }
+
+    private boolean offer(Object entity) {
+        if (!queue.offer(entity)) {
+            droppedCounter.increment();
+            log.warn("Cola de persistencia llena, descartando {} - pendientes={}",
+                    entity.getClass().getSimpleName(), queue.size());
+            return false;
+        }
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushSafely);
+            } catch (RuntimeException e) {
+                flushRequested.set(false);
+            }
+        }
+        return true;
+    }
+
+    private void flushSafely() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error inesperado al vaciar la cola de persistencia - exception={}, message={}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+
+    private int drainTo(List<Object> batch) {
+        Object entity;
+        while (batch.size() < batchSize && (entity = retryQueue.poll()) != null) {
+            batch.add(entity);
+        }
+        if (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Escribe un lote en una única transacción.
+     *
+     * @return false si el lote quedó pendiente de reintento
+     */
+    private boolean writeBatch(List<Object> batch) {
+        List<TelegramMessage> messages = new ArrayList<>();
+        List<BotCommand> commands = new ArrayList<>();
+        for (Object entity : batch) {
+            if (entity instanceof TelegramMessage message) {
+                messages.add(message);
+            } else if (entity instanceof BotCommand command) {
+                commands.add(command);
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!messages.isEmpty()) {
+                    telegramMessageRepository.saveAll(messages);
+                }
+                if (!commands.isEmpty()) {
+                    botCommandRepository.saveAll(commands);
+                }
+            });
+            failedAttempts = 0;
+            writtenCounter.increment(batch.size());
+            log.debug("Lote persistido - messages={}, commands={}", messages.size(), commands.size());
+        } catch (Exception e) {
+            resetIds(messages, commands);
+            if (isConstraintViolation(e)) {
+                // Reintentar el lote entero volvería a fallar: se guarda fila a fila y solo se pierden las inválidas
+                log.warn("Lote rechazado por una restricción, guardando fila a fila - messages={}, commands={}, message={}",
+                        messages.size(), commands.size(), e.getMessage());
+                failedAttempts = 0;
+                messages.removeIf(message -> !saveOne(message, telegramMessageRepository::save));
+                commands.removeIf(command -> !saveOne(command, botCommandRepository::save));
+            } else if (++failedAttempts < MAX_ATTEMPTS) {
+                retryQueue.addAll(batch);
+                log.warn("Error al persistir lote, se reintentará - messages={}, commands={}, attempt={}, exception={}, message={}",
+                        messages.size(), commands.size(), failedAttempts, e.getClass().getSimpleName(), e.getMessage());
+                return false;
+            } else {
+                failedAttempts = 0;
+                failedCounter.increment(batch.size());
+                log.error("Error al persistir lote, descartado tras {} intentos - messages={}, commands={}, exception={}, message={}",
+                        MAX_ATTEMPTS, messages.size(), commands.size(), e.getClass().getSimpleName(), e.getMessage(), e);
+                return true;
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!messages.isEmpty()) {
+            publishSafely(new TelegramMessagesPersistedEvent(messages));
+        }
+        if (!commands.isEmpty()) {
+            publishSafely(new BotCommandsPersistedEvent(commands));
+        }
+        return true;
+    }
+
+    /**
+     * Indica si el lote falló por una restricción de la base o por la validación de una entidad.
+     * La validación al hacer flush en el commit llega envuelta en TransactionSystemException, así que se busca en las causas.
+     */
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> boolean saveOne(T entity, Consumer<T> save) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> save.accept(entity));
+            writtenCounter.increment();
+            return true;
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("Fila descartada al persistir - entity={}, exception={}, message={}",
+                    entity.getClass().getSimpleName(), e.getClass().getSimpleName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Quita los IDs asignados por la secuencia en el intento fallido: la transacción se revirtió,
+     * así que las filas no existen y deben volver a insertarse, no fusionarse.
+     */
+    private void resetIds(List<TelegramMessage> messages, List<BotCommand> commands) {
+        messages.forEach(message -> message.setId(null));
+        commands.forEach(command -> command.setId(null));
+    }
+
+    /**
+     * Publica el evento de lote persistido. Al detener la aplicación los listeners pueden estar ya destruidos;
+     * el lote ya está guardado, así que se registra y se sigue vaciando la cola.
+     */
+    private void publishSafely(Object event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo notificar el lote persistido - event={}, exception={}, message={}",
+                    event.getClass().getSimpleName(), e.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+}
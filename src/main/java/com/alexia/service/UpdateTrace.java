@@ -0,0 +1,229 @@
+package com.alexia.service;
+
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Traza de una actualización de Telegram: un ID por actualización y un span por etapa
+ * (ruteo, llamada a Groq, guardado del mensaje, envío a Telegram).
+ * La traza activa del hilo se obtiene con {@link #current()}, así GrokService y TelegramService abren sus spans
+ * sin recibirla por parámetro; al pasar a otro hilo (respuesta del LLM) se vuelve a activar con {@link #bind}.
+ * Mientras está activa, su ID queda en el MDC como traceId para las líneas de log del turno.
+ */
+public final class UpdateTrace {
+
+    /**
+     * Clave del MDC con el ID de la traza activa
+     */
+    public static final String MDC_KEY = "traceId";
+
+    private static final ThreadLocal<UpdateTrace> CURRENT = new ThreadLocal<>();
+    private static final Scope NOOP_SCOPE = () -> { };
+
+    private final String traceId;
+    private final String rootSpanId;
+    private final String route;
+    private final Long chatId;
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final List<Span> spans = new ArrayList<>(4);
+    private volatile long endNanos;
+    private volatile boolean error;
+
+    UpdateTrace(String route, Long chatId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        this.traceId = hex(random.nextLong()) + hex(random.nextLong());
+        this.rootSpanId = hex(random.nextLong());
+        this.route = route;
+        this.chatId = chatId;
+        this.startEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Traza activa en el hilo actual, o null si no hay (tracing deshabilitado o fuera de un turno).
+     */
+    public static UpdateTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Activa la traza en el hilo actual hasta cerrar el Scope devuelto, que restaura la anterior.
+     *
+     * @param trace Traza a activar; con null no hace nada
+     */
+    public static Scope bind(UpdateTrace trace) {
+        if (trace == null) {
+            return NOOP_SCOPE;
+        }
+        UpdateTrace previous = CURRENT.get();
+        CURRENT.set(trace);
+        MDC.put(MDC_KEY, trace.traceId);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+                MDC.put(MDC_KEY, previous.traceId);
+            } else {
+                CURRENT.remove();
+                MDC.remove(MDC_KEY);
+            }
+        };
+    }
+
+    /**
+     * Abre un span en la traza activa del hilo. Sin traza activa devuelve un span que no registra nada.
+     *
+     * @param name Nombre de la etapa
+     */
+    public static Span startCurrentSpan(String name) {
+        UpdateTrace trace = CURRENT.get();
+        return trace != null ? trace.startSpan(name) : Span.NOOP;
+    }
+
+    /**
+     * Abre un span en esta traza. Se puede cerrar desde otro hilo.
+     *
+     * @param name Nombre de la etapa
+     */
+    public Span startSpan(String name) {
+        Span span = new Span(this, name, hex(ThreadLocalRandom.current().nextLong()), System.nanoTime());
+        synchronized (spans) {
+            spans.add(span);
+        }
+        return span;
+    }
+
+    void finish(boolean failed) {
+        this.error = failed;
+        this.endNanos = System.nanoTime();
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getRootSpanId() {
+        return rootSpanId;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    /**
+     * Inicio de la traza en nanosegundos desde la época Unix.
+     */
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    /**
+     * Duración total del turno en nanosegundos (0 mientras no termina).
+     */
+    public long getDurationNanos() {
+        long end = endNanos;
+        return end == 0 ? 0 : end - startNanos;
+    }
+
+    /**
+     * Copia de los spans, en el orden en que se abrieron.
+     */
+    public List<Span> getSpans() {
+        synchronized (spans) {
+            return List.copyOf(spans);
+        }
+    }
+
+    private static String hex(long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+
+    /**
+     * Alcance de una traza activada con {@link #bind}.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Etapa de una traza, medida desde que se abre hasta {@link #end}.
+     */
+    public static final class Span implements AutoCloseable {
+
+        static final Span NOOP = new Span(null, "noop", "", 0);
+
+        private final UpdateTrace trace;
+        private final String name;
+        private final String spanId;
+        private final long startNanos;
+        private volatile long endNanos;
+        private volatile boolean error;
+
+        private Span(UpdateTrace trace, String name, String spanId, long startNanos) {
+            this.trace = trace;
+            this.name = name;
+            this.spanId = spanId;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Cierra el span como fallido o no. Solo cuenta el primer cierre.
+         */
+        public void end(boolean failed) {
+            if (trace == null || endNanos != 0) {
+                return;
+            }
+            this.error = failed;
+            this.endNanos = System.nanoTime();
+        }
+
+        /**
+         * Cierra el span sin error (para try-with-resources).
+         */
+        @Override
+        public void close() {
+            end(false);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSpanId() {
+            return spanId;
+        }
+
+        public boolean isError() {
+            return error;
+        }
+
+        /**
+         * Inicio relativo al de la traza, en nanosegundos.
+         */
+        public long getOffsetNanos() {
+            return startNanos - trace.startNanos;
+        }
+
+        /**
+         * Duración en nanosegundos; si no se cerró, hasta el final de la traza.
+         */
+        public long getDurationNanos() {
+            long end = endNanos != 0 ? endNanos : trace.endNanos;
+            return end == 0 ? 0 : Math.max(0, end - startNanos);
+        }
+    }
+}
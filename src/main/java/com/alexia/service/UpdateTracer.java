@@ -0,0 +1,127 @@
+package com.alexia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Crea y cierra las trazas de las actualizaciones de Telegram ({@link UpdateTrace}).
+ * Las trazas que superan slow-threshold-ms se guardan en un buffer circular de buffer-size entradas
+ * (vista de trazas lentas), se registran en el log con su ID y, si está habilitado, se exportan por OTLP.
+ * Las demás se descartan al terminar el turno: el costo por actualización es un puñado de lecturas de reloj
+ * y objetos pequeños, sin E/S.
+ */
+@Service
+@Slf4j
+public class UpdateTracer {
+
+    private final OtlpTraceExporter exporter;
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final int bufferSize;
+    private final Deque<UpdateTrace> slowTraces;
+    private final Counter slowTracesCounter;
+
+    public UpdateTracer(OtlpTraceExporter exporter,
+                        MeterRegistry meterRegistry,
+                        @Value("${telegram.tracing.enabled:true}") boolean enabled,
+                        @Value("${telegram.tracing.slow-threshold-ms:3000}") long slowThresholdMs,
+                        @Value("${telegram.tracing.buffer-size:200}") int bufferSize) {
+        this.exporter = exporter;
+        this.enabled = enabled;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.bufferSize = bufferSize;
+        this.slowTraces = new ArrayDeque<>(bufferSize);
+        this.slowTracesCounter = Counter.builder("telegram.traces.slow")
+                .description("Turnos que superaron el umbral de traza lenta")
+                .register(meterRegistry);
+
+        log.info("UpdateTracer inicializado - enabled={}, slowThresholdMs={}, bufferSize={}",
+                enabled, slowThresholdMs, bufferSize);
+    }
+
+    /**
+     * Abre la traza de una actualización.
+     *
+     * @param route Ruta de la actualización (command, search, llm...)
+     * @param chatId ID del chat, o null si no tiene
+     * @return Traza nueva, o null con el tracing deshabilitado
+     */
+    public UpdateTrace start(String route, Long chatId) {
+        return enabled ? new UpdateTrace(route, chatId) : null;
+    }
+
+    /**
+     * Cierra la traza y la conserva si fue lenta.
+     *
+     * @param trace Traza devuelta por {@link #start} (null se ignora)
+     * @param failed true si el turno terminó con error
+     */
+    public void finish(UpdateTrace trace, boolean failed) {
+        if (trace == null) {
+            return;
+        }
+        trace.finish(failed);
+        if (trace.getDurationNanos() < slowThresholdNanos) {
+            return;
+        }
+        slowTracesCounter.increment();
+        if (bufferSize > 0) {
+            synchronized (slowTraces) {
+                if (slowTraces.size() >= bufferSize) {
+                    slowTraces.pollFirst();
+                }
+                slowTraces.addLast(trace);
+            }
+        }
+        log.info("Turno lento - traceId={}, route={}, chatId={}, totalMs={}, spans=[{}]",
+                trace.getTraceId(), trace.getRoute(), trace.getChatId(),
+                TimeUnit.NANOSECONDS.toMillis(trace.getDurationNanos()), describeSpans(trace));
+        exporter.export(trace);
+    }
+
+    /**
+     * Trazas lentas en el buffer, de la más reciente a la más antigua.
+     */
+    public List<UpdateTrace> getSlowTraces() {
+        List<UpdateTrace> traces;
+        synchronized (slowTraces) {
+            traces = new ArrayList<>(slowTraces);
+        }
+        Collections.reverse(traces);
+        return traces;
+    }
+
+    /**
+     * Vacía el buffer de trazas lentas.
+     */
+    public void clearSlowTraces() {
+        synchronized (slowTraces) {
+            slowTraces.clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getSlowThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    private static String describeSpans(UpdateTrace trace) {
+        return trace.getSpans().stream()
+                .map(span -> span.getName() + "=" + TimeUnit.NANOSECONDS.toMillis(span.getDurationNanos()) + "ms")
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -2,40 +2,96 @@ package com.alexia.telegram;
 
 import com.alexia.constants.BotCommands;
 import com.alexia.constants.Messages;
+import com.alexia.dto.BusinessPage;
+import com.alexia.dto.NearbyBusiness;
 import com.alexia.dto.TelegramMessageDTO;
 import com.alexia.entity.BotCommand;
-import com.alexia.entity.Business;
-import com.alexia.repository.BotCommandRepository;
-import com.alexia.repository.TelegramMessageRepository;
 import com.alexia.service.BusinessService;
 import com.alexia.service.GrokService;
 import com.alexia.service.TelegramService;
+import com.alexia.service.TelegramStatsService;
+import com.alexia.service.TelegramWriteBehindService;
+import com.alexia.service.UpdateTrace;
+import com.alexia.service.UpdateTracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.updates.DeleteWebhook;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Location;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboard;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardRemove;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardButton;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Bot de Telegram para Alexia.
  * Recibe mensajes de usuarios y responde con comandos y funcionalidad de eco.
+ * Mide cada turno por ruta (telegram.update.handle) y cada envío a Telegram (telegram.send), y abre una traza
+ * por actualización ({@link UpdateTracer}) con spans de ruteo, Groq, guardado y envío.
  */
 @Slf4j
 public class AlexiaTelegramBot extends TelegramLongPollingBot {
+
+    /**
+     * Máximo de chats esperando su ubicación tras /cerca; al superarlo se descarta el más antiguo
+     */
+    private static final int MAX_PENDING_NEARBY = 10_000;
+
+    /**
+     * Ruta que sigue una actualización dentro del bot (tag route de telegram.update.handle)
+     */
+    private enum UpdateRoute {
+        COMMAND, SEARCH, LLM, LOCATION, CALLBACK, OTHER
+    }
+
     private final TelegramService telegramService;
-    private final BotCommandRepository botCommandRepository;
-    private final TelegramMessageRepository telegramMessageRepository;
+    private final TelegramStatsService telegramStatsService;
     private final GrokService grokService;
     private final BusinessService businessService;
+    private final UpdateDispatcher updateDispatcher;
+    private final TelegramWriteBehindService telegramWriteBehindService;
+    private final UpdateTracer updateTracer;
     private final String botUsername;
+
+    private final Map<UpdateRoute, Timer> updateTimers = new EnumMap<>(UpdateRoute.class);
+    private final Timer sendSuccessTimer;
+    private final Timer sendErrorTimer;
+
+    /**
+     * Categoría pedida con /cerca por cada chat, hasta que llega su ubicación ("" = todas)
+     */
+    private final Map<Long, String> pendingNearbyCategories = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                    return size() > MAX_PENDING_NEARBY;
+                }
+            });
     
     /**
      * Estado del bot: true = activo (procesa mensajes), false = inactivo (ignora mensajes)
@@ -44,19 +100,40 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
     @Setter
     private volatile boolean active = false;
 
+    /**
+     * Intervalo mínimo entre ediciones de una respuesta en streaming
+     */
+    @Setter
+    private long streamingEditIntervalMs = 1000;
+
     public AlexiaTelegramBot(String botToken, String botUsername, 
                             TelegramService telegramService,
-                            BotCommandRepository botCommandRepository,
-                            TelegramMessageRepository telegramMessageRepository,
+                            TelegramStatsService telegramStatsService,
                             GrokService grokService,
-                            BusinessService businessService) {
+                            BusinessService businessService,
+                            UpdateDispatcher updateDispatcher,
+                            TelegramWriteBehindService telegramWriteBehindService,
+                            UpdateTracer updateTracer,
+                            MeterRegistry meterRegistry) {
         super(botToken);
         this.botUsername = botUsername;
         this.telegramService = telegramService;
-        this.botCommandRepository = botCommandRepository;
-        this.telegramMessageRepository = telegramMessageRepository;
+        this.telegramStatsService = telegramStatsService;
         this.grokService = grokService;
         this.businessService = businessService;
+        this.updateDispatcher = updateDispatcher;
+        this.telegramWriteBehindService = telegramWriteBehindService;
+        this.updateTracer = updateTracer;
+        for (UpdateRoute route : UpdateRoute.values()) {
+            updateTimers.put(route, Timer.builder("telegram.update.handle")
+                    .description("Duración de cada turno, desde que un worker toma la actualización hasta responder")
+                    .tag("route", route.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.sendSuccessTimer = sendTimer(meterRegistry, "success");
+        this.sendErrorTimer = sendTimer(meterRegistry, "error");
         log.info("Bot de Telegram inicializado con Grok AI y búsqueda de negocios - username=@{}", botUsername);
     }
 
@@ -67,22 +144,112 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
 
     @Override
     public void onUpdateReceived(Update update) {
+        Long chatId = chatIdOf(update);
+
         // Si el bot está inactivo, no procesar mensajes
         if (!active) {
-            log.trace("Bot inactivo, ignorando actualización - chatId={}", 
-                    update.hasMessage() ? update.getMessage().getChatId() : "N/A");
+            log.trace("Bot inactivo, ignorando actualización - chatId={}", chatId != null ? chatId : "N/A");
             return;
         }
         
+        // Procesar fuera del hilo de polling, manteniendo el orden dentro de cada chat
+        updateDispatcher.dispatchAsync(chatId, () -> handleUpdate(update));
+    }
+
+    /**
+     * Recibe una actualización del webhook. A diferencia de {@link #onUpdateReceived}, no espera
+     * capacidad en el dispatcher: si la cola está llena devuelve false para que el controlador
+     * responda con un error y Telegram reenvíe la actualización más tarde.
+     *
+     * @param update Actualización recibida
+     * @return true si se encoló o se ignoró a propósito (bot inactivo), false si se rechazó
+     */
+    public boolean receiveWebhookUpdate(Update update) {
+        Long chatId = chatIdOf(update);
+        if (!active) {
+            log.trace("Bot inactivo, ignorando actualización - chatId={}", chatId != null ? chatId : "N/A");
+            return true;
+        }
+        return updateDispatcher.tryDispatchAsync(chatId, () -> handleUpdate(update));
+    }
+
+    /**
+     * Procesa una actualización en un worker del dispatcher.
+     * El turno termina cuando se completa el future devuelto; mientras se espera al LLM
+     * el worker queda libre para otros chats.
+     * Visible en el paquete para los benchmarks del turno completo.
+     */
+    CompletableFuture<Void> handleUpdate(Update update) {
+        long start = System.nanoTime();
+        UpdateRoute route = routeOf(update);
+        Timer timer = updateTimers.get(route);
+        UpdateTrace trace = updateTracer.start(route.name().toLowerCase(Locale.ROOT), chatIdOf(update));
+        CompletableFuture<Void> turn;
+        try (UpdateTrace.Scope scope = UpdateTrace.bind(trace);
+             UpdateTrace.Span routeSpan = UpdateTrace.startCurrentSpan("update.route")) {
+            turn = processUpdate(update);
+        } catch (RuntimeException e) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            updateTracer.finish(trace, true);
+            throw e;
+        }
+        return turn.whenComplete((ignored, error) -> {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            updateTracer.finish(trace, error != null);
+        });
+    }
+
+    private CompletableFuture<Void> processUpdate(Update update) {
         if (update.hasMessage() && update.getMessage().hasText()) {
-            processTextMessage(update);
+            return processTextMessage(update);
+        }
+        if (update.hasMessage() && update.getMessage().hasLocation()) {
+            processLocationMessage(update);
+            return CompletableFuture.completedFuture(null);
         }
+        if (update.hasCallbackQuery()) {
+            handleCallbackQuery(update.getCallbackQuery());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static UpdateRoute routeOf(Update update) {
+        if (update.hasMessage() && update.getMessage().hasText()) {
+            String text = update.getMessage().getText();
+            if (text.startsWith("/")) {
+                return UpdateRoute.COMMAND;
+            }
+            return text.toLowerCase().startsWith("buscar ") ? UpdateRoute.SEARCH : UpdateRoute.LLM;
+        }
+        if (update.hasMessage() && update.getMessage().hasLocation()) {
+            return UpdateRoute.LOCATION;
+        }
+        return update.hasCallbackQuery() ? UpdateRoute.CALLBACK : UpdateRoute.OTHER;
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("telegram.send")
+                .description("Duración de cada envío de mensaje a la API de Telegram")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Long chatIdOf(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasCallbackQuery() && update.getCallbackQuery().getMessage() != null) {
+            return update.getCallbackQuery().getMessage().getChatId();
+        }
+        return null;
     }
 
     /**
      * Procesa un mensaje de texto recibido.
      */
-    private void processTextMessage(Update update) {
+    private CompletableFuture<Void> processTextMessage(Update update) {
+        long receivedAt = System.nanoTime();
         Long chatId = update.getMessage().getChatId();
         String messageText = update.getMessage().getText();
         User user = update.getMessage().getFrom();
@@ -91,24 +258,130 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
                 chatId, user.getUserName(), user.getFirstName(), messageText.length());
         log.debug("Contenido del mensaje - chatId={}, text={}", chatId, messageText);
 
-        String response;
-        
+        // /cerca necesita un teclado para pedir la ubicación, no solo texto
+        if (isNearbyCommand(messageText)) {
+            requestLocation(chatId, user, messageText.substring(BotCommands.NEARBY.length()).trim());
+            return CompletableFuture.completedFuture(null);
+        }
+
         // Verificar si es un comando
         if (messageText.startsWith("/")) {
-            response = handleCommand(chatId, user, messageText);
-        } else if (messageText.toLowerCase().startsWith("buscar ")) {
-            // Búsqueda de negocios
-            response = handleBusinessSearch(messageText);
+            String response = handleCommand(chatId, user, messageText);
+            reply(chatId, user, messageText, response, null, receivedAt);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (messageText.toLowerCase().startsWith("buscar ")) {
+            // Búsqueda de negocios: primera página, con botón para la siguiente
+            String query = messageText.substring(7).trim(); // Remover "buscar "
+            BusinessSearchReply searchReply = handleBusinessSearch(query, null, 1);
+            saveMessageToDatabase(chatId, user, messageText, searchReply.text(), elapsedMs(receivedAt));
+            sendTextMessage(chatId, searchReply.text(), searchReply.nextPageButton());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<String> grokResponse;
+        StreamingReply streamingReply = null;
+        if (grokService.isStreamingEnabled()) {
+            // Respuesta en streaming: el usuario ve los primeros tokens mientras Grok sigue generando
+            streamingReply = new StreamingReply(this, chatId, streamingEditIntervalMs);
+            grokResponse = generateStreamingGrokResponse(chatId, messageText, streamingReply);
         } else {
             // Generar respuesta con Grok AI para mensajes normales
-            response = generateGrokResponse(chatId, messageText);
+            grokResponse = generateGrokResponse(chatId, messageText);
+        }
+
+        // Continuar en un worker: el callback de OkHttp no debe bloquearse enviando a Telegram
+        StreamingReply finalStreamingReply = streamingReply;
+        UpdateTrace trace = UpdateTrace.current();
+        return grokResponse.thenAcceptAsync(response -> {
+            try (UpdateTrace.Scope scope = UpdateTrace.bind(trace)) {
+                reply(chatId, user, messageText, response, finalStreamingReply, receivedAt);
+            }
+        }, updateDispatcher.getWorkerExecutor());
+    }
+
+    private static boolean isNearbyCommand(String messageText) {
+        String command = messageText.split(" ")[0].toLowerCase();
+        return command.equals(BotCommands.NEARBY);
+    }
+
+    /**
+     * Recuerda la categoría pedida y muestra el botón para compartir la ubicación.
+     */
+    private void requestLocation(Long chatId, User user, String category) {
+        log.info("Comando recibido - chatId={}, command={}, userName={}", 
+                chatId, BotCommands.NEARBY, user.getUserName());
+        saveCommandToDatabase(chatId, user, BotCommands.NEARBY);
+        pendingNearbyCategories.put(chatId, category);
+
+        String prompt = String.format(BotCommands.NEARBY_LOCATION_PROMPT,
+                category.isEmpty() ? "los negocios" : "los negocios de '" + category + "'");
+        ReplyKeyboardMarkup locationKeyboard = ReplyKeyboardMarkup.builder()
+                .keyboardRow(new KeyboardRow(List.of(KeyboardButton.builder()
+                        .text(BotCommands.NEARBY_LOCATION_BUTTON)
+                        .requestLocation(true)
+                        .build())))
+                .resizeKeyboard(true)
+                .oneTimeKeyboard(true)
+                .build();
+        saveMessageToDatabase(chatId, user, BotCommands.NEARBY + (category.isEmpty() ? "" : " " + category), prompt);
+        sendTextMessage(chatId, prompt, locationKeyboard);
+    }
+
+    /**
+     * Procesa una ubicación: responde con los negocios más cercanos, de la categoría pedida con /cerca si la hay.
+     */
+    private void processLocationMessage(Update update) {
+        long receivedAt = System.nanoTime();
+        Long chatId = update.getMessage().getChatId();
+        User user = update.getMessage().getFrom();
+        Location location = update.getMessage().getLocation();
+        String category = pendingNearbyCategories.remove(chatId);
+
+        log.info("Ubicación recibida - chatId={}, userName={}, category={}", 
+                chatId, user.getUserName(), category);
+
+        String response = handleNearbySearch(location.getLatitude(), location.getLongitude(), category);
+        saveMessageToDatabase(chatId, user, String.format(Locale.ROOT, "📍 %.5f, %.5f",
+                location.getLatitude(), location.getLongitude()), response, elapsedMs(receivedAt));
+        sendTextMessage(chatId, response, ReplyKeyboardRemove.builder().removeKeyboard(true).build());
+    }
+
+    private String handleNearbySearch(double latitude, double longitude, String category) {
+        try {
+            List<NearbyBusiness> nearby = businessService.findNearby(latitude, longitude, category);
+            return businessService.formatNearbyBusinessesForTelegram(nearby, category);
+        } catch (Exception e) {
+            log.error("Error al buscar negocios cercanos - category={}, error={}", category, e.getMessage());
+            return "❌ Error al buscar negocios cercanos. Por favor intenta nuevamente.";
         }
+    }
 
-        // Guardar mensaje en base de datos
-        saveMessageToDatabase(chatId, user, messageText, response);
+    /**
+     * Guarda el turno y envía la respuesta, salvo que ya se haya mostrado en streaming.
+     * Si el streaming falló a medias, envía en mensajes nuevos la parte que el usuario no llegó a ver.
+     */
+    private void reply(Long chatId, User user, String messageText, String response, StreamingReply streamingReply,
+                       long receivedAt) {
+        // Encolar mensaje para guardarlo en base de datos (sin esperar al round trip)
+        saveMessageToDatabase(chatId, user, messageText, response, elapsedMs(receivedAt));
 
-        // Enviar respuesta al usuario
-        sendTextMessage(chatId, response);
+        // Enviar respuesta al usuario (las respuestas en streaming ya están en el chat)
+        if (streamingReply != null && streamingReply.hasStarted()) {
+            streamingReply.complete(response);
+            if (streamingReply.hasFailed()) {
+                String remainder = streamingReply.undelivered(response);
+                for (int start = 0; start < remainder.length(); start += StreamingReply.TELEGRAM_MAX_MESSAGE_LENGTH) {
+                    String part = remainder.substring(start,
+                            Math.min(remainder.length(), start + StreamingReply.TELEGRAM_MAX_MESSAGE_LENGTH));
+                    if (!part.isBlank()) {
+                        sendTextMessage(chatId, part);
+                    }
+                }
+            }
+        } else {
+            sendTextMessage(chatId, response);
+        }
     }
 
     /**
@@ -120,7 +393,7 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
         log.info("Comando recibido - chatId={}, command={}, userName={}", 
                 chatId, command, user.getUserName());
         
-        // Guardar comando en base de datos
+        // Encolar comando para guardarlo en base de datos
         saveCommandToDatabase(chatId, user, command);
         
         // Procesar comando
@@ -136,16 +409,15 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
      * Genera el mensaje de estado del bot.
      */
     private String generateStatusMessage() {
-        long totalMessages = telegramMessageRepository.count();
-        long totalCommands = botCommandRepository.count();
+        TelegramStatsService.Snapshot stats = telegramStatsService.snapshot();
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
         
         return String.format(BotCommands.STATUS_MESSAGE_TEMPLATE, 
-                totalMessages, totalCommands, timestamp);
+                stats.messages(), stats.commands(), stats.averageLatencyMs(), timestamp);
     }
 
     /**
-     * Guarda el comando ejecutado en la base de datos.
+     * Encola el comando ejecutado para guardarlo en la base de datos.
      */
     private void saveCommandToDatabase(Long chatId, User user, String command) {
         try {
@@ -157,8 +429,8 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
                     .createdAt(LocalDateTime.now())
                     .build();
 
-            botCommandRepository.save(botCommand);
-            log.debug("Comando guardado en BD - chatId={}, command={}", chatId, command);
+            telegramWriteBehindService.enqueue(botCommand);
+            log.debug("Comando encolado para BD - chatId={}, command={}", chatId, command);
         } catch (Exception e) {
             log.error("Error al guardar comando en BD - chatId={}, command={}, exception={}, message={}", 
                     chatId, command, e.getClass().getSimpleName(), e.getMessage(), e);
@@ -168,31 +440,64 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
     /**
      * Genera una respuesta usando Grok AI o eco como fallback.
      */
-    private String generateGrokResponse(Long chatId, String messageText) {
-        try {
-            // Intentar obtener respuesta de Grok AI
-            String grokResponse = grokService.getResponse(chatId, messageText);
-            
-            // Si Grok AI responde correctamente, retornar
-            if (grokResponse != null && !grokResponse.isEmpty()) {
-                log.info("Respuesta de Grok AI generada - chatId={}, responseLength={}", 
-                        chatId, grokResponse.length());
-                return grokResponse;
-            }
-        } catch (Exception e) {
-            log.error("Error al obtener respuesta de Grok AI - chatId={}, error={}", 
-                    chatId, e.getMessage());
-        }
-        
+    private CompletableFuture<String> generateGrokResponse(Long chatId, String messageText) {
+        return grokService.getResponseAsync(chatId, messageText)
+                .thenApply(grokResponse -> {
+                    // Si Grok AI responde correctamente, retornar
+                    if (grokResponse != null && !grokResponse.isEmpty()) {
+                        log.info("Respuesta de Grok AI generada - chatId={}, responseLength={}", 
+                                chatId, grokResponse.length());
+                        return grokResponse;
+                    }
+                    return echoFallback(chatId, messageText);
+                })
+                .exceptionally(e -> {
+                    log.error("Error al obtener respuesta de Grok AI - chatId={}, error={}", 
+                            chatId, e.getMessage());
+                    return echoFallback(chatId, messageText);
+                });
+    }
+
+    /**
+     * Genera una respuesta de Grok AI en streaming, mostrándola en el chat a medida que llega.
+     * Si Grok AI no devuelve nada, retorna la respuesta eco para enviarla como mensaje normal.
+     */
+    private CompletableFuture<String> generateStreamingGrokResponse(Long chatId, String messageText, 
+                                                                    StreamingReply streamingReply) {
+        return grokService.getStreamingResponseAsync(chatId, messageText, streamingReply)
+                .thenApply(grokResponse -> {
+                    if (grokResponse != null && !grokResponse.isEmpty()) {
+                        log.info("Respuesta de Grok AI generada en streaming - chatId={}, responseLength={}", 
+                                chatId, grokResponse.length());
+                        return grokResponse;
+                    }
+                    return echoFallback(chatId, messageText);
+                })
+                .exceptionally(e -> {
+                    log.error("Error al obtener respuesta de Grok AI en streaming - chatId={}, error={}", 
+                            chatId, e.getMessage());
+                    return echoFallback(chatId, messageText);
+                });
+    }
+
+    private String echoFallback(Long chatId, String messageText) {
         // Fallback: usar respuesta eco
         log.warn("Grok AI no disponible, usando respuesta eco - chatId={}", chatId);
         return Messages.TELEGRAM_ECHO_PREFIX + messageText;
     }
 
     /**
-     * Guarda el mensaje en la base de datos.
+     * Encola el mensaje para guardarlo en la base de datos.
      */
     private void saveMessageToDatabase(Long chatId, User user, String messageText, String response) {
+        saveMessageToDatabase(chatId, user, messageText, response, null);
+    }
+
+    /**
+     * Encola el mensaje junto con el tiempo que tardó la respuesta (null si no se midió).
+     */
+    private void saveMessageToDatabase(Long chatId, User user, String messageText, String response,
+                                       Integer responseTimeMs) {
         try {
             TelegramMessageDTO dto = TelegramMessageDTO.builder()
                     .chatId(chatId)
@@ -201,35 +506,96 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
                     .lastName(user.getLastName())
                     .messageText(messageText)
                     .botResponse(response)
+                    .responseTimeMs(responseTimeMs)
                     .build();
 
-            telegramService.saveMessage(dto);
-            log.debug("Mensaje guardado en BD - chatId={}, userName={}", chatId, user.getUserName());
+            telegramService.enqueueMessage(dto);
+            log.debug("Mensaje encolado para BD - chatId={}, userName={}", chatId, user.getUserName());
         } catch (Exception e) {
             log.error("Error al guardar mensaje en BD - chatId={}, exception={}, message={}", 
                     chatId, e.getClass().getSimpleName(), e.getMessage(), e);
         }
     }
 
+    private static Integer elapsedMs(long startNanos) {
+        return (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
     /**
-     * Maneja la búsqueda de negocios por categoría.
+     * Texto de una página de resultados y, si hay más, el botón para la siguiente.
      */
-    private String handleBusinessSearch(String messageText) {
-        // Extraer la categoría del mensaje "buscar [categoría]"
-        String category = messageText.substring(7).trim(); // Remover "buscar "
-        
-        if (category.isEmpty()) {
-            return "❌ Por favor especifica una categoría.\n\nEjemplo: buscar panadería";
+    private record BusinessSearchReply(String text, InlineKeyboardMarkup nextPageButton) {
+    }
+
+    /**
+     * Maneja la búsqueda de negocios por nombre, categoría o dirección, una página por vez.
+     */
+    private BusinessSearchReply handleBusinessSearch(String query, Long afterId, int pageNumber) {
+        if (query.isEmpty()) {
+            return new BusinessSearchReply("❌ Por favor especifica una categoría.\n\nEjemplo: buscar panadería", null);
         }
         
-        log.info("Búsqueda de negocios - category={}", category);
+        log.info("Búsqueda de negocios - query={}, page={}", query, pageNumber);
         
         try {
-            List<Business> businesses = businessService.searchByCategory(category);
-            return businessService.formatBusinessListForTelegram(businesses, category);
+            BusinessPage page = businessService.searchPage(query, afterId);
+            String text = businessService.formatBusinessPageForTelegram(page, query, pageNumber);
+            return new BusinessSearchReply(text,
+                    page.hasNext() ? nextPageButton(query, page.getNextAfterId(), pageNumber + 1) : null);
         } catch (Exception e) {
-            log.error("Error al buscar negocios - category={}, error={}", category, e.getMessage());
-            return "❌ Error al buscar negocios. Por favor intenta nuevamente.";
+            log.error("Error al buscar negocios - query={}, error={}", query, e.getMessage());
+            return new BusinessSearchReply("❌ Error al buscar negocios. Por favor intenta nuevamente.", null);
+        }
+    }
+
+    private InlineKeyboardMarkup nextPageButton(String query, Long afterId, int nextPage) {
+        String callbackData = BusinessSearchCallback.encode(nextPage, afterId, query);
+        if (callbackData == null) {
+            log.debug("Búsqueda demasiado larga para el botón de página siguiente - query={}", query);
+            return null;
+        }
+        return InlineKeyboardMarkup.builder()
+                .keyboardRow(List.of(InlineKeyboardButton.builder()
+                        .text("Siguiente ▶")
+                        .callbackData(callbackData)
+                        .build()))
+                .build();
+    }
+
+    /**
+     * Maneja la pulsación de un botón: muestra la página pedida en el mismo mensaje.
+     */
+    private void handleCallbackQuery(CallbackQuery callbackQuery) {
+        BusinessSearchCallback.Cursor cursor = BusinessSearchCallback.decode(callbackQuery.getData());
+        answerCallbackQuery(callbackQuery.getId());
+        telegramStatsService.recordClick();
+        if (cursor == null || callbackQuery.getMessage() == null) {
+            log.warn("Callback no reconocido - data={}", callbackQuery.getData());
+            return;
+        }
+
+        Long chatId = callbackQuery.getMessage().getChatId();
+        BusinessSearchReply searchReply = handleBusinessSearch(cursor.query(), cursor.afterId(), cursor.page());
+        try {
+            execute(EditMessageText.builder()
+                    .chatId(chatId.toString())
+                    .messageId(callbackQuery.getMessage().getMessageId())
+                    .text(searchReply.text())
+                    .replyMarkup(searchReply.nextPageButton())
+                    .build());
+            log.info("Página de búsqueda enviada - chatId={}, page={}", chatId, cursor.page());
+        } catch (TelegramApiException e) {
+            log.error("Error al mostrar página de búsqueda - chatId={}, exception={}, message={}", 
+                    chatId, e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+
+    private void answerCallbackQuery(String callbackQueryId) {
+        try {
+            execute(AnswerCallbackQuery.builder().callbackQueryId(callbackQueryId).build());
+        } catch (TelegramApiException e) {
+            log.warn("Error al responder callback - exception={}, message={}", 
+                    e.getClass().getSimpleName(), e.getMessage());
         }
     }
 
@@ -237,14 +603,28 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
      * Envía un mensaje de texto al usuario.
      */
     private void sendTextMessage(Long chatId, String text) {
+        sendTextMessage(chatId, text, null);
+    }
+
+    /**
+     * Envía un mensaje de texto al usuario, con botones o teclado opcionales.
+     */
+    private void sendTextMessage(Long chatId, String text, ReplyKeyboard replyMarkup) {
         SendMessage message = new SendMessage();
         message.setChatId(chatId.toString());
         message.setText(text);
+        message.setReplyMarkup(replyMarkup);
 
+        long start = System.nanoTime();
+        UpdateTrace.Span span = UpdateTrace.startCurrentSpan("telegram.send");
         try {
             execute(message);
+            sendSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            span.end(false);
             log.info("Respuesta enviada - chatId={}, responseLength={}", chatId, text.length());
         } catch (TelegramApiException e) {
+            sendErrorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            span.end(true);
             log.error("Error al enviar mensaje - chatId={}, exception={}, message={}", 
                     chatId, e.getClass().getSimpleName(), e.getMessage(), e);
         }
@@ -275,4 +655,34 @@ public class AlexiaTelegramBot extends TelegramLongPollingBot {
             return false;
         }
     }
+
+    /**
+     * Registra el webhook de Telegram para recibir actualizaciones por HTTP.
+     * Telegram enviará el secreto en la cabecera X-Telegram-Bot-Api-Secret-Token de cada petición.
+     *
+     * @param url URL pública del endpoint de webhook
+     * @param secretToken Secreto compartido para validar las peticiones
+     * @return true si se registró correctamente, false si hubo error
+     */
+    public boolean setWebhook(String url, String secretToken) {
+        try {
+            log.info("Registrando webhook de Telegram - url={}", url);
+            SetWebhook setWebhook = SetWebhook.builder()
+                    .url(url)
+                    .secretToken(secretToken)
+                    .build();
+            Boolean result = execute(setWebhook);
+            
+            if (Boolean.TRUE.equals(result)) {
+                log.info("✓ Webhook registrado correctamente");
+                return true;
+            }
+            log.warn("⚠ Telegram no confirmó el registro del webhook");
+            return false;
+        } catch (TelegramApiException e) {
+            log.error("Error al registrar webhook - exception={}, message={}", 
+                    e.getClass().getSimpleName(), e.getMessage());
+            return false;
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.alexia.telegram;
+
+/**
+ * Modo de recepción de actualizaciones de Telegram.
+ */
+public enum BotMode {
+
+    /**
+     * Long polling con getUpdates (DefaultBotSession).
+     */
+    POLLING("Long polling"),
+
+    /**
+     * Telegram envía cada actualización por HTTP al endpoint de webhook.
+     */
+    WEBHOOK("Webhook");
+
+    private final String displayName;
+
+    BotMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
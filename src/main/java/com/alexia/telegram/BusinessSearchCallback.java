@@ -0,0 +1,59 @@
+package com.alexia.telegram;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Datos del botón "Siguiente" de la búsqueda de negocios: página, cursor y texto buscado.
+ * Formato "bp:{página}:{id del último negocio}:{texto}". Telegram limita callback_data a 64 bytes;
+ * si el texto no cabe no se ofrece el botón (recortarlo cambiaría los resultados).
+ */
+final class BusinessSearchCallback {
+
+    static final String PREFIX = "bp:";
+    static final int MAX_CALLBACK_DATA_BYTES = 64;
+
+    /**
+     * Cursor decodificado de un botón.
+     *
+     * @param page Número de página a mostrar, desde 1
+     * @param afterId ID del último negocio de la página anterior
+     * @param query Texto buscado
+     */
+    record Cursor(int page, long afterId, String query) {
+    }
+
+    private BusinessSearchCallback() {
+    }
+
+    /**
+     * Codifica el cursor de la página siguiente.
+     *
+     * @return callback_data, o null si supera el límite de Telegram
+     */
+    static String encode(int page, long afterId, String query) {
+        String data = PREFIX + page + ":" + afterId + ":" + query;
+        return data.getBytes(StandardCharsets.UTF_8).length <= MAX_CALLBACK_DATA_BYTES ? data : null;
+    }
+
+    /**
+     * Decodifica un callback_data de este botón.
+     *
+     * @return Cursor, o null si el dato no es de la búsqueda o está mal formado
+     */
+    static Cursor decode(String data) {
+        if (data == null || !data.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = data.substring(PREFIX.length()).split(":", 3);
+        if (parts.length != 3 || parts[2].isBlank()) {
+            return null;
+        }
+        try {
+            int page = Integer.parseInt(parts[0]);
+            long afterId = Long.parseLong(parts[1]);
+            return page > 1 ? new Cursor(page, afterId, parts[2]) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
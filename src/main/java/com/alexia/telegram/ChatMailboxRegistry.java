@@ -0,0 +1,186 @@
+package com.alexia.telegram;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Buzones por chat: cada chat tiene una cola propia que se ejecuta en serie sobre un pool compartido.
+ * Garantiza un único turno en vuelo por chat sin lock global; chats distintos se ejecutan en paralelo.
+ * Los buzones vacíos se retiran del registro en cuanto terminan su último turno.
+ * Un turno puede ser asíncrono: el siguiente turno del chat empieza cuando termina su CompletionStage,
+ * sin ocupar un worker mientras tanto.
+ */
+@Slf4j
+public class ChatMailboxRegistry {
+
+    /**
+     * Clave usada para actualizaciones que no pertenecen a ningún chat.
+     */
+    public static final long NO_CHAT = 0L;
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    private final ConcurrentMap<Long, ChatMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    public ChatMailboxRegistry(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Encola un turno síncrono en el buzón del chat.
+     *
+     * @param chatId ID del chat (null se agrupa en NO_CHAT)
+     * @param task Turno a ejecutar
+     */
+    public void submit(Long chatId, Runnable task) {
+        submitAsync(chatId, () -> {
+            task.run();
+            return COMPLETED;
+        });
+    }
+
+    /**
+     * Encola un turno asíncrono en el buzón del chat.
+     * El turno se considera terminado cuando se completa la etapa que devuelve.
+     *
+     * @param chatId ID del chat (null se agrupa en NO_CHAT)
+     * @param task Turno a ejecutar; devuelve la etapa que marca su fin
+     * @throws java.util.concurrent.RejectedExecutionException si el executor rechaza el turno (no queda encolado)
+     */
+    public void submitAsync(Long chatId, Supplier<? extends CompletionStage<?>> task) {
+        long key = chatId == null ? NO_CHAT : chatId;
+        // Un buzón puede retirarse entre el lookup y el enqueue; en ese caso se crea uno nuevo
+        while (!mailboxes.computeIfAbsent(key, ChatMailbox::new).enqueue(task)) {
+            log.trace("Buzón retirado durante el envío, reintentando - chatId={}", key);
+        }
+    }
+
+    /**
+     * Obtiene el número de buzones vivos (chats con turnos pendientes o en curso).
+     *
+     * @return Número de buzones activos
+     */
+    public int size() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Retira el buzón del registro si sigue vacío.
+     * Se hace dentro de compute para que ningún submit concurrente quede en un buzón huérfano.
+     */
+    private void retireIfIdle(ChatMailbox mailbox) {
+        mailboxes.computeIfPresent(mailbox.chatId, (key, current) -> {
+            if (current != mailbox) {
+                return current;
+            }
+            return mailbox.tryRetire() ? null : current;
+        });
+    }
+
+    /**
+     * Buzón de un chat. Todo su estado se protege con el monitor propio del buzón.
+     */
+    private final class ChatMailbox {
+
+        private final long chatId;
+        private final Deque<Supplier<? extends CompletionStage<?>>> queue = new ArrayDeque<>();
+        private boolean running;
+        private boolean retired;
+
+        private ChatMailbox(long chatId) {
+            this.chatId = chatId;
+        }
+
+        /**
+         * @return false si el buzón ya fue retirado y el turno debe ir a uno nuevo
+         */
+        private boolean enqueue(Supplier<? extends CompletionStage<?>> task) {
+            boolean schedule;
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                queue.addLast(task);
+                schedule = !running;
+                running = true;
+            }
+            if (schedule) {
+                try {
+                    executor.execute(this::runNext);
+                } catch (RuntimeException e) {
+                    // Sin esto el buzón quedaría marcado como en curso para siempre y el chat no avanzaría.
+                    // Los turnos encolados entre tanto se ejecutan con el próximo envío que sí se programe
+                    synchronized (this) {
+                        queue.removeFirstOccurrence(task);
+                        running = false;
+                    }
+                    retireIfIdle(this);
+                    throw e;
+                }
+            }
+            return true;
+        }
+
+        private void runNext() {
+            Supplier<? extends CompletionStage<?>> task;
+            synchronized (this) {
+                task = queue.pollFirst();
+            }
+            CompletionStage<?> turn = null;
+            try {
+                if (task != null) {
+                    turn = task.get();
+                }
+            } catch (Exception e) {
+                logTurnError(e);
+            }
+            if (turn == null) {
+                afterTurn();
+                return;
+            }
+            // Un turno asíncrono libera el worker; el buzón sigue ocupado hasta que termine
+            turn.whenComplete((result, error) -> {
+                if (error != null) {
+                    logTurnError(error);
+                }
+                afterTurn();
+            });
+        }
+
+        private void afterTurn() {
+            boolean more;
+            synchronized (this) {
+                more = !queue.isEmpty();
+                running = more;
+            }
+            if (more) {
+                // Reencolar en lugar de iterar para no monopolizar un worker con un chat muy activo
+                executor.execute(this::runNext);
+            } else {
+                retireIfIdle(this);
+            }
+        }
+
+        private void logTurnError(Throwable e) {
+            log.error("Error no controlado en turno de chat - chatId={}, exception={}, message={}",
+                    chatId, e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+
+        private synchronized boolean tryRetire() {
+            if (running || !queue.isEmpty()) {
+                return false;
+            }
+            retired = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.alexia.telegram;
+
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Respuesta de Telegram que se va completando mientras llega el texto en streaming.
+ * El primer fragmento se envía de inmediato con SendMessage y los siguientes se aplican con
+ * EditMessageText como máximo una vez cada editInterval, para no superar los límites de la API.
+ * Si el texto supera el máximo de un mensaje de Telegram, continúa en un mensaje nuevo.
+ * Si un envío o una edición falla deja de actualizar y {@link #undelivered} indica lo que el usuario no llegó a ver.
+ * No es thread-safe: se usa de forma secuencial, primero desde el hilo de OkHttp que lee el streaming
+ * y después desde el worker que cierra el turno (el future del streaming ordena ambos accesos).
+ */
+@Slf4j
+class StreamingReply implements Consumer<String> {
+
+    static final int TELEGRAM_MAX_MESSAGE_LENGTH = 4096;
+
+    private final AbsSender sender;
+    private final Long chatId;
+    private final long editIntervalNanos;
+    private final LongSupplier clock;
+
+    private Integer messageId;
+    private int segmentStart;
+    private String lastSentText = "";
+    /** Prefijo del texto que el usuario ya ve en el chat */
+    private String delivered = "";
+    private long lastEditAt;
+    private boolean failed;
+
+    StreamingReply(AbsSender sender, Long chatId, long editIntervalMs) {
+        this(sender, chatId, editIntervalMs, System::nanoTime);
+    }
+
+    StreamingReply(AbsSender sender, Long chatId, long editIntervalMs, LongSupplier clock) {
+        this.sender = sender;
+        this.chatId = chatId;
+        this.editIntervalNanos = TimeUnit.MILLISECONDS.toNanos(editIntervalMs);
+        this.clock = clock;
+    }
+
+    /**
+     * Recibe el texto acumulado hasta el momento.
+     *
+     * @param text Texto completo recibido hasta ahora
+     */
+    @Override
+    public void accept(String text) {
+        update(text, false);
+    }
+
+    /**
+     * Aplica el texto final sin esperar al intervalo de edición.
+     *
+     * @param text Texto completo de la respuesta
+     */
+    void complete(String text) {
+        update(text, true);
+    }
+
+    /**
+     * Indica si ya se envió al menos un mensaje al usuario.
+     *
+     * @return true si el usuario ya ve parte de la respuesta
+     */
+    boolean hasStarted() {
+        return messageId != null || segmentStart > 0;
+    }
+
+    /**
+     * Indica si falló un envío o una edición y el chat dejó de actualizarse.
+     *
+     * @return true si el usuario puede ver una respuesta incompleta
+     */
+    boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * Obtiene la parte de la respuesta que el usuario no ve: lo posterior a lo ya mostrado,
+     * o el texto completo si lo mostrado no es un prefijo de la respuesta final.
+     *
+     * @param text Texto completo de la respuesta
+     * @return Texto pendiente de enviar (vacío si ya se mostró todo)
+     */
+    String undelivered(String text) {
+        return text.startsWith(delivered) ? text.substring(delivered.length()) : text;
+    }
+
+    private void update(String text, boolean force) {
+        if (failed || text == null) {
+            return;
+        }
+
+        // Cerrar los mensajes llenos y continuar el resto en uno nuevo
+        while (text.length() - segmentStart > TELEGRAM_MAX_MESSAGE_LENGTH) {
+            show(text, segmentStart + TELEGRAM_MAX_MESSAGE_LENGTH);
+            if (failed) {
+                return;
+            }
+            segmentStart += TELEGRAM_MAX_MESSAGE_LENGTH;
+            messageId = null;
+            lastSentText = "";
+        }
+
+        String segment = text.substring(segmentStart);
+        if (segment.isBlank() || segment.equals(lastSentText)) {
+            return;
+        }
+        if (messageId != null && !force && clock.getAsLong() - lastEditAt < editIntervalNanos) {
+            return;
+        }
+        show(text, text.length());
+    }
+
+    private void show(String text, int end) {
+        String segment = text.substring(segmentStart, end);
+        if (segment.equals(lastSentText)) {
+            return;
+        }
+        try {
+            if (messageId == null) {
+                Message sent = sender.execute(SendMessage.builder()
+                        .chatId(chatId.toString())
+                        .text(segment)
+                        .build());
+                messageId = sent.getMessageId();
+            } else {
+                sender.execute(EditMessageText.builder()
+                        .chatId(chatId.toString())
+                        .messageId(messageId)
+                        .text(segment)
+                        .build());
+            }
+            lastSentText = segment;
+            delivered = text.substring(0, end);
+            lastEditAt = clock.getAsLong();
+        } catch (TelegramApiException e) {
+            // Sin el mensaje no se puede seguir editando; quien cierra el turno envía lo que falte
+            failed = true;
+            log.error("Error al enviar respuesta en streaming - chatId={}, exception={}, message={}",
+                    chatId, e.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+}
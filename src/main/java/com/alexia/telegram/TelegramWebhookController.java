@@ -0,0 +1,82 @@
+package com.alexia.telegram;
+
+import com.alexia.service.BotManagerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Endpoint de webhook de Telegram.
+ * Valida el secreto, entrega la actualización al dispatcher y responde de inmediato;
+ * el procesamiento real ocurre de forma asíncrona en los workers del bot.
+ * Si el dispatcher no tiene capacidad responde 503 sin esperar, y Telegram reintenta la entrega.
+ */
+@RestController
+@Slf4j
+public class TelegramWebhookController {
+
+    static final String SECRET_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private final AlexiaTelegramBot alexiaTelegramBot;
+    private final BotManagerService botManagerService;
+    private final byte[] secret;
+
+    public TelegramWebhookController(AlexiaTelegramBot alexiaTelegramBot,
+                                     BotManagerService botManagerService,
+                                     @Value("${telegram.webhook.secret:}") String secret) {
+        this.alexiaTelegramBot = alexiaTelegramBot;
+        this.botManagerService = botManagerService;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Recibe una actualización enviada por Telegram.
+     *
+     * @param secretToken Secreto enviado por Telegram en la cabecera
+     * @param update Actualización recibida
+     * @return 200 si se aceptó, 401 si el secreto no coincide, 404 si el modo webhook no está activo,
+     *         503 si el dispatcher está lleno o deteniéndose (Telegram reintenta la entrega)
+     */
+    @PostMapping("${telegram.webhook.path:/telegram/webhook}")
+    public ResponseEntity<Void> receiveUpdate(
+            @RequestHeader(value = SECRET_HEADER, required = false) String secretToken,
+            @RequestBody Update update) {
+
+        if (!botManagerService.isWebhookActive()) {
+            log.debug("Webhook recibido con el modo webhook inactivo - updateId={}", update.getUpdateId());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        if (!isValidSecret(secretToken)) {
+            log.warn("Webhook rechazado: secreto inválido - updateId={}", update.getUpdateId());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        log.debug("Actualización recibida por webhook - updateId={}", update.getUpdateId());
+        if (!alexiaTelegramBot.receiveWebhookUpdate(update)) {
+            // Con 200 Telegram la daría por entregada y se perdería; con un error la reenvía más tarde
+            log.warn("Webhook rechazado: dispatcher sin capacidad - updateId={}", update.getUpdateId());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Compara el secreto en tiempo constante para no filtrar información por temporización.
+     */
+    private boolean isValidSecret(String secretToken) {
+        if (secret.length == 0 || secretToken == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(secret, secretToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
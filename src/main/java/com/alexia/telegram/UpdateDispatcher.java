@@ -0,0 +1,251 @@
+package com.alexia.telegram;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Etapa de despacho de actualizaciones de Telegram.
+ * Saca el procesamiento del hilo de long polling y lo reparte en un pool acotado de workers.
+ * Cada chat tiene su propio buzón (ver {@link ChatMailboxRegistry}), por lo que sus mensajes
+ * se procesan en orden y de uno en uno, mientras que chats distintos avanzan en paralelo.
+ * Cada actualización ocupa un permiso de capacidad desde que se encola hasta que termina su turno,
+ * incluida la parte asíncrona; al detenerse se esperan todos los permisos antes de cerrar el pool.
+ */
+@Component
+@DependsOn("telegramWriteBehindService") // se detiene antes, para que el write-behind reciba los últimos turnos
+@Slf4j
+public class UpdateDispatcher {
+
+    /** Espera máxima a que terminen los turnos en vuelo al detener la aplicación */
+    static final long DRAIN_TIMEOUT_SECONDS = 30;
+
+    private final ThreadPoolExecutor workers;
+    private final ChatMailboxRegistry mailboxes;
+    private final Semaphore capacity;
+    private final int queueCapacity;
+    private final long offerTimeoutMs;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean stopping;
+
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public UpdateDispatcher(@Value("${telegram.dispatcher.workers:16}") int workers,
+                            @Value("${telegram.dispatcher.queue-capacity:500}") int queueCapacity,
+                            @Value("${telegram.dispatcher.offer-timeout-ms:5000}") long offerTimeoutMs,
+                            MeterRegistry meterRegistry) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("workers y queue-capacity deben ser mayores que cero");
+        }
+        this.queueCapacity = queueCapacity;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.capacity = new Semaphore(queueCapacity);
+        this.workers = createWorkers(workers);
+        this.mailboxes = new ChatMailboxRegistry(this.workers);
+
+        this.waitTimer = Timer.builder("telegram.dispatcher.wait")
+                .description("Tiempo que una actualización espera en cola antes de procesarse")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("telegram.dispatcher.rejected")
+                .description("Actualizaciones descartadas por cola llena")
+                .register(meterRegistry);
+        Gauge.builder("telegram.dispatcher.queue.depth", this, UpdateDispatcher::getQueueDepth)
+                .description("Actualizaciones en cola pendientes de procesar")
+                .register(meterRegistry);
+        Gauge.builder("telegram.dispatcher.active", running, AtomicInteger::get)
+                .description("Actualizaciones en procesamiento")
+                .register(meterRegistry);
+        Gauge.builder("telegram.dispatcher.mailboxes", mailboxes, ChatMailboxRegistry::size)
+                .description("Chats con turnos pendientes o en curso")
+                .register(meterRegistry);
+
+        log.info("UpdateDispatcher inicializado - workers={}, queueCapacity={}, offerTimeoutMs={}",
+                workers, queueCapacity, offerTimeoutMs);
+    }
+
+    /**
+     * Encola el procesamiento de una actualización en el buzón del chat.
+     * Si la cola está llena, bloquea al llamante (hilo de polling) hasta offer-timeout-ms,
+     * lo que frena la lectura de nuevas actualizaciones en lugar de acumularlas sin límite.
+     *
+     * @param chatId ID del chat (null para actualizaciones sin chat)
+     * @param task Procesamiento a ejecutar
+     * @return true si se encoló, false si se descartó por falta de capacidad
+     */
+    public boolean dispatch(Long chatId, Runnable task) {
+        return dispatchAsync(chatId, () -> {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Encola un procesamiento asíncrono en el buzón del chat.
+     * La actualización ocupa capacidad y bloquea el buzón hasta que termina la etapa devuelta,
+     * pero el worker queda libre mientras tanto (por ejemplo, durante la llamada al LLM).
+     *
+     * @param chatId ID del chat (null para actualizaciones sin chat)
+     * @param task Procesamiento a ejecutar; devuelve la etapa que marca su fin
+     * @return true si se encoló, false si se descartó por falta de capacidad
+     */
+    public boolean dispatchAsync(Long chatId, Supplier<? extends CompletionStage<?>> task) {
+        return dispatchAsync(chatId, task, offerTimeoutMs);
+    }
+
+    /**
+     * Como {@link #dispatchAsync(Long, Supplier)}, pero sin esperar capacidad: si la cola está llena
+     * devuelve false de inmediato. Para el webhook, que debe responder a Telegram sin bloquear
+     * y puede pedir el reenvío de la actualización.
+     *
+     * @param chatId ID del chat (null para actualizaciones sin chat)
+     * @param task Procesamiento a ejecutar; devuelve la etapa que marca su fin
+     * @return true si se encoló, false si se descartó por falta de capacidad o porque el dispatcher se detiene
+     */
+    public boolean tryDispatchAsync(Long chatId, Supplier<? extends CompletionStage<?>> task) {
+        return dispatchAsync(chatId, task, 0);
+    }
+
+    private boolean dispatchAsync(Long chatId, Supplier<? extends CompletionStage<?>> task, long timeoutMs) {
+        if (stopping) {
+            rejectedCounter.increment();
+            log.warn("Dispatcher detenido, descartando actualización - chatId={}", chatId);
+            return false;
+        }
+        try {
+            if (!capacity.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                log.warn("Cola de actualizaciones llena, descartando - chatId={}, queueCapacity={}",
+                        chatId, queueCapacity);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedCounter.increment();
+            return false;
+        }
+
+        long enqueuedAt = System.nanoTime();
+        try {
+            mailboxes.submitAsync(chatId, () -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                running.incrementAndGet();
+                CompletionStage<?> turn;
+                try {
+                    turn = task.get();
+                    if (turn == null) {
+                        turn = CompletableFuture.completedFuture(null);
+                    }
+                } catch (Exception e) {
+                    turn = CompletableFuture.failedFuture(e);
+                }
+                return turn.whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("Error no controlado al procesar actualización - chatId={}, exception={}, message={}",
+                                chatId, error.getClass().getSimpleName(), error.getMessage(), error);
+                    }
+                    running.decrementAndGet();
+                    capacity.release();
+                }).exceptionally(error -> null);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            capacity.release();
+            rejectedCounter.increment();
+            log.error("No se pudo encolar la actualización - chatId={}, message={}", chatId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Obtiene el número de actualizaciones encoladas o en proceso.
+     *
+     * @return Profundidad actual de la cola
+     */
+    public int getQueueDepth() {
+        return queueCapacity - capacity.availablePermits();
+    }
+
+    /**
+     * Obtiene el número de actualizaciones descartadas desde el arranque.
+     *
+     * @return Total de actualizaciones rechazadas
+     */
+    public long getRejectedCount() {
+        return (long) rejectedCounter.count();
+    }
+
+    /**
+     * Obtiene el pool de workers, para continuar en él las etapas asíncronas de un turno.
+     *
+     * @return Executor de los workers
+     */
+    public Executor getWorkerExecutor() {
+        return workers;
+    }
+
+    /**
+     * Obtiene el número de chats con turnos pendientes o en curso.
+     *
+     * @return Número de buzones activos
+     */
+    public int getActiveMailboxes() {
+        return mailboxes.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Deteniendo UpdateDispatcher - pendientes={}", getQueueDepth());
+        stopping = true;
+        // Los turnos asíncronos (llamada al LLM en hilos de OkHttp) continúan luego en los workers:
+        // hay que esperar a que terminen todos antes de cerrar el pool, o sus continuaciones se pierden
+        try {
+            if (capacity.tryAcquire(queueCapacity, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                capacity.release(queueCapacity);
+            } else {
+                log.warn("Turnos sin terminar al detener el dispatcher - pendientes={}", getQueueDepth());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pool compartido por todos los buzones. La cola no necesita límite propio:
+     * el semáforo de capacidad ya acota lo encolado.
+     */
+    private static ThreadPoolExecutor createWorkers(int size) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "telegram-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
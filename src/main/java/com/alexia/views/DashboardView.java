@@ -2,8 +2,9 @@ package com.alexia.views;
 
 import com.alexia.constants.Messages;
 import com.alexia.constants.UIConstants;
-import com.alexia.repository.TelegramMessageRepository;
 import com.alexia.service.BotManagerService;
+import com.alexia.service.BusinessService;
+import com.alexia.service.TelegramStatsService;
 import com.alexia.usecase.TestConnectionUseCase;
 import com.alexia.views.components.MetricCard;
 import com.alexia.views.components.SystemStatusPanel;
@@ -20,14 +21,17 @@ public class DashboardView extends VerticalLayout {
 
     private final TestConnectionUseCase testConnectionUseCase;
     private final BotManagerService botManagerService;
-    private final TelegramMessageRepository telegramMessageRepository;
+    private final TelegramStatsService telegramStatsService;
+    private final BusinessService businessService;
 
     public DashboardView(TestConnectionUseCase testConnectionUseCase,
                         BotManagerService botManagerService,
-                        TelegramMessageRepository telegramMessageRepository) {
+                        TelegramStatsService telegramStatsService,
+                        BusinessService businessService) {
         this.testConnectionUseCase = testConnectionUseCase;
         this.botManagerService = botManagerService;
-        this.telegramMessageRepository = telegramMessageRepository;
+        this.telegramStatsService = telegramStatsService;
+        this.businessService = businessService;
         
         setSizeFull();
         setPadding(true);
@@ -42,8 +46,9 @@ public class DashboardView extends VerticalLayout {
         
         add(title, subtitle);
 
-        // Obtener métricas reales
-        long totalMessages = telegramMessageRepository.count();
+        // Obtener métricas reales (totales precalculados, sin COUNT(*) por visita)
+        TelegramStatsService.Snapshot stats = telegramStatsService.snapshot();
+        long activeBusinesses = businessService.countActiveBusinesses();
 
         // Métricas principales - Primera fila
         HorizontalLayout metricsRow1 = new HorizontalLayout();
@@ -51,9 +56,9 @@ public class DashboardView extends VerticalLayout {
         metricsRow1.setSpacing(true);
         
         metricsRow1.add(
-            new MetricCard("Mensajes Telegram", String.valueOf(totalMessages), VaadinIcon.CHAT, UIConstants.COLOR_PRIMARY_BLUE),
+            new MetricCard("Mensajes Telegram", String.valueOf(stats.messages()), VaadinIcon.CHAT, UIConstants.COLOR_PRIMARY_BLUE),
             new MetricCard("Leads Generados", "0", VaadinIcon.USERS, UIConstants.COLOR_SUCCESS_GREEN),
-            new MetricCard("Negocios Activos", "0", VaadinIcon.SHOP, UIConstants.COLOR_WARNING_ORANGE),
+            new MetricCard("Negocios Activos", String.valueOf(activeBusinesses), VaadinIcon.SHOP, UIConstants.COLOR_WARNING_ORANGE),
             new MetricCard("Conversiones", "0", VaadinIcon.TRENDING_UP, UIConstants.COLOR_PURPLE)
         );
         
@@ -67,8 +72,8 @@ public class DashboardView extends VerticalLayout {
         metricsRow2.add(
             new MetricCard("Campañas Activas", "0", VaadinIcon.MEGAPHONE, UIConstants.COLOR_CYAN),
             new MetricCard("Ingresos del Mes", "$0", VaadinIcon.MONEY, UIConstants.COLOR_SUCCESS_GREEN),
-            new MetricCard("Clics Totales", "0", VaadinIcon.CURSOR, UIConstants.COLOR_RED),
-            new MetricCard("Tasa de Respuesta", "0%", VaadinIcon.CHART_LINE, UIConstants.COLOR_DEEP_PURPLE)
+            new MetricCard("Clics Totales", String.valueOf(stats.clicks()), VaadinIcon.CURSOR, UIConstants.COLOR_RED),
+            new MetricCard("Tasa de Respuesta", String.format("%.0f%%", stats.responseRate()), VaadinIcon.CHART_LINE, UIConstants.COLOR_DEEP_PURPLE)
         );
         
         add(metricsRow2);
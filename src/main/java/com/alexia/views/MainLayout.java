@@ -69,6 +69,7 @@ public class MainLayout extends AppLayout {
         // Sección de Análisis
         tabs.add(createSectionHeader("ANÁLISIS"));
         tabs.add(createTab(VaadinIcon.CHART, "Métricas", MetricsView.class));
+        tabs.add(createTab(VaadinIcon.TIMER, "Trazas lentas", TracesView.class));
         tabs.add(createTab(VaadinIcon.MONEY, "Facturación", BillingView.class));
         tabs.add(createTab(VaadinIcon.TRENDING_UP, "Tracking", TrackingView.class));
         
@@ -1,25 +1,141 @@
 package com.alexia.views;
 
+import com.alexia.constants.UIConstants;
+import com.alexia.service.PipelineMetricsService;
+import com.alexia.service.PipelineMetricsService.StageTimer;
+import com.alexia.views.components.MetricCard;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.function.ValueProvider;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.shared.Registration;
 
+import java.util.Locale;
+
+/**
+ * Vista de métricas del pipeline del bot: cuánto tarda cada etapa (cola, turno, Groq, envío a Telegram,
+ * escritura en BD), profundidad de las colas y tokens consumidos. Se actualiza sola mientras está abierta
+ * leyendo el MeterRegistry en memoria, sin consultar la base de datos.
+ */
 @Route(value = "metrics", layout = MainLayout.class)
 @PageTitle("Métricas | Alexia")
 public class MetricsView extends VerticalLayout {
 
-    public MetricsView() {
+    /**
+     * Intervalo de actualización de la vista
+     */
+    private static final int REFRESH_INTERVAL_MS = 2_000;
+
+    private final PipelineMetricsService pipelineMetricsService;
+    private final Grid<StageTimer> stagesGrid;
+    private final MetricCard dispatcherQueueCard;
+    private final MetricCard activeTurnsCard;
+    private final MetricCard persistenceQueueCard;
+    private final MetricCard promptTokensCard;
+    private final MetricCard completionTokensCard;
+    private final MetricCard cacheHitRateCard;
+    private Registration pollRegistration;
+
+    public MetricsView(PipelineMetricsService pipelineMetricsService) {
+        this.pipelineMetricsService = pipelineMetricsService;
+
         setSizeFull();
         setPadding(true);
 
-        H2 title = new H2(VaadinIcon.CHART.create(), new com.vaadin.flow.component.html.Span(" Métricas"));
-        Paragraph description = new Paragraph("Análisis detallado de métricas: conversiones, tasa de respuesta, engagement y más.");
-        Paragraph status = new Paragraph("⏳ Funcionalidad en desarrollo - Paso 10");
-        status.getStyle().set("color", "var(--lumo-secondary-text-color)");
+        H2 title = new H2(VaadinIcon.CHART.create(), new Span(" Métricas"));
+        Paragraph description = new Paragraph("Dónde se va cada milisegundo de un turno del bot. "
+                + "Las mismas métricas se publican para Prometheus en /actuator/prometheus.");
+        description.getStyle().set("color", "var(--lumo-secondary-text-color)");
+
+        dispatcherQueueCard = new MetricCard("Actualizaciones en cola", "0", VaadinIcon.INBOX, UIConstants.COLOR_PRIMARY_BLUE);
+        activeTurnsCard = new MetricCard("Turnos en curso", "0", VaadinIcon.COG, UIConstants.COLOR_CYAN);
+        persistenceQueueCard = new MetricCard("Escrituras pendientes", "0", VaadinIcon.DATABASE, UIConstants.COLOR_WARNING_ORANGE);
+        promptTokensCard = new MetricCard("Tokens de prompt", "0", VaadinIcon.UPLOAD, UIConstants.COLOR_PURPLE);
+        completionTokensCard = new MetricCard("Tokens de respuesta", "0", VaadinIcon.DOWNLOAD, UIConstants.COLOR_DEEP_PURPLE);
+        cacheHitRateCard = new MetricCard("Aciertos de caché Groq", "0%", VaadinIcon.BOLT, UIConstants.COLOR_SUCCESS_GREEN);
+
+        HorizontalLayout queuesRow = new HorizontalLayout(dispatcherQueueCard, activeTurnsCard, persistenceQueueCard);
+        queuesRow.setWidthFull();
+        HorizontalLayout tokensRow = new HorizontalLayout(promptTokensCard, completionTokensCard, cacheHitRateCard);
+        tokensRow.setWidthFull();
+
+        H3 stagesTitle = new H3("⏱️ Latencia por etapa (ms)");
+        stagesGrid = createStagesGrid();
+
+        add(title, description, queuesRow, tokensRow, stagesTitle, stagesGrid);
+    }
+
+    private Grid<StageTimer> createStagesGrid() {
+        Grid<StageTimer> grid = new Grid<>();
+        grid.addColumn(StageTimer::stage).setHeader("Etapa").setAutoWidth(true);
+        grid.addColumn(StageTimer::tags).setHeader("Detalle").setAutoWidth(true);
+        grid.addColumn(StageTimer::count).setHeader("Eventos").setTextAlign(ColumnTextAlign.END);
+        addMillisColumn(grid, StageTimer::meanMs, "Media");
+        addMillisColumn(grid, StageTimer::p50Ms, "p50");
+        addMillisColumn(grid, StageTimer::p95Ms, "p95");
+        addMillisColumn(grid, StageTimer::p99Ms, "p99");
+        addMillisColumn(grid, StageTimer::maxMs, "Máx.");
+        grid.setWidthFull();
+        grid.setAllRowsVisible(true);
+        return grid;
+    }
+
+    private static void addMillisColumn(Grid<StageTimer> grid, ValueProvider<StageTimer, Double> value, String header) {
+        grid.addColumn(timer -> formatMillis(value.apply(timer)))
+                .setHeader(header)
+                .setTextAlign(ColumnTextAlign.END);
+    }
+
+    private void refresh() {
+        dispatcherQueueCard.updateValue(formatCount(pipelineMetricsService.gauge("telegram.dispatcher.queue.depth")));
+        activeTurnsCard.updateValue(formatCount(pipelineMetricsService.gauge("telegram.dispatcher.active")));
+        persistenceQueueCard.updateValue(formatCount(pipelineMetricsService.gauge("telegram.persistence.queue.depth")));
+        promptTokensCard.updateValue(formatCount(pipelineMetricsService.counter("grok.prompt.tokens")));
+        completionTokensCard.updateValue(formatCount(pipelineMetricsService.counter("grok.completion.tokens")));
+
+        double hits = pipelineMetricsService.counter("grok.cache.requests", "result", "hit");
+        double misses = pipelineMetricsService.counter("grok.cache.requests", "result", "miss");
+        double lookups = hits + misses;
+        cacheHitRateCard.updateValue(String.format(Locale.ROOT, "%.0f%%", lookups > 0 ? hits * 100 / lookups : 0));
+
+        stagesGrid.setItems(pipelineMetricsService.stageTimers());
+    }
+
+    private static String formatCount(double value) {
+        return Double.isNaN(value) ? "-" : String.format(Locale.ROOT, "%,.0f", value);
+    }
+
+    private static String formatMillis(double value) {
+        return Double.isNaN(value) ? "-" : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        UI ui = attachEvent.getUI();
+        refresh();
+        ui.setPollInterval(REFRESH_INTERVAL_MS);
+        pollRegistration = ui.addPollListener(event -> refresh());
+    }
 
-        add(title, description, status);
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        if (pollRegistration != null) {
+            pollRegistration.remove();
+            pollRegistration = null;
+        }
+        detachEvent.getUI().setPollInterval(-1);
+        super.onDetach(detachEvent);
     }
 }
@@ -1,8 +1,12 @@
 package com.alexia.views;
 
-import com.alexia.entity.TelegramMessage;
+import com.alexia.dto.TelegramMessageSummary;
 import com.alexia.repository.TelegramMessageRepository;
+import com.alexia.service.TelegramLogBroadcaster;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
@@ -16,20 +20,35 @@ import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Vista para mostrar los logs de mensajes de Telegram.
+ * La grilla pide a la base de datos solo las páginas que muestra (filtradas y ordenadas en el servidor,
+ * sin COUNT(*)), así abrirla cuesta lo mismo con 100 mensajes que con 10M.
+ * Los mensajes nuevos llegan por server push desde {@link TelegramLogBroadcaster} y se agregan arriba
+ * sin volver a consultar, así la carga de la base de datos no crece con el número de vistas abiertas.
  */
 @Route(value = "telegram-logs", layout = MainLayout.class)
 @PageTitle("Logs de Telegram | Alexia")
@@ -37,13 +56,58 @@ public class TelegramLogsView extends VerticalLayout {
 
     private static final Logger logger = LoggerFactory.getLogger(TelegramLogsView.class);
 
+    /**
+     * Por encima de este tamaño el total se muestra aproximado, sin recorrer la tabla
+     */
+    private static final long EXACT_COUNT_LIMIT = 100_000;
+
+    /**
+     * Filas leídas de la base de datos por cada consulta de la grilla
+     */
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * Mensajes recibidos por push que se conservan antes de tomar una instantánea nueva
+     */
+    private static final int MAX_LIVE_MESSAGES = 1_000;
+
+    /**
+     * Orden por defecto de la grilla; el id desempata filas con la misma fecha para que las páginas no se solapen.
+     * Solo con este orden los mensajes recibidos por push van arriba de la instantánea.
+     */
+    private static final Sort NEWEST_FIRST_SORT = Sort.by(Sort.Direction.DESC, "createdAt")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
+    private static final Comparator<TelegramMessageSummary> NEWEST_FIRST = Comparator
+            .comparing(TelegramMessageSummary::getCreatedAt)
+            .thenComparing(TelegramMessageSummary::getId)
+            .reversed();
+
     private final TelegramMessageRepository telegramMessageRepository;
-    private final Grid<TelegramMessage> grid;
+    private final TelegramLogBroadcaster telegramLogBroadcaster;
+    private final Grid<TelegramMessageSummary> grid;
     private final Span totalMessagesLabel;
     private DatePicker dateFilter;
-
-    public TelegramLogsView(TelegramMessageRepository telegramMessageRepository) {
+    private TextField chatFilter;
+    private Runnable broadcastRegistration;
+
+    // Estado de la instantánea actual; solo se usa con el lock de la sesión de Vaadin
+    private final List<TelegramMessageSummary> liveMessages = new ArrayList<>();
+    private final List<TelegramMessageSummary> loadedMessages = new ArrayList<>();
+    private Sort loadedSort;
+    private boolean allLoaded;
+    private long snapshotMaxId;
+    private long totalMessages;
+    private boolean totalApproximate;
+    private LocalDateTime fromFilter;
+    private LocalDateTime toFilter;
+    private Long chatIdFilter;
+    private String userNameFilter;
+
+    public TelegramLogsView(TelegramMessageRepository telegramMessageRepository,
+                            TelegramLogBroadcaster telegramLogBroadcaster) {
         this.telegramMessageRepository = telegramMessageRepository;
+        this.telegramLogBroadcaster = telegramLogBroadcaster;
 
         // Configuración del layout
         setSizeFull();
@@ -61,13 +125,13 @@ public class TelegramLogsView extends VerticalLayout {
         totalMessagesLabel.getStyle()
                 .set("font-size", "14px")
                 .set("color", "#666");
-        updateStats();
 
         // Filtros
         HorizontalLayout filters = createFilters();
 
         // Grid de mensajes
         grid = createGrid();
+        grid.setItems(this::fetchMessages).setIdentifierProvider(TelegramMessageSummary::getId);
 
         // Botones de acción
         HorizontalLayout actions = createActions();
@@ -75,11 +139,7 @@ public class TelegramLogsView extends VerticalLayout {
         // Agregar componentes
         add(title, totalMessagesLabel, filters, actions, grid);
 
-        // Cargar datos iniciales
-        loadMessages();
-
-        // Configurar auto-refresh
-        setupAutoRefresh();
+        // Los datos se cargan al adjuntar la vista (onAttach), junto con la suscripción a mensajes nuevos
     }
 
     private HorizontalLayout createFilters() {
@@ -92,6 +152,12 @@ public class TelegramLogsView extends VerticalLayout {
         dateFilter.setClearButtonVisible(true);
         dateFilter.addValueChangeListener(e -> loadMessages());
 
+        chatFilter = new TextField("Filtrar por chat");
+        chatFilter.setPlaceholder("Chat ID o @usuario");
+        chatFilter.setClearButtonVisible(true);
+        chatFilter.setValueChangeMode(ValueChangeMode.LAZY);
+        chatFilter.addValueChangeListener(e -> loadMessages());
+
         Button todayButton = new Button("Hoy", new Icon(VaadinIcon.CALENDAR));
         todayButton.addThemeVariants(ButtonVariant.LUMO_SMALL);
         todayButton.addClickListener(e -> {
@@ -102,9 +168,10 @@ public class TelegramLogsView extends VerticalLayout {
         clearButton.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_CONTRAST);
         clearButton.addClickListener(e -> {
             dateFilter.clear();
+            chatFilter.clear();
         });
 
-        filters.add(dateFilter, todayButton, clearButton);
+        filters.add(dateFilter, chatFilter, todayButton, clearButton);
         return filters;
     }
 
@@ -119,17 +186,14 @@ public class TelegramLogsView extends VerticalLayout {
 
         Button refreshButton = new Button("Actualizar", new Icon(VaadinIcon.REFRESH));
         refreshButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
-        refreshButton.addClickListener(e -> {
-            loadMessages();
-            updateStats();
-        });
+        refreshButton.addClickListener(e -> loadMessages());
 
         actions.add(deleteButton, refreshButton);
         return actions;
     }
 
-    private Grid<TelegramMessage> createGrid() {
-        Grid<TelegramMessage> messageGrid = new Grid<>(TelegramMessage.class, false);
+    private Grid<TelegramMessageSummary> createGrid() {
+        Grid<TelegramMessageSummary> messageGrid = new Grid<>(TelegramMessageSummary.class, false);
         messageGrid.setSizeFull();
         messageGrid.setPageSize(20);
         messageGrid.setSelectionMode(Grid.SelectionMode.MULTI);
@@ -144,7 +208,7 @@ public class TelegramLogsView extends VerticalLayout {
                 .setHeader("Fecha")
                 .setWidth("180px")
                 .setFlexGrow(0)
-                .setSortable(true);
+                .setSortProperty("createdAt");
 
         // Columna de usuario
         messageGrid.addColumn(new ComponentRenderer<>(message -> {
@@ -177,7 +241,7 @@ public class TelegramLogsView extends VerticalLayout {
                 .setFlexGrow(0);
 
         // Columna de mensaje
-        messageGrid.addColumn(TelegramMessage::getMessageText)
+        messageGrid.addColumn(TelegramMessageSummary::getMessageText)
                 .setHeader("Mensaje")
                 .setFlexGrow(1);
 
@@ -196,51 +260,200 @@ public class TelegramLogsView extends VerticalLayout {
                 .setFlexGrow(1);
 
         // Columna de Chat ID
-        messageGrid.addColumn(TelegramMessage::getChatId)
+        messageGrid.addColumn(TelegramMessageSummary::getChatId)
                 .setHeader("Chat ID")
                 .setWidth("120px")
-                .setFlexGrow(0);
+                .setFlexGrow(0)
+                .setSortProperty("chatId");
+
+        // Al hacer clic en una fila se carga el mensaje completo (la grilla solo tiene el inicio)
+        messageGrid.setItemDetailsRenderer(new ComponentRenderer<>(this::createMessageDetails));
 
         return messageGrid;
     }
 
-    private void loadMessages() {
-        List<TelegramMessage> messages;
+    private VerticalLayout createMessageDetails(TelegramMessageSummary summary) {
+        VerticalLayout details = new VerticalLayout();
+        details.setPadding(false);
+        details.setSpacing(false);
+        telegramMessageRepository.findById(summary.getId()).ifPresentOrElse(message -> {
+            Span text = new Span("💬 " + (message.getMessageText() != null ? message.getMessageText() : "-"));
+            Span response = new Span("🤖 " + (message.getBotResponse() != null ? message.getBotResponse() : "-"));
+            text.getStyle().set("white-space", "pre-wrap");
+            response.getStyle().set("white-space", "pre-wrap").set("color", "#1976D2");
+            details.add(text, response);
+        }, () -> details.add(new Span("El mensaje ya no existe")));
+        return details;
+    }
 
+    /**
+     * Toma una nueva instantánea con los filtros actuales: descarta lo cargado y fija el último ID visible.
+     * Las filas posteriores llegan por push; las anteriores se leen por páginas al desplazarse.
+     */
+    private void loadMessages() {
+        fromFilter = null;
+        toFilter = null;
         if (dateFilter.getValue() != null) {
             LocalDate selectedDate = dateFilter.getValue();
-            LocalDateTime startOfDay = selectedDate.atStartOfDay();
-            LocalDateTime endOfDay = selectedDate.plusDays(1).atStartOfDay();
-            messages = telegramMessageRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startOfDay, endOfDay);
-        } else {
-            messages = telegramMessageRepository.findAllByOrderByCreatedAtDesc();
+            fromFilter = selectedDate.atStartOfDay();
+            toFilter = selectedDate.plusDays(1).atStartOfDay();
+        }
+        chatIdFilter = null;
+        userNameFilter = null;
+        String chat = chatFilter.getValue() == null ? "" : chatFilter.getValue().trim();
+        if (chat.matches("-?\\d+")) {
+            chatIdFilter = Long.valueOf(chat);
+        } else if (!chat.isEmpty()) {
+            userNameFilter = (chat.startsWith("@") ? chat.substring(1) : chat).toLowerCase(Locale.ROOT);
         }
 
-        grid.setItems(messages);
+        loadedSort = null;
+        resetSnapshot();
+        grid.getDataProvider().refreshAll();
         updateStats();
     }
 
+    /**
+     * Descarta lo cargado y fija el último ID visible; los mensajes recibidos por push pasan a leerse
+     * de la base de datos en el lugar que les toca según el orden de la grilla.
+     */
+    private void resetSnapshot() {
+        liveMessages.clear();
+        loadedMessages.clear();
+        allLoaded = false;
+        snapshotMaxId = telegramMessageRepository.findMaxId();
+    }
+
+    /**
+     * Callback de la grilla. Sirve primero los mensajes recibidos por push y después las filas de la instantánea,
+     * que se leen de la base de datos solo la primera vez que se piden; refrescar tras un push no hace consultas.
+     * Los mensajes recibidos por push solo se conservan con el orden por defecto: al cambiar a otro orden
+     * se toma una instantánea nueva que los incluye.
+     */
+    private Stream<TelegramMessageSummary> fetchMessages(Query<TelegramMessageSummary, Void> query) {
+        Sort sort = VaadinSpringDataHelpers.toSpringDataSort(query);
+        // El id desempata filas con la misma fecha para que las páginas no se solapen
+        sort = sort.isUnsorted() ? NEWEST_FIRST_SORT : sort.and(Sort.by(Sort.Direction.DESC, "id"));
+        if (!sort.equals(loadedSort)) {
+            if (liveMessages.isEmpty()) {
+                loadedMessages.clear();
+                allLoaded = false;
+            } else {
+                resetSnapshot();
+            }
+            loadedSort = sort;
+        }
+
+        int end = query.getOffset() + query.getLimit();
+        while (!allLoaded && liveMessages.size() + loadedMessages.size() < end) {
+            PageRequest page = PageRequest.of(loadedMessages.size() / PAGE_SIZE, PAGE_SIZE, sort);
+            Slice<TelegramMessageSummary> slice = telegramMessageRepository.findSummaries(
+                    fromFilter, toFilter, chatIdFilter, userNameFilter, snapshotMaxId, page);
+            loadedMessages.addAll(slice.getContent());
+            allLoaded = !slice.hasNext();
+        }
+        return Stream.concat(liveMessages.stream(), loadedMessages.stream())
+                .skip(query.getOffset())
+                .limit(query.getLimit());
+    }
+
+    /**
+     * Agrega arriba de la grilla los mensajes recién guardados que cumplen los filtros. Si la grilla está
+     * ordenada por otra columna toma una instantánea nueva, así cada mensaje aparece en su posición.
+     * Se ejecuta con el lock de la sesión (UI.access).
+     */
+    private void appendMessages(List<TelegramMessageSummary> batch) {
+        List<TelegramMessageSummary> fresh = batch.stream()
+                .filter(message -> message.getId() > snapshotMaxId)
+                .toList();
+        if (fresh.isEmpty()) {
+            return;
+        }
+        totalMessages += fresh.size();
+        showTotal();
+
+        List<TelegramMessageSummary> matching = fresh.stream()
+                .filter(this::matchesFilters)
+                .sorted(NEWEST_FIRST)
+                .toList();
+        if (matching.isEmpty()) {
+            return;
+        }
+        if (loadedSort != null && !loadedSort.equals(NEWEST_FIRST_SORT)) {
+            resetSnapshot();
+            grid.getDataProvider().refreshAll();
+            return;
+        }
+        if (liveMessages.size() + matching.size() > MAX_LIVE_MESSAGES) {
+            // Demasiadas filas en memoria: volver a empezar desde una instantánea nueva
+            loadMessages();
+            return;
+        }
+        liveMessages.addAll(0, matching);
+        grid.getDataProvider().refreshAll();
+    }
+
+    private boolean matchesFilters(TelegramMessageSummary message) {
+        if (fromFilter != null && message.getCreatedAt().isBefore(fromFilter)) {
+            return false;
+        }
+        if (toFilter != null && !message.getCreatedAt().isBefore(toFilter)) {
+            return false;
+        }
+        if (chatIdFilter != null && !chatIdFilter.equals(message.getChatId())) {
+            return false;
+        }
+        return userNameFilter == null || (message.getUserName() != null
+                && message.getUserName().toLowerCase(Locale.ROOT).startsWith(userNameFilter));
+    }
+
     private void updateStats() {
-        long total = telegramMessageRepository.count();
-        totalMessagesLabel.setText("Total de mensajes: " + total);
+        long total;
+        try {
+            // Estimación del planificador de PostgreSQL: 0 si la tabla aún no se ha analizado
+            total = telegramMessageRepository.estimateCount();
+        } catch (Exception e) {
+            logger.debug("No se pudo estimar el total de mensajes: {}", e.getMessage());
+            total = -1;
+        }
+        totalApproximate = total >= EXACT_COUNT_LIMIT;
+        totalMessages = totalApproximate ? total : telegramMessageRepository.count();
+        showTotal();
     }
 
-    private void setupAutoRefresh() {
-        // Auto-refresh cada 5 segundos usando el mecanismo de polling de Vaadin
-        getUI().ifPresent(ui -> {
-            ui.setPollInterval(5000);
-            ui.addPollListener(event -> {
-                loadMessages();
-                updateStats();
-            });
+    private void showTotal() {
+        totalMessagesLabel.setText("Total de mensajes: " + (totalApproximate ? "~" : "") + totalMessages);
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        UI ui = attachEvent.getUI();
+        // Suscribirse antes de fijar la instantánea para no perder lotes guardados entre medias
+        broadcastRegistration = telegramLogBroadcaster.register(batch -> {
+            try {
+                ui.access(() -> appendMessages(batch));
+            } catch (UIDetachedException e) {
+                logger.debug("Vista de logs ya cerrada, se descarta el lote");
+            }
         });
+        loadMessages();
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        if (broadcastRegistration != null) {
+            broadcastRegistration.run();
+            broadcastRegistration = null;
+        }
+        super.onDetach(detachEvent);
     }
 
     /**
      * Confirma y elimina los mensajes seleccionados.
      */
     private void confirmAndDeleteMessages() {
-        Set<TelegramMessage> selectedMessages = grid.getSelectedItems();
+        Set<TelegramMessageSummary> selectedMessages = grid.getSelectedItems();
         logger.info("Mensajes seleccionados para eliminar: {}", selectedMessages.size());
 
         if (selectedMessages.isEmpty()) {
@@ -255,7 +468,7 @@ public class TelegramLogsView extends VerticalLayout {
     /**
      * Crea el diálogo de confirmación para eliminar mensajes.
      */
-    private ConfirmDialog createDeleteConfirmationDialog(Set<TelegramMessage> messages) {
+    private ConfirmDialog createDeleteConfirmationDialog(Set<TelegramMessageSummary> messages) {
         ConfirmDialog dialog = new ConfirmDialog();
         dialog.setHeader("Confirmar eliminación");
         dialog.setText("¿Estás seguro de que deseas eliminar " + messages.size() +
@@ -275,16 +488,16 @@ public class TelegramLogsView extends VerticalLayout {
     /**
      * Elimina los mensajes de la base de datos.
      */
-    private void deleteMessages(Set<TelegramMessage> messages) {
+    private void deleteMessages(Set<TelegramMessageSummary> messages) {
         try {
             logger.info("Eliminando {} mensajes de la base de datos", messages.size());
-            telegramMessageRepository.deleteAll(messages);
+            List<Long> ids = messages.stream().map(TelegramMessageSummary::getId).toList();
+            telegramMessageRepository.deleteAllByIdInBatch(ids);
 
             showSuccess(messages.size() + " mensaje(s) eliminado(s) correctamente");
 
-            loadMessages();
-            updateStats();
             grid.deselectAll();
+            loadMessages();
             logger.info("Mensajes eliminados exitosamente");
         } catch (Exception ex) {
             logger.error("Error al eliminar mensajes", ex);
@@ -1,8 +1,8 @@
 package com.alexia.views;
 
-import com.alexia.repository.BotCommandRepository;
-import com.alexia.repository.TelegramMessageRepository;
 import com.alexia.service.BotManagerService;
+import com.alexia.service.TelegramStatsService;
+import com.alexia.telegram.BotMode;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.html.Div;
@@ -16,6 +16,7 @@ import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.radiobutton.RadioButtonGroup;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouterLink;
@@ -29,23 +30,21 @@ import com.vaadin.flow.router.RouterLink;
 public class TelegramView extends VerticalLayout {
 
     private final BotManagerService botManagerService;
-    private final TelegramMessageRepository messageRepository;
-    private final BotCommandRepository commandRepository;
+    private final TelegramStatsService statsService;
     
     private final Span botStatusBadge;
     private final Button toggleBotButton;
     private final Button restartBotButton;
+    private final RadioButtonGroup<BotMode> modeSelector;
     private final Paragraph botStatusDescription;
     
     private final Span totalMessagesSpan;
     private final Span totalCommandsSpan;
 
     public TelegramView(BotManagerService botManagerService,
-                       TelegramMessageRepository messageRepository,
-                       BotCommandRepository commandRepository) {
+                       TelegramStatsService statsService) {
         this.botManagerService = botManagerService;
-        this.messageRepository = messageRepository;
-        this.commandRepository = commandRepository;
+        this.statsService = statsService;
         
         // Inicializar componentes del bot
         botStatusBadge = new Span();
@@ -61,6 +60,16 @@ public class TelegramView extends VerticalLayout {
         restartBotButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
         restartBotButton.addClickListener(e -> restartBot());
         
+        modeSelector = new RadioButtonGroup<>("Modo de recepción");
+        modeSelector.setItems(BotMode.values());
+        modeSelector.setItemLabelGenerator(BotMode::getDisplayName);
+        modeSelector.setValue(botManagerService.getMode());
+        modeSelector.addValueChangeListener(e -> {
+            if (e.isFromClient() && e.getValue() != null) {
+                switchMode(e.getValue());
+            }
+        });
+        
         // Inicializar componentes de estadísticas
         totalMessagesSpan = new Span("0");
         totalMessagesSpan.getStyle()
@@ -113,6 +122,7 @@ public class TelegramView extends VerticalLayout {
             sectionTitle,
             botStatusBadge,
             botStatusDescription,
+            modeSelector,
             buttonLayout
         );
         content.setSpacing(true);
@@ -218,6 +228,20 @@ public class TelegramView extends VerticalLayout {
         updateBotStatus();
     }
 
+    /**
+     * Cambia el modo de recepción (long polling / webhook).
+     */
+    private void switchMode(BotMode mode) {
+        try {
+            botManagerService.switchMode(mode);
+            showNotification("Modo cambiado a " + mode.getDisplayName(), NotificationVariant.LUMO_SUCCESS);
+        } catch (Exception e) {
+            showNotification("Error al cambiar de modo: " + e.getMessage(), NotificationVariant.LUMO_ERROR);
+        }
+        modeSelector.setValue(botManagerService.getMode());
+        updateBotStatus();
+    }
+
     /**
      * Actualiza la interfaz con el estado actual del bot.
      */
@@ -259,11 +283,10 @@ public class TelegramView extends VerticalLayout {
      * Actualiza las estadísticas.
      */
     private void updateStats() {
-        long totalMessages = messageRepository.count();
-        long totalCommands = commandRepository.count();
+        TelegramStatsService.Snapshot stats = statsService.snapshot();
         
-        totalMessagesSpan.setText(String.valueOf(totalMessages));
-        totalCommandsSpan.setText(String.valueOf(totalCommands));
+        totalMessagesSpan.setText(String.valueOf(stats.messages()));
+        totalCommandsSpan.setText(String.valueOf(stats.commands()));
     }
 
     /**
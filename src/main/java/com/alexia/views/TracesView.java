@@ -0,0 +1,171 @@
+package com.alexia.views;
+
+import com.alexia.service.UpdateTrace;
+import com.alexia.service.UpdateTracer;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.Icon;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vista de trazas lentas: los últimos turnos del bot que superaron el umbral, con el desglose por etapa
+ * (ruteo, Groq, guardado, envío a Telegram). El ID de traza aparece también en las líneas de log del turno.
+ */
+@Route(value = "traces", layout = MainLayout.class)
+@PageTitle("Trazas lentas | Alexia")
+public class TracesView extends VerticalLayout {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private final UpdateTracer updateTracer;
+    private final Grid<UpdateTrace> grid;
+    private final Span summaryLabel;
+
+    public TracesView(UpdateTracer updateTracer) {
+        this.updateTracer = updateTracer;
+
+        setSizeFull();
+        setPadding(true);
+        setSpacing(true);
+
+        H2 title = new H2("⏱️ Trazas lentas");
+        title.getStyle().set("margin", "0");
+
+        Paragraph description = new Paragraph(updateTracer.isEnabled()
+                ? "Turnos de más de " + updateTracer.getSlowThresholdMs() + " ms. Selecciona uno para ver sus etapas."
+                : "El tracing está deshabilitado (telegram.tracing.enabled=false).");
+        description.getStyle().set("color", "var(--lumo-secondary-text-color)");
+
+        summaryLabel = new Span();
+        summaryLabel.getStyle()
+                .set("font-size", "14px")
+                .set("color", "#666");
+
+        Button refreshButton = new Button("Actualizar", new Icon(VaadinIcon.REFRESH));
+        refreshButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+        refreshButton.addClickListener(e -> refresh());
+
+        Button clearButton = new Button("Vaciar", new Icon(VaadinIcon.TRASH));
+        clearButton.addThemeVariants(ButtonVariant.LUMO_ERROR);
+        clearButton.addClickListener(e -> {
+            updateTracer.clearSlowTraces();
+            refresh();
+        });
+
+        HorizontalLayout actions = new HorizontalLayout(clearButton, refreshButton);
+        actions.setWidthFull();
+        actions.setJustifyContentMode(JustifyContentMode.END);
+
+        grid = createGrid();
+
+        add(title, description, summaryLabel, actions, grid);
+    }
+
+    private Grid<UpdateTrace> createGrid() {
+        Grid<UpdateTrace> traceGrid = new Grid<>();
+        traceGrid.setSizeFull();
+
+        traceGrid.addColumn(trace -> LocalDateTime.ofInstant(
+                        Instant.ofEpochSecond(0, trace.getStartEpochNanos()), ZoneId.systemDefault()).format(TIME_FORMAT))
+                .setHeader("Fecha")
+                .setAutoWidth(true)
+                .setFlexGrow(0);
+        traceGrid.addColumn(UpdateTrace::getRoute)
+                .setHeader("Ruta")
+                .setAutoWidth(true)
+                .setFlexGrow(0);
+        traceGrid.addColumn(trace -> millis(trace.getDurationNanos()))
+                .setHeader("Total (ms)")
+                .setTextAlign(ColumnTextAlign.END)
+                .setAutoWidth(true)
+                .setFlexGrow(0);
+        traceGrid.addColumn(trace -> trace.isError() ? "❌" : "")
+                .setHeader("Error")
+                .setWidth("80px")
+                .setFlexGrow(0);
+        traceGrid.addColumn(UpdateTrace::getChatId)
+                .setHeader("Chat ID")
+                .setWidth("120px")
+                .setFlexGrow(0);
+        traceGrid.addColumn(UpdateTrace::getTraceId)
+                .setHeader("Trace ID")
+                .setFlexGrow(1);
+
+        traceGrid.setItemDetailsRenderer(new ComponentRenderer<>(this::createTraceDetails));
+        return traceGrid;
+    }
+
+    /**
+     * Desglose de la traza: una fila por span con su inicio, duración y una barra proporcional al total.
+     */
+    private VerticalLayout createTraceDetails(UpdateTrace trace) {
+        VerticalLayout details = new VerticalLayout();
+        details.setPadding(true);
+        details.setSpacing(false);
+
+        double total = Math.max(1, trace.getDurationNanos());
+        for (UpdateTrace.Span span : trace.getSpans()) {
+            Span label = new Span(String.format(Locale.ROOT, "%s  +%s ms  %s ms%s", span.getName(),
+                    millis(span.getOffsetNanos()), millis(span.getDurationNanos()), span.isError() ? "  ❌" : ""));
+            label.getStyle()
+                    .set("font-family", "monospace")
+                    .set("font-size", "13px");
+
+            Div bar = new Div();
+            bar.getStyle()
+                    .set("height", "6px")
+                    .set("border-radius", "3px")
+                    .set("background", span.isError() ? "#C62828" : "#1976D2")
+                    .set("margin-left", percent(span.getOffsetNanos() / total))
+                    .set("width", percent(Math.max(0.005, span.getDurationNanos() / total)));
+
+            Div track = new Div(bar);
+            track.setWidthFull();
+            details.add(label, track);
+        }
+        if (trace.getSpans().isEmpty()) {
+            details.add(new Span("Sin etapas registradas"));
+        }
+        return details;
+    }
+
+    private void refresh() {
+        List<UpdateTrace> traces = updateTracer.getSlowTraces();
+        grid.setItems(traces);
+        summaryLabel.setText("Trazas en el buffer: " + traces.size());
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static String percent(double fraction) {
+        return String.format(Locale.ROOT, "%.2f%%", Math.min(1, fraction) * 100);
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        refresh();
+    }
+}
@@ -0,0 +1,38 @@
+package com.alexia;
+
+import com.alexia.service.ConversationMemory;
+import com.alexia.service.GrokResponseCache;
+import com.alexia.telegram.AlexiaTelegramBot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test de arranque: el contexto completo de la aplicación se levanta con el perfil de test (H2 en memoria).
+ * Detecta errores de cableado que los tests unitarios no ven, como constructores ambiguos en un bean.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "grok.api.key=test-key",
+        "telegram.bot.token=123456:test-token",
+        "telegram.bot.username=AlexiaTestBot",
+        // Vaadin necesita un contexto web
+        "spring.autoconfigure.exclude=com.vaadin.flow.spring.SpringBootAutoConfiguration,"
+                + "com.vaadin.flow.spring.SpringSecurityAutoConfiguration"
+})
+@ActiveProfiles("test")
+class AlexiaApplicationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void contextLoads() {
+        assertThat(context.getBean(GrokResponseCache.class)).isNotNull();
+        assertThat(context.getBean(ConversationMemory.class)).isNotNull();
+        assertThat(context.getBean(AlexiaTelegramBot.class)).isNotNull();
+    }
+}
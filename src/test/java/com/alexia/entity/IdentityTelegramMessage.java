@@ -0,0 +1,37 @@
+package com.alexia.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copia de TelegramMessage con IDs IDENTITY, solo para tests.
+ * Sirve de referencia "antes" en InsertThroughputBenchmarkTest.
+ */
+@Entity
+@Table(name = "telegram_messages_identity")
+@Data
+@NoArgsConstructor
+public class IdentityTelegramMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "chat_id", nullable = false)
+    private Long chatId;
+
+    @Column(name = "user_name")
+    private String userName;
+
+    @Column(name = "message_text", columnDefinition = "TEXT")
+    private String messageText;
+
+    @Column(name = "bot_response", columnDefinition = "TEXT")
+    private String botResponse;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
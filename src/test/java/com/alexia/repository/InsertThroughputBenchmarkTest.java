@@ -0,0 +1,137 @@
+package com.alexia.repository;
+
+import com.alexia.entity.IdentityTelegramMessage;
+import com.alexia.entity.TelegramMessage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de INSERT: IDs IDENTITY (antes) frente a secuencia pooled (después).
+ * Desactivado por defecto. Ejecutar con:
+ * <pre>
+ * mvn test -Dtest=InsertThroughputBenchmarkTest -Dbenchmark=true
+ * </pre>
+ * Usa H2 en memoria; para un PostgreSQL local añadir
+ * {@code -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/alexia -Dbenchmark.db.user=... -Dbenchmark.db.password=...}
+ * (la base debe tener aplicado database/10_pooled_id_sequences.sql).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InsertThroughputBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int ROWS_PER_TRANSACTION = 500;
+    private static final int WARMUP_ROWS = 2_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        String url = System.getProperty("benchmark.db.url", "jdbc:h2:mem:insert-benchmark;DB_CLOSE_DELAY=-1");
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.db.user", "sa"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.db.password", ""));
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> url.startsWith("jdbc:h2:")
+                ? "org.hibernate.dialect.H2Dialect" : "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @Test
+    void compareIdentityWithPooledSequence() {
+        // Given: calentamiento de ambos caminos
+        insert(WARMUP_ROWS, this::identityMessage);
+        insert(WARMUP_ROWS, this::sequenceMessage);
+
+        // When
+        Result identity = insert(ROWS, this::identityMessage);
+        Result sequence = insert(ROWS, this::sequenceMessage);
+
+        // Then
+        System.out.printf("%n=== INSERT telegram_messages (%d filas, %d por transacción) ===%n",
+                ROWS, ROWS_PER_TRANSACTION);
+        System.out.println("IDENTITY        : " + identity);
+        System.out.println("SEQUENCE pooled : " + sequence);
+        System.out.printf("Mejora          : x%.2f%n%n", sequence.rowsPerSecond() / identity.rowsPerSecond());
+
+        // Con IDENTITY cada fila es una sentencia; con la secuencia se agrupan en lotes de batch_size
+        assertThat(identity.preparedStatements()).isGreaterThanOrEqualTo(ROWS);
+        assertThat(sequence.preparedStatements()).isLessThan(ROWS / 10);
+    }
+
+    private Result insert(int rows, IntFunction<Object> factory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        long start = System.nanoTime();
+        for (int offset = 0; offset < rows; offset += ROWS_PER_TRANSACTION) {
+            int from = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = from; i < Math.min(from + ROWS_PER_TRANSACTION, rows); i++) {
+                    entityManager.persist(factory.apply(i));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        return new Result(rows * 1_000_000_000.0 / elapsedNanos, statistics.getPrepareStatementCount());
+    }
+
+    private TelegramMessage sequenceMessage(int i) {
+        return TelegramMessage.builder()
+                .chatId(1_000L + i % 100)
+                .userName("bench_user")
+                .messageText("Busco una panadería cerca " + i)
+                .botResponse("Encontré 3 negocios")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private IdentityTelegramMessage identityMessage(int i) {
+        IdentityTelegramMessage message = new IdentityTelegramMessage();
+        message.setChatId(1_000L + i % 100);
+        message.setUserName("bench_user");
+        message.setMessageText("Busco una panadería cerca " + i);
+        message.setBotResponse("Encontré 3 negocios");
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+
+    private record Result(double rowsPerSecond, long preparedStatements) {
+
+        @Override
+        public String toString() {
+            return String.format("%,10.0f filas/s, %,6d sentencias preparadas", rowsPerSecond, preparedStatements);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.alexia.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprobaciones de humo de los planes de consulta en H2 en memoria.
+ * Siembra miles de mensajes y comandos, ejecuta las consultas de los repositorios y pasa por EXPLAIN el SQL
+ * que genera Hibernate, para verificar que usan los índices declarados en las entidades
+ * (database/16_telegram_indexes.sql) en lugar de recorrer la tabla.
+ * El planificador de H2 no dice cómo planifica PostgreSQL: los planes en PostgreSQL, incluido el plan genérico
+ * de findSummaries, se revisan con database/benchmarks/telegram_indexes_benchmark.sql.
+ * ANALYZE confirma la transacción en H2, así que los datos se siembran una vez fuera de transacción y se borran al final.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.alexia.repository.TelegramIndexPlanTest$SqlRecorder"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TelegramIndexPlanTest {
+
+    private static final int MESSAGES = 20_000;
+    private static final int COMMANDS = 10_000;
+    private static final int CHATS = 500;
+    private static final String[] COMMAND_NAMES = {"/start", "/help", "/buscar", "/cerca", "/categorias"};
+    private static final LocalDateTime START = LocalDateTime.of(2025, 10, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TelegramMessageRepository messageRepository;
+
+    @Autowired
+    private BotCommandRepository commandRepository;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> messages = new ArrayList<>(MESSAGES);
+        for (int i = 1; i <= MESSAGES; i++) {
+            messages.add(new Object[]{(long) i, (long) (i % CHATS), "user" + (i % CHATS), "mensaje " + i,
+                    Timestamp.valueOf(START.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO telegram_messages (id, chat_id, user_name, message_text, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", messages);
+
+        List<Object[]> commands = new ArrayList<>(COMMANDS);
+        for (int i = 1; i <= COMMANDS; i++) {
+            commands.add(new Object[]{(long) i, (long) (i % CHATS), COMMAND_NAMES[i % COMMAND_NAMES.length],
+                    Timestamp.valueOf(START.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bot_commands (id, chat_id, command, created_at) VALUES (?, ?, ?, ?)",
+                commands);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM telegram_messages");
+        jdbcTemplate.update("DELETE FROM bot_commands");
+    }
+
+    @Test
+    void chatHistoryUsesChatIdCreatedAtIndex() {
+        // When
+        messageRepository.findByChatIdOrderByCreatedAtDesc(42L);
+        String plan = explainLastQuery(42L);
+
+        // Then
+        assertThat(plan).containsIgnoringCase("idx_telegram_messages_chat_id_created_at");
+    }
+
+    @Test
+    void countByChatUsesChatIdCreatedAtIndex() {
+        // When
+        messageRepository.countByChatId(42L);
+        String plan = explainLastQuery(42L);
+
+        // Then
+        assertThat(plan).containsIgnoringCase("idx_telegram_messages_chat_id_created_at");
+    }
+
+    @Test
+    void logGridPageUsesCreatedAtIdIndex() {
+        // Given: la grilla de logs filtrada por un día y sin filtros, orden (createdAt DESC, id DESC)
+        LocalDateTime from = START.plusDays(4);
+        LocalDateTime to = from.plusDays(1);
+        PageRequest page = PageRequest.of(0, 51, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+        // When: cada parámetro nombrado se envía una vez por aparición; al final OFFSET y LIMIT
+        messageRepository.findSummaries(from, to, null, null, null, page);
+        String byDay = explainLastQuery(from, from, to, to, null, null, null, null, null, null, 0, 52);
+        messageRepository.findSummaries(null, null, null, null, null, page);
+        String unfiltered = explainLastQuery(null, null, null, null, null, null, null, null, null, null, 0, 52);
+
+        // Then
+        assertThat(byDay).containsIgnoringCase("idx_telegram_messages_created_at_id");
+        assertThat(unfiltered).containsIgnoringCase("idx_telegram_messages_created_at_id");
+    }
+
+    @Test
+    void commandHistoryAndCountsUseCommandIndexes() {
+        // When
+        commandRepository.findByChatIdOrderByCreatedAtDesc(42L);
+        String history = explainLastQuery(42L);
+        commandRepository.countByCommand("/cerca");
+        String count = explainLastQuery("/cerca");
+        commandRepository.findCommandStatistics();
+        String statistics = explainLastQuery();
+
+        // Then
+        assertThat(history).containsIgnoringCase("idx_bot_commands_chat_id_created_at");
+        assertThat(count).containsIgnoringCase("idx_bot_commands_command");
+        assertThat(statistics).containsIgnoringCase("idx_bot_commands_command").containsIgnoringCase("group sorted");
+    }
+
+    /**
+     * EXPLAIN de la última sentencia que generó Hibernate, con los mismos parámetros.
+     */
+    private String explainLastQuery(Object... params) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + SqlRecorder.last, String.class, params);
+    }
+
+    /**
+     * Guarda el SQL que Hibernate genera para las consultas de los repositorios.
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        private static volatile String last;
+
+        @Override
+        public String inspect(String sql) {
+            last = sql;
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.alexia.repository;
+
+import com.alexia.dto.TelegramMessageSummary;
+import com.alexia.entity.TelegramMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de la consulta paginada de la grilla de logs (H2 en memoria).
+ * Verifica el recorte de textos, los filtros opcionales y que el Slice sabe si hay más filas.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class TelegramMessageRepositoryTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 10, 20, 0, 0);
+
+    @Autowired
+    private TelegramMessageRepository repository;
+
+    @Test
+    void shouldPageNewestFirstWithTruncatedTexts() {
+        // Given
+        repository.save(message(1L, "ana", DAY.plusHours(1), "hola"));
+        repository.save(message(1L, "ana", DAY.plusHours(2), "x".repeat(1_000)));
+        repository.save(message(2L, "beto", DAY.plusHours(3), "adiós"));
+        PageRequest firstPage = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        // When
+        Slice<TelegramMessageSummary> first = repository.findSummaries(null, null, null, null, null, firstPage);
+        Slice<TelegramMessageSummary> second = repository.findSummaries(null, null, null, null, null, first.nextPageable());
+
+        // Then
+        assertThat(first.getContent()).extracting(TelegramMessageSummary::getUserName).containsExactly("beto", "ana");
+        assertThat(first.getContent().get(1).getMessageText()).hasSize(TelegramMessageSummary.PREVIEW_LENGTH);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting(TelegramMessageSummary::getMessageText).containsExactly("hola");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldApplyOptionalFilters() {
+        // Given
+        repository.save(message(1L, "Ana", DAY.plusHours(1), "hoy"));
+        TelegramMessage yesterday = repository.save(message(1L, "Ana", DAY.minusHours(1), "ayer"));
+        repository.save(message(2L, "Beto", DAY.plusHours(2), "otro chat"));
+        PageRequest page = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        // When
+        Slice<TelegramMessageSummary> byDay = repository.findSummaries(DAY, DAY.plusDays(1), null, null, null, page);
+        Slice<TelegramMessageSummary> byChat = repository.findSummaries(null, null, 1L, null, null, page);
+        Slice<TelegramMessageSummary> byUser = repository.findSummaries(DAY, DAY.plusDays(1), null, "an", null, page);
+        Slice<TelegramMessageSummary> upToId = repository.findSummaries(null, null, null, null, yesterday.getId(), page);
+
+        // Then
+        assertThat(byDay.getContent()).extracting(TelegramMessageSummary::getMessageText)
+                .containsExactly("otro chat", "hoy");
+        assertThat(byChat.getContent()).extracting(TelegramMessageSummary::getMessageText)
+                .containsExactly("hoy", "ayer");
+        assertThat(byUser.getContent()).extracting(TelegramMessageSummary::getMessageText).containsExactly("hoy");
+        assertThat(upToId.getContent()).extracting(TelegramMessageSummary::getMessageText)
+                .containsExactly("hoy", "ayer");
+        assertThat(repository.findMaxId()).isGreaterThan(yesterday.getId());
+    }
+
+    private static TelegramMessage message(Long chatId, String userName, LocalDateTime createdAt, String text) {
+        return TelegramMessage.builder()
+                .chatId(chatId)
+                .userName(userName)
+                .messageText(text)
+                .botResponse("ok")
+                .createdAt(createdAt)
+                .build();
+    }
+}
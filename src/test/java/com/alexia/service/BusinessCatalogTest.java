@@ -0,0 +1,85 @@
+package com.alexia.service;
+
+import com.alexia.entity.Business;
+import com.alexia.repository.BusinessRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para BusinessCatalog.
+ * Verifica que el catálogo se sirve de la instantánea y se recarga tras un cambio.
+ */
+@ExtendWith(MockitoExtension.class)
+class BusinessCatalogTest {
+
+    @Mock
+    private BusinessRepository businessRepository;
+
+    private BusinessCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        // Sin recarga periódica: solo recargan las llamadas y eventos del test
+        catalog = new BusinessCatalog(businessRepository, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.shutdown();
+    }
+
+    @Test
+    void shouldServeSnapshotWithSingleGroupedQuery() {
+        // Given
+        when(businessRepository.countActiveGroupByCategory()).thenReturn(List.of(
+                new Object[]{"Panadería", 3L},
+                new Object[]{"panadería", 1L},
+                new Object[]{"Farmacia", 2L},
+                new Object[]{null, 1L}));
+
+        // When
+        BusinessCatalog.Snapshot first = catalog.snapshot();
+        BusinessCatalog.Snapshot second = catalog.snapshot();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first.categories()).containsExactly("Farmacia", "Panadería");
+        assertThat(first.countByCategory(" PANADERÍA ")).isEqualTo(4);
+        assertThat(first.countByCategory("ferretería")).isZero();
+        assertThat(first.activeCount()).isEqualTo(7);
+        verify(businessRepository, times(1)).countActiveGroupByCategory();
+    }
+
+    @Test
+    void shouldRefreshInBackgroundAfterBusinessChanged() {
+        // Given
+        when(businessRepository.countActiveGroupByCategory())
+                .thenReturn(List.<Object[]>of(new Object[]{"Farmacia", 1L}))
+                .thenReturn(List.<Object[]>of(new Object[]{"Farmacia", 2L}));
+        assertThat(catalog.snapshot().activeCount()).isEqualTo(1);
+
+        // When
+        catalog.onBusinessChanged(new BusinessChangedEvent(new Business()));
+
+        // Then
+        verify(businessRepository, timeout(2_000).times(2)).countActiveGroupByCategory();
+        await(() -> catalog.snapshot().activeCount() == 2);
+        assertThat(catalog.snapshot().countByCategory("farmacia")).isEqualTo(2);
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.alexia.service;
+
+import com.alexia.dto.BusinessImportResult;
+import com.alexia.entity.Business;
+import com.alexia.repository.BusinessImportJobRepository;
+import com.alexia.repository.BusinessUpsertRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark de throughput de la importación: 200k negocios en CSV (una ciudad grande) pasando por
+ * lectura en streaming, validación, deduplicación y armado de lotes, con la escritura sustituida.
+ * Mide el techo de la aplicación; el coste en PostgreSQL del upsert por lotes frente a un INSERT por
+ * negocio se mide con database/benchmarks/business_import_benchmark.sql.
+ * Desactivado por defecto. Ejecutar con:
+ * <pre>
+ * mvn test -Dtest=BusinessImportBenchmarkTest -Dbenchmark=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BusinessImportBenchmarkTest {
+
+    private static final int ROWS = 200_000;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importsTwoHundredThousandBusinesses() throws IOException {
+        // Given
+        Path file = Files.createTempFile("negocios", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("external_id,name,category,address,phone,latitude,longitude\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write("b-" + i + ",\"Negocio " + i + ", Sucursal " + (i % 7) + "\",categoría " + (i % 40)
+                        + ",Calle " + (i % 500) + " #" + (i % 97) + ",555-" + (i % 10_000) + ","
+                        + (4.5 + (i % 1000) / 5000.0) + "," + (-74.2 + (i % 997) / 5000.0) + "\n");
+            }
+        }
+        BusinessUpsertRepository upsertRepository = mock(BusinessUpsertRepository.class);
+        when(upsertRepository.upsert(anyList())).thenAnswer(invocation ->
+                new BusinessUpsertRepository.UpsertCounts(((List<Business>) invocation.getArgument(0)).size(), 0));
+        BusinessImportJobRepository jobRepository = mock(BusinessImportJobRepository.class);
+        when(jobRepository.findById(any())).thenReturn(Optional.empty());
+        BusinessImportService service = new BusinessImportService(upsertRepository, jobRepository,
+                mock(PlatformTransactionManager.class), Validation.buildDefaultValidatorFactory().getValidator(),
+                event -> { }, 1000, 50_000);
+
+        try {
+            // When
+            BusinessImportResult result = service.importFile(file, progress -> { });
+
+            // Then
+            System.out.printf("filas=%d tamaño=%d KB tiempo=%d ms filas/s=%d%n", result.getRowsRead(),
+                    Files.size(file) / 1024, result.getElapsedMs(), Math.round(result.getRowsPerSecond()));
+            assertThat(result.getInserted()).isEqualTo(ROWS);
+            assertThat(result.getRejected()).isZero();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.alexia.service;
+
+import com.alexia.dto.BusinessImportResult;
+import com.alexia.entity.Business;
+import com.alexia.entity.BusinessImportJob;
+import com.alexia.repository.BusinessImportJobRepository;
+import com.alexia.repository.BusinessUpsertRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para BusinessImportService.
+ * Verifica la validación y deduplicación de registros, los lotes, y la reanudación desde el punto de control.
+ */
+@ExtendWith(MockitoExtension.class)
+class BusinessImportServiceTest {
+
+    private static final String CSV = """
+            external_id,name,category,address,phone,latitude,longitude
+            p-1,"Panadería ""El Sol""\",Panadería,"Calle 123, Centro",555-0001,4.6097,-74.0817
+            p-2,Pan Caliente,panadería,Av. Principal 456,555-0002,,
+            p-1,Panadería El Sol (repetida),panadería,Calle 123,555-0001,,
+            p-3,,farmacia,Calle 1,555-0003,,
+            p-4,Farmacia 24 Horas,farmacia,"Av. Libertad
+            200",555-0004,4.7,
+            p-5,Café Aroma,cafetería,Plaza Central 45,555-0005,4.61,-74.08
+            """;
+
+    @Mock
+    private BusinessUpsertRepository upsertRepository;
+
+    @Mock
+    private BusinessImportJobRepository jobRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<List<Business>> batchCaptor;
+
+    private BusinessImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BusinessImportService(upsertRepository, jobRepository, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher, 2, 10_000);
+    }
+
+    @Test
+    void shouldValidateDeduplicateAndUpsertInBatches() throws IOException {
+        // Given
+        when(jobRepository.findById("negocios.csv:1")).thenReturn(Optional.empty());
+        List<List<String>> batches = new ArrayList<>();
+        when(upsertRepository.upsert(anyList())).thenAnswer(invocation -> {
+            List<Business> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(Business::getImportKey).toList());
+            return new BusinessUpsertRepository.UpsertCounts(batch.size(), 0);
+        });
+
+        // When
+        BusinessImportResult result = service.importStream("negocios.csv:1", "negocios.csv",
+                BusinessImportService.Format.CSV, input(CSV), progress -> { });
+
+        // Then
+        assertThat(batches).containsExactly(List.of("ext:p-1", "ext:p-2"), List.of("ext:p-5"));
+        assertThat(result.getStatus()).isEqualTo(BusinessImportJob.Status.COMPLETED);
+        assertThat(result.getRowsRead()).isEqualTo(6);
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getErrors()).containsExactly(
+                "Registro 4: El nombre del negocio es obligatorio",
+                "Registro 5: La latitud y la longitud deben indicarse juntas");
+        verify(eventPublisher).publishEvent(new BusinessesImportedEvent("negocios.csv", 3));
+    }
+
+    @Test
+    void shouldParseQuotedCsvFields() throws IOException {
+        // Given
+        when(jobRepository.findById(any())).thenReturn(Optional.empty());
+        ArgumentCaptor<List<Business>> batch = captureBatches();
+
+        // When
+        service.importStream("negocios.csv:1", "negocios.csv", BusinessImportService.Format.CSV,
+                input(CSV), progress -> { });
+
+        // Then
+        Business first = batch.getAllValues().get(0).get(0);
+        assertThat(first.getName()).isEqualTo("Panadería \"El Sol\"");
+        assertThat(first.getCategory()).isEqualTo("panadería");
+        assertThat(first.getAddress()).isEqualTo("Calle 123, Centro");
+        assertThat(first.getLatitude()).isEqualTo(4.6097);
+        assertThat(first.isActive()).isTrue();
+    }
+
+    @Test
+    void shouldRejectOnlyRecordWithUnclosedQuoteAndKeepReading() throws IOException {
+        // Given: una comilla sin cerrar seguida de más filas válidas que el límite de líneas de un registro
+        int validRows = BusinessImportReader.Csv.MAX_RECORD_LINES + 50;
+        StringBuilder csv = new StringBuilder("external_id,name,category,address,phone,latitude,longitude\n")
+                .append("p-0,\"Panadería El Sol,panadería,Calle 123,555-0000,,\n");
+        for (int i = 1; i <= validRows; i++) {
+            csv.append("p-").append(i).append(",Negocio ").append(i).append(",farmacia,Calle ").append(i)
+                    .append(",555-").append(i).append(",,\n");
+        }
+        when(jobRepository.findById(any())).thenReturn(Optional.empty());
+        captureBatches();
+
+        // When
+        BusinessImportResult result = service.importStream("negocios.csv:1", "negocios.csv",
+                BusinessImportService.Format.CSV, input(csv.toString()), progress -> { });
+
+        // Then: solo se rechaza el registro 1 y las filas que había absorbido se leen como registros
+        assertThat(result.getStatus()).isEqualTo(BusinessImportJob.Status.COMPLETED);
+        assertThat(result.getRowsRead()).isEqualTo(validRows + 1);
+        assertThat(result.getInserted()).isEqualTo(validRows);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement().asString().startsWith("Registro 1: Comillas sin cerrar");
+        assertThat(batchCaptor.getAllValues().get(0).get(0).getImportKey()).isEqualTo("ext:p-1");
+    }
+
+    @Test
+    void shouldResumeAfterLastCommittedBatch() throws IOException {
+        // Given: una ejecución anterior confirmó los 2 primeros registros
+        when(jobRepository.findById("negocios.csv:1")).thenReturn(Optional.of(job(BusinessImportJob.Status.FAILED, 2)));
+        ArgumentCaptor<List<Business>> batch = captureBatches();
+
+        // When
+        BusinessImportResult result = service.importStream("negocios.csv:1", "negocios.csv",
+                BusinessImportService.Format.CSV, input(CSV), progress -> { });
+
+        // Then: el repetido de p-1 se detecta aunque p-1 no se vuelva a escribir
+        assertThat(batch.getAllValues()).flatExtracting(businesses -> businesses)
+                .extracting(Business::getImportKey).containsExactly("ext:p-5");
+        assertThat(result.getResumedFrom()).isEqualTo(2);
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepCheckpointWhenBatchFails() {
+        // Given
+        BusinessImportJob stored = job(BusinessImportJob.Status.RUNNING, 0);
+        when(jobRepository.findById("negocios.jsonl:1")).thenReturn(Optional.empty()).thenReturn(Optional.of(stored));
+        when(upsertRepository.upsert(anyList())).thenThrow(new RuntimeException("Connection refused"));
+        String jsonl = """
+                {"name": "Pan Caliente", "category": "panadería", "latitude": 4.6, "longitude": -74.1}
+                {"name": "Café Aroma", "category": "cafetería"}
+                """;
+
+        // When / Then
+        assertThatThrownBy(() -> service.importStream("negocios.jsonl:1", "negocios.jsonl",
+                BusinessImportService.Format.JSONL, input(jsonl), progress -> { }))
+                .hasMessage("Connection refused");
+        assertThat(stored.getStatus()).isEqualTo(BusinessImportJob.Status.FAILED);
+        assertThat(stored.getRowsRead()).isZero();
+        assertThat(stored.getLastError()).contains("Connection refused");
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private ArgumentCaptor<List<Business>> captureBatches() {
+        when(upsertRepository.upsert(batchCaptor.capture())).thenAnswer(invocation -> {
+            List<Business> businesses = invocation.getArgument(0);
+            return new BusinessUpsertRepository.UpsertCounts(businesses.size(), 0);
+        });
+        return batchCaptor;
+    }
+
+    private static BusinessImportJob job(BusinessImportJob.Status status, long rowsRead) {
+        return BusinessImportJob.builder()
+                .sourceKey("negocios.csv:1")
+                .sourceName("negocios.csv")
+                .status(status)
+                .rowsRead(rowsRead)
+                .inserted(rowsRead)
+                .startedAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package com.alexia.service;
+
+import com.alexia.entity.Business;
+import com.alexia.repository.BusinessRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests para BusinessSearchIndex.
+ * Verifica tildes, plurales, prefijos, errores de tipeo, orden por relevancia, actualización incremental
+ * y paginación en el mismo orden que la base de datos.
+ */
+@ExtendWith(MockitoExtension.class)
+class BusinessSearchIndexTest {
+
+    @Mock
+    private BusinessRepository businessRepository;
+
+    private BusinessSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(businessRepository.findByIsActiveTrueOrderByName()).thenReturn(List.of(
+                business(1L, "Panadería El Sol", "panadería", "Calle 123, Costa Azul"),
+                business(2L, "Pan Caliente", "panadería", "Av. Principal 456"),
+                business(3L, "Farmacia San José", "farmacia", "Calle Principal 100"),
+                business(4L, "Café Aroma", "cafetería", "Plaza Central 45"),
+                business(5L, "Restaurante La Costa", "restaurante", "Playa Norte 789")));
+        index = new BusinessSearchIndex(businessRepository, true);
+        index.rebuild();
+    }
+
+    @Test
+    void shouldMatchWithoutAccentsAndInPlural() {
+        // When
+        List<Business> result = index.search("panaderias", 10);
+
+        // Then: el que lo tiene en el nombre va primero
+        assertThat(result).extracting(Business::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldMatchPrefixesAndTypos() {
+        assertThat(index.search("farmasia", 10)).extracting(Business::getId).containsExactly(3L);
+        assertThat(index.search("cafe", 10)).extracting(Business::getId).containsExactly(4L);
+        assertThat(index.search("resta", 10)).extracting(Business::getId).containsExactly(5L);
+    }
+
+    @Test
+    void shouldRequireEveryWordAndRankByField() {
+        // When
+        List<Business> principal = index.search("calle principal", 10);
+        List<Business> costa = index.search("costa", 10);
+
+        // Then
+        assertThat(principal).extracting(Business::getId).containsExactly(3L);
+        assertThat(costa).extracting(Business::getId).containsExactly(5L, 1L);
+    }
+
+    @Test
+    void shouldApplyIncrementalChanges() {
+        // When
+        index.put(business(6L, "Panadería La Espiga", "panadería", null));
+        index.remove(2L);
+        Business closed = business(1L, "Panadería El Sol", "panadería", null);
+        closed.setIsActive(false);
+        index.put(closed);
+
+        // Then
+        assertThat(index.search("panaderia", 10)).extracting(Business::getId).containsExactly(6L);
+        assertThat(index.search("caliente", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldPageMatchesByNameAndId() {
+        // When
+        List<Business> first = index.searchPage("calle", "", 0, 1);
+        List<Business> second = index.searchPage("calle", first.get(0).getName(), first.get(0).getId(), 1);
+        List<Business> third = index.searchPage("calle", second.get(0).getName(), second.get(0).getId(), 1);
+
+        // Then
+        assertThat(first).extracting(Business::getId).containsExactly(3L);
+        assertThat(second).extracting(Business::getId).containsExactly(1L);
+        assertThat(third).isEmpty();
+    }
+
+    @Test
+    void shouldPageInCodePointOrderLikeTheDatabase() {
+        // Given: con COLLATE "C" las mayúsculas acentuadas van después de la Z
+        index.put(business(6L, "Óptica Central", "óptica", "Calle 9"));
+        index.put(business(7L, "Zapatería Sur", "zapatería", "Calle 8"));
+
+        // When
+        List<Business> first = index.searchPage("calle", "", 0, 3);
+        Business last = first.get(first.size() - 1);
+        List<Business> second = index.searchPage("calle", last.getName(), last.getId(), 3);
+
+        // Then
+        assertThat(first).extracting(Business::getId).containsExactly(3L, 1L, 7L);
+        assertThat(second).extracting(Business::getId).containsExactly(6L);
+    }
+
+    @Test
+    void shouldCompareNamesByCodePoint() {
+        // U+FF21 (A de ancho completo) es menor que U+1F600 (emoji), aunque su par sustituto UTF-16 empieza por 0xD83D
+        assertThat(BusinessSearchIndex.compareCodePoints("\uFF21", "\uD83D\uDE00")).isNegative();
+        assertThat("\uFF21".compareTo("\uD83D\uDE00")).isPositive();
+        assertThat(BusinessSearchIndex.compareCodePoints("Pan", "Pan Caliente")).isNegative();
+        assertThat(BusinessSearchIndex.compareCodePoints("Zapatería", "Óptica")).isNegative();
+        assertThat(BusinessSearchIndex.compareCodePoints("Café", "Café")).isZero();
+    }
+
+    @Test
+    void shouldLimitResults() {
+        assertThat(index.search("calle", 1)).hasSize(1);
+        assertThat(index.search("de la", 10)).isEmpty();
+    }
+
+    private static Business business(Long id, String name, String category, String address) {
+        Business business = new Business();
+        business.setId(id);
+        business.setName(name);
+        business.setCategory(category);
+        business.setAddress(address);
+        return business;
+    }
+}
@@ -0,0 +1,181 @@
+package com.alexia.service;
+
+import com.alexia.dto.BusinessPage;
+import com.alexia.dto.NearbyBusiness;
+import com.alexia.entity.Business;
+import com.alexia.repository.BusinessRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para BusinessService.
+ * Verifica que la búsqueda usa la consulta por relevancia y respeta el máximo de resultados.
+ */
+@ExtendWith(MockitoExtension.class)
+class BusinessServiceTest {
+
+    @Mock
+    private BusinessRepository businessRepository;
+
+    @Test
+    void shouldUseRankedSearchWithLimit() {
+        // Given
+        BusinessService service = withoutIndex(true, 5);
+        Business business = new Business();
+        business.setName("Panadería El Sol");
+        when(businessRepository.searchRanked("panaderia", 5)).thenReturn(List.of(business));
+
+        // When
+        List<Business> result = service.search("  panaderia ");
+
+        // Then
+        assertThat(result).containsExactly(business);
+        verify(businessRepository, never()).findByCategoryContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void shouldFallBackToCategorySearchWhenFullTextIsDisabled() {
+        // Given
+        BusinessService service = withoutIndex(false, 1);
+        when(businessRepository.findByCategoryIgnoreCase("panadería"))
+                .thenReturn(List.of(new Business(), new Business()));
+
+        // When
+        List<Business> result = service.search("panadería");
+
+        // Then
+        assertThat(result).hasSize(1);
+        verify(businessRepository, never()).searchRanked(anyString(), anyInt());
+    }
+
+    @Test
+    void shouldAnswerFromIndexOnceBuiltAndKeepItCurrent() {
+        // Given
+        BusinessSearchIndex index = new BusinessSearchIndex(businessRepository, true);
+        when(businessRepository.findByIsActiveTrueOrderByName()).thenReturn(List.of());
+        index.rebuild();
+        BusinessService service = new BusinessService(businessRepository, index, new BusinessCatalog(businessRepository, 0),
+                event -> index.onBusinessChanged((BusinessChangedEvent) event), true, 5, 2, false, 5, 25);
+        Business business = new Business();
+        business.setName("Panadería El Sol");
+        business.setCategory("panadería");
+        when(businessRepository.save(business)).thenAnswer(invocation -> {
+            business.setId(7L);
+            return business;
+        });
+
+        // When
+        service.saveBusiness(business);
+        List<Business> result = service.search("panaderias");
+
+        // Then
+        assertThat(result).containsExactly(business);
+        verify(businessRepository, never()).searchRanked(anyString(), anyInt());
+    }
+
+    @Test
+    void shouldPageWithKeysetCursor() {
+        // Given: page-size 2, la consulta pide una fila de más para saber si hay siguiente página
+        BusinessService service = withoutIndex(true, 10);
+        when(businessRepository.searchPage("pan", "", 0L, 3))
+                .thenReturn(List.of(business(1L, "Pan A"), business(2L, "Pan B"), business(3L, "Pan C")));
+        when(businessRepository.findById(2L)).thenReturn(Optional.of(business(2L, "Pan B")));
+        when(businessRepository.searchPage("pan", "Pan B", 2L, 3)).thenReturn(List.of(business(3L, "Pan C")));
+
+        // When
+        BusinessPage first = service.searchPage("pan", null);
+        BusinessPage second = service.searchPage("pan", first.getNextAfterId());
+
+        // Then
+        assertThat(first.getItems()).extracting(Business::getId).containsExactly(1L, 2L);
+        assertThat(first.getNextAfterId()).isEqualTo(2L);
+        assertThat(second.getItems()).extracting(Business::getId).containsExactly(3L);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(service.formatBusinessPageForTelegram(second, "pan", 2)).contains("3. 📍 Pan C");
+    }
+
+    @Test
+    void shouldOrderNearbyByDistanceWithinRadiusWithoutEarthDistance() {
+        // Given: Plaza de Bolívar (Bogotá); radio de 25 km y como máximo 2 resultados
+        BusinessService service = withoutIndex(true, 5);
+        Business near = located(1L, "Pan Cercano", 4.6110, -74.0820);
+        Business nearer = located(2L, "Pan de la Plaza", 4.6098, -74.0818);
+        Business farther = located(3L, "Pan del Norte", 4.7000, -74.0500);
+        Business outside = located(4L, "Pan de Tunja", 5.5353, -73.3678);
+        when(businessRepository.findActiveWithinBox(eq("panadería"), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(farther, outside, near, nearer));
+
+        // When
+        List<NearbyBusiness> result = service.findNearby(4.6097, -74.0817, " panadería ");
+
+        // Then
+        assertThat(result).extracting(nearby -> nearby.getBusiness().getId()).containsExactly(2L, 1L);
+        assertThat(result.get(0).getDistanceMeters()).isLessThan(50);
+        assertThat(service.formatNearbyBusinessesForTelegram(result, "panadería"))
+                .contains("Negocios de 'panadería' cerca de ti", "1. 📍 Pan de la Plaza", "🚶 150 m");
+        verify(businessRepository, never()).findNearestInCategory(anyString(), anyDouble(), anyDouble(),
+                anyDouble(), anyInt());
+    }
+
+    @Test
+    void shouldResolveUnaccentedPluralCategoryForNearby() {
+        // Given: el usuario escribe /cerca panaderias y la categoría guardada es "Panadería"
+        BusinessService service = new BusinessService(businessRepository, new BusinessSearchIndex(businessRepository, false),
+                new BusinessCatalog(businessRepository, 0), event -> { }, true, 5, 2, true, 2, 25);
+        when(businessRepository.countActiveGroupByCategory()).thenReturn(List.of(
+                new Object[]{"Farmacia", 3L}, new Object[]{"Panadería", 2L}));
+        Business bakery = located(1L, "Pan de la Plaza", 4.6098, -74.0818);
+        when(businessRepository.findNearestInCategory(eq("Panadería"), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(List.of(bakery));
+
+        // When
+        List<NearbyBusiness> result = service.findNearby(4.6097, -74.0817, "panaderias");
+
+        // Then
+        assertThat(result).extracting(NearbyBusiness::getBusiness).containsExactly(bakery);
+    }
+
+    @Test
+    void shouldReturnEmptyForBlankQuery() {
+        // Given
+        BusinessService service = withoutIndex(true, 5);
+
+        // When
+        List<Business> result = service.search("   ");
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(businessRepository);
+    }
+
+    private BusinessService withoutIndex(boolean fullTextSearch, int maxResults) {
+        return new BusinessService(businessRepository, new BusinessSearchIndex(businessRepository, false),
+                new BusinessCatalog(businessRepository, 0), event -> { }, fullTextSearch, maxResults, 2, false, 2, 25);
+    }
+
+    private static Business located(Long id, String name, double latitude, double longitude) {
+        Business business = business(id, name);
+        business.setLatitude(latitude);
+        business.setLongitude(longitude);
+        return business;
+    }
+
+    private static Business business(Long id, String name) {
+        Business business = new Business();
+        business.setId(id);
+        business.setName(name);
+        return business;
+    }
+}
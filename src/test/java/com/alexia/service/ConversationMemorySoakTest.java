@@ -0,0 +1,64 @@
+package com.alexia.service;
+
+import com.alexia.dto.GrokMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de resistencia de la memoria de conversación: 1M de chats distintos con un máximo de 10k
+ * conversaciones. El heap debe quedar plano una vez lleno el almacén.
+ * Desactivada por defecto. Ejecutar con:
+ * <pre>
+ * mvn test -Dtest=ConversationMemorySoakTest -Dbenchmark=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConversationMemorySoakTest {
+
+    private static final int CHATS = 1_000_000;
+    private static final int MAX_CONVERSATIONS = 10_000;
+    private static final int SAMPLE_EVERY = 100_000;
+
+    @Test
+    void heapStaysFlatAfterOneMillionChats() {
+        // Given
+        ConversationMemory memory = new ConversationMemory(1200, 200, 160, MAX_CONVERSATIONS, 720,
+                new SimpleMeterRegistry());
+        long[] heapSamples = new long[CHATS / SAMPLE_EVERY];
+
+        // When
+        for (int chat = 0; chat < CHATS; chat++) {
+            long chatId = chat;
+            memory.append(chatId, message("user", "Hola, ¿qué horario tiene la tienda " + chat + "?"));
+            memory.append(chatId, message("assistant", "La tienda " + chat + " abre de 9:00 a 18:00."));
+            if ((chat + 1) % SAMPLE_EVERY == 0) {
+                heapSamples[chat / SAMPLE_EVERY] = usedHeapAfterGc();
+                System.out.printf("chats=%d conversaciones=%d estimado=%d KB heap=%d KB%n", chat + 1,
+                        memory.getConversationCount(), memory.getEstimatedMemoryBytes() / 1024,
+                        heapSamples[chat / SAMPLE_EVERY] / 1024);
+            }
+        }
+
+        // Then
+        assertThat(memory.getConversationCount()).isEqualTo(MAX_CONVERSATIONS);
+        assertThat(memory.getEvictionCount()).isEqualTo(CHATS - MAX_CONVERSATIONS);
+        // Desde que el almacén está lleno (primera muestra) el heap no debe crecer más allá del ruido del GC
+        long growth = heapSamples[heapSamples.length - 1] - heapSamples[0];
+        assertThat(growth).isLessThan(16L * 1024 * 1024);
+    }
+
+    private static GrokMessage message(String role, String content) {
+        return GrokMessage.builder().role(role).content(content).build();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,110 @@
+package com.alexia.service;
+
+import com.alexia.entity.ConversationState;
+import com.alexia.repository.ConversationStateRepository;
+import com.alexia.repository.ConversationStateUpsertRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para ConversationStateStore.
+ * Verifica que las escrituras se fusionan por chat y que la lectura ve lo pendiente antes que la base de datos.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConversationStateStoreTest {
+
+    @Mock
+    private ConversationStateRepository repository;
+
+    @Mock
+    private ConversationStateUpsertRepository upsertRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ConversationStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Intervalo largo para que solo escriba el flush explícito del test
+        store = new ConversationStateStore(repository, upsertRepository, transactionManager, new SimpleMeterRegistry(),
+                true, 2, 60_000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceWritesPerChat() {
+        // Given
+        store.save(state(1L, "primero"));
+        store.save(state(1L, "segundo"));
+        store.save(state(2L, "otro chat"));
+        store.delete(3L);
+
+        // When
+        store.flush();
+
+        // Then
+        ArgumentCaptor<List<ConversationState>> saved = ArgumentCaptor.forClass(List.class);
+        verify(upsertRepository, atLeastOnce()).upsert(saved.capture());
+        assertThat(saved.getAllValues()).flatExtracting(batch -> batch)
+                .extracting(ConversationState::getSummary)
+                .containsExactlyInAnyOrder("segundo", "otro chat");
+        verify(repository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(store.getPendingCount()).isZero();
+    }
+
+    @Test
+    void shouldServePendingStateWithoutReadingDatabase() {
+        // Given
+        store.save(state(1L, "pendiente"));
+
+        // When
+        Optional<ConversationState> loaded = store.load(1L);
+
+        // Then
+        assertThat(loaded).map(ConversationState::getSummary).contains("pendiente");
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void shouldKeepPendingStateWhenBatchFails() {
+        // Given
+        store.save(state(1L, "resumen"));
+        when(upsertRepository.upsert(anyList())).thenThrow(new RuntimeException("Connection refused"));
+
+        // When
+        store.flush();
+
+        // Then: se reintenta en el próximo flush
+        assertThat(store.getPendingCount()).isEqualTo(1);
+    }
+
+    private static ConversationState state(Long chatId, String summary) {
+        return ConversationState.builder()
+                .chatId(chatId)
+                .summary(summary)
+                .recentMessages("[]")
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.alexia.service;
+
+import com.alexia.dto.GrokMessage;
+import com.alexia.service.GrokResponseCache.MessageType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para GrokResponseCache.
+ * Verifica normalización, política por tipo de mensaje y desalojo por TTL y tamaño.
+ */
+class GrokResponseCacheTest {
+
+    private static final List<GrokMessage> CONVERSATION = List.of(
+            GrokMessage.builder().role("user").content("Busco una panadería").build(),
+            GrokMessage.builder().role("assistant").content("¿En qué zona?").build());
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void shouldNormalizeAndClassifyMessages() {
+        // When / Then
+        assertThat(GrokResponseCache.normalize("  ¿Qué puedes   HACER? ")).isEqualTo("que puedes hacer");
+        assertThat(GrokResponseCache.classify("buenas tardes", true)).isEqualTo(MessageType.GREETING);
+        assertThat(GrokResponseCache.classify("que puedes hacer", true)).isEqualTo(MessageType.FAQ);
+        assertThat(GrokResponseCache.classify("en el centro", false)).isEqualTo(MessageType.FIRST_TURN);
+        assertThat(GrokResponseCache.classify("en el centro", true)).isEqualTo(MessageType.FOLLOW_UP);
+    }
+
+    @Test
+    void shouldNotTreatOpeningHoursQuestionsAsFaq() {
+        // Given
+        GrokResponseCache cache = newCache(100, 60);
+        cache.put(cache.keyFor("¿A qué hora abren?", List.of()), "Depende del negocio, ¿cuál buscas?");
+
+        // When: la misma pregunta dentro de una conversación sobre una panadería
+        GrokResponseCache.CacheKey inConversation = cache.keyFor("¿A qué hora abren?", CONVERSATION);
+
+        // Then: depende del historial, así que no reutiliza la respuesta del primer turno
+        assertThat(GrokResponseCache.classify("a que hora abren", true)).isEqualTo(MessageType.FOLLOW_UP);
+        assertThat(GrokResponseCache.classify("horarios", false)).isEqualTo(MessageType.FIRST_TURN);
+        assertThat(inConversation).isNull();
+        assertThat(cache.get(inConversation)).isNull();
+    }
+
+    @Test
+    void shouldCacheContextFreeTurnsOnlyByDefaultPolicy() {
+        // Given
+        GrokResponseCache cache = newCache(100, 60);
+
+        // When
+        GrokResponseCache.CacheKey greeting = cache.keyFor("¡Hola!", CONVERSATION);
+        GrokResponseCache.CacheKey followUp = cache.keyFor("en el centro", CONVERSATION);
+        cache.put(greeting, "¡Hola! ¿En qué te ayudo?");
+
+        // Then: el saludo ignora el historial; el mensaje de seguimiento no se cachea
+        assertThat(cache.get(cache.keyFor("hola", List.of()))).isEqualTo("¡Hola! ¿En qué te ayudo?");
+        assertThat(followUp).isNull();
+        assertThat(cache.get(followUp)).isNull();
+    }
+
+    @Test
+    void shouldNotShareFirstTurnRepliesWithConfiguredTtl() throws IOException {
+        // Given: los TTL de application.properties
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        GrokResponseCache cache = new GrokResponseCache(true, 100, 4, Map.of(
+                MessageType.GREETING, ttl(properties, "greeting"),
+                MessageType.FAQ, ttl(properties, "faq"),
+                MessageType.FIRST_TURN, ttl(properties, "first-turn"),
+                MessageType.FOLLOW_UP, ttl(properties, "follow-up")), new SimpleMeterRegistry(), now::get);
+
+        // When
+        GrokResponseCache.CacheKey firstTurn = cache.keyFor("recomiéndame un café", List.of());
+        GrokResponseCache.CacheKey greeting = cache.keyFor("hola", List.of());
+
+        // Then: solo los saludos y las preguntas generales se comparten entre usuarios
+        assertThat(firstTurn).isNull();
+        assertThat(greeting).isNotNull();
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() {
+        // Given
+        GrokResponseCache cache = newCache(100, 60);
+        GrokResponseCache.CacheKey key = cache.keyFor("qué puedes hacer", List.of());
+        cache.put(key, "Puedo buscar negocios");
+
+        // When
+        now.addAndGet(TimeUnit.MINUTES.toNanos(61));
+
+        // Then
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenFull() {
+        // Given
+        GrokResponseCache cache = newCache(2, 60);
+        GrokResponseCache.CacheKey first = cache.keyFor("recomiéndame un café", List.of());
+        GrokResponseCache.CacheKey second = cache.keyFor("recomiéndame una farmacia", List.of());
+        GrokResponseCache.CacheKey third = cache.keyFor("recomiéndame un restaurante", List.of());
+        cache.put(first, "Café Aroma");
+        cache.put(second, "Farmacia San José");
+
+        // When: se usa la primera y entra una tercera
+        cache.get(first);
+        cache.put(third, "La Costa");
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(first)).isEqualTo("Café Aroma");
+        assertThat(cache.get(second)).isNull();
+        assertThat(cache.get(third)).isEqualTo("La Costa");
+    }
+
+    private static long ttl(Properties properties, String type) {
+        return Long.parseLong(properties.getProperty("grok.cache.ttl-minutes." + type));
+    }
+
+    private GrokResponseCache newCache(int maxEntries, long ttlMinutes) {
+        return new GrokResponseCache(true, maxEntries, 4, Map.of(
+                MessageType.GREETING, ttlMinutes,
+                MessageType.FAQ, ttlMinutes,
+                MessageType.FIRST_TURN, ttlMinutes,
+                MessageType.FOLLOW_UP, 0L), new SimpleMeterRegistry(), now::get);
+    }
+}
@@ -0,0 +1,159 @@
+package com.alexia.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para la API asíncrona de GrokService.
+ * Un servidor local con latencia fija comprueba que las llamadas concurrentes no se serializan
+ * y que el plazo por petición corta las respuestas lentas.
+ */
+class GrokServiceAsyncTest {
+
+    private static final long SERVER_LATENCY_MS = 300;
+    private static final int CONCURRENT_CALLS = 200;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENT_CALLS);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/v1/chat/completions", exchange -> {
+            requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(exchange.getRequestURI().getQuery() != null ? 5_000 : SERVER_LATENCY_MS);
+                byte[] body = ("{\"id\":\"c1\",\"choices\":[{\"index\":0,\"message\":"
+                        + "{\"role\":\"assistant\",\"content\":\"ok\"},\"finish_reason\":\"stop\"}]}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // El cliente cortó la conexión (plazo vencido)
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void shouldServeConcurrentCallsWithoutSerializing() {
+        // Given
+        GrokService service = newService("/v1/chat/completions", 10_000);
+
+        // When
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CALLS; i++) {
+            calls.add(service.getResponseAsync((long) i, "Hola"));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(calls).allSatisfy(call -> assertThat(call.join()).isEqualTo("ok"));
+        // Con el límite por defecto de 5 peticiones por host tardaría ~CONCURRENT_CALLS / 5 * latencia
+        assertThat(elapsedMs).isLessThan(SERVER_LATENCY_MS * CONCURRENT_CALLS / 5 / 4);
+        assertThat(maxInFlight.get()).isGreaterThan(50);
+        assertThat(service.getActiveConversationsCount()).isEqualTo(CONCURRENT_CALLS);
+    }
+
+    @Test
+    void shouldReturnNullWhenRequestExceedsDeadline() {
+        // Given: el servidor tarda 5 s en esta ruta y el plazo es de 500 ms
+        GrokService service = newService("/v1/chat/completions?slow=true", 500);
+
+        // When
+        long start = System.nanoTime();
+        String response = service.getResponseAsync(1L, "Hola").join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(response).isNull();
+        assertThat(elapsedMs).isLessThan(3_000);
+        // Sin respuesta, el historial conserva solo el mensaje del usuario
+        assertThat(service.getHistorySize(1L)).isEqualTo(1);
+        assertThat(meterRegistry.get("grok.api.latency").tag("stream", "false").tag("outcome", "error").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerRepeatedGreetingFromCacheWithoutCallingApi() {
+        // Given
+        GrokResponseCache cache = new GrokResponseCache(true, 100, 4, 60, 60, 0, 0, meterRegistry);
+        GrokService service = newService(cache, "/v1/chat/completions", 10_000);
+
+        // When
+        String first = service.getResponseAsync(1L, "Hola").join();
+        String second = service.getResponseAsync(2L, "¡hola!").join();
+        String third = service.getResponseAsync(3L, "  HOLA  ").join();
+
+        // Then
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(List.of(first, second, third)).containsOnly("ok");
+        assertThat(service.getHistorySize(3L)).isEqualTo(2);
+        assertThat(meterRegistry.get("grok.cache.requests").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("grok.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("grok.api.latency").tag("stream", "false").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+    }
+
+    private GrokService newService(String path, long callTimeoutMs) {
+        return newService(noCache(), path, callTimeoutMs);
+    }
+
+    private GrokService newService(GrokResponseCache cache, String path, long callTimeoutMs) {
+        GrokService service = new GrokService(cache, newMemory(), meterRegistry, 8, 300_000, 256, callTimeoutMs);
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        ReflectionTestUtils.setField(service, "apiUrl", "http://127.0.0.1:" + server.getAddress().getPort() + path);
+        ReflectionTestUtils.setField(service, "model", "test-model");
+        return service;
+    }
+
+    private static GrokResponseCache noCache() {
+        return new GrokResponseCache(false, 0, 0, 0, 0, 0, 0, new SimpleMeterRegistry());
+    }
+
+    private static ConversationMemory newMemory() {
+        return new ConversationMemory(1200, 200, 160, 10_000, 720, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,112 @@
+package com.alexia.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para el modo streaming de GrokService.
+ * Usa un servidor SSE local que imita el endpoint compatible con OpenAI, enviando los fragmentos con pausas.
+ */
+class GrokServiceStreamingTest {
+
+    private static final long CHUNK_DELAY_MS = 150;
+
+    private HttpServer server;
+    private GrokService service;
+    private final AtomicReference<String> lastRequestBody = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            lastRequestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                writeEvent(out, "{\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\",\"content\":\"\"}}]}");
+                for (String token : List.of("¡Hola", "! Puedo", " ayudarte", " a buscar", " negocios.")) {
+                    writeEvent(out, "{\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + token + "\"}}]}");
+                    sleep(CHUNK_DELAY_MS);
+                }
+                writeEvent(out, "{\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}],"
+                        + "\"x_groq\":{\"usage\":{\"total_tokens\":42}}}");
+                writeEvent(out, "[DONE]");
+            }
+        });
+        server.start();
+
+        service = new GrokService(noCache(), newMemory(), new SimpleMeterRegistry(), 8, 300_000, 256, 10_000);
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        ReflectionTestUtils.setField(service, "apiUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions");
+        ReflectionTestUtils.setField(service, "model", "test-model");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldDeliverPartialTextBeforeStreamCompletes() {
+        // Given
+        List<String> partials = new ArrayList<>();
+        List<Long> partialTimes = new ArrayList<>();
+        long start = System.nanoTime();
+
+        // When
+        String response = service.getStreamingResponse(7L, "Hola", partial -> {
+            partials.add(partial);
+            partialTimes.add(System.nanoTime() - start);
+        });
+        long total = System.nanoTime() - start;
+
+        // Then
+        assertThat(response).isEqualTo("¡Hola! Puedo ayudarte a buscar negocios.");
+        assertThat(partials).containsExactly(
+                "¡Hola",
+                "¡Hola! Puedo",
+                "¡Hola! Puedo ayudarte",
+                "¡Hola! Puedo ayudarte a buscar",
+                "¡Hola! Puedo ayudarte a buscar negocios.");
+        // El primer fragmento llega mucho antes que la respuesta completa
+        assertThat(partialTimes.get(0)).isLessThan(total / 2);
+        assertThat(lastRequestBody.get()).contains("\"stream\":true");
+        assertThat(service.getHistorySize(7L)).isEqualTo(2);
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static GrokResponseCache noCache() {
+        return new GrokResponseCache(false, 0, 0, 0, 0, 0, 0, new SimpleMeterRegistry());
+    }
+
+    private static ConversationMemory newMemory() {
+        return new ConversationMemory(1200, 200, 160, 10_000, 720, new SimpleMeterRegistry());
+    }
+}
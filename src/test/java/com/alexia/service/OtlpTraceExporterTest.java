@@ -0,0 +1,90 @@
+package com.alexia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para OtlpTraceExporter.
+ * Verifica el JSON de OTLP generado (span raíz y spans hijos) y el envío al collector.
+ */
+class OtlpTraceExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldBuildRootAndChildSpansInOtlpJson() {
+        // Given
+        UpdateTrace trace = new UpdateTrace("llm", 42L);
+        trace.startSpan("update.route").close();
+        trace.startSpan("grok.http").end(true);
+        trace.finish(true);
+
+        // When
+        Map<String, Object> request = OtlpTraceExporter.toOtlpJson(List.of(trace), "alexia");
+
+        // Then
+        JsonNode resourceSpans = objectMapper.valueToTree(request).path("resourceSpans").get(0);
+        assertThat(resourceSpans.at("/resource/attributes/0/value/stringValue").asText()).isEqualTo("alexia");
+        JsonNode spans = resourceSpans.at("/scopeSpans/0/spans");
+        assertThat(spans).hasSize(3);
+
+        JsonNode root = spans.get(0);
+        assertThat(root.path("name").asText()).isEqualTo("telegram.update");
+        assertThat(root.path("traceId").asText()).isEqualTo(trace.getTraceId());
+        assertThat(root.has("parentSpanId")).isFalse();
+        assertThat(root.path("kind").asInt()).isEqualTo(2);
+        assertThat(root.at("/status/code").asInt()).isEqualTo(2);
+        assertThat(root.at("/attributes/1/value/intValue").asText()).isEqualTo("42");
+
+        JsonNode grok = spans.get(2);
+        assertThat(grok.path("parentSpanId").asText()).isEqualTo(trace.getRootSpanId());
+        assertThat(grok.path("kind").asInt()).isEqualTo(3);
+        assertThat(grok.at("/status/code").asInt()).isEqualTo(2);
+        assertThat(spans.get(1).path("kind").asInt()).isEqualTo(1);
+        assertThat(spans.get(1).has("status")).isFalse();
+        assertThat(Long.parseLong(grok.path("startTimeUnixNano").asText()))
+                .isGreaterThanOrEqualTo(trace.getStartEpochNanos());
+    }
+
+    @Test
+    void shouldPostPendingTracesToCollector() throws Exception {
+        // Given: un collector local que guarda el último cuerpo recibido
+        AtomicReference<String> body = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/traces", exchange -> {
+            body.set(new String(exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String endpoint = "http://localhost:" + server.getAddress().getPort() + "/v1/traces";
+            OtlpTraceExporter exporter = new OtlpTraceExporter(true, endpoint, "alexia", 60_000);
+            UpdateTracer tracer = new UpdateTracer(exporter, new SimpleMeterRegistry(), true, 0, 10);
+            UpdateTrace trace = tracer.start("command", 7L);
+            tracer.finish(trace, false);
+
+            // When
+            int sent = exporter.flush();
+
+            // Then
+            assertThat(sent).isEqualTo(1);
+            assertThat(objectMapper.readTree(body.get()).at("/resourceSpans/0/scopeSpans/0/spans/0/traceId").asText())
+                    .isEqualTo(trace.getTraceId());
+            assertThat(exporter.flush()).isZero();
+            exporter.shutdown();
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.alexia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para PipelineMetricsService.
+ * Verifica que los timers se listan en orden de etapa con sus percentiles y que los contadores se suman por tag.
+ */
+class PipelineMetricsServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PipelineMetricsService service = new PipelineMetricsService(meterRegistry);
+
+    @Test
+    void shouldListStageTimersInPipelineOrderWithPercentiles() {
+        // Given: se registran en otro orden que el del pipeline
+        Timer send = Timer.builder("telegram.send").tag("outcome", "success").register(meterRegistry);
+        Timer wait = Timer.builder("telegram.dispatcher.wait")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Timer.builder("telegram.update.handle").tag("route", "llm").register(meterRegistry)
+                .record(900, TimeUnit.MILLISECONDS);
+        Timer.builder("telegram.update.handle").tag("route", "command").register(meterRegistry)
+                .record(20, TimeUnit.MILLISECONDS);
+        for (int i = 1; i <= 100; i++) {
+            wait.record(i, TimeUnit.MILLISECONDS);
+        }
+        send.record(150, TimeUnit.MILLISECONDS);
+
+        // When
+        List<PipelineMetricsService.StageTimer> timers = service.stageTimers();
+
+        // Then
+        assertThat(timers).extracting(PipelineMetricsService.StageTimer::tags)
+                .containsExactly("", "route=command", "route=llm", "outcome=success");
+        PipelineMetricsService.StageTimer waitStats = timers.get(0);
+        assertThat(waitStats.stage()).isEqualTo("Espera en cola");
+        assertThat(waitStats.count()).isEqualTo(100);
+        assertThat(waitStats.p50Ms()).isBetween(45.0, 55.0);
+        assertThat(waitStats.p99Ms()).isBetween(95.0, 105.0);
+        assertThat(waitStats.maxMs()).isEqualTo(100.0);
+        // Sin publishPercentiles no hay percentiles que mostrar
+        assertThat(timers.get(3).p95Ms()).isNaN();
+        assertThat(timers.get(3).meanMs()).isEqualTo(150.0);
+    }
+
+    @Test
+    void shouldSumCountersByTagAndReportMissingGauges() {
+        // Given
+        Counter.builder("grok.cache.requests").tag("result", "hit").register(meterRegistry).increment(3);
+        Counter.builder("grok.cache.requests").tag("result", "miss").register(meterRegistry).increment(1);
+
+        // When / Then
+        assertThat(service.counter("grok.cache.requests")).isEqualTo(4.0);
+        assertThat(service.counter("grok.cache.requests", "result", "hit")).isEqualTo(3.0);
+        assertThat(service.counter("grok.completion.tokens")).isZero();
+        assertThat(service.gauge("telegram.dispatcher.queue.depth")).isNaN();
+    }
+}
@@ -0,0 +1,73 @@
+package com.alexia.service;
+
+import com.alexia.dto.TelegramMessageSummary;
+import com.alexia.entity.TelegramMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para TelegramLogBroadcaster.
+ * Verifica que cada lote llega una vez a cada suscriptor, con los textos recortados, y que cancelar funciona.
+ */
+class TelegramLogBroadcasterTest {
+
+    private final TelegramLogBroadcaster broadcaster = new TelegramLogBroadcaster();
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void shouldFanOutEachBatchToAllListeners() throws InterruptedException {
+        // Given
+        BlockingQueue<List<TelegramMessageSummary>> first = new LinkedBlockingQueue<>();
+        BlockingQueue<List<TelegramMessageSummary>> second = new LinkedBlockingQueue<>();
+        broadcaster.register(first::add);
+        broadcaster.register(second::add);
+        TelegramMessage message = TelegramMessage.builder()
+                .id(7L)
+                .chatId(1L)
+                .messageText("x".repeat(1_000))
+                .botResponse("ok")
+                .build();
+
+        // When
+        broadcaster.onMessagesPersisted(new TelegramMessagesPersistedEvent(List.of(message)));
+
+        // Then
+        List<TelegramMessageSummary> received = first.poll(5, TimeUnit.SECONDS);
+        assertThat(received).singleElement().satisfies(summary -> {
+            assertThat(summary.getId()).isEqualTo(7L);
+            assertThat(summary.getMessageText()).hasSize(TelegramMessageSummary.PREVIEW_LENGTH);
+            assertThat(summary.getBotResponse()).isEqualTo("ok");
+        });
+        assertThat(second.poll(5, TimeUnit.SECONDS)).isSameAs(received);
+    }
+
+    @Test
+    void shouldStopNotifyingAfterUnregister() throws InterruptedException {
+        // Given
+        BlockingQueue<List<TelegramMessageSummary>> removed = new LinkedBlockingQueue<>();
+        BlockingQueue<List<TelegramMessageSummary>> kept = new LinkedBlockingQueue<>();
+        Runnable registration = broadcaster.register(removed::add);
+        broadcaster.register(kept::add);
+
+        // When
+        registration.run();
+        broadcaster.onMessagesPersisted(new TelegramMessagesPersistedEvent(
+                List.of(TelegramMessage.builder().id(1L).chatId(1L).build())));
+
+        // Then: el suscriptor restante recibe el lote; el cancelado no
+        assertThat(kept.poll(5, TimeUnit.SECONDS)).hasSize(1);
+        assertThat(removed).isEmpty();
+        assertThat(broadcaster.getListenerCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,179 @@
+package com.alexia.service;
+
+import com.alexia.repository.TelegramPartitionRepository;
+import com.alexia.repository.TelegramPartitionRepository.MonthlyPartition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para TelegramRetentionService.
+ * Verifica qué meses vencen, que una partición solo se elimina después de quedar archivada
+ * y que un fallo al crear particiones no detiene la retención.
+ */
+@ExtendWith(MockitoExtension.class)
+class TelegramRetentionServiceTest {
+
+    private static final MonthlyPartition OLD = partition(YearMonth.of(2020, 1));
+    private static final MonthlyPartition CURRENT = partition(YearMonth.now());
+
+    @Mock
+    private TelegramPartitionRepository partitionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path archiveDir;
+
+    private TelegramRetentionService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void shouldExpireMonthsBeforeRetentionWindow() {
+        // Given: octubre de 2025 con 12 meses completos de retención se conserva desde octubre de 2024
+        List<MonthlyPartition> partitions = List.of(partition(YearMonth.of(2025, 10)),
+                partition(YearMonth.of(2024, 10)), partition(YearMonth.of(2024, 9)), partition(YearMonth.of(2023, 1)));
+
+        // When
+        List<MonthlyPartition> expired = TelegramRetentionService.expiredPartitions(partitions, YearMonth.of(2025, 10), 12);
+
+        // Then
+        assertThat(expired).extracting(MonthlyPartition::name)
+                .containsExactly("telegram_messages_p202301", "telegram_messages_p202409");
+        assertThat(TelegramRetentionService.expiredPartitions(partitions, YearMonth.of(2025, 10), 0)).isEmpty();
+    }
+
+    @Test
+    void shouldArchiveThenDropExpiredPartitions() throws Exception {
+        // Given
+        service = newService(archiveDir.toString());
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.findMonthlyPartitions()).thenReturn(List.of(OLD, CURRENT));
+        ResultSet row = row(new LinkedHashMap<>(Map.of("id", 7L, "chat_id", 42L, "user_name", "ana",
+                "message_text", "hola \"bot\"", "created_at", Timestamp.valueOf(LocalDateTime.of(2020, 1, 15, 10, 30)),
+                "response_time_ms", 850)));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row);
+            handler.processRow(row);
+            return null;
+        }).when(partitionRepository).streamPartition(eq(OLD), any());
+
+        // When
+        int dropped = service.applyRetention();
+
+        // Then
+        assertThat(dropped).isEqualTo(1);
+        verify(partitionRepository).ensurePartitions(2);
+        verify(partitionRepository).dropPartition(OLD);
+        verify(partitionRepository, never()).dropPartition(CURRENT);
+        List<String> lines = readGzip(archiveDir.resolve("telegram_messages_p202001.jsonl.gz"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\"id\":7", "\"chat_id\":42", "\"message_text\":\"hola \\\"bot\\\"\"",
+                "\"created_at\":\"2020-01-15T10:30\"", "\"response_time_ms\":850");
+    }
+
+    @Test
+    void shouldDropExpiredPartitionsWhenPartitionsCannotBeCreated() {
+        // Given: DEFAULT tiene filas y crear las particiones falla
+        service = newService(archiveDir.toString());
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.hasRowsInDefaultPartition()).thenReturn(true);
+        doThrow(new DataIntegrityViolationException("updated partition constraint for default partition would be violated"))
+                .when(partitionRepository).ensurePartitions(2);
+        when(partitionRepository.findMonthlyPartitions()).thenReturn(List.of(OLD, CURRENT));
+
+        // When
+        int dropped = service.applyRetention();
+
+        // Then: la DEFAULT se revisa antes de crear particiones y la retención sigue
+        assertThat(dropped).isEqualTo(1);
+        InOrder inOrder = inOrder(partitionRepository);
+        inOrder.verify(partitionRepository).hasRowsInDefaultPartition();
+        inOrder.verify(partitionRepository).ensurePartitions(2);
+        inOrder.verify(partitionRepository).dropPartition(OLD);
+        assertThat(archiveDir.resolve("telegram_messages_p202001.jsonl.gz")).exists();
+    }
+
+    @Test
+    void shouldKeepPartitionWhenArchiveCannotBeWritten() throws IOException {
+        // Given: el directorio de archivo es un archivo, así que no se puede crear
+        Path notADirectory = Files.createFile(archiveDir.resolve("ocupado"));
+        service = newService(notADirectory.toString());
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.findMonthlyPartitions()).thenReturn(List.of(OLD));
+
+        // When / Then
+        assertThatThrownBy(() -> service.applyRetention()).isInstanceOf(UncheckedIOException.class);
+        verify(partitionRepository, never()).dropPartition(any());
+    }
+
+    private TelegramRetentionService newService(String dir) {
+        return new TelegramRetentionService(partitionRepository, transactionManager, new SimpleMeterRegistry(),
+                false, 12, 2, dir, 24);
+    }
+
+    private static MonthlyPartition partition(YearMonth month) {
+        return new MonthlyPartition(String.format("telegram_messages_p%04d%02d", month.getYear(), month.getMonthValue()),
+                month);
+    }
+
+    /** Fila simulada con sus columnas en orden, como la devuelve SELECT * */
+    private static ResultSet row(Map<String, Object> columns) throws SQLException {
+        List<String> names = List.copyOf(columns.keySet());
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(names.size());
+        when(metaData.getColumnLabel(anyInt())).thenAnswer(invocation -> names.get(invocation.<Integer>getArgument(0) - 1));
+        ResultSet row = mock(ResultSet.class);
+        when(row.getMetaData()).thenReturn(metaData);
+        when(row.getObject(anyInt())).thenAnswer(invocation -> columns.get(names.get(invocation.<Integer>getArgument(0) - 1)));
+        return row;
+    }
+
+    private static List<String> readGzip(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
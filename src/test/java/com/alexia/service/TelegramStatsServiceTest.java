@@ -0,0 +1,131 @@
+package com.alexia.service;
+
+import com.alexia.entity.BotCommand;
+import com.alexia.entity.TelegramMessage;
+import com.alexia.repository.BotCommandRepository;
+import com.alexia.repository.TelegramMessageRepository;
+import com.alexia.repository.TelegramStatsRepository;
+import com.alexia.repository.TelegramStatsRepository.StatsTotals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para TelegramStatsService.
+ * Verifica que los totales combinan los resúmenes con lo registrado en memoria y que la reconciliación
+ * guarda las pulsaciones y vuelve a leer los totales.
+ */
+@ExtendWith(MockitoExtension.class)
+class TelegramStatsServiceTest {
+
+    @Mock
+    private TelegramStatsRepository statsRepository;
+
+    @Mock
+    private TelegramMessageRepository messageRepository;
+
+    @Mock
+    private BotCommandRepository commandRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TelegramStatsService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void shouldAddPersistedBatchesToRollupTotals() {
+        // Given
+        service = newService();
+        when(statsRepository.findTotals()).thenReturn(new StatsTotals(10, 8, 4, 2, 8, 8_000));
+        service.snapshot();
+
+        // When
+        service.onMessagesPersisted(new TelegramMessagesPersistedEvent(List.of(
+                message("hola", 3_000), message(null, null))));
+        service.onCommandsPersisted(new BotCommandsPersistedEvent(List.of(new BotCommand())));
+        service.recordClick();
+        TelegramStatsService.Snapshot stats = service.snapshot();
+
+        // Then: los totales se leen una vez y los lotes se suman en memoria, sin COUNT(*)
+        assertThat(stats.messages()).isEqualTo(12);
+        assertThat(stats.answered()).isEqualTo(9);
+        assertThat(stats.commands()).isEqualTo(5);
+        assertThat(stats.clicks()).isEqualTo(3);
+        assertThat(stats.responseRate()).isEqualTo(75.0);
+        assertThat(stats.averageLatencyMs()).isEqualTo(1_222);
+        verify(statsRepository).findTotals();
+        verifyNoInteractions(messageRepository, commandRepository);
+    }
+
+    @Test
+    void shouldFlushClicksAndReplaceInMemoryCountsOnReconcile() {
+        // Given
+        service = newService();
+        when(statsRepository.findTotals()).thenReturn(new StatsTotals(0, 0, 0, 0, 0, 0),
+                new StatsTotals(1, 1, 0, 2, 0, 0));
+        service.snapshot();
+        service.onMessagesPersisted(new TelegramMessagesPersistedEvent(List.of(message("hola", null))));
+        service.recordClick();
+        service.recordClick();
+
+        // When
+        service.reconcile();
+
+        // Then: las pulsaciones se guardan en su hora y los totales recalculados no se suman dos veces
+        verify(statsRepository).addClicks(any(LocalDateTime.class), eq(2L));
+        verify(statsRepository, times(2)).recomputeHourly(any());
+        verify(statsRepository, times(2)).recomputeDaily(any());
+        assertThat(service.snapshot()).isEqualTo(new TelegramStatsService.Snapshot(1, 1, 0, 2, 0, 0));
+    }
+
+    @Test
+    void shouldFallBackToCountsWhenRollupsAreUnavailable() {
+        // Given: la migración 18 no está aplicada
+        service = newService();
+        when(statsRepository.recomputeHourly(any())).thenThrow(new DataAccessResourceFailureException("sin tabla"));
+        when(messageRepository.count()).thenReturn(7L);
+        when(messageRepository.countByBotResponseIsNotNull()).thenReturn(7L);
+        when(commandRepository.count()).thenReturn(3L);
+
+        // When
+        TelegramStatsService.Snapshot stats = service.snapshot();
+
+        // Then
+        assertThat(stats.messages()).isEqualTo(7);
+        assertThat(stats.commands()).isEqualTo(3);
+        assertThat(stats.responseRate()).isEqualTo(100.0);
+    }
+
+    private TelegramStatsService newService() {
+        return new TelegramStatsService(statsRepository, messageRepository, commandRepository, transactionManager,
+                true, 60);
+    }
+
+    private static TelegramMessage message(String botResponse, Integer responseTimeMs) {
+        return TelegramMessage.builder()
+                .chatId(1L)
+                .messageText("hola")
+                .botResponse(botResponse)
+                .responseTimeMs(responseTimeMs)
+                .build();
+    }
+}
@@ -0,0 +1,216 @@
+package com.alexia.service;
+
+import com.alexia.entity.BotCommand;
+import com.alexia.entity.TelegramMessage;
+import com.alexia.repository.BotCommandRepository;
+import com.alexia.repository.TelegramMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.RollbackException;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para TelegramWriteBehindService.
+ * Verifica que las entidades se escriben por lotes, que la cola llena descarta en vez de bloquear
+ * y que los lotes fallidos se reintentan o se guardan fila a fila.
+ */
+@ExtendWith(MockitoExtension.class)
+class TelegramWriteBehindServiceTest {
+
+    @Mock
+    private TelegramMessageRepository telegramMessageRepository;
+
+    @Mock
+    private BotCommandRepository botCommandRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private TelegramWriteBehindService service;
+
+    @BeforeEach
+    void setUp() {
+        // Intervalo largo para que solo escriba el flush explícito del test
+        service = new TelegramWriteBehindService(telegramMessageRepository, botCommandRepository,
+                transactionManager, new SimpleMeterRegistry(), eventPublisher, 5, 2, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteQueuedEntitiesInBatches() {
+        // Given
+        service.enqueue(TelegramMessage.builder().chatId(1L).messageText("a").build());
+        service.enqueue(TelegramMessage.builder().chatId(1L).messageText("b").build());
+        service.enqueue(TelegramMessage.builder().chatId(2L).messageText("c").build());
+        service.enqueue(BotCommand.builder().chatId(2L).command("/start").build());
+
+        // When
+        service.flush();
+
+        // Then
+        ArgumentCaptor<List<TelegramMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(telegramMessageRepository, atLeast(2)).saveAll(messages.capture());
+        assertThat(messages.getAllValues()).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+        assertThat(messages.getAllValues()).flatExtracting(batch -> batch)
+                .extracting(TelegramMessage::getMessageText)
+                .containsExactlyInAnyOrder("a", "b", "c");
+        verify(botCommandRepository).saveAll(anyList());
+        verify(eventPublisher, atLeast(2)).publishEvent(any(TelegramMessagesPersistedEvent.class));
+        assertThat(service.getPendingCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepFlushingWhenListenersAreGone() {
+        // Given: al detener la aplicación los listeners ya no se pueden crear
+        doThrow(new IllegalStateException("singletons in destruction"))
+                .when(eventPublisher).publishEvent(any(TelegramMessagesPersistedEvent.class));
+        for (int i = 0; i < 5; i++) {
+            service.enqueue(TelegramMessage.builder().chatId((long) i).build());
+        }
+
+        // When
+        service.shutdown();
+
+        // Then: todos los lotes se escriben aunque falle la notificación de cada uno
+        ArgumentCaptor<List<TelegramMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(telegramMessageRepository, atLeast(3)).saveAll(messages.capture());
+        assertThat(messages.getAllValues()).flatExtracting(batch -> batch).hasSize(5);
+        assertThat(service.getPendingCount()).isZero();
+    }
+
+    @Test
+    void shouldRetryBatchOnTransientError() {
+        // Given: la primera escritura falla por timeout y la siguiente funciona
+        TelegramWriteBehindService batched = newServiceWithoutAutoFlush();
+        when(telegramMessageRepository.saveAll(anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.of());
+        batched.enqueue(TelegramMessage.builder().chatId(1L).messageText("a").build());
+        batched.enqueue(TelegramMessage.builder().chatId(1L).messageText("b").build());
+
+        // When
+        batched.flush();
+        int pendingAfterFailure = batched.getPendingCount();
+        batched.flush();
+
+        // Then: el lote no se pierde y se escribe en el flush siguiente
+        assertThat(pendingAfterFailure).isEqualTo(2);
+        verify(telegramMessageRepository, times(2)).saveAll(anyList());
+        verify(eventPublisher).publishEvent(any(TelegramMessagesPersistedEvent.class));
+        assertThat(batched.getPendingCount()).isZero();
+    }
+
+    @Test
+    void shouldFallBackToSingleRowsOnConstraintViolation() {
+        // Given: una fila del lote viola una restricción
+        TelegramWriteBehindService batched = newServiceWithoutAutoFlush();
+        TelegramMessage valid = TelegramMessage.builder().chatId(1L).messageText("ok").build();
+        TelegramMessage invalid = TelegramMessage.builder().chatId(1L).messageText("duplicado").build();
+        when(telegramMessageRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(telegramMessageRepository.save(any(TelegramMessage.class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == invalid) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return invocation.getArgument(0);
+        });
+        batched.enqueue(valid);
+        batched.enqueue(invalid);
+
+        // When
+        batched.flush();
+
+        // Then: se guarda la fila válida, se descarta la inválida y el lote no vuelve a la cola
+        verify(telegramMessageRepository).save(valid);
+        verify(telegramMessageRepository).save(invalid);
+        verify(eventPublisher).publishEvent(new TelegramMessagesPersistedEvent(List.of(valid)));
+        assertThat(batched.getPendingCount()).isZero();
+    }
+
+    @Test
+    void shouldFallBackToSingleRowsWhenValidationFailsAtCommit() {
+        // Given: la validación de una entidad falla en el flush del commit, envuelta en TransactionSystemException
+        TelegramWriteBehindService batched = newServiceWithoutAutoFlush();
+        TelegramMessage valid = TelegramMessage.builder().chatId(1L).messageText("ok").build();
+        TelegramMessage invalid = TelegramMessage.builder().chatId(1L).messageText("inválido").build();
+        when(telegramMessageRepository.saveAll(anyList())).thenThrow(commitValidationFailure());
+        when(telegramMessageRepository.save(any(TelegramMessage.class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == invalid) {
+                throw commitValidationFailure();
+            }
+            return invocation.getArgument(0);
+        });
+        batched.enqueue(valid);
+        batched.enqueue(invalid);
+
+        // When
+        batched.flush();
+
+        // Then: se guarda fila a fila en el primer intento, sin reintentar el lote
+        verify(telegramMessageRepository, times(1)).saveAll(anyList());
+        verify(telegramMessageRepository).save(valid);
+        verify(telegramMessageRepository).save(invalid);
+        verify(eventPublisher).publishEvent(new TelegramMessagesPersistedEvent(List.of(valid)));
+        assertThat(batched.getPendingCount()).isZero();
+    }
+
+    @Test
+    void shouldDropWhenQueueIsFull() {
+        // Given: lote mayor que la cola, así que nada dispara una escritura durante el test
+        TelegramWriteBehindService smallQueue = new TelegramWriteBehindService(telegramMessageRepository,
+                botCommandRepository, transactionManager, new SimpleMeterRegistry(), eventPublisher, 5, 100, 60_000);
+
+        // When
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (smallQueue.enqueue(TelegramMessage.builder().chatId((long) i).build())) {
+                accepted++;
+            }
+        }
+
+        // Then
+        assertThat(accepted).isEqualTo(5);
+        assertThat(smallQueue.getDroppedCount()).isEqualTo(15);
+        assertThat(smallQueue.getPendingCount()).isEqualTo(5);
+        verifyNoInteractions(telegramMessageRepository);
+    }
+
+    /** Lote mayor que lo encolado en el test, así solo escribe el flush explícito */
+    private static TransactionSystemException commitValidationFailure() {
+        TransactionSystemException e = new TransactionSystemException("Could not commit JPA transaction");
+        e.initCause(new RollbackException("Error while committing the transaction",
+                new ConstraintViolationException("messageText: no debe estar vacío", Set.of())));
+        return e;
+    }
+
+    private TelegramWriteBehindService newServiceWithoutAutoFlush() {
+        return new TelegramWriteBehindService(telegramMessageRepository, botCommandRepository,
+                transactionManager, new SimpleMeterRegistry(), eventPublisher, 5, 100, 60_000);
+    }
+}
@@ -0,0 +1,118 @@
+package com.alexia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para UpdateTracer y UpdateTrace.
+ * Verifica el buffer de trazas lentas, los spans cerrados desde otro hilo y la traza activa en el MDC.
+ * El costo del trazado por turno se mide en UpdateRoutingBenchmark (perfil benchmarks), no aquí.
+ */
+class UpdateTracerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OtlpTraceExporter exporter = new OtlpTraceExporter(false, "http://localhost:4318/v1/traces",
+            "alexia", 5_000);
+
+    @Test
+    void shouldKeepOnlySlowTracesNewestFirstWithinBufferSize() {
+        // Given: umbral 0 ms, todo turno es lento; buffer de 2
+        UpdateTracer tracer = new UpdateTracer(exporter, meterRegistry, true, 0, 2);
+
+        // When
+        for (String route : List.of("command", "search", "llm")) {
+            tracer.finish(tracer.start(route, 1L), false);
+        }
+
+        // Then
+        assertThat(tracer.getSlowTraces()).extracting(UpdateTrace::getRoute).containsExactly("llm", "search");
+        assertThat(meterRegistry.get("telegram.traces.slow").counter().count()).isEqualTo(3.0);
+
+        tracer.clearSlowTraces();
+        assertThat(tracer.getSlowTraces()).isEmpty();
+    }
+
+    @Test
+    void shouldDiscardFastTracesAndDoNothingWhenDisabled() {
+        // Given
+        UpdateTracer tracer = new UpdateTracer(exporter, meterRegistry, true, 60_000, 10);
+        UpdateTracer disabled = new UpdateTracer(exporter, new SimpleMeterRegistry(), false, 0, 10);
+
+        // When
+        tracer.finish(tracer.start("command", 1L), false);
+        UpdateTrace none = disabled.start("command", 1L);
+        disabled.finish(none, false);
+
+        // Then
+        assertThat(tracer.getSlowTraces()).isEmpty();
+        assertThat(none).isNull();
+        assertThat(disabled.getSlowTraces()).isEmpty();
+        assertThat(UpdateTrace.startCurrentSpan("grok.http")).isSameAs(UpdateTrace.Span.NOOP);
+    }
+
+    @Test
+    void shouldRecordSpanEndedOnAnotherThread() throws Exception {
+        // Given
+        UpdateTracer tracer = new UpdateTracer(exporter, meterRegistry, true, 0, 10);
+        UpdateTrace trace = tracer.start("llm", 42L);
+        UpdateTrace.Span route = trace.startSpan("update.route");
+        UpdateTrace.Span grok = trace.startSpan("grok.http");
+
+        // When: la respuesta de Groq llega por el hilo de OkHttp
+        CompletableFuture.runAsync(() -> {
+            sleep(5);
+            grok.end(true);
+        }).get(5, TimeUnit.SECONDS);
+        route.close();
+        tracer.finish(trace, true);
+
+        // Then
+        UpdateTrace slow = tracer.getSlowTraces().get(0);
+        assertThat(slow.isError()).isTrue();
+        assertThat(slow.getChatId()).isEqualTo(42L);
+        assertThat(slow.getTraceId()).hasSize(32).matches("[0-9a-f]+");
+        assertThat(slow.getSpans()).extracting(UpdateTrace.Span::getName).containsExactly("update.route", "grok.http");
+        UpdateTrace.Span grokSpan = slow.getSpans().get(1);
+        assertThat(grokSpan.isError()).isTrue();
+        assertThat(grokSpan.getDurationNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(grokSpan.getOffsetNanos() + grokSpan.getDurationNanos()).isLessThanOrEqualTo(slow.getDurationNanos());
+    }
+
+    @Test
+    void shouldBindTraceToThreadAndMdcUntilScopeIsClosed() {
+        // Given
+        UpdateTracer tracer = new UpdateTracer(exporter, meterRegistry, true, 0, 10);
+        UpdateTrace outer = tracer.start("command", 1L);
+        UpdateTrace inner = tracer.start("llm", 1L);
+
+        // When / Then
+        try (UpdateTrace.Scope ignored = UpdateTrace.bind(outer)) {
+            assertThat(UpdateTrace.current()).isSameAs(outer);
+            try (UpdateTrace.Scope nested = UpdateTrace.bind(inner)) {
+                assertThat(MDC.get(UpdateTrace.MDC_KEY)).isEqualTo(inner.getTraceId());
+                UpdateTrace.startCurrentSpan("telegram.save").close();
+            }
+            assertThat(UpdateTrace.current()).isSameAs(outer);
+            assertThat(MDC.get(UpdateTrace.MDC_KEY)).isEqualTo(outer.getTraceId());
+        }
+        assertThat(UpdateTrace.current()).isNull();
+        assertThat(MDC.get(UpdateTrace.MDC_KEY)).isNull();
+        assertThat(inner.getSpans()).extracting(UpdateTrace.Span::getName).containsExactly("telegram.save");
+        assertThat(outer.getSpans()).isEmpty();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
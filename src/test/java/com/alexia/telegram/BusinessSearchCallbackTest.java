@@ -0,0 +1,46 @@
+package com.alexia.telegram;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para BusinessSearchCallback.
+ * Verifica el formato del callback_data y el límite de 64 bytes de Telegram.
+ */
+class BusinessSearchCallbackTest {
+
+    @Test
+    void shouldRoundTripCursor() {
+        // When
+        String data = BusinessSearchCallback.encode(3, 1_234_567L, "panadería: centro");
+        BusinessSearchCallback.Cursor cursor = BusinessSearchCallback.decode(data);
+
+        // Then
+        assertThat(cursor).isEqualTo(new BusinessSearchCallback.Cursor(3, 1_234_567L, "panadería: centro"));
+    }
+
+    @Test
+    void shouldNotEncodeBeyondTelegramLimit() {
+        // Given: las tildes ocupan 2 bytes en UTF-8
+        String longQuery = "á".repeat(30);
+
+        // When
+        String data = BusinessSearchCallback.encode(2, Long.MAX_VALUE, longQuery);
+        String fitting = BusinessSearchCallback.encode(2, 99L, "farmacias de turno");
+
+        // Then
+        assertThat(data).isNull();
+        assertThat(fitting.getBytes(StandardCharsets.UTF_8)).hasSizeLessThanOrEqualTo(64);
+    }
+
+    @Test
+    void shouldRejectForeignOrMalformedData() {
+        assertThat(BusinessSearchCallback.decode("otra:cosa")).isNull();
+        assertThat(BusinessSearchCallback.decode("bp:x:1:pan")).isNull();
+        assertThat(BusinessSearchCallback.decode("bp:2:1")).isNull();
+        assertThat(BusinessSearchCallback.decode(null)).isNull();
+    }
+}
@@ -0,0 +1,166 @@
+package com.alexia.telegram;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests para ChatMailboxRegistry.
+ * Verifica orden por chat, un solo turno en vuelo por chat y paralelismo entre chats.
+ */
+class ChatMailboxRegistryTest {
+
+    private static final int CHATS = 1_000;
+    private static final int TURNS_PER_CHAT = 20;
+    private static final int PRODUCERS = 8;
+
+    private ExecutorService workers;
+    private ChatMailboxRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        registry = new ChatMailboxRegistry(workers);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void shouldRunTurnsInOrderWithoutLossUnderThousandConcurrentChats() throws Exception {
+        // Given
+        List<List<Integer>> received = new ArrayList<>();
+        AtomicInteger[] inFlight = new AtomicInteger[CHATS];
+        for (int i = 0; i < CHATS; i++) {
+            received.add(new ArrayList<>());
+            inFlight[i] = new AtomicInteger();
+        }
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger globalInFlight = new AtomicInteger();
+        AtomicInteger maxParallel = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(CHATS * TURNS_PER_CHAT);
+
+        // When: cada productor envía los turnos de sus chats en orden, intercalando chats
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            producers.execute(() -> {
+                for (int turn = 0; turn < TURNS_PER_CHAT; turn++) {
+                    for (int chat = producer; chat < CHATS; chat += PRODUCERS) {
+                        int chatIndex = chat;
+                        int turnNumber = turn;
+                        registry.submit((long) chat + 1, () -> {
+                            if (inFlight[chatIndex].incrementAndGet() > 1) {
+                                overlaps.incrementAndGet();
+                            }
+                            maxParallel.accumulateAndGet(globalInFlight.incrementAndGet(), Math::max);
+                            received.get(chatIndex).add(turnNumber);
+                            globalInFlight.decrementAndGet();
+                            inFlight[chatIndex].decrementAndGet();
+                            done.countDown();
+                        });
+                    }
+                }
+            });
+        }
+        producers.shutdown();
+
+        // Then
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(overlaps.get()).isZero();
+        for (int chat = 0; chat < CHATS; chat++) {
+            assertThat(received.get(chat))
+                    .as("turnos del chat %d", chat)
+                    .hasSize(TURNS_PER_CHAT)
+                    .isSorted();
+        }
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            assertThat(maxParallel.get()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void shouldReclaimIdleMailboxes() throws Exception {
+        // Given
+        CountDownLatch done = new CountDownLatch(CHATS);
+
+        // When
+        for (long chatId = 1; chatId <= CHATS; chatId++) {
+            registry.submit(chatId, done::countDown);
+        }
+
+        // Then
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (registry.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void shouldHoldNextTurnUntilAsyncTurnCompletes() throws Exception {
+        // Given
+        CompletableFuture<Void> llmCall = new CompletableFuture<>();
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch secondTurnDone = new CountDownLatch(1);
+        CountDownLatch otherChatDone = new CountDownLatch(1);
+
+        // When: el primer turno devuelve una etapa pendiente, como una llamada al LLM en curso
+        registry.submitAsync(1L, () -> {
+            events.add("turno-1-inicio");
+            return llmCall.thenRun(() -> events.add("turno-1-fin"));
+        });
+        registry.submit(1L, () -> {
+            events.add("turno-2");
+            secondTurnDone.countDown();
+        });
+        registry.submit(2L, otherChatDone::countDown);
+
+        // Then: otros chats avanzan, pero el mismo chat espera a que termine su turno asíncrono
+        assertThat(otherChatDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(secondTurnDone.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        llmCall.complete(null);
+        assertThat(secondTurnDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(events).containsExactly("turno-1-inicio", "turno-1-fin", "turno-2");
+    }
+
+    @Test
+    void shouldReleaseMailboxWhenExecutorRejectsTurn() throws Exception {
+        // Given: un executor que rechaza la primera tarea, como un pool detenido o saturado
+        AtomicInteger executions = new AtomicInteger();
+        ChatMailboxRegistry rejecting = new ChatMailboxRegistry(command -> {
+            if (executions.getAndIncrement() == 0) {
+                throw new RejectedExecutionException("pool detenido");
+            }
+            workers.execute(command);
+        });
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        assertThatThrownBy(() -> rejecting.submit(1L, () -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+        int mailboxesAfterRejection = rejecting.size();
+        rejecting.submit(1L, done::countDown);
+
+        // Then: el rechazo llega al llamante y el chat no queda bloqueado
+        assertThat(mailboxesAfterRejection).isZero();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,98 @@
+package com.alexia.telegram;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para StreamingReply.
+ * Verifica el envío inmediato del primer fragmento, la limitación de ediciones y el texto pendiente si falla.
+ */
+@ExtendWith(MockitoExtension.class)
+class StreamingReplyTest {
+
+    @Mock
+    private AbsSender sender;
+
+    @Test
+    void shouldSendFirstChunkAndThrottleEdits() throws Exception {
+        // Given
+        Message sent = new Message();
+        sent.setMessageId(99);
+        when(sender.execute(any(SendMessage.class))).thenReturn(sent);
+        AtomicLong now = new AtomicLong();
+        StreamingReply reply = new StreamingReply(sender, 5L, 1000, now::get);
+
+        // When
+        reply.accept("Ho");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        reply.accept("Hola");                 // dentro del intervalo: no se edita
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(800));
+        reply.accept("Hola, ¿qué");           // pasado el intervalo: se edita
+        reply.complete("Hola, ¿qué tal?");    // texto final: se edita siempre
+
+        // Then
+        verify(sender, times(1)).execute(any(SendMessage.class));
+        ArgumentCaptor<EditMessageText> edits = ArgumentCaptor.forClass(EditMessageText.class);
+        verify(sender, times(2)).execute(edits.capture());
+        assertThat(edits.getAllValues()).extracting(EditMessageText::getText)
+                .containsExactly("Hola, ¿qué", "Hola, ¿qué tal?");
+        assertThat(edits.getAllValues()).allSatisfy(edit -> assertThat(edit.getMessageId()).isEqualTo(99));
+        assertThat(reply.hasStarted()).isTrue();
+    }
+
+    @Test
+    void shouldReportUndeliveredTextWhenEditFails() throws Exception {
+        // Given: la edición falla, por ejemplo con un 429 de Telegram
+        Message sent = new Message();
+        sent.setMessageId(7);
+        when(sender.execute(any(SendMessage.class))).thenReturn(sent);
+        when(sender.execute(any(EditMessageText.class))).thenThrow(new TelegramApiException("Too Many Requests"));
+        StreamingReply reply = new StreamingReply(sender, 5L, 0, () -> 0L);
+
+        // When
+        reply.accept("Hola, ");
+        reply.accept("Hola, ¿qué");
+        reply.complete("Hola, ¿qué tal?");
+
+        // Then: el usuario solo ve "Hola, " y el resto queda pendiente para enviarlo en otro mensaje
+        assertThat(reply.hasFailed()).isTrue();
+        assertThat(reply.undelivered("Hola, ¿qué tal?")).isEqualTo("¿qué tal?");
+        assertThat(reply.undelivered("Otra respuesta")).isEqualTo("Otra respuesta");
+        verify(sender, times(1)).execute(any(EditMessageText.class));
+    }
+
+    @Test
+    void shouldContinueInNewMessageWhenTextExceedsTelegramLimit() throws Exception {
+        // Given
+        Message sent = new Message();
+        sent.setMessageId(1);
+        when(sender.execute(any(SendMessage.class))).thenReturn(sent);
+        StreamingReply reply = new StreamingReply(sender, 5L, 1000, () -> 0L);
+        String longText = "a".repeat(StreamingReply.TELEGRAM_MAX_MESSAGE_LENGTH) + "b".repeat(10);
+
+        // When
+        reply.accept("a");
+        reply.complete(longText);
+
+        // Then
+        ArgumentCaptor<SendMessage> messages = ArgumentCaptor.forClass(SendMessage.class);
+        verify(sender, times(2)).execute(messages.capture());
+        assertThat(messages.getAllValues().get(1).getText()).isEqualTo("b".repeat(10));
+        verify(sender).execute(any(EditMessageText.class));
+    }
+}
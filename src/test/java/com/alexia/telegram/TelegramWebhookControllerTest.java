@@ -0,0 +1,257 @@
+package com.alexia.telegram;
+
+import com.alexia.constants.BotCommands;
+import com.alexia.service.BotManagerService;
+import com.alexia.service.BusinessService;
+import com.alexia.service.GrokService;
+import com.alexia.service.OtlpTraceExporter;
+import com.alexia.service.TelegramService;
+import com.alexia.service.TelegramStatsService;
+import com.alexia.service.TelegramWriteBehindService;
+import com.alexia.service.UpdateTracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardRemove;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests para TelegramWebhookController.
+ * Reproduce actualizaciones grabadas contra el endpoint y verifica el pipeline completo
+ * hasta el envío de la respuesta, con la API de Telegram sustituida, y que una cola llena responde 503.
+ */
+@ExtendWith(MockitoExtension.class)
+class TelegramWebhookControllerTest {
+
+    private static final String SECRET = "test-secret";
+    private static final String WEBHOOK_PATH = "/telegram/webhook";
+
+    @Mock
+    private TelegramService telegramService;
+
+    @Mock
+    private TelegramStatsService telegramStatsService;
+
+    @Mock
+    private GrokService grokService;
+
+    @Mock
+    private BusinessService businessService;
+
+    @Mock
+    private BotManagerService botManagerService;
+
+    @Mock
+    private TelegramWriteBehindService telegramWriteBehindService;
+
+    private UpdateDispatcher updateDispatcher;
+    private final UpdateTracer updateTracer = new UpdateTracer(
+            new OtlpTraceExporter(false, "http://localhost:4318/v1/traces", "alexia", 5_000),
+            new SimpleMeterRegistry(), true, 0, 10);
+    private AlexiaTelegramBot bot;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        updateDispatcher = new UpdateDispatcher(4, 100, 1000, new SimpleMeterRegistry());
+        bot = spy(new AlexiaTelegramBot("123456:test-token", "AlexiaTestBot", telegramService,
+                telegramStatsService, grokService, businessService, updateDispatcher,
+                telegramWriteBehindService, updateTracer, new SimpleMeterRegistry()));
+        bot.setActive(true);
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new TelegramWebhookController(bot, botManagerService, SECRET))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        updateDispatcher.shutdown();
+    }
+
+    @Test
+    void shouldAckRecordedUpdatesAndReplyAsynchronously() throws Exception {
+        // Given
+        when(botManagerService.isWebhookActive()).thenReturn(true);
+        when(grokService.getResponseAsync(eq(222L), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("¡Hola! Puedo ayudarte a buscar negocios."));
+        doReturn(new Message()).when(bot).execute(any(SendMessage.class));
+        List<String> recordedUpdates = Files.readAllLines(
+                Path.of(getClass().getResource("/telegram/recorded-updates.jsonl").toURI()));
+
+        // When
+        for (String update : recordedUpdates) {
+            mockMvc.perform(post(WEBHOOK_PATH)
+                            .header(TelegramWebhookController.SECRET_HEADER, SECRET)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(update))
+                    .andExpect(status().isOk());
+        }
+
+        // Then
+        ArgumentCaptor<SendMessage> sent = ArgumentCaptor.forClass(SendMessage.class);
+        verify(bot, timeout(5000).times(recordedUpdates.size())).execute(sent.capture());
+        verify(telegramService, timeout(5000).times(recordedUpdates.size())).enqueueMessage(any());
+
+        List<String> repliesToAna = sent.getAllValues().stream()
+                .filter(message -> "111".equals(message.getChatId()))
+                .map(SendMessage::getText)
+                .toList();
+        assertThat(repliesToAna).containsExactly(BotCommands.START_MESSAGE, BotCommands.HELP_MESSAGE);
+
+        List<String> repliesToLuis = sent.getAllValues().stream()
+                .filter(message -> "222".equals(message.getChatId()))
+                .map(SendMessage::getText)
+                .toList();
+        assertThat(repliesToLuis).containsExactly(
+                "¡Hola! Puedo ayudarte a buscar negocios.", BotCommands.UNKNOWN_COMMAND_MESSAGE);
+    }
+
+    @Test
+    void shouldSendRestOfStreamedReplyWhenEditFails() throws Exception {
+        // Given: el primer fragmento llega al chat y la edición con el texto final falla (429)
+        when(botManagerService.isWebhookActive()).thenReturn(true);
+        when(grokService.isStreamingEnabled()).thenReturn(true);
+        when(grokService.getStreamingResponseAsync(eq(555L), eq("hola"), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(2).accept("Hola, ");
+            return CompletableFuture.completedFuture("Hola, ¿en qué te ayudo?");
+        });
+        Message first = new Message();
+        first.setMessageId(1);
+        doReturn(first).when(bot).execute(any(SendMessage.class));
+        doThrow(new TelegramApiException("Too Many Requests")).when(bot).execute(any(EditMessageText.class));
+
+        // When
+        postUpdate("{\"update_id\":900000301,\"message\":{\"message_id\":1,\"date\":1760000100,"
+                + "\"from\":{\"id\":555,\"is_bot\":false,\"first_name\":\"Sol\"},"
+                + "\"chat\":{\"id\":555,\"type\":\"private\"},\"text\":\"hola\"}}");
+
+        // Then: lo que no se pudo editar llega en un mensaje nuevo
+        ArgumentCaptor<SendMessage> sent = ArgumentCaptor.forClass(SendMessage.class);
+        verify(bot, timeout(5000).times(2)).execute(sent.capture());
+        assertThat(sent.getAllValues()).extracting(SendMessage::getText).containsExactly("Hola, ", "¿en qué te ayudo?");
+    }
+
+    @Test
+    void shouldAnswerLocationWithNearbyBusinessesOfRequestedCategory() throws Exception {
+        // Given
+        when(botManagerService.isWebhookActive()).thenReturn(true);
+        when(businessService.findNearby(4.6097, -74.0817, "panadería")).thenReturn(List.of());
+        when(businessService.formatNearbyBusinessesForTelegram(List.of(), "panadería"))
+                .thenReturn("🧭 Negocios de 'panadería' cerca de ti");
+        doReturn(new Message()).when(bot).execute(any(SendMessage.class));
+        String user = "\"from\":{\"id\":333,\"is_bot\":false,\"first_name\":\"Eva\"},"
+                + "\"chat\":{\"id\":333,\"type\":\"private\",\"first_name\":\"Eva\"},\"date\":1760000100,";
+
+        // When: /cerca con categoría y luego la ubicación compartida
+        postUpdate("{\"update_id\":900000101,\"message\":{\"message_id\":10," + user
+                + "\"text\":\"/cerca panadería\"}}");
+        postUpdate("{\"update_id\":900000102,\"message\":{\"message_id\":11," + user
+                + "\"location\":{\"latitude\":4.6097,\"longitude\":-74.0817}}}");
+
+        // Then
+        ArgumentCaptor<SendMessage> sent = ArgumentCaptor.forClass(SendMessage.class);
+        verify(bot, timeout(5000).times(2)).execute(sent.capture());
+        assertThat(sent.getAllValues().get(0).getReplyMarkup()).isInstanceOf(ReplyKeyboardMarkup.class);
+        assertThat(sent.getAllValues().get(1).getText()).isEqualTo("🧭 Negocios de 'panadería' cerca de ti");
+        assertThat(sent.getAllValues().get(1).getReplyMarkup()).isInstanceOf(ReplyKeyboardRemove.class);
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWithoutWaitingWhenDispatcherIsFull() throws Exception {
+        // Given: un dispatcher de capacidad 1 ocupado y con espera de 10 s para el long polling
+        when(botManagerService.isWebhookActive()).thenReturn(true);
+        UpdateDispatcher saturated = new UpdateDispatcher(1, 1, 10_000, new SimpleMeterRegistry());
+        CompletableFuture<Void> blocked = new CompletableFuture<>();
+        saturated.dispatchAsync(1L, () -> blocked);
+        AlexiaTelegramBot saturatedBot = new AlexiaTelegramBot("123456:test-token", "AlexiaTestBot", telegramService,
+                telegramStatsService, grokService, businessService, saturated,
+                telegramWriteBehindService, updateTracer, new SimpleMeterRegistry());
+        saturatedBot.setActive(true);
+        MockMvc saturatedMvc = MockMvcBuilders
+                .standaloneSetup(new TelegramWebhookController(saturatedBot, botManagerService, SECRET))
+                .build();
+
+        // When
+        long start = System.nanoTime();
+        saturatedMvc.perform(post(WEBHOOK_PATH)
+                        .header(TelegramWebhookController.SECRET_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"update_id\":900000201,\"message\":{\"message_id\":1,\"date\":1760000100,"
+                                + "\"chat\":{\"id\":444,\"type\":\"private\"},\"text\":\"hola\"}}"))
+                .andExpect(status().isServiceUnavailable());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then: se rechaza sin esperar offer-timeout-ms, así Telegram reenvía la actualización
+        assertThat(elapsedMs).isLessThan(5_000);
+        assertThat(saturated.getRejectedCount()).isEqualTo(1);
+        verifyNoInteractions(grokService);
+        blocked.complete(null);
+        saturated.shutdown();
+    }
+
+    @Test
+    void shouldRejectUpdateWithInvalidSecret() throws Exception {
+        // Given
+        when(botManagerService.isWebhookActive()).thenReturn(true);
+
+        // When / Then
+        mockMvc.perform(post(WEBHOOK_PATH)
+                        .header(TelegramWebhookController.SECRET_HEADER, "wrong-secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"update_id\":1}"))
+                .andExpect(status().isUnauthorized());
+
+        verify(bot, never()).receiveWebhookUpdate(any(Update.class));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenWebhookModeIsInactive() throws Exception {
+        // Given
+        when(botManagerService.isWebhookActive()).thenReturn(false);
+
+        // When / Then
+        mockMvc.perform(post(WEBHOOK_PATH)
+                        .header(TelegramWebhookController.SECRET_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"update_id\":1}"))
+                .andExpect(status().isNotFound());
+
+        verify(bot, never()).receiveWebhookUpdate(any(Update.class));
+    }
+
+    private void postUpdate(String update) throws Exception {
+        mockMvc.perform(post(WEBHOOK_PATH)
+                        .header(TelegramWebhookController.SECRET_HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(update))
+                .andExpect(status().isOk());
+    }
+}
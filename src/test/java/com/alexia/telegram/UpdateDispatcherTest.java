@@ -0,0 +1,133 @@
+package com.alexia.telegram;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests para UpdateDispatcher.
+ * Verifica orden por chat, rechazo al llenarse la cola, métricas de profundidad y espera,
+ * y que al detenerse espera a los turnos asíncronos en vuelo.
+ */
+class UpdateDispatcherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UpdateDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new UpdateDispatcher(4, 2, 50, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void shouldProcessEachChatInOrder() throws Exception {
+        // Given
+        UpdateDispatcher wide = new UpdateDispatcher(4, 1_000, 1_000, new SimpleMeterRegistry());
+        Map<Long, List<Integer>> received = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(4 * 50);
+
+        // When: los turnos de cuatro chats se intercalan
+        for (int turn = 0; turn < 50; turn++) {
+            for (long chatId = 1; chatId <= 4; chatId++) {
+                int value = turn;
+                long chat = chatId;
+                wide.dispatch(chat, () -> {
+                    received.computeIfAbsent(chat, key -> new ArrayList<>()).add(value);
+                    done.countDown();
+                });
+            }
+        }
+
+        // Then
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        List<Integer> expected = IntStream.range(0, 50).boxed().toList();
+        assertThat(received).hasSize(4).allSatisfy((chat, values) -> assertThat(values).isEqualTo(expected));
+        wide.shutdown();
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFullAndReportDepthAndWait() throws Exception {
+        // Given: dos turnos bloqueados ocupan toda la capacidad
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        for (long chatId = 1; chatId <= 2; chatId++) {
+            dispatcher.dispatch(chatId, () -> {
+                started.countDown();
+                await(release);
+            });
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        boolean accepted = dispatcher.dispatch(3L, () -> { });
+
+        // Then
+        assertThat(accepted).isFalse();
+        assertThat(dispatcher.getRejectedCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("telegram.dispatcher.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("telegram.dispatcher.queue.depth").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("telegram.dispatcher.active").gauge().value()).isEqualTo(2);
+
+        release.countDown();
+        waitUntil(() -> dispatcher.getQueueDepth() == 0);
+        assertThat(meterRegistry.get("telegram.dispatcher.wait").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("telegram.dispatcher.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldDrainAsyncTurnsBeforeStoppingWorkers() throws Exception {
+        // Given: un turno asíncrono cuya respuesta llega por otro hilo y continúa en los workers
+        CompletableFuture<String> llmResponse = new CompletableFuture<>();
+        AtomicBoolean replied = new AtomicBoolean();
+        dispatcher.dispatchAsync(1L, () -> llmResponse
+                .thenAcceptAsync(response -> replied.set(true), dispatcher.getWorkerExecutor()));
+
+        // When: la respuesta llega mientras la aplicación se detiene
+        Thread stopping = new Thread(dispatcher::shutdown);
+        stopping.start();
+        Thread.sleep(100);
+        llmResponse.complete("respuesta");
+        stopping.join(5_000);
+
+        // Then
+        assertThat(stopping.isAlive()).isFalse();
+        assertThat(replied).isTrue();
+        assertThat(dispatcher.dispatch(2L, () -> { })).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}